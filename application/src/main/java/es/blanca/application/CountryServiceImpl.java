@@ -7,6 +7,7 @@ import es.blanca.domain.port.CountryService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import static es.blanca.application.config.ApplicationConstants.*;
 
@@ -16,6 +17,7 @@ import java.util.Optional;
 @Slf4j
 @Service
 @RequiredArgsConstructor
+@Transactional(readOnly = true)
 
 public class CountryServiceImpl implements CountryService {
 	private final CountryRepository countryRepository;
@@ -33,12 +35,14 @@ public class CountryServiceImpl implements CountryService {
 	}
 
 	@Override
+	@Transactional
 	public Country create(Country country) {
 		log.info("Creating country {}", country);
 		return countryRepository.save(country);
 	}
 
 	@Override
+	@Transactional
 	public void update(String code, Country country) {
 		log.info("Trying to update country {}", country);
 		Country existingCountry = countryRepository.findById(code).orElseThrow(() -> new EntityNotFoundException(String.format(COUNTRY_NOT_FOUND_BY_CODE, code)));
@@ -53,6 +57,7 @@ public class CountryServiceImpl implements CountryService {
 	}
 
 	@Override
+	@Transactional
 	public void delete(String code) {
 		log.info("Trying to delete country {}", code);
 		if(!countryRepository.existsById(code)) {
@@ -1,29 +1,49 @@
 package es.blanca.application;
 
+import es.blanca.application.outbox.ChangeEvents;
+import es.blanca.domain.event.OrderDeleted;
+import es.blanca.domain.event.OrderPlaced;
+import es.blanca.domain.event.OrderStatusChanged;
 import es.blanca.domain.exceptions.EntityNotFoundException;
+import es.blanca.domain.exceptions.OutOfStockException;
+import es.blanca.domain.exceptions.VersionConflictException;
+import es.blanca.domain.model.ChangeEventType;
+import es.blanca.domain.model.Fieldset;
 import es.blanca.domain.model.Order;
+import es.blanca.domain.model.OrderProduct;
 import es.blanca.domain.model.OrderStatus;
 import es.blanca.domain.model.User;
+import es.blanca.domain.port.DomainEventPublisher;
+import es.blanca.domain.port.InventoryRepository;
 import es.blanca.domain.port.OrderRepository;
 import es.blanca.domain.port.OrderService;
+import es.blanca.domain.port.OutboxRepository;
 import es.blanca.domain.port.UserRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
+import java.util.Comparator;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.TreeMap;
 
 import static es.blanca.application.config.ApplicationConstants.*;
 
 @Slf4j
 @Service
 @RequiredArgsConstructor
+@Transactional(readOnly = true)
 public class OrderServiceImpl implements OrderService {
 
 	private final OrderRepository orderRepository;
 	private final UserRepository userRepository;
+	private final InventoryRepository inventoryRepository;
+	private final OutboxRepository outboxRepository;
+	private final DomainEventPublisher eventPublisher;
 
 	@Override
 	public List<Order> findByUserId(Long userId) {
@@ -34,12 +54,66 @@ public class OrderServiceImpl implements OrderService {
 		return orderRepository.findByUserId(userId);
 	}
 
+	@Override
+	public List<Order> findByUserId(Long userId, int page, int size) {
+		log.info("Trying to find page {} of the orders of user {}", page, userId);
+		if(!userRepository.existsById(userId)){
+			throw new EntityNotFoundException(String.format(USER_NOT_FOUND_BY_ID, userId));
+		}
+		return orderRepository.findByUserId(userId, page, size);
+	}
+
+	@Override
+	public List<Order> findCreatedBetween(LocalDateTime from, LocalDateTime to) {
+		log.info("Fetching orders created between {} and {}", from, to);
+		return orderRepository.findCreatedBetween(from, to);
+	}
+
+	@Override
+	public List<Order> findByUserIdCreatedBetween(Long userId, LocalDateTime from, LocalDateTime to) {
+		log.info("Trying to find orders of user {} created between {} and {}", userId, from, to);
+		if(!userRepository.existsById(userId)){
+			throw new EntityNotFoundException(String.format(USER_NOT_FOUND_BY_ID, userId));
+		}
+		return orderRepository.findByUserIdCreatedBetween(userId, from, to);
+	}
+
 	@Override
 	public List<Order> findAll() {
 		log.info("Fetching all orders");
 		return orderRepository.findAll();
 	}
 
+	@Override
+	public List<Order> findAll(Fieldset fields) {
+		log.info("Fetching all orders, fields {}", fields);
+		return orderRepository.findAll(fields);
+	}
+
+	@Override
+	public List<Order> findByUserId(Long userId, Fieldset fields) {
+		log.info("Trying to find orders by user id {}, fields {}", userId, fields);
+		if(!userRepository.existsById(userId)){
+			throw new EntityNotFoundException(String.format(USER_NOT_FOUND_BY_ID, userId));
+		}
+		return orderRepository.findByUserId(userId, fields);
+	}
+
+	@Override
+	public List<Order> findCreatedBetween(LocalDateTime from, LocalDateTime to, Fieldset fields) {
+		log.info("Fetching orders created between {} and {}, fields {}", from, to, fields);
+		return orderRepository.findCreatedBetween(from, to, fields);
+	}
+
+	@Override
+	public List<Order> findByUserIdCreatedBetween(Long userId, LocalDateTime from, LocalDateTime to, Fieldset fields) {
+		log.info("Trying to find orders of user {} created between {} and {}, fields {}", userId, from, to, fields);
+		if(!userRepository.existsById(userId)){
+			throw new EntityNotFoundException(String.format(USER_NOT_FOUND_BY_ID, userId));
+		}
+		return orderRepository.findByUserIdCreatedBetween(userId, from, to, fields);
+	}
+
 	@Override
 	public Optional<Order> findById(Long orderId) {
 		log.info("Trying to find order by id {}", orderId);
@@ -48,23 +122,37 @@ public class OrderServiceImpl implements OrderService {
 	}
 
 	@Override
+	@Transactional
 	public Order create(Order order) {
 		log.info("Trying to create order with id {}", order.getId() );
 		Long userId = order.getUser().getId();
-		User user = userRepository.findById(userId).orElseThrow(() -> new EntityNotFoundException(String.format(USER_NOT_FOUND_BY_ID, userId)));
+		// the order only stores the user's id, so checking it exists is enough
+		if (!userRepository.existsById(userId)) {
+			throw new EntityNotFoundException(String.format(USER_NOT_FOUND_BY_ID, userId));
+		}
 
-		order.setUser(user);
+		// a failed reservation rolls back the ones before it together with the transaction
+		reserveStock(order);
 		order.setCreatedAt(LocalDateTime.now());
 
 		// initial status -> pending
 		order.setStatus(OrderStatus.PENDING);
-		return orderRepository.save(order);
+		Order created = orderRepository.save(order);
+		outboxRepository.append(ChangeEvents.order(ChangeEventType.ORDER_CREATED, created));
+		eventPublisher.publish(new OrderPlaced(created.getId(), userId, created.getCreatedAt()));
+		return created;
 	}
 
 	@Override
+	@Transactional
 	public void update(Long orderId, Order order) {
 		log.info("Trying to update order with id {}", orderId);
 		Order existingOrder = orderRepository.findById(orderId).orElseThrow(() -> new EntityNotFoundException(String.format(ORDER_NOT_FOUND_BY_ID, orderId)));
+		if (order.getVersion() != null && !order.getVersion().equals(existingOrder.getVersion())) {
+			throw new VersionConflictException(String.format(VERSION_CONFLICT, "Order", orderId, existingOrder.getVersion(), order.getVersion()));
+		}
+		OrderStatus previousStatus = existingOrder.getStatus();
+		List<OrderProduct> previousLines = existingOrder.getOrderProducts();
 		if(order.getStatus() != null){
 			existingOrder.setStatus(order.getStatus());
 		}
@@ -75,16 +163,67 @@ public class OrderServiceImpl implements OrderService {
 		if(order.getOrderProducts() != null){
 			existingOrder.setOrderProducts(order.getOrderProducts());
 		}
-		orderRepository.save(existingOrder);
+		// cancelled orders hold no stock
+		adjustStock(previousStatus == OrderStatus.CANCELLED ? null : previousLines,
+				existingOrder.getStatus() == OrderStatus.CANCELLED ? null : existingOrder.getOrderProducts());
+		Order updated = orderRepository.save(existingOrder);
+		outboxRepository.append(ChangeEvents.order(ChangeEventType.ORDER_UPDATED, updated));
+		if (updated.getStatus() != previousStatus) {
+			eventPublisher.publish(new OrderStatusChanged(orderId, previousStatus, updated.getStatus()));
+		}
 		log.info("Order with id {} updated successfully", orderId);
 	}
 
 	@Override
+	@Transactional
 	public void delete(Long orderId) {
 		log.info("Trying to delete order with id {}", orderId);
-		if(!orderRepository.existsById(orderId)){
-			throw new EntityNotFoundException(String.format(ORDER_NOT_FOUND_BY_ID, orderId));
+		Order existingOrder = orderRepository.findById(orderId).orElseThrow(() -> new EntityNotFoundException(String.format(ORDER_NOT_FOUND_BY_ID, orderId)));
+		// a live order gives its units back, a cancelled one already did
+		if (existingOrder.getStatus() != OrderStatus.CANCELLED) {
+			adjustStock(existingOrder.getOrderProducts(), null);
 		}
 		orderRepository.deleteById(orderId);
+		outboxRepository.append(ChangeEvents.deleted(ChangeEventType.ORDER_DELETED, orderId));
+		eventPublisher.publish(new OrderDeleted(orderId));
+	}
+
+	/**
+	 * Reserves every line of the order. Lines are taken in product id order so two orders
+	 * sharing products always lock their rows in the same order and cannot deadlock.
+	 */
+	private void reserveStock(Order order) {
+		if (order.getOrderProducts() == null) {
+			return;
+		}
+		order.getOrderProducts().stream()
+				.sorted(Comparator.comparing((OrderProduct line) -> line.getProduct().getId()))
+				.forEach(line -> {
+					Long productId = line.getProduct().getId();
+					if (!inventoryRepository.reserve(productId, line.getAmount())) {
+						throw new OutOfStockException(String.format(PRODUCT_OUT_OF_STOCK, productId, line.getAmount()));
+					}
+				});
+	}
+
+	/**
+	 * Reserves what the new lines hold beyond the previous ones and releases what they no
+	 * longer hold, product by product in id order like {@link #reserveStock(Order)}.
+	 */
+	private void adjustStock(List<OrderProduct> previousLines, List<OrderProduct> newLines) {
+		Map<Long, Integer> difference = new TreeMap<>();
+		if (newLines != null) {
+			newLines.forEach(line -> difference.merge(line.getProduct().getId(), line.getAmount(), Integer::sum));
+		}
+		if (previousLines != null) {
+			previousLines.forEach(line -> difference.merge(line.getProduct().getId(), -line.getAmount(), Integer::sum));
+		}
+		difference.forEach((productId, amount) -> {
+			if (amount > 0 && !inventoryRepository.reserve(productId, amount)) {
+				throw new OutOfStockException(String.format(PRODUCT_OUT_OF_STOCK, productId, amount));
+			} else if (amount < 0) {
+				inventoryRepository.release(productId, -amount);
+			}
+		});
 	}
 }
@@ -1,13 +1,23 @@
 package es.blanca.application;
 
+import es.blanca.application.outbox.ChangeEvents;
+import es.blanca.domain.event.ProductUpdated;
 import es.blanca.domain.exceptions.EntityNotFoundException;
+import es.blanca.domain.exceptions.VersionConflictException;
+import es.blanca.domain.model.ChangeEventType;
+import es.blanca.domain.model.Fieldset;
+import es.blanca.domain.model.Money;
 import es.blanca.domain.model.Product;
 import es.blanca.domain.model.ProductStatus;
+import es.blanca.domain.port.DomainEventPublisher;
+import es.blanca.domain.port.InventoryRepository;
+import es.blanca.domain.port.OutboxRepository;
 import es.blanca.domain.port.ProductRepository;
 import es.blanca.domain.port.ProductService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
 import java.util.HashMap;
@@ -20,21 +30,28 @@ import static es.blanca.application.config.ApplicationConstants.*;
 @Slf4j
 @Service
 @RequiredArgsConstructor
+@Transactional(readOnly = true)
 
 public class ProductServiceImpl implements ProductService {
 	private final ProductRepository productRepository;
+	private final InventoryRepository inventoryRepository;
+	private final OutboxRepository outboxRepository;
+	private final DomainEventPublisher eventPublisher;
 	@Override
-	public List<Product> findWithFilters(String name, Double minPrice, Double maxPrice, ProductStatus status) {
+	public List<Product> findWithFilters(String name, Money minPrice, Money maxPrice, ProductStatus status) {
 		log.info("Searching for products with filters - Name: [{}], MinPrice: [{}], MaxPrice: [{}], Status: [{}]", name, minPrice, maxPrice, status);
-		Map<String, Object> filters = new HashMap<>();
+		return productRepository.findWithFilters(filters(name, minPrice, maxPrice, status));
+	}
 
-		// not null filters
-		if (name != null && !name.isEmpty()) filters.put("name", name);
-		if (minPrice != null) filters.put("minPrice", minPrice);
-		if (maxPrice != null) filters.put("maxPrice", maxPrice);
-		if (status != null) filters.put("status", status);
+	@Override
+	public List<Product> findWithFilters(String name, Money minPrice, Money maxPrice, ProductStatus status, Fieldset fields) {
+		log.info("Searching for products with filters - Name: [{}], MinPrice: [{}], MaxPrice: [{}], Status: [{}], fields {}", name, minPrice, maxPrice, status, fields);
+		return productRepository.findWithFilters(filters(name, minPrice, maxPrice, status), fields);
+	}
 
-		return productRepository.findWithFilters(filters);
+	@Override
+	public long findRevision(String name, Money minPrice, Money maxPrice, ProductStatus status) {
+		return productRepository.findRevision(filters(name, minPrice, maxPrice, status));
 	}
 
 	@Override
@@ -51,16 +68,25 @@ public class ProductServiceImpl implements ProductService {
 	}
 
 	@Override
+	@Transactional
 	public Product create(Product product) {
 		log.info("Trying to create product with name: {}", product.getName());
 		product.setCreatedAt(LocalDateTime.now());
-		return productRepository.save(product);
+		Product created = productRepository.save(product);
+		outboxRepository.append(ChangeEvents.product(ChangeEventType.PRODUCT_CREATED, created));
+		return created;
 	}
 
 	@Override
+	@Transactional
 	public void update(Long productId, Product product) {
 		log.info("Attempting to update product: {}", productId);
 		Product existingProduct = findById(productId).orElseThrow(() -> new EntityNotFoundException(String.format(PRODUCT_NOT_FOUND_BY_ID, productId)));
+		// the caller's version (If-Match) must still be current, the save then only succeeds
+		// if nobody commits a change in between
+		if (product.getVersion() != null && !product.getVersion().equals(existingProduct.getVersion())) {
+			throw new VersionConflictException(String.format(VERSION_CONFLICT, "Product", productId, existingProduct.getVersion(), product.getVersion()));
+		}
 
 		if(product.getName()!=null){
 			existingProduct.setName(product.getName());
@@ -71,16 +97,36 @@ public class ProductServiceImpl implements ProductService {
 		if(product.getStatus()!=null){
 			existingProduct.setStatus(product.getStatus());
 		}
-		productRepository.save(existingProduct);
+		Product updated = productRepository.save(existingProduct);
+		// stock is never written with the product, only through the inventory's own updates
+		if(product.getStock()!=null){
+			inventoryRepository.setStock(productId, product.getStock());
+			updated.setStock(product.getStock());
+		}
+		outboxRepository.append(ChangeEvents.product(ChangeEventType.PRODUCT_UPDATED, updated));
+		eventPublisher.publish(new ProductUpdated(productId, updated.getVersion()));
 		log.info("Product with id: {} updated", productId);
 	}
 
 	@Override
+	@Transactional
 	public void delete(Long productId) {
 		log.info("Attempting to delete product: {}", productId);
 		if(!productRepository.existsById(productId)) {
 			throw new EntityNotFoundException(String.format(PRODUCT_NOT_FOUND_BY_ID, productId));
 		}
 		productRepository.deleteById(productId);
+		outboxRepository.append(ChangeEvents.deleted(ChangeEventType.PRODUCT_DELETED, productId));
+	}
+
+	private static Map<String, Object> filters(String name, Money minPrice, Money maxPrice, ProductStatus status) {
+		Map<String, Object> filters = new HashMap<>();
+
+		// not null filters
+		if (name != null && !name.isEmpty()) filters.put("name", name);
+		if (minPrice != null) filters.put("minPrice", minPrice);
+		if (maxPrice != null) filters.put("maxPrice", maxPrice);
+		if (status != null) filters.put("status", status);
+		return filters;
 	}
 }
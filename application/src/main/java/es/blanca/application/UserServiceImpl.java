@@ -2,8 +2,10 @@ package es.blanca.application;
 
 import es.blanca.domain.exceptions.EmailAlreadyExistsException;
 import es.blanca.domain.exceptions.EntityNotFoundException;
+import es.blanca.domain.exceptions.VersionConflictException;
 
 import es.blanca.domain.model.Country;
+import es.blanca.domain.model.Fieldset;
 import es.blanca.domain.model.User;
 import es.blanca.domain.port.CountryRepository;
 import es.blanca.domain.port.UserRepository;
@@ -11,6 +13,7 @@ import es.blanca.domain.port.UserService;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import static es.blanca.application.config.ApplicationConstants.*;
 
@@ -20,6 +23,7 @@ import java.util.Optional;
 
 @Slf4j
 @Service
+@Transactional(readOnly = true)
 public class UserServiceImpl implements UserService {
 
 	private final UserRepository userRepository;
@@ -33,6 +37,7 @@ public class UserServiceImpl implements UserService {
 	}
 
 	@Override
+	@Transactional
 	public Optional<User> assignCountry(Long userId, String countryCode) {
 		// find user
 		log.info("Assigning country {} to user {}", countryCode, userId);
@@ -45,10 +50,37 @@ public class UserServiceImpl implements UserService {
 		return Optional.of(userRepository.save(user));
 	}
 
+	@Override
+	public List<User> findByCountryCode(String countryCode, int page, int size) {
+		log.info("Finding page {} of the users of country {}", page, countryCode);
+		if(!countryRepository.existsById(countryCode)) {
+			throw new EntityNotFoundException(String.format(COUNTRY_NOT_FOUND_BY_CODE, countryCode));
+		}
+		return userRepository.findByCountryCode(countryCode, page, size);
+	}
+
+	@Override
+	public Optional<User> findActiveByEmail(String email) {
+		log.debug("Finding active user {}", email);
+		return userRepository.findActiveByEmail(email);
+	}
+
 	@Override
 	public List<User> findAll() {
-		log.info("Finding all users");
-		return userRepository.findAll();
+		log.info("Finding all active users");
+		return userRepository.findAllActive();
+	}
+
+	@Override
+	public List<User> findAll(int page, int size) {
+		log.info("Finding page {} of the active users", page);
+		return userRepository.findAllActive(page, size);
+	}
+
+	@Override
+	public List<User> findAll(Fieldset fields, int page, int size) {
+		log.info("Finding page {} of the active users, fields {}", page, fields);
+		return userRepository.findAllActive(fields, page, size);
 	}
 
 	@Override
@@ -59,6 +91,7 @@ public class UserServiceImpl implements UserService {
 	}
 
 	@Override
+	@Transactional
 	public User create(User user) {
 		log.info("Trying to create user with email {}", user.getEmail());
 		if (userRepository.existsByEmail(user.getEmail())) {
@@ -73,12 +106,16 @@ public class UserServiceImpl implements UserService {
 	}
 
 	@Override
+	@Transactional
 	public void update(Long userId, User userWithNewData) {
 		log.info("Trying to update user with id {}", userId);
 
 		// 1. Carga el usuario existente de la base de datos.
 		User existingUser = userRepository.findById(userId)
 				.orElseThrow(() -> new EntityNotFoundException(String.format(USER_NOT_FOUND_BY_ID, userId)));
+		if (userWithNewData.getVersion() != null && !userWithNewData.getVersion().equals(existingUser.getVersion())) {
+			throw new VersionConflictException(String.format(VERSION_CONFLICT, "User", userId, existingUser.getVersion(), userWithNewData.getVersion()));
+		}
 
 		// 2. Actualiza solo los campos que vienen en el DTO (userWithNewData).
 		//    NO toques la lista de pedidos.
@@ -104,6 +141,7 @@ public class UserServiceImpl implements UserService {
 	}
 
 	@Override
+	@Transactional
 	public void delete(Long userId) {
 		log.info("Trying to soft-delete user with id {}", userId);
 		User userToDelete = userRepository.findById(userId)
@@ -10,6 +10,12 @@ public class ApplicationConstants {
 	public static final String FULLNAME_CANNOT_BE_EMPTY = "Fullname cannot be empty";
 	public static final String ORDER_NOT_FOUND_BY_ID = "Order with id %s not found";
 	public static final String PRODUCT_NOT_FOUND_BY_ID = "Product with id: %s not found";
+	public static final String PRODUCT_OUT_OF_STOCK = "Product with id: %s does not have %s units in stock";
+	public static final String VERSION_CONFLICT = "%s with id %s is at version %s, the update was based on version %s";
+	public static final String PLACEMENT_QUEUE_FULL = "%s orders are already waiting to be placed, retry later";
+	public static final String PLACEMENT_NOT_RUNNING = "Asynchronous order placement is not running";
+	public static final String IDEMPOTENT_REQUEST_IN_PROGRESS = "A request with this Idempotency-Key is still being processed, retry later";
+	public static final String IDEMPOTENCY_KEY_REUSED = "This Idempotency-Key was already used for a different request";
 
 
 }
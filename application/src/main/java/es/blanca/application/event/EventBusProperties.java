@@ -0,0 +1,33 @@
+package es.blanca.application.event;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+@Getter
+@Setter
+@Component
+@ConfigurationProperties(prefix = "events.bus")
+public class EventBusProperties {
+
+	// slots of the ring buffer, rounded up to a power of two
+	private int bufferSize = 4096;
+	// what a publisher does while the ring is full
+	private Overflow overflow = Overflow.DROP;
+	// how consumers wait for new events
+	private WaitStrategy.Kind waitStrategy = WaitStrategy.Kind.BLOCKING;
+	// most events handed to a consumer in one call
+	private int maxBatchSize = 256;
+	// time the consumers get on shutdown to catch up
+	private Duration shutdownTimeout = Duration.ofSeconds(10);
+
+	public enum Overflow {
+		// the event is lost and counted, the publishing request goes on
+		DROP,
+		// the publisher waits for the slowest consumer
+		BLOCK
+	}
+}
@@ -0,0 +1,136 @@
+package es.blanca.application.event;
+
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * A fixed ring of slots shared by any number of publishers and a fixed set of
+ * consumers, without locks on the publishing path.
+ * <p>
+ * A publisher claims the next sequence with a CAS on the cursor, writes the slot and
+ * then marks it available for that lap of the ring. Every consumer reads at its own
+ * sequence, so a slot is only reused once the slowest consumer has gone past it. While
+ * the ring is full {@link #publish} waits and {@link #tryPublish} gives up. Sequences are claimed in order but may become
+ * available out of order, consumers read up to the first slot not yet marked.
+ */
+public final class RingBuffer<E> {
+
+	private final int mask;
+	private final int indexShift;
+	private final Object[] entries;
+	// the lap each slot was last published in
+	private final AtomicIntegerArray available;
+	private final AtomicLong cursor = new AtomicLong(-1);
+	private final AtomicLong[] consumerSequences;
+	private final WaitStrategy waitStrategy;
+	// lowest consumer sequence last seen by a publisher, saves reading them on every claim
+	private volatile long cachedConsumerSequence = -1;
+
+	public RingBuffer(int requestedSize, int consumers, WaitStrategy waitStrategy) {
+		int size = requestedSize <= 2 ? 2 : Integer.highestOneBit(requestedSize - 1) << 1;
+		this.mask = size - 1;
+		this.indexShift = Integer.numberOfTrailingZeros(size);
+		this.entries = new Object[size];
+		this.available = new AtomicIntegerArray(size);
+		for (int i = 0; i < size; i++) {
+			available.set(i, -1);
+		}
+		this.consumerSequences = new AtomicLong[consumers];
+		for (int i = 0; i < consumers; i++) {
+			consumerSequences[i] = new AtomicLong(-1);
+		}
+		this.waitStrategy = waitStrategy;
+	}
+
+	public int size() {
+		return entries.length;
+	}
+
+	// waits while the ring is full
+	public void publish(E entry) {
+		write(claim(true), entry);
+	}
+
+	// false, without waiting, when the ring is full
+	public boolean tryPublish(E entry) {
+		long sequence = claim(false);
+		if (sequence < 0) {
+			return false;
+		}
+		write(sequence, entry);
+		return true;
+	}
+
+	private void write(long sequence, E entry) {
+		int index = (int) sequence & mask;
+		entries[index] = entry;
+		// the release store makes the entry visible to whoever sees the slot available
+		available.lazySet(index, (int) (sequence >>> indexShift));
+		waitStrategy.signalAll();
+	}
+
+	// -1 when the ring is full and the caller does not wait
+	private long claim(boolean wait) {
+		while (true) {
+			long current = cursor.get();
+			long next = current + 1;
+			long wrapPoint = next - entries.length;
+			if (wrapPoint > cachedConsumerSequence) {
+				long slowest = slowestConsumer(current);
+				if (wrapPoint > slowest) {
+					if (!wait) {
+						return -1;
+					}
+					// full: wait for the slowest consumer to free a slot
+					LockSupport.parkNanos(1);
+					continue;
+				}
+				cachedConsumerSequence = slowest;
+			} else if (cursor.compareAndSet(current, next)) {
+				return next;
+			}
+		}
+	}
+
+	private long slowestConsumer(long cursor) {
+		long slowest = cursor;
+		for (AtomicLong sequence : consumerSequences) {
+			slowest = Math.min(slowest, sequence.get());
+		}
+		return slowest;
+	}
+
+	// the highest sequence claimed so far, not necessarily published yet
+	public long cursor() {
+		return cursor.get();
+	}
+
+	public boolean isAvailable(long sequence) {
+		return available.get((int) sequence & mask) == (int) (sequence >>> indexShift);
+	}
+
+	// the last sequence from..upTo that can be read without a gap
+	public long highestAvailable(long from, long upTo) {
+		for (long sequence = from; sequence <= upTo; sequence++) {
+			if (!isAvailable(sequence)) {
+				return sequence - 1;
+			}
+		}
+		return upTo;
+	}
+
+	@SuppressWarnings("unchecked")
+	public E get(long sequence) {
+		return (E) entries[(int) sequence & mask];
+	}
+
+	// the last sequence the consumer has finished with
+	public AtomicLong consumerSequence(int consumer) {
+		return consumerSequences[consumer];
+	}
+
+	public WaitStrategy waitStrategy() {
+		return waitStrategy;
+	}
+}
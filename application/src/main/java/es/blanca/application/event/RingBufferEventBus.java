@@ -0,0 +1,155 @@
+package es.blanca.application.event;
+
+import es.blanca.domain.event.DomainEvent;
+import es.blanca.domain.port.DomainEventConsumer;
+import es.blanca.domain.port.DomainEventPublisher;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Hands the domain events of the services to every {@link DomainEventConsumer} bean
+ * through a {@link RingBuffer}, so side effects run on the consumers' threads instead
+ * of the request's. Each consumer has its own thread and gets everything published
+ * since its last call in one batch (up to max-batch-size).
+ * <p>
+ * Events published inside a transaction go to the ring when it commits and are dropped
+ * if it rolls back. A consumer that throws loses that batch, the next one still comes.
+ * <p>
+ * Publishing runs on the request thread after its commit, so by default it never waits:
+ * while a slow consumer keeps the ring full new events are dropped and counted
+ * ({@link #getDropped()}). With events.bus.overflow=BLOCK publishers wait instead. Work
+ * that must not be lost does not belong on this bus.
+ */
+@Slf4j
+@Service
+public class RingBufferEventBus implements DomainEventPublisher, SmartLifecycle {
+
+	private final List<DomainEventConsumer> consumers;
+	private final EventBusProperties properties;
+	private final RingBuffer<DomainEvent> ringBuffer;
+	private final List<Thread> threads = new ArrayList<>();
+	private final AtomicLong dropped = new AtomicLong();
+	private volatile boolean running;
+
+	public RingBufferEventBus(List<DomainEventConsumer> consumers, EventBusProperties properties) {
+		this.consumers = List.copyOf(consumers);
+		this.properties = properties;
+		this.ringBuffer = new RingBuffer<>(properties.getBufferSize(), this.consumers.size(),
+				properties.getWaitStrategy().create());
+	}
+
+	@Override
+	public void publish(DomainEvent event) {
+		if (consumers.isEmpty()) {
+			return;
+		}
+		if (TransactionSynchronizationManager.isSynchronizationActive()) {
+			TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+				@Override
+				public void afterCommit() {
+					enqueue(event);
+				}
+			});
+		} else {
+			enqueue(event);
+		}
+	}
+
+	private void enqueue(DomainEvent event) {
+		if (!running) {
+			log.debug("Event bus not running, dropping {}", event);
+			return;
+		}
+		if (properties.getOverflow() == EventBusProperties.Overflow.BLOCK) {
+			ringBuffer.publish(event);
+		} else if (!ringBuffer.tryPublish(event)) {
+			long total = dropped.incrementAndGet();
+			// one warning per power of two, a stalled consumer would flood the log otherwise
+			if (Long.bitCount(total) == 1) {
+				log.warn("Event ring full, {} events dropped so far, latest {}", total, event);
+			}
+		}
+	}
+
+	// events lost because the ring was full
+	public long getDropped() {
+		return dropped.get();
+	}
+
+	@Override
+	public synchronized void start() {
+		running = true;
+		for (int i = 0; i < consumers.size(); i++) {
+			DomainEventConsumer consumer = consumers.get(i);
+			AtomicLong sequence = ringBuffer.consumerSequence(i);
+			Thread thread = new Thread(() -> consume(consumer, sequence),
+					"domain-events-" + consumer.getClass().getSimpleName());
+			thread.setDaemon(true);
+			thread.start();
+			threads.add(thread);
+		}
+	}
+
+	@Override
+	public synchronized void stop() {
+		// consumers handle what is already in the ring before they exit
+		running = false;
+		ringBuffer.waitStrategy().signalAll();
+		long deadline = System.nanoTime() + properties.getShutdownTimeout().toNanos();
+		for (Thread thread : threads) {
+			try {
+				thread.join(Math.max(1, (deadline - System.nanoTime()) / 1_000_000));
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+			if (thread.isAlive()) {
+				log.warn("{} had not caught up with the domain events at shutdown", thread.getName());
+				thread.interrupt();
+			}
+		}
+		threads.clear();
+	}
+
+	@Override
+	public boolean isRunning() {
+		return running;
+	}
+
+	private void consume(DomainEventConsumer consumer, AtomicLong sequence) {
+		List<DomainEvent> batch = new ArrayList<>(properties.getMaxBatchSize());
+		long next = sequence.get() + 1;
+		while (true) {
+			long claimed = ringBuffer.waitStrategy().waitFor(next, ringBuffer, () -> running);
+			if (claimed < next) {
+				if (!running) {
+					return;
+				}
+				continue;
+			}
+			// a publisher may still be writing a claimed slot, read up to the first gap
+			long last = Math.min(ringBuffer.highestAvailable(next, claimed), next + properties.getMaxBatchSize() - 1);
+			if (last < next) {
+				Thread.onSpinWait();
+				continue;
+			}
+			batch.clear();
+			for (long current = next; current <= last; current++) {
+				batch.add(ringBuffer.get(current));
+			}
+			try {
+				consumer.onEvents(batch);
+			} catch (RuntimeException e) {
+				log.error("Domain event consumer {} failed on a batch of {} events", consumer.getClass().getSimpleName(), batch.size(), e);
+			}
+			sequence.set(last);
+			next = last + 1;
+		}
+	}
+}
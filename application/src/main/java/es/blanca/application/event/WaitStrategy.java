@@ -0,0 +1,150 @@
+package es.blanca.application.event;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.BooleanSupplier;
+
+/**
+ * How a consumer waits for the ring buffer to reach a sequence. The strategies trade
+ * latency for CPU: BUSY_SPIN keeps a core busy per consumer and reacts fastest, BLOCKING
+ * costs nothing while idle but every publish has to wake the waiting consumers.
+ */
+public interface WaitStrategy {
+
+	/**
+	 * Returns the buffer's cursor once it is at or past sequence, or earlier if running
+	 * turns false.
+	 */
+	long waitFor(long sequence, RingBuffer<?> buffer, BooleanSupplier running);
+
+	// called after every publish
+	void signalAll();
+
+	enum Kind {
+		BLOCKING, SLEEPING, YIELDING, BUSY_SPIN;
+
+		public WaitStrategy create() {
+			return switch (this) {
+				case BLOCKING -> new Blocking();
+				case SLEEPING -> new Sleeping();
+				case YIELDING -> new Yielding();
+				case BUSY_SPIN -> new BusySpin();
+			};
+		}
+	}
+
+	// parks on a condition; publishers only take the lock while a consumer is parked
+	final class Blocking implements WaitStrategy {
+
+		private static final long RECHECK_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+
+		private final ReentrantLock lock = new ReentrantLock();
+		private final Condition published = lock.newCondition();
+		private final AtomicInteger waiting = new AtomicInteger();
+
+		@Override
+		public long waitFor(long sequence, RingBuffer<?> buffer, BooleanSupplier running) {
+			long cursor = buffer.cursor();
+			if (cursor >= sequence) {
+				return cursor;
+			}
+			lock.lock();
+			try {
+				waiting.incrementAndGet();
+				while ((cursor = buffer.cursor()) < sequence && running.getAsBoolean()) {
+					published.awaitNanos(RECHECK_NANOS);
+				}
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			} finally {
+				waiting.decrementAndGet();
+				lock.unlock();
+			}
+			return buffer.cursor();
+		}
+
+		@Override
+		public void signalAll() {
+			if (waiting.get() > 0) {
+				lock.lock();
+				try {
+					published.signalAll();
+				} finally {
+					lock.unlock();
+				}
+			}
+		}
+	}
+
+	// spins, then yields, then sleeps in short parks
+	final class Sleeping implements WaitStrategy {
+
+		private static final int SPINS = 200;
+		private static final int YIELDS = 100;
+		private static final long PARK_NANOS = TimeUnit.MICROSECONDS.toNanos(100);
+
+		@Override
+		public long waitFor(long sequence, RingBuffer<?> buffer, BooleanSupplier running) {
+			int attempts = 0;
+			long cursor;
+			while ((cursor = buffer.cursor()) < sequence && running.getAsBoolean()) {
+				if (attempts < SPINS) {
+					Thread.onSpinWait();
+				} else if (attempts < SPINS + YIELDS) {
+					Thread.yield();
+				} else {
+					LockSupport.parkNanos(PARK_NANOS);
+				}
+				attempts++;
+			}
+			return cursor;
+		}
+
+		@Override
+		public void signalAll() {
+		}
+	}
+
+	// spins briefly, then gives the core away on every attempt
+	final class Yielding implements WaitStrategy {
+
+		private static final int SPINS = 100;
+
+		@Override
+		public long waitFor(long sequence, RingBuffer<?> buffer, BooleanSupplier running) {
+			int attempts = 0;
+			long cursor;
+			while ((cursor = buffer.cursor()) < sequence && running.getAsBoolean()) {
+				if (attempts++ < SPINS) {
+					Thread.onSpinWait();
+				} else {
+					Thread.yield();
+				}
+			}
+			return cursor;
+		}
+
+		@Override
+		public void signalAll() {
+		}
+	}
+
+	final class BusySpin implements WaitStrategy {
+
+		@Override
+		public long waitFor(long sequence, RingBuffer<?> buffer, BooleanSupplier running) {
+			long cursor;
+			while ((cursor = buffer.cursor()) < sequence && running.getAsBoolean()) {
+				Thread.onSpinWait();
+			}
+			return cursor;
+		}
+
+		@Override
+		public void signalAll() {
+		}
+	}
+}
@@ -0,0 +1,27 @@
+package es.blanca.application.idempotency;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+@Getter
+@Setter
+@Component
+@ConfigurationProperties(prefix = "idempotency")
+public class IdempotencyProperties {
+
+	// how long a completed response is replayed
+	private Duration ttl = Duration.ofHours(24);
+	// a key whose request has not completed in this time (its node died) can be used again,
+	// so a request still running past it can be run a second time by a retry
+	private Duration inFlightTimeout = Duration.ofMinutes(1);
+	// how long a retry waits for the first request before it is answered 409
+	private Duration waitTimeout = Duration.ofSeconds(10);
+	// how often a retry looks for the response of a request running on another node
+	private Duration pollInterval = Duration.ofMillis(50);
+	// completed responses also kept in memory, the oldest are dropped past this
+	private int memoryEntries = 10000;
+}
@@ -0,0 +1,218 @@
+package es.blanca.application.idempotency;
+
+import es.blanca.domain.exceptions.IdempotencyConflictException;
+import es.blanca.domain.exceptions.IdempotencyKeyReusedException;
+import es.blanca.domain.model.IdempotencyRecord;
+import es.blanca.domain.model.IdempotentResponse;
+import es.blanca.domain.port.IdempotencyRepository;
+import es.blanca.domain.port.IdempotencyService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+import static es.blanca.application.config.ApplicationConstants.*;
+
+/**
+ * Runs each idempotency key's request once. The key is claimed with a row in the
+ * idempotency repository, so the other nodes see it too, and the completed response is
+ * stored there for the configured ttl and kept in memory for the retries that come back
+ * to this node.
+ * <p>
+ * A retry arriving while the first request still runs does not run it again: on the
+ * same node it waits on the first one's future and gets its response or its exception,
+ * on another node it polls the repository until the response is stored. Either way it
+ * is answered with a conflict once wait-timeout is over. A request that fails leaves
+ * nothing stored, so its retries run again.
+ * <p>
+ * The request commits its own transactions before the response is stored. If the node
+ * dies in between, the claim expires after in-flight-timeout and a retry runs the
+ * request a second time. The claim is only completed or released while the key still
+ * holds it, so a request that outlived its claim never overwrites the response of the
+ * one that took the key over.
+ */
+@Slf4j
+@Service
+public class IdempotencyServiceImpl implements IdempotencyService {
+
+	private final IdempotencyRepository idempotencyRepository;
+	private final IdempotencyProperties properties;
+	private final TransactionTemplate transaction;
+	private final Map<String, CompletableFuture<IdempotencyRecord>> inFlight = new ConcurrentHashMap<>();
+	private final Map<String, IdempotencyRecord> completed;
+
+	public IdempotencyServiceImpl(IdempotencyRepository idempotencyRepository, IdempotencyProperties properties,
+	                              PlatformTransactionManager transactionManager) {
+		this.idempotencyRepository = idempotencyRepository;
+		this.properties = properties;
+		// not read-only: a claim made on another node has to be read from the primary
+		this.transaction = new TransactionTemplate(transactionManager);
+		int memoryEntries = properties.getMemoryEntries();
+		this.completed = new LinkedHashMap<>() {
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<String, IdempotencyRecord> eldest) {
+				return size() > memoryEntries;
+			}
+		};
+	}
+
+	@Override
+	public IdempotentResponse execute(String key, String requestHash, Supplier<IdempotentResponse> request) {
+		IdempotencyRecord remembered = remembered(key);
+		if (remembered != null) {
+			return replay(remembered, requestHash);
+		}
+		CompletableFuture<IdempotencyRecord> mine = new CompletableFuture<>();
+		CompletableFuture<IdempotencyRecord> running = inFlight.putIfAbsent(key, mine);
+		if (running != null) {
+			log.info("Request with idempotency key {} already running here, waiting for it", key);
+			return replay(await(running), requestHash);
+		}
+		try {
+			IdempotencyRecord claimed = claimOrAwait(key, requestHash);
+			if (claimed.getResponse() != null) {
+				mine.complete(claimed);
+				remember(claimed);
+				return replay(claimed, requestHash);
+			}
+			IdempotentResponse response;
+			try {
+				response = request.get();
+			} catch (RuntimeException e) {
+				transaction.executeWithoutResult(status -> idempotencyRepository.delete(claimed));
+				throw e;
+			}
+			IdempotencyRecord record = new IdempotencyRecord(key, requestHash, response,
+					LocalDateTime.now().plus(properties.getTtl()));
+			Boolean stored = transaction.execute(status -> idempotencyRepository.complete(claimed, record));
+			if (Boolean.TRUE.equals(stored)) {
+				remember(record);
+			} else {
+				log.warn("Request with idempotency key {} outlived its claim, its response was not stored", key);
+			}
+			mine.complete(record);
+			return response;
+		} catch (RuntimeException e) {
+			mine.completeExceptionally(e);
+			throw e;
+		} finally {
+			inFlight.remove(key, mine);
+		}
+	}
+
+	/**
+	 * Claims the key and returns the claim, without a response, or returns the record
+	 * once the request that holds the key on another node has completed.
+	 */
+	private IdempotencyRecord claimOrAwait(String key, String requestHash) {
+		long deadline = System.nanoTime() + properties.getWaitTimeout().toNanos();
+		while (true) {
+			IdempotencyRecord claim = claim(key, requestHash);
+			if (claim != null) {
+				return claim;
+			}
+			Optional<IdempotencyRecord> record = transaction.execute(status -> idempotencyRepository.findByKey(key, LocalDateTime.now()));
+			if (record != null && record.isPresent()) {
+				if (!record.get().getRequestHash().equals(requestHash)) {
+					throw new IdempotencyKeyReusedException(IDEMPOTENCY_KEY_REUSED);
+				}
+				if (record.get().getResponse() != null) {
+					return record.get();
+				}
+			}
+			// still running, or gone (failed or expired) and free to claim again
+			if (System.nanoTime() > deadline) {
+				throw new IdempotencyConflictException(IDEMPOTENT_REQUEST_IN_PROGRESS);
+			}
+			try {
+				Thread.sleep(properties.getPollInterval().toMillis());
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new IdempotencyConflictException(IDEMPOTENT_REQUEST_IN_PROGRESS);
+			}
+		}
+	}
+
+	private IdempotencyRecord claim(String key, String requestHash) {
+		LocalDateTime now = LocalDateTime.now();
+		// the expiry identifies the claim, kept to a precision every database stores as is
+		IdempotencyRecord claim = new IdempotencyRecord(key, requestHash, null,
+				now.plus(properties.getInFlightTimeout()).truncatedTo(ChronoUnit.MILLIS));
+		try {
+			transaction.executeWithoutResult(status -> {
+				idempotencyRepository.deleteIfExpired(key, now);
+				idempotencyRepository.insert(claim);
+			});
+			return claim;
+		} catch (IdempotencyConflictException e) {
+			return null;
+		}
+	}
+
+	private IdempotencyRecord await(CompletableFuture<IdempotencyRecord> running) {
+		try {
+			return running.get(properties.getWaitTimeout().toMillis(), TimeUnit.MILLISECONDS);
+		} catch (ExecutionException e) {
+			// the retry fails the way the first request did
+			if (e.getCause() instanceof RuntimeException cause) {
+				throw cause;
+			}
+			throw new IllegalStateException(e.getCause());
+		} catch (TimeoutException e) {
+			throw new IdempotencyConflictException(IDEMPOTENT_REQUEST_IN_PROGRESS);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IdempotencyConflictException(IDEMPOTENT_REQUEST_IN_PROGRESS);
+		}
+	}
+
+	private static IdempotentResponse replay(IdempotencyRecord record, String requestHash) {
+		if (!record.getRequestHash().equals(requestHash)) {
+			throw new IdempotencyKeyReusedException(IDEMPOTENCY_KEY_REUSED);
+		}
+		IdempotentResponse response = record.getResponse();
+		return new IdempotentResponse(response.getStatusCode(), response.getLocation(), response.getBody(), true);
+	}
+
+	private IdempotencyRecord remembered(String key) {
+		synchronized (completed) {
+			IdempotencyRecord record = completed.get(key);
+			if (record != null && record.getExpiresAt().isBefore(LocalDateTime.now())) {
+				completed.remove(key);
+				return null;
+			}
+			return record;
+		}
+	}
+
+	private void remember(IdempotencyRecord record) {
+		synchronized (completed) {
+			completed.put(record.getKey(), record);
+		}
+	}
+
+	@Scheduled(fixedDelayString = "${idempotency.cleanup-interval-ms:60000}")
+	public void deleteExpired() {
+		LocalDateTime now = LocalDateTime.now();
+		synchronized (completed) {
+			completed.values().removeIf(record -> record.getExpiresAt().isBefore(now));
+		}
+		Integer deleted = transaction.execute(status -> idempotencyRepository.deleteExpired(now));
+		if (deleted != null && deleted > 0) {
+			log.debug("Deleted {} expired idempotency keys", deleted);
+		}
+	}
+}
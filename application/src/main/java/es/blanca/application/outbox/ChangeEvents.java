@@ -0,0 +1,61 @@
+package es.blanca.application.outbox;
+
+import es.blanca.domain.model.ChangeEvent;
+import es.blanca.domain.model.ChangeEventType;
+import es.blanca.domain.model.Order;
+import es.blanca.domain.model.OrderProduct;
+import es.blanca.domain.model.Product;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The payloads of the outbox events. They carry the state after the change, with its
+ * version, so a consumer can drop an event older than what it already has. Prices and
+ * totals are in minor units.
+ */
+public final class ChangeEvents {
+
+	private ChangeEvents() {}
+
+	public static ChangeEvent order(ChangeEventType type, Order order) {
+		Map<String, Object> payload = new LinkedHashMap<>();
+		payload.put("id", order.getId());
+		payload.put("userId", order.getUser() != null ? order.getUser().getId() : null);
+		payload.put("status", order.getStatus() != null ? order.getStatus().name() : null);
+		payload.put("createdAt", order.getCreatedAt() != null ? order.getCreatedAt().toString() : null);
+		payload.put("version", order.getVersion());
+		List<Map<String, Object>> lines = new ArrayList<>();
+		if (order.getOrderProducts() != null) {
+			for (OrderProduct orderProduct : order.getOrderProducts()) {
+				Map<String, Object> line = new LinkedHashMap<>();
+				line.put("productId", orderProduct.getProduct() != null ? orderProduct.getProduct().getId() : null);
+				line.put("amount", orderProduct.getAmount());
+				lines.add(line);
+			}
+		}
+		payload.put("lines", lines);
+		return new ChangeEvent(type, order.getId(), payload, LocalDateTime.now());
+	}
+
+	public static ChangeEvent product(ChangeEventType type, Product product) {
+		Map<String, Object> payload = new LinkedHashMap<>();
+		payload.put("id", product.getId());
+		payload.put("name", product.getName());
+		payload.put("price", product.getPrice() != null ? product.getPrice().minorUnits() : null);
+		payload.put("status", product.getStatus() != null ? product.getStatus().name() : null);
+		payload.put("stock", product.getStock());
+		payload.put("version", product.getVersion());
+		return new ChangeEvent(type, product.getId(), payload, LocalDateTime.now());
+	}
+
+	// deletions only name what is gone
+	public static ChangeEvent deleted(ChangeEventType type, Long id) {
+		Map<String, Object> payload = new LinkedHashMap<>();
+		payload.put("id", id);
+		return new ChangeEvent(type, id, payload, LocalDateTime.now());
+	}
+}
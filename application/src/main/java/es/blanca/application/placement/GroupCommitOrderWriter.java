@@ -0,0 +1,212 @@
+package es.blanca.application.placement;
+
+import es.blanca.domain.exceptions.PlacementRejectedException;
+import es.blanca.domain.model.Order;
+import es.blanca.domain.model.OrderPlacement;
+import es.blanca.domain.model.PlacementStatus;
+import es.blanca.domain.port.OrderPlacementService;
+import es.blanca.domain.port.OrderService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import static es.blanca.application.config.ApplicationConstants.*;
+
+/**
+ * Asynchronous order placement with group commit. A request only queues its order; a
+ * single writer thread takes whatever has queued up since its last batch (up to
+ * batch-size orders) and creates all of it in one transaction, so concurrent orders
+ * share one commit and take the stock row locks one after another instead of waiting
+ * for each other's.
+ * <p>
+ * If an order of a batch fails (out of stock, unknown user) the whole batch rolls back
+ * and its orders are created again one transaction each, so only the failing ones fail.
+ * The outcome of a placement can be read for the configured retention.
+ * <p>
+ * Only runs with orders.placement.async=true.
+ */
+@Slf4j
+@Service
+public class GroupCommitOrderWriter implements OrderPlacementService, SmartLifecycle {
+
+	private static final long POLL_MILLIS = 100;
+	private static final long PURGE_INTERVAL_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+	private final OrderService orderService;
+	private final TransactionTemplate batchTransaction;
+	private final OrderPlacementProperties properties;
+	private final BlockingQueue<PendingOrder> queue;
+	private final Map<UUID, OrderPlacement> placements = new ConcurrentHashMap<>();
+	private volatile boolean running;
+	private Thread writer;
+	private long lastPurgeNanos = System.nanoTime();
+
+	public GroupCommitOrderWriter(OrderService orderService, PlatformTransactionManager transactionManager,
+	                              OrderPlacementProperties properties) {
+		this.orderService = orderService;
+		this.batchTransaction = new TransactionTemplate(transactionManager);
+		this.properties = properties;
+		this.queue = new ArrayBlockingQueue<>(properties.getQueueCapacity());
+	}
+
+	@Override
+	public OrderPlacement submit(Order order) {
+		if (!running) {
+			throw new PlacementRejectedException(PLACEMENT_NOT_RUNNING);
+		}
+		OrderPlacement placement = new OrderPlacement(UUID.randomUUID(), order.getUser().getId(), PlacementStatus.QUEUED,
+				null, null, LocalDateTime.now(), null);
+		placements.put(placement.getId(), placement);
+		if (!queue.offer(new PendingOrder(placement, order))) {
+			placements.remove(placement.getId());
+			throw new PlacementRejectedException(String.format(PLACEMENT_QUEUE_FULL, properties.getQueueCapacity()));
+		}
+		log.info("Order of user {} queued for placement {}", placement.getUserId(), placement.getId());
+		return placement;
+	}
+
+	@Override
+	public Optional<OrderPlacement> findById(UUID id) {
+		return Optional.ofNullable(placements.get(id));
+	}
+
+	@Override
+	public boolean isAutoStartup() {
+		return properties.isAsync();
+	}
+
+	@Override
+	public synchronized void start() {
+		running = true;
+		writer = startWriter();
+	}
+
+	@Override
+	public synchronized void stop() {
+		// the writer places what is already queued before it exits
+		running = false;
+		if (writer == null) {
+			return;
+		}
+		try {
+			writer.join(properties.getShutdownTimeout().toMillis());
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+		if (writer.isAlive()) {
+			log.warn("{} queued orders were not placed before shutdown", queue.size());
+			writer.interrupt();
+		}
+	}
+
+	@Override
+	public boolean isRunning() {
+		return running;
+	}
+
+	// package-private so tests can drive drain() themselves
+	Thread startWriter() {
+		Thread thread = new Thread(this::run, "order-placement-writer");
+		thread.start();
+		return thread;
+	}
+
+	private void run() {
+		while (running || !queue.isEmpty()) {
+			try {
+				drain(POLL_MILLIS);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				return;
+			} catch (RuntimeException e) {
+				log.error("Order placement writer failed, continuing", e);
+			}
+		}
+	}
+
+	// writes one batch, waiting up to waitMillis for its first order; returns the batch size
+	int drain(long waitMillis) throws InterruptedException {
+		PendingOrder first = queue.poll(waitMillis, TimeUnit.MILLISECONDS);
+		int written = 0;
+		if (first != null) {
+			List<PendingOrder> batch = new ArrayList<>(properties.getBatchSize());
+			batch.add(first);
+			queue.drainTo(batch, properties.getBatchSize() - 1);
+			write(batch);
+			written = batch.size();
+		}
+		purgeExpired();
+		return written;
+	}
+
+	private void write(List<PendingOrder> batch) {
+		List<Order> created;
+		try {
+			created = batchTransaction.execute(status -> {
+				List<Order> orders = new ArrayList<>(batch.size());
+				for (PendingOrder pending : batch) {
+					orders.add(orderService.create(pending.order()));
+				}
+				return orders;
+			});
+		} catch (RuntimeException e) {
+			if (batch.size() == 1) {
+				fail(batch.get(0), e);
+				return;
+			}
+			log.info("Batch of {} orders rolled back ({}), placing them one by one", batch.size(), e.getMessage());
+			for (PendingOrder pending : batch) {
+				try {
+					complete(pending, orderService.create(pending.order()));
+				} catch (RuntimeException single) {
+					fail(pending, single);
+				}
+			}
+			return;
+		}
+		for (int i = 0; i < batch.size(); i++) {
+			complete(batch.get(i), created.get(i));
+		}
+		log.debug("Placed a batch of {} orders", batch.size());
+	}
+
+	// a completed placement replaces the queued one, readers never see it half updated
+	private void complete(PendingOrder pending, Order order) {
+		OrderPlacement queued = pending.placement();
+		placements.put(queued.getId(), new OrderPlacement(queued.getId(), queued.getUserId(), PlacementStatus.PLACED,
+				order.getId(), null, queued.getAcceptedAt(), LocalDateTime.now()));
+	}
+
+	private void fail(PendingOrder pending, RuntimeException e) {
+		OrderPlacement queued = pending.placement();
+		log.warn("Placement {} failed: {}", queued.getId(), e.getMessage());
+		placements.put(queued.getId(), new OrderPlacement(queued.getId(), queued.getUserId(), PlacementStatus.FAILED,
+				null, e.getMessage(), queued.getAcceptedAt(), LocalDateTime.now()));
+	}
+
+	private void purgeExpired() {
+		long now = System.nanoTime();
+		if (now - lastPurgeNanos < PURGE_INTERVAL_NANOS) {
+			return;
+		}
+		lastPurgeNanos = now;
+		LocalDateTime cutoff = LocalDateTime.now().minus(properties.getRetention());
+		placements.values().removeIf(placement -> placement.getCompletedAt() != null && placement.getCompletedAt().isBefore(cutoff));
+	}
+
+	private record PendingOrder(OrderPlacement placement, Order order) {
+	}
+}
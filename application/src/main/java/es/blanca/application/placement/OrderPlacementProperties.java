@@ -0,0 +1,26 @@
+package es.blanca.application.placement;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+@Getter
+@Setter
+@Component
+@ConfigurationProperties(prefix = "orders.placement")
+public class OrderPlacementProperties {
+
+	// POST /orders answers 202 and the order is created later by GroupCommitOrderWriter
+	private boolean async = false;
+	// orders waiting for the writer; new ones are rejected while it is full
+	private int queueCapacity = 10000;
+	// most orders created in one transaction
+	private int batchSize = 100;
+	// how long the outcome of a placement can still be read
+	private Duration retention = Duration.ofMinutes(10);
+	// time the writer gets on shutdown to place what is still queued
+	private Duration shutdownTimeout = Duration.ofSeconds(30);
+}
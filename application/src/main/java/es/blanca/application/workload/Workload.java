@@ -0,0 +1,8 @@
+package es.blanca.application.workload;
+
+public enum Workload {
+	// user facing traffic, e.g. checkout and catalog browsing
+	INTERACTIVE,
+	// admin reports that scan whole tables
+	REPORTING
+}
@@ -0,0 +1,25 @@
+package es.blanca.application.workload;
+
+/**
+ * Workload of the request being handled by the current thread. Set by the api layer once
+ * the route and role are known, and read by the persistence layer to pick a connection pool.
+ */
+public final class WorkloadContext {
+
+	private static final ThreadLocal<Workload> CURRENT = new ThreadLocal<>();
+
+	private WorkloadContext() {}
+
+	public static Workload current() {
+		Workload workload = CURRENT.get();
+		return workload != null ? workload : Workload.INTERACTIVE;
+	}
+
+	public static void set(Workload workload) {
+		CURRENT.set(workload);
+	}
+
+	public static void clear() {
+		CURRENT.remove();
+	}
+}
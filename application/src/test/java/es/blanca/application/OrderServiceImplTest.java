@@ -1,12 +1,22 @@
 package es.blanca.application;
 
+import es.blanca.domain.event.OrderDeleted;
+import es.blanca.domain.event.OrderPlaced;
+import es.blanca.domain.event.OrderStatusChanged;
 import es.blanca.domain.exceptions.EntityNotFoundException;
+import es.blanca.domain.exceptions.OutOfStockException;
+import es.blanca.domain.exceptions.VersionConflictException;
 import es.blanca.domain.model.*;
+import es.blanca.domain.port.DomainEventPublisher;
+import es.blanca.domain.port.InventoryRepository;
 import es.blanca.domain.port.OrderRepository;
+import es.blanca.domain.port.OutboxRepository;
 import es.blanca.domain.port.UserRepository;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
@@ -14,6 +24,7 @@ import org.mockito.junit.jupiter.MockitoExtension;
 import java.time.LocalDateTime;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -29,6 +40,15 @@ class OrderServiceImplTest {
 	@Mock
 	private UserRepository userRepository;
 
+	@Mock
+	private InventoryRepository inventoryRepository;
+
+	@Mock
+	private OutboxRepository outboxRepository;
+
+	@Mock
+	private DomainEventPublisher eventPublisher;
+
 	@InjectMocks
 	private OrderServiceImpl orderService;
 
@@ -118,13 +138,80 @@ class OrderServiceImplTest {
 		verify(orderRepository, never()).findByUserId(any());
 	}
 
+	@Test
+	void findByUserIdWithFields_shouldPassTheFieldsetToTheRepository() {
+		// Arrange
+		Fieldset fields = Fieldset.of(List.of("id", "status"));
+		when(userRepository.existsById(1L)).thenReturn(true);
+		when(orderRepository.findByUserId(1L, fields)).thenReturn(List.of(order));
+
+		// Act
+		List<Order> result = orderService.findByUserId(1L, fields);
+
+		// Assert
+		assertEquals(List.of(order), result);
+		verify(orderRepository, never()).findByUserId(1L);
+	}
+
+	@Test
+	void findByUserIdWithFields_shouldThrowException_whenUserNotExists() {
+		// Arrange
+		when(userRepository.existsById(999L)).thenReturn(false);
+
+		// Act & Assert
+		assertThrows(EntityNotFoundException.class, () -> orderService.findByUserId(999L, Fieldset.ALL));
+		verify(orderRepository, never()).findByUserId(any(), any(Fieldset.class));
+	}
+
+	@Test
+	void findByUserIdPage_shouldPassThePageToTheRepository() {
+		// Arrange
+		when(userRepository.existsById(1L)).thenReturn(true);
+		when(orderRepository.findByUserId(1L, 2, 10)).thenReturn(List.of(order));
+
+		// Act
+		List<Order> result = orderService.findByUserId(1L, 2, 10);
+
+		// Assert
+		assertEquals(List.of(order), result);
+		verify(orderRepository, never()).findByUserId(1L);
+	}
+
+	@Test
+	void findByUserIdCreatedBetween_shouldPassTheRangeToTheRepository() {
+		// Arrange
+		LocalDateTime from = LocalDateTime.of(2026, 9, 1, 0, 0);
+		LocalDateTime to = LocalDateTime.of(2026, 10, 1, 0, 0);
+		when(userRepository.existsById(1L)).thenReturn(true);
+		when(orderRepository.findByUserIdCreatedBetween(1L, from, to)).thenReturn(List.of(order));
+
+		// Act
+		List<Order> result = orderService.findByUserIdCreatedBetween(1L, from, to);
+
+		// Assert
+		assertEquals(List.of(order), result);
+		verify(orderRepository, never()).findByUserId(any());
+	}
+
+	@Test
+	void findByUserIdCreatedBetween_shouldThrowException_whenUserNotExists() {
+		// Arrange
+		LocalDateTime from = LocalDateTime.of(2026, 9, 1, 0, 0);
+		when(userRepository.existsById(999L)).thenReturn(false);
+
+		// Act & Assert
+		assertThrows(EntityNotFoundException.class,
+				() -> orderService.findByUserIdCreatedBetween(999L, from, from.plusMonths(1)));
+		verify(orderRepository, never()).findByUserIdCreatedBetween(any(), any(), any());
+	}
+
 	@Test
 	void create_shouldCreateOrder_whenUserExists() {
 		// Arrange
 		Order newOrder = new Order();
 		newOrder.setUser(user);
 
-		when(userRepository.findById(1L)).thenReturn(Optional.of(user));
+		when(userRepository.existsById(1L)).thenReturn(true);
 		when(orderRepository.save(any(Order.class))).thenReturn(order);
 
 		// Act
@@ -134,17 +221,153 @@ class OrderServiceImplTest {
 		assertNotNull(result);
 		assertNotNull(result.getCreatedAt());
 		assertEquals(OrderStatus.PENDING, result.getStatus());
-		verify(userRepository, times(1)).findById(1L);
+		verify(userRepository, times(1)).existsById(1L);
 		verify(orderRepository, times(1)).save(any(Order.class));
 	}
 
+	@Test
+	void create_shouldReserveStockOfEveryLine_inProductIdOrder() {
+		// Arrange
+		Order newOrder = new Order();
+		newOrder.setUser(user);
+		newOrder.setOrderProducts(List.of(line(newOrder, 7L, 2), line(newOrder, 3L, 1)));
+
+		when(userRepository.existsById(1L)).thenReturn(true);
+		when(inventoryRepository.reserve(anyLong(), anyInt())).thenReturn(true);
+		when(orderRepository.save(any(Order.class))).thenReturn(order);
+
+		// Act
+		orderService.create(newOrder);
+
+		// Assert
+		InOrder inOrder = inOrder(inventoryRepository, orderRepository);
+		inOrder.verify(inventoryRepository).reserve(3L, 1);
+		inOrder.verify(inventoryRepository).reserve(7L, 2);
+		inOrder.verify(orderRepository).save(newOrder);
+	}
+
+	@Test
+	void create_shouldThrowOutOfStock_whenReservationFails() {
+		// Arrange
+		Order newOrder = new Order();
+		newOrder.setUser(user);
+		newOrder.setOrderProducts(List.of(line(newOrder, 3L, 5)));
+
+		when(userRepository.existsById(1L)).thenReturn(true);
+		when(inventoryRepository.reserve(3L, 5)).thenReturn(false);
+
+		// Act & Assert
+		assertThrows(OutOfStockException.class, () -> orderService.create(newOrder));
+		verify(orderRepository, never()).save(any());
+	}
+
+	@Test
+	void update_shouldReleaseStock_whenOrderIsCancelled() {
+		// Arrange
+		Order existingOrder = new Order();
+		existingOrder.setId(1L);
+		existingOrder.setStatus(OrderStatus.PENDING);
+		existingOrder.setOrderProducts(List.of(line(existingOrder, 3L, 5)));
+		Order updateData = new Order();
+		updateData.setStatus(OrderStatus.CANCELLED);
+		when(orderRepository.findById(1L)).thenReturn(Optional.of(existingOrder));
+		when(orderRepository.save(existingOrder)).thenReturn(existingOrder);
+
+		// Act
+		orderService.update(1L, updateData);
+
+		// Assert
+		verify(inventoryRepository).release(3L, 5);
+		assertEquals(OrderStatus.CANCELLED, existingOrder.getStatus());
+	}
+
+	@Test
+	void update_shouldReserveAndReleaseTheDifference_whenLinesChange() {
+		// Arrange
+		Order existingOrder = new Order();
+		existingOrder.setId(1L);
+		existingOrder.setStatus(OrderStatus.PENDING);
+		existingOrder.setOrderProducts(List.of(line(existingOrder, 3L, 5), line(existingOrder, 7L, 1)));
+		Order updateData = new Order();
+		updateData.setOrderProducts(List.of(line(updateData, 3L, 2), line(updateData, 7L, 4), line(updateData, 9L, 1)));
+		when(orderRepository.findById(1L)).thenReturn(Optional.of(existingOrder));
+		when(orderRepository.save(existingOrder)).thenReturn(existingOrder);
+		when(inventoryRepository.reserve(anyLong(), anyInt())).thenReturn(true);
+
+		// Act
+		orderService.update(1L, updateData);
+
+		// Assert
+		InOrder inOrder = inOrder(inventoryRepository);
+		inOrder.verify(inventoryRepository).release(3L, 3);
+		inOrder.verify(inventoryRepository).reserve(7L, 3);
+		inOrder.verify(inventoryRepository).reserve(9L, 1);
+		verifyNoMoreInteractions(inventoryRepository);
+	}
+
+	@Test
+	void update_shouldThrowOutOfStock_whenAddedLinesCannotBeReserved() {
+		// Arrange
+		Order existingOrder = new Order();
+		existingOrder.setId(1L);
+		existingOrder.setStatus(OrderStatus.PENDING);
+		existingOrder.setOrderProducts(List.of(line(existingOrder, 3L, 1)));
+		Order updateData = new Order();
+		updateData.setOrderProducts(List.of(line(updateData, 3L, 10)));
+		when(orderRepository.findById(1L)).thenReturn(Optional.of(existingOrder));
+		when(inventoryRepository.reserve(3L, 9)).thenReturn(false);
+
+		// Act & Assert
+		assertThrows(OutOfStockException.class, () -> orderService.update(1L, updateData));
+		verify(orderRepository, never()).save(any());
+	}
+
+	@Test
+	void update_shouldNotTouchStock_whenLinesOfACancelledOrderChange() {
+		// Arrange
+		Order existingOrder = new Order();
+		existingOrder.setId(1L);
+		existingOrder.setStatus(OrderStatus.CANCELLED);
+		existingOrder.setOrderProducts(List.of(line(existingOrder, 3L, 1)));
+		Order updateData = new Order();
+		updateData.setOrderProducts(List.of(line(updateData, 3L, 10)));
+		when(orderRepository.findById(1L)).thenReturn(Optional.of(existingOrder));
+		when(orderRepository.save(existingOrder)).thenReturn(existingOrder);
+
+		// Act
+		orderService.update(1L, updateData);
+
+		// Assert
+		verifyNoInteractions(inventoryRepository);
+	}
+
+	@Test
+	void update_shouldNotReleaseStockTwice_whenOrderIsAlreadyCancelled() {
+		// Arrange
+		Order existingOrder = new Order();
+		existingOrder.setId(1L);
+		existingOrder.setStatus(OrderStatus.CANCELLED);
+		existingOrder.setOrderProducts(List.of(line(existingOrder, 3L, 5)));
+		Order updateData = new Order();
+		updateData.setStatus(OrderStatus.CANCELLED);
+		when(orderRepository.findById(1L)).thenReturn(Optional.of(existingOrder));
+		when(orderRepository.save(existingOrder)).thenReturn(existingOrder);
+
+		// Act
+		orderService.update(1L, updateData);
+
+		// Assert
+		verifyNoInteractions(inventoryRepository);
+		verifyNoInteractions(eventPublisher);
+	}
+
 	@Test
 	void create_shouldThrowException_whenUserNotFound() {
 		// Arrange
 		Order newOrder = new Order();
 		newOrder.setUser(user);
 
-		when(userRepository.findById(1L)).thenReturn(Optional.empty());
+		when(userRepository.existsById(1L)).thenReturn(false);
 
 		// Act & Assert
 		assertThrows(EntityNotFoundException.class, () -> {
@@ -206,14 +429,12 @@ class OrderServiceImplTest {
 		Order existingOrder = new Order();
 		existingOrder.setId(1L);
 
-		OrderProduct orderProduct = new OrderProduct();
-		orderProduct.setAmount(5);
-
 		Order updateData = new Order();
-		updateData.setOrderProducts(Arrays.asList(orderProduct));
+		updateData.setOrderProducts(Arrays.asList(line(updateData, 3L, 5)));
 
 		when(orderRepository.findById(1L)).thenReturn(Optional.of(existingOrder));
 		when(orderRepository.save(any(Order.class))).thenReturn(existingOrder);
+		when(inventoryRepository.reserve(3L, 5)).thenReturn(true);
 
 		// Act
 		orderService.update(1L, updateData);
@@ -234,6 +455,24 @@ class OrderServiceImplTest {
 		verify(orderRepository, never()).save(any());
 	}
 
+	@Test
+	void update_shouldThrowVersionConflict_whenVersionIsStale() {
+		// Arrange
+		Order existingOrder = new Order();
+		existingOrder.setId(1L);
+		existingOrder.setStatus(OrderStatus.PENDING);
+		existingOrder.setVersion(5L);
+		Order updateData = new Order();
+		updateData.setStatus(OrderStatus.COMPLETED);
+		updateData.setVersion(4L);
+		when(orderRepository.findById(1L)).thenReturn(Optional.of(existingOrder));
+
+		// Act & Assert
+		assertThrows(VersionConflictException.class, () -> orderService.update(1L, updateData));
+		assertEquals(OrderStatus.PENDING, existingOrder.getStatus());
+		verify(orderRepository, never()).save(any());
+	}
+
 	@Test
 	void update_shouldThrowException_whenNewUserNotFound() {
 		// Arrange
@@ -259,21 +498,52 @@ class OrderServiceImplTest {
 	@Test
 	void delete_shouldDeleteOrder_whenExists() {
 		// Arrange
-		when(orderRepository.existsById(1L)).thenReturn(true);
+		when(orderRepository.findById(1L)).thenReturn(Optional.of(order));
 		doNothing().when(orderRepository).deleteById(1L);
 
 		// Act
 		orderService.delete(1L);
 
 		// Assert
-		verify(orderRepository, times(1)).existsById(1L);
+		verify(orderRepository, times(1)).findById(1L);
 		verify(orderRepository, times(1)).deleteById(1L);
 	}
 
+	@Test
+	void delete_shouldReleaseStock_whenOrderIsNotCancelled() {
+		// Arrange
+		order.setOrderProducts(List.of(line(order, 3L, 2), line(order, 5L, 1)));
+		when(orderRepository.findById(1L)).thenReturn(Optional.of(order));
+
+		// Act
+		orderService.delete(1L);
+
+		// Assert
+		InOrder inOrder = inOrder(inventoryRepository, orderRepository);
+		inOrder.verify(inventoryRepository).release(3L, 2);
+		inOrder.verify(inventoryRepository).release(5L, 1);
+		inOrder.verify(orderRepository).deleteById(1L);
+	}
+
+	@Test
+	void delete_shouldNotReleaseStock_whenOrderIsCancelled() {
+		// Arrange
+		order.setStatus(OrderStatus.CANCELLED);
+		order.setOrderProducts(List.of(line(order, 3L, 2)));
+		when(orderRepository.findById(1L)).thenReturn(Optional.of(order));
+
+		// Act
+		orderService.delete(1L);
+
+		// Assert
+		verify(inventoryRepository, never()).release(any(), anyInt());
+		verify(orderRepository).deleteById(1L);
+	}
+
 	@Test
 	void delete_shouldThrowException_whenOrderNotFound() {
 		// Arrange
-		when(orderRepository.existsById(999L)).thenReturn(false);
+		when(orderRepository.findById(999L)).thenReturn(Optional.empty());
 
 		// Act & Assert
 		assertThrows(EntityNotFoundException.class, () -> {
@@ -281,4 +551,97 @@ class OrderServiceImplTest {
 		});
 		verify(orderRepository, never()).deleteById(any());
 	}
-}
\ No newline at end of file
+
+	@Test
+	void create_shouldAppendCreatedEvent_withTheSavedOrder() {
+		// Arrange
+		Order newOrder = new Order();
+		newOrder.setUser(user);
+		newOrder.setOrderProducts(List.of(line(newOrder, 3L, 2)));
+		order.setVersion(0L);
+		order.setOrderProducts(newOrder.getOrderProducts());
+		when(userRepository.existsById(1L)).thenReturn(true);
+		when(inventoryRepository.reserve(3L, 2)).thenReturn(true);
+		when(orderRepository.save(newOrder)).thenReturn(order);
+		ArgumentCaptor<ChangeEvent> event = ArgumentCaptor.forClass(ChangeEvent.class);
+
+		// Act
+		orderService.create(newOrder);
+
+		// Assert
+		InOrder inOrder = inOrder(orderRepository, outboxRepository);
+		inOrder.verify(orderRepository).save(newOrder);
+		inOrder.verify(outboxRepository).append(event.capture());
+		assertEquals(ChangeEventType.ORDER_CREATED, event.getValue().getType());
+		assertEquals(1L, event.getValue().getAggregateId());
+		assertEquals("PENDING", event.getValue().getPayload().get("status"));
+		assertEquals(0L, event.getValue().getPayload().get("version"));
+		assertEquals(List.of(Map.of("productId", 3L, "amount", 2)), event.getValue().getPayload().get("lines"));
+		verify(eventPublisher).publish(new OrderPlaced(1L, 1L, order.getCreatedAt()));
+	}
+
+	@Test
+	void update_shouldAppendUpdatedEvent_withTheNewVersion() {
+		// Arrange
+		Order existingOrder = new Order();
+		existingOrder.setId(1L);
+		existingOrder.setStatus(OrderStatus.PENDING);
+		existingOrder.setVersion(4L);
+		Order saved = new Order();
+		saved.setId(1L);
+		saved.setStatus(OrderStatus.COMPLETED);
+		saved.setVersion(5L);
+		Order updateData = new Order();
+		updateData.setStatus(OrderStatus.COMPLETED);
+		when(orderRepository.findById(1L)).thenReturn(Optional.of(existingOrder));
+		when(orderRepository.save(existingOrder)).thenReturn(saved);
+		ArgumentCaptor<ChangeEvent> event = ArgumentCaptor.forClass(ChangeEvent.class);
+
+		// Act
+		orderService.update(1L, updateData);
+
+		// Assert
+		verify(outboxRepository).append(event.capture());
+		assertEquals(ChangeEventType.ORDER_UPDATED, event.getValue().getType());
+		assertEquals("COMPLETED", event.getValue().getPayload().get("status"));
+		assertEquals(5L, event.getValue().getPayload().get("version"));
+		verify(eventPublisher).publish(new OrderStatusChanged(1L, OrderStatus.PENDING, OrderStatus.COMPLETED));
+	}
+
+	@Test
+	void delete_shouldAppendDeletedEvent() {
+		// Arrange
+		when(orderRepository.findById(1L)).thenReturn(Optional.of(order));
+		ArgumentCaptor<ChangeEvent> event = ArgumentCaptor.forClass(ChangeEvent.class);
+
+		// Act
+		orderService.delete(1L);
+
+		// Assert
+		verify(outboxRepository).append(event.capture());
+		assertEquals(ChangeEventType.ORDER_DELETED, event.getValue().getType());
+		assertEquals(Map.of("id", 1L), event.getValue().getPayload());
+		verify(eventPublisher).publish(new OrderDeleted(1L));
+	}
+
+	@Test
+	void create_shouldNotAppendEvent_whenReservationFails() {
+		// Arrange
+		Order newOrder = new Order();
+		newOrder.setUser(user);
+		newOrder.setOrderProducts(List.of(line(newOrder, 3L, 2)));
+		when(userRepository.existsById(1L)).thenReturn(true);
+		when(inventoryRepository.reserve(3L, 2)).thenReturn(false);
+
+		// Act & Assert
+		assertThrows(OutOfStockException.class, () -> orderService.create(newOrder));
+		verifyNoInteractions(outboxRepository);
+		verifyNoInteractions(eventPublisher);
+	}
+
+	private static OrderProduct line(Order order, Long productId, int amount) {
+		Product product = new Product();
+		product.setId(productId);
+		return new OrderProduct(order, product, amount);
+	}
+}
@@ -1,12 +1,22 @@
 package es.blanca.application;
 
+import es.blanca.domain.event.ProductUpdated;
 import es.blanca.domain.exceptions.EntityNotFoundException;
+import es.blanca.domain.exceptions.VersionConflictException;
+import es.blanca.domain.model.ChangeEvent;
+import es.blanca.domain.model.ChangeEventType;
+import es.blanca.domain.model.Fieldset;
+import es.blanca.domain.model.Money;
 import es.blanca.domain.model.Product;
 import es.blanca.domain.model.ProductStatus;
+import es.blanca.domain.port.DomainEventPublisher;
+import es.blanca.domain.port.InventoryRepository;
+import es.blanca.domain.port.OutboxRepository;
 import es.blanca.domain.port.ProductRepository;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
@@ -29,6 +39,15 @@ class ProductServiceImplTest {
 	@Mock
 	private ProductRepository productRepository;
 
+	@Mock
+	private InventoryRepository inventoryRepository;
+
+	@Mock
+	private OutboxRepository outboxRepository;
+
+	@Mock
+	private DomainEventPublisher eventPublisher;
+
 	@InjectMocks
 	private ProductServiceImpl productService;
 
@@ -39,7 +58,7 @@ class ProductServiceImplTest {
 		product = new Product();
 		product.setId(1L);
 		product.setName("Laptop");
-		product.setPrice(999.99);
+		product.setPrice(Money.valueOf("999.99"));
 		product.setStatus(ProductStatus.AVAILABLE);
 		product.setCreatedAt(LocalDateTime.now());
 	}
@@ -93,7 +112,7 @@ class ProductServiceImplTest {
 		// Arrange
 		Product newProduct = new Product();
 		newProduct.setName("Keyboard");
-		newProduct.setPrice(49.99);
+		newProduct.setPrice(Money.valueOf("49.99"));
 		newProduct.setStatus(ProductStatus.AVAILABLE);
 
 		when(productRepository.save(any(Product.class))).thenReturn(newProduct);
@@ -113,12 +132,12 @@ class ProductServiceImplTest {
 		Product existingProduct = new Product();
 		existingProduct.setId(1L);
 		existingProduct.setName("Old Name");
-		existingProduct.setPrice(100.0);
+		existingProduct.setPrice(Money.valueOf("100.0"));
 		existingProduct.setStatus(ProductStatus.AVAILABLE);
 
 		Product updateData = new Product();
 		updateData.setName("New Name");
-		updateData.setPrice(200.0);
+		updateData.setPrice(Money.valueOf("200.0"));
 		updateData.setStatus(ProductStatus.DISCONTINUED);
 
 		when(productRepository.findById(1L)).thenReturn(Optional.of(existingProduct));
@@ -157,10 +176,10 @@ class ProductServiceImplTest {
 		// Arrange
 		Product existingProduct = new Product();
 		existingProduct.setId(1L);
-		existingProduct.setPrice(100.0);
+		existingProduct.setPrice(Money.valueOf("100.0"));
 
 		Product updateData = new Product();
-		updateData.setPrice(200.0);
+		updateData.setPrice(Money.valueOf("200.0"));
 
 		when(productRepository.findById(1L)).thenReturn(Optional.of(existingProduct));
 		when(productRepository.save(any(Product.class))).thenReturn(existingProduct);
@@ -204,6 +223,54 @@ class ProductServiceImplTest {
 		verify(productRepository, never()).save(any());
 	}
 
+	@Test
+	void update_shouldSetStockThroughInventory_whenStockProvided() {
+		// Arrange
+		when(productRepository.findById(1L)).thenReturn(Optional.of(product));
+		when(productRepository.save(product)).thenReturn(product);
+		Product updateData = new Product();
+		updateData.setStock(40);
+
+		// Act
+		productService.update(1L, updateData);
+
+		// Assert
+		verify(inventoryRepository).setStock(1L, 40);
+	}
+
+	@Test
+	void update_shouldThrowVersionConflict_whenVersionIsStale() {
+		// Arrange
+		product.setVersion(3L);
+		when(productRepository.findById(1L)).thenReturn(Optional.of(product));
+		Product updateData = new Product();
+		updateData.setName("New Name");
+		updateData.setVersion(2L);
+
+		// Act & Assert
+		assertThrows(VersionConflictException.class, () -> productService.update(1L, updateData));
+		verify(productRepository, never()).save(any());
+		verifyNoInteractions(eventPublisher);
+	}
+
+	@Test
+	void update_shouldUpdateProduct_whenVersionIsCurrent() {
+		// Arrange
+		product.setVersion(3L);
+		when(productRepository.findById(1L)).thenReturn(Optional.of(product));
+		when(productRepository.save(product)).thenReturn(product);
+		Product updateData = new Product();
+		updateData.setName("New Name");
+		updateData.setVersion(3L);
+
+		// Act
+		productService.update(1L, updateData);
+
+		// Assert
+		verify(productRepository).save(product);
+		assertEquals("New Name", product.getName());
+	}
+
 	@Test
 	void delete_shouldDeleteProduct_whenExists() {
 		// Arrange
@@ -230,12 +297,64 @@ class ProductServiceImplTest {
 		verify(productRepository, never()).deleteById(any());
 	}
 
+	@Test
+	void create_shouldAppendCreatedEvent() {
+		// Arrange
+		when(productRepository.save(product)).thenReturn(product);
+		ArgumentCaptor<ChangeEvent> event = ArgumentCaptor.forClass(ChangeEvent.class);
+
+		// Act
+		productService.create(product);
+
+		// Assert
+		verify(outboxRepository).append(event.capture());
+		assertEquals(ChangeEventType.PRODUCT_CREATED, event.getValue().getType());
+		assertEquals(1L, event.getValue().getAggregateId());
+		assertEquals(99999L, event.getValue().getPayload().get("price"));
+		assertEquals("AVAILABLE", event.getValue().getPayload().get("status"));
+	}
+
+	@Test
+	void update_shouldAppendUpdatedEvent_withTheNewStock() {
+		// Arrange
+		product.setStock(10);
+		when(productRepository.findById(1L)).thenReturn(Optional.of(product));
+		when(productRepository.save(product)).thenReturn(product);
+		Product updateData = new Product();
+		updateData.setStock(40);
+		ArgumentCaptor<ChangeEvent> event = ArgumentCaptor.forClass(ChangeEvent.class);
+
+		// Act
+		productService.update(1L, updateData);
+
+		// Assert
+		verify(outboxRepository).append(event.capture());
+		assertEquals(ChangeEventType.PRODUCT_UPDATED, event.getValue().getType());
+		assertEquals(40, event.getValue().getPayload().get("stock"));
+		verify(eventPublisher).publish(new ProductUpdated(1L, null));
+	}
+
+	@Test
+	void delete_shouldAppendDeletedEvent() {
+		// Arrange
+		when(productRepository.existsById(1L)).thenReturn(true);
+		ArgumentCaptor<ChangeEvent> event = ArgumentCaptor.forClass(ChangeEvent.class);
+
+		// Act
+		productService.delete(1L);
+
+		// Assert
+		verify(outboxRepository).append(event.capture());
+		assertEquals(ChangeEventType.PRODUCT_DELETED, event.getValue().getType());
+		assertEquals(1L, event.getValue().getAggregateId());
+	}
+
 	@Test
 	void findWithFilters_shouldCallRepositoryWithCorrectFilters() {
 		// Arrange
 		String name = "Laptop";
-		Double minPrice = 500.0;
-		Double maxPrice = 1500.0;
+		Money minPrice = Money.valueOf("500.0");
+		Money maxPrice = Money.valueOf("1500.0");
 		ProductStatus status = ProductStatus.AVAILABLE;
 
 		when(productRepository.findWithFilters(anyMap())).thenReturn(Arrays.asList(product));
@@ -281,7 +400,7 @@ class ProductServiceImplTest {
 		when(productRepository.findWithFilters(anyMap())).thenReturn(Arrays.asList(product));
 
 		// Act
-		List<Product> result = productService.findWithFilters(null, 500.0, 1500.0, null);
+		List<Product> result = productService.findWithFilters(null, Money.valueOf("500.00"), Money.valueOf("1500.00"), null);
 
 		// Assert
 		assertNotNull(result);
@@ -313,4 +432,31 @@ class ProductServiceImplTest {
 		assertNotNull(result);
 		verify(productRepository, times(1)).findWithFilters(anyMap());
 	}
-}
\ No newline at end of file
+
+	@Test
+	void findRevision_shouldUseTheSameFiltersAsTheListing() {
+		// Arrange
+		when(productRepository.findRevision(Map.of("name", "Laptop", "status", ProductStatus.AVAILABLE))).thenReturn(42L);
+
+		// Act
+		long revision = productService.findRevision("Laptop", null, null, ProductStatus.AVAILABLE);
+
+		// Assert
+		assertEquals(42L, revision);
+		verify(productRepository, never()).findWithFilters(anyMap());
+	}
+
+	@Test
+	void findWithFiltersAndFields_shouldPassTheFieldsetToTheRepository() {
+		// Arrange
+		Fieldset fields = Fieldset.of(List.of("id", "name", "price"));
+		when(productRepository.findWithFilters(Map.of("status", ProductStatus.AVAILABLE), fields)).thenReturn(List.of(product));
+
+		// Act
+		List<Product> result = productService.findWithFilters(null, null, null, ProductStatus.AVAILABLE, fields);
+
+		// Assert
+		assertEquals(List.of(product), result);
+		verify(productRepository, never()).findWithFilters(anyMap());
+	}
+}
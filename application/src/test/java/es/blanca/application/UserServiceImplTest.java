@@ -22,6 +22,7 @@ import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.Mockito.*;
 
@@ -58,13 +59,13 @@ class UserServiceImplTest {
 	}
 
 	@Test
-	void findAll_shouldReturnAllUsers() {
+	void findAll_shouldReturnActiveUsers() {
 		// Arrange
 		User user2 = new User();
 		user2.setId(2L);
 		user2.setEmail("user2@example.com");
 
-		when(userRepository.findAll()).thenReturn(Arrays.asList(user, user2));
+		when(userRepository.findAllActive()).thenReturn(Arrays.asList(user, user2));
 
 		// Act
 		List<User> result = userService.findAll();
@@ -72,7 +73,57 @@ class UserServiceImplTest {
 		// Assert
 		assertNotNull(result);
 		assertEquals(2, result.size());
-		verify(userRepository, times(1)).findAll();
+		verify(userRepository, times(1)).findAllActive();
+		verify(userRepository, never()).findAll();
+	}
+
+	@Test
+	void findAllPage_shouldPassThePageToTheRepository() {
+		// Arrange
+		when(userRepository.findAllActive(2, 10)).thenReturn(List.of(user));
+
+		// Act
+		List<User> result = userService.findAll(2, 10);
+
+		// Assert
+		assertEquals(List.of(user), result);
+		verify(userRepository, never()).findAllActive();
+	}
+
+	@Test
+	void findActiveByEmail_shouldNotLoadOtherUsers() {
+		// Arrange
+		when(userRepository.findActiveByEmail("test@example.com")).thenReturn(Optional.of(user));
+
+		// Act
+		Optional<User> result = userService.findActiveByEmail("test@example.com");
+
+		// Assert
+		assertEquals(Optional.of(user), result);
+		verify(userRepository, never()).findAllActive();
+	}
+
+	@Test
+	void findByCountryCode_shouldReturnOnePageOfUsers() {
+		// Arrange
+		when(countryRepository.existsById("ES")).thenReturn(true);
+		when(userRepository.findByCountryCode("ES", 0, 20)).thenReturn(List.of(user));
+
+		// Act
+		List<User> result = userService.findByCountryCode("ES", 0, 20);
+
+		// Assert
+		assertEquals(List.of(user), result);
+	}
+
+	@Test
+	void findByCountryCode_shouldThrowException_whenCountryNotExists() {
+		// Arrange
+		when(countryRepository.existsById("XX")).thenReturn(false);
+
+		// Act & Assert
+		assertThrows(EntityNotFoundException.class, () -> userService.findByCountryCode("XX", 0, 20));
+		verify(userRepository, never()).findByCountryCode(any(), anyInt(), anyInt());
 	}
 
 	@Test
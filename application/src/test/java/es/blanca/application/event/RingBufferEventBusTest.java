@@ -0,0 +1,209 @@
+package es.blanca.application.event;
+
+import es.blanca.domain.event.DomainEvent;
+import es.blanca.domain.event.OrderDeleted;
+import es.blanca.domain.port.DomainEventConsumer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionSynchronizationUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RingBufferEventBusTest {
+
+	private RingBufferEventBus bus;
+
+	@AfterEach
+	void tearDown() {
+		if (bus != null) {
+			bus.stop();
+		}
+	}
+
+	@ParameterizedTest
+	@EnumSource(WaitStrategy.Kind.class)
+	void publish_shouldDeliverEveryEventToEveryConsumer_inPublisherOrder(WaitStrategy.Kind waitStrategy) throws Exception {
+		// Arrange
+		int publishers = 4;
+		int perPublisher = 5000;
+		RecordingConsumer first = new RecordingConsumer(publishers * perPublisher);
+		RecordingConsumer second = new RecordingConsumer(publishers * perPublisher);
+		bus = bus(List.of(first, second), 64, waitStrategy, 32, EventBusProperties.Overflow.BLOCK);
+		bus.start();
+		ExecutorService executor = Executors.newFixedThreadPool(publishers);
+
+		// Act
+		for (int publisher = 0; publisher < publishers; publisher++) {
+			long base = publisher * 1_000_000L;
+			executor.submit(() -> {
+				for (long i = 0; i < perPublisher; i++) {
+					bus.publish(new OrderDeleted(base + i));
+				}
+			});
+		}
+		executor.shutdown();
+
+		// Assert
+		assertTrue(first.done.await(30, TimeUnit.SECONDS));
+		assertTrue(second.done.await(30, TimeUnit.SECONDS));
+		for (RecordingConsumer consumer : List.of(first, second)) {
+			long[] lastSeen = {-1, -1, -1, -1};
+			for (DomainEvent event : consumer.events) {
+				long id = ((OrderDeleted) event).orderId();
+				int publisher = (int) (id / 1_000_000L);
+				assertTrue(id % 1_000_000L > lastSeen[publisher], "events of a publisher out of order");
+				lastSeen[publisher] = id % 1_000_000L;
+			}
+			assertTrue(consumer.largestBatch <= 32);
+		}
+	}
+
+	@Test
+	void publish_shouldWaitForTheCommit_insideATransaction() throws Exception {
+		// Arrange
+		RecordingConsumer consumer = new RecordingConsumer(1);
+		bus = bus(List.of(consumer), 16, WaitStrategy.Kind.BLOCKING, 8);
+		bus.start();
+		TransactionSynchronizationManager.initSynchronization();
+
+		// Act
+		try {
+			bus.publish(new OrderDeleted(1L));
+			Thread.sleep(100);
+			assertTrue(consumer.events.isEmpty());
+			TransactionSynchronizationUtils.triggerAfterCommit();
+		} finally {
+			TransactionSynchronizationManager.clearSynchronization();
+		}
+
+		// Assert
+		assertTrue(consumer.done.await(5, TimeUnit.SECONDS));
+		assertEquals(List.of(new OrderDeleted(1L)), consumer.events);
+	}
+
+	@Test
+	void consumer_shouldKeepGettingEvents_afterABatchFails() throws Exception {
+		// Arrange
+		RecordingConsumer recording = new RecordingConsumer(2);
+		DomainEventConsumer failingOnce = new DomainEventConsumer() {
+			private boolean failed;
+
+			@Override
+			public void onEvents(List<DomainEvent> events) {
+				if (!failed) {
+					failed = true;
+					throw new IllegalStateException("consumer failure");
+				}
+				recording.onEvents(events);
+			}
+		};
+		bus = bus(List.of(failingOnce), 16, WaitStrategy.Kind.SLEEPING, 1);
+		bus.start();
+
+		// Act
+		bus.publish(new OrderDeleted(1L));
+		bus.publish(new OrderDeleted(2L));
+		bus.publish(new OrderDeleted(3L));
+
+		// Assert
+		assertTrue(recording.done.await(5, TimeUnit.SECONDS));
+		assertEquals(List.of(new OrderDeleted(2L), new OrderDeleted(3L)), recording.events);
+	}
+
+	@Test
+	void publish_shouldDropAndCount_whenTheRingIsFull() throws Exception {
+		// Arrange
+		CountDownLatch entered = new CountDownLatch(1);
+		CountDownLatch release = new CountDownLatch(1);
+		List<DomainEvent> received = new ArrayList<>();
+		DomainEventConsumer stalled = batch -> {
+			entered.countDown();
+			try {
+				release.await(10, TimeUnit.SECONDS);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+			received.addAll(batch);
+		};
+		bus = bus(List.of(stalled), 2, WaitStrategy.Kind.BLOCKING, 10);
+		bus.start();
+		bus.publish(new OrderDeleted(1L));
+		assertTrue(entered.await(5, TimeUnit.SECONDS));
+
+		// Act
+		// the consumer still holds the first slot, the ring has room for one more
+		bus.publish(new OrderDeleted(2L));
+		bus.publish(new OrderDeleted(3L));
+		bus.publish(new OrderDeleted(4L));
+
+		// Assert
+		assertEquals(2, bus.getDropped());
+		release.countDown();
+		bus.stop();
+		assertEquals(List.of(new OrderDeleted(1L), new OrderDeleted(2L)), received);
+	}
+
+	@Test
+	void stop_shouldLetConsumersCatchUp() {
+		// Arrange
+		RecordingConsumer consumer = new RecordingConsumer(100);
+		bus = bus(List.of(consumer), 128, WaitStrategy.Kind.BLOCKING, 10);
+		bus.start();
+		for (long i = 0; i < 100; i++) {
+			bus.publish(new OrderDeleted(i));
+		}
+
+		// Act
+		bus.stop();
+
+		// Assert
+		assertEquals(100, consumer.events.size());
+		assertFalse(bus.isRunning());
+	}
+
+	private static RingBufferEventBus bus(List<DomainEventConsumer> consumers, int bufferSize,
+	                                      WaitStrategy.Kind waitStrategy, int maxBatchSize) {
+		return bus(consumers, bufferSize, waitStrategy, maxBatchSize, EventBusProperties.Overflow.DROP);
+	}
+
+	private static RingBufferEventBus bus(List<DomainEventConsumer> consumers, int bufferSize,
+	                                      WaitStrategy.Kind waitStrategy, int maxBatchSize,
+	                                      EventBusProperties.Overflow overflow) {
+		EventBusProperties properties = new EventBusProperties();
+		properties.setBufferSize(bufferSize);
+		properties.setWaitStrategy(waitStrategy);
+		properties.setMaxBatchSize(maxBatchSize);
+		properties.setOverflow(overflow);
+		return new RingBufferEventBus(consumers, properties);
+	}
+
+	private static class RecordingConsumer implements DomainEventConsumer {
+
+		private final List<DomainEvent> events = new ArrayList<>();
+		private final CountDownLatch done;
+		private volatile int largestBatch;
+
+		RecordingConsumer(int expected) {
+			this.done = new CountDownLatch(expected);
+		}
+
+		@Override
+		public void onEvents(List<DomainEvent> batch) {
+			largestBatch = Math.max(largestBatch, batch.size());
+			for (DomainEvent event : batch) {
+				events.add(event);
+				done.countDown();
+			}
+		}
+	}
+}
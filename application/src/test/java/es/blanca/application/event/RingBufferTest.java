@@ -0,0 +1,75 @@
+package es.blanca.application.event;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RingBufferTest {
+
+	@Test
+	void constructor_shouldRoundTheSizeUpToAPowerOfTwo() {
+		// Act & Assert
+		assertEquals(8, new RingBuffer<String>(5, 1, new WaitStrategy.BusySpin()).size());
+		assertEquals(8, new RingBuffer<String>(8, 1, new WaitStrategy.BusySpin()).size());
+		assertEquals(2, new RingBuffer<String>(1, 1, new WaitStrategy.BusySpin()).size());
+	}
+
+	@Test
+	void publish_shouldMakeEntriesAvailableInSequence_acrossLaps() {
+		// Arrange
+		RingBuffer<Integer> ring = new RingBuffer<>(4, 1, new WaitStrategy.BusySpin());
+
+		// Act & Assert
+		for (int i = 0; i < 10; i++) {
+			ring.publish(i);
+			assertEquals(i, ring.cursor());
+			assertTrue(ring.isAvailable(i));
+			assertEquals(i, ring.get(i));
+			ring.consumerSequence(0).set(i);
+		}
+		assertFalse(ring.isAvailable(10));
+		assertEquals(9, ring.highestAvailable(6, 12));
+	}
+
+	@Test
+	void publish_shouldWaitForTheSlowestConsumer_whenTheRingIsFull() throws Exception {
+		// Arrange
+		RingBuffer<Integer> ring = new RingBuffer<>(2, 2, new WaitStrategy.BusySpin());
+		ring.publish(0);
+		ring.publish(1);
+		ring.consumerSequence(0).set(1);
+
+		// Act
+		CompletableFuture<Void> third = CompletableFuture.runAsync(() -> ring.publish(2));
+
+		// Assert
+		assertThrows(TimeoutException.class, () -> third.get(200, TimeUnit.MILLISECONDS));
+		ring.consumerSequence(1).set(0);
+		third.get(5, TimeUnit.SECONDS);
+		assertEquals(2, ring.get(2));
+		assertEquals(1, ring.get(1));
+	}
+
+	@Test
+	void tryPublish_shouldGiveUp_whenTheRingIsFull() {
+		// Arrange
+		RingBuffer<Integer> ring = new RingBuffer<>(2, 1, new WaitStrategy.BusySpin());
+		ring.publish(0);
+		ring.publish(1);
+
+		// Act
+		boolean full = ring.tryPublish(2);
+		ring.consumerSequence(0).set(0);
+		boolean freed = ring.tryPublish(2);
+
+		// Assert
+		assertFalse(full);
+		assertTrue(freed);
+		assertEquals(2, ring.get(2));
+		assertEquals(2, ring.cursor());
+	}
+}
@@ -0,0 +1,163 @@
+package es.blanca.application.idempotency;
+
+import es.blanca.domain.exceptions.IdempotencyConflictException;
+import es.blanca.domain.exceptions.IdempotencyKeyReusedException;
+import es.blanca.domain.exceptions.OutOfStockException;
+import es.blanca.domain.model.IdempotencyRecord;
+import es.blanca.domain.model.IdempotentResponse;
+import es.blanca.domain.port.IdempotencyRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class IdempotencyServiceImplTest {
+
+	@Mock
+	private IdempotencyRepository idempotencyRepository;
+
+	@Mock
+	private PlatformTransactionManager transactionManager;
+
+	private IdempotencyServiceImpl idempotencyService;
+
+	@BeforeEach
+	void setUp() {
+		IdempotencyProperties properties = new IdempotencyProperties();
+		properties.setWaitTimeout(Duration.ofSeconds(5));
+		properties.setPollInterval(Duration.ofMillis(1));
+		idempotencyService = new IdempotencyServiceImpl(idempotencyRepository, properties, transactionManager);
+	}
+
+	@Test
+	void execute_shouldRunOnceAndReplayTheResponse_forTheSameKey() {
+		// Arrange
+		AtomicInteger runs = new AtomicInteger();
+		Supplier<IdempotentResponse> request = () -> created(runs.incrementAndGet());
+		when(idempotencyRepository.complete(any(), any())).thenReturn(true);
+
+		// Act
+		IdempotentResponse first = idempotencyService.execute("key", "hash", request);
+		IdempotentResponse retry = idempotencyService.execute("key", "hash", request);
+
+		// Assert
+		assertEquals(1, runs.get());
+		assertFalse(first.isReplayed());
+		assertTrue(retry.isReplayed());
+		assertEquals(first.getBody(), retry.getBody());
+		assertEquals(201, retry.getStatusCode());
+		verify(idempotencyRepository).insert(any(IdempotencyRecord.class));
+		verify(idempotencyRepository).complete(argThat(claim -> claim.getResponse() == null && claim.getRequestHash().equals("hash")),
+				argThat(record -> record.getResponse().getBody().equals("{\"id\":1}")));
+	}
+
+	@Test
+	void execute_shouldReject_whenTheKeyIsReusedForAnotherRequest() {
+		// Arrange
+		when(idempotencyRepository.complete(any(), any())).thenReturn(true);
+		idempotencyService.execute("key", "hash", () -> created(1));
+
+		// Act & Assert
+		assertThrows(IdempotencyKeyReusedException.class, () -> idempotencyService.execute("key", "other", () -> created(2)));
+	}
+
+	@Test
+	void execute_shouldMakeAConcurrentDuplicateWaitForTheFirstRequest() throws Exception {
+		// Arrange
+		CountDownLatch started = new CountDownLatch(1);
+		CountDownLatch finish = new CountDownLatch(1);
+		AtomicInteger runs = new AtomicInteger();
+		Supplier<IdempotentResponse> slowRequest = () -> {
+			runs.incrementAndGet();
+			started.countDown();
+			try {
+				finish.await(5, TimeUnit.SECONDS);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+			return created(1);
+		};
+		CompletableFuture<IdempotentResponse> first = CompletableFuture.supplyAsync(() -> idempotencyService.execute("key", "hash", slowRequest));
+		assertTrue(started.await(5, TimeUnit.SECONDS));
+
+		// Act
+		CompletableFuture<IdempotentResponse> duplicate = CompletableFuture.supplyAsync(() -> idempotencyService.execute("key", "hash", slowRequest));
+		Thread.sleep(100);
+		assertFalse(duplicate.isDone());
+		finish.countDown();
+
+		// Assert
+		assertFalse(first.get(5, TimeUnit.SECONDS).isReplayed());
+		assertTrue(duplicate.get(5, TimeUnit.SECONDS).isReplayed());
+		assertEquals(1, runs.get());
+	}
+
+	@Test
+	void execute_shouldReplayTheResponse_whenAnotherNodeRanTheRequest() {
+		// Arrange
+		doThrow(new IdempotencyConflictException("taken")).when(idempotencyRepository).insert(any());
+		IdempotencyRecord running = new IdempotencyRecord("key", "hash", null, LocalDateTime.now().plusMinutes(1));
+		IdempotencyRecord done = new IdempotencyRecord("key", "hash", created(7), LocalDateTime.now().plusHours(1));
+		when(idempotencyRepository.findByKey(eq("key"), any())).thenReturn(Optional.of(running), Optional.of(done));
+
+		// Act
+		IdempotentResponse response = idempotencyService.execute("key", "hash", () -> fail("must not run twice"));
+
+		// Assert
+		assertTrue(response.isReplayed());
+		assertEquals("{\"id\":7}", response.getBody());
+	}
+
+	@Test
+	void execute_shouldReleaseTheKey_whenTheRequestFails() {
+		// Arrange
+		OutOfStockException failure = new OutOfStockException("no stock");
+
+		// Act
+		assertThrows(OutOfStockException.class, () -> idempotencyService.execute("key", "hash", () -> {
+			throw failure;
+		}));
+		IdempotentResponse retry = idempotencyService.execute("key", "hash", () -> created(2));
+
+		// Assert
+		verify(idempotencyRepository).delete(argThat(claim -> claim.getKey().equals("key") && claim.getResponse() == null));
+		assertFalse(retry.isReplayed());
+		assertEquals("{\"id\":2}", retry.getBody());
+	}
+
+	@Test
+	void execute_shouldNotRememberTheResponse_whenTheClaimWasTakenOver() {
+		// Arrange
+		AtomicInteger runs = new AtomicInteger();
+		when(idempotencyRepository.complete(any(), any())).thenReturn(false);
+
+		// Act
+		idempotencyService.execute("key", "hash", () -> created(runs.incrementAndGet()));
+		IdempotentResponse retry = idempotencyService.execute("key", "hash", () -> created(runs.incrementAndGet()));
+
+		// Assert
+		assertFalse(retry.isReplayed());
+		assertEquals(2, runs.get());
+	}
+
+	private static IdempotentResponse created(long id) {
+		return new IdempotentResponse(201, null, "{\"id\":" + id + "}", false);
+	}
+}
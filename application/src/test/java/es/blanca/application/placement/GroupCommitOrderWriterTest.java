@@ -0,0 +1,142 @@
+package es.blanca.application.placement;
+
+import es.blanca.domain.exceptions.OutOfStockException;
+import es.blanca.domain.exceptions.PlacementRejectedException;
+import es.blanca.domain.model.Order;
+import es.blanca.domain.model.OrderPlacement;
+import es.blanca.domain.model.PlacementStatus;
+import es.blanca.domain.model.User;
+import es.blanca.domain.port.OrderService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class GroupCommitOrderWriterTest {
+
+	@Mock
+	private OrderService orderService;
+
+	@Mock
+	private PlatformTransactionManager transactionManager;
+
+	private GroupCommitOrderWriter writer;
+
+	@BeforeEach
+	void setUp() {
+		OrderPlacementProperties properties = new OrderPlacementProperties();
+		properties.setQueueCapacity(3);
+		properties.setBatchSize(2);
+		// the test drains the queue itself
+		writer = new GroupCommitOrderWriter(orderService, transactionManager, properties) {
+			@Override
+			Thread startWriter() {
+				return null;
+			}
+		};
+		writer.start();
+	}
+
+	@Test
+	void drain_shouldCreateQueuedOrdersInOneTransaction() throws InterruptedException {
+		// Arrange
+		when(orderService.create(any(Order.class))).thenAnswer(invocation -> created(invocation.getArgument(0)));
+		OrderPlacement first = writer.submit(order(1L));
+		OrderPlacement second = writer.submit(order(2L));
+
+		// Act
+		int written = writer.drain(0);
+
+		// Assert
+		assertEquals(2, written);
+		verify(transactionManager, times(1)).getTransaction(any());
+		verify(transactionManager, times(1)).commit(any());
+		assertEquals(PlacementStatus.PLACED, writer.findById(first.getId()).orElseThrow().getStatus());
+		assertEquals(101L, writer.findById(first.getId()).orElseThrow().getOrderId());
+		assertEquals(102L, writer.findById(second.getId()).orElseThrow().getOrderId());
+	}
+
+	@Test
+	void drain_shouldTakeAtMostBatchSizeOrders() throws InterruptedException {
+		// Arrange
+		when(orderService.create(any(Order.class))).thenAnswer(invocation -> created(invocation.getArgument(0)));
+		writer.submit(order(1L));
+		writer.submit(order(2L));
+		OrderPlacement third = writer.submit(order(3L));
+
+		// Act
+		int firstBatch = writer.drain(0);
+
+		// Assert
+		assertEquals(2, firstBatch);
+		assertEquals(PlacementStatus.QUEUED, writer.findById(third.getId()).orElseThrow().getStatus());
+		assertEquals(1, writer.drain(0));
+		assertEquals(PlacementStatus.PLACED, writer.findById(third.getId()).orElseThrow().getStatus());
+	}
+
+	@Test
+	void drain_shouldOnlyFailTheFailingOrder_whenBatchRollsBack() throws InterruptedException {
+		// Arrange
+		when(orderService.create(argThat(order -> order != null && order.getUser().getId() == 1L)))
+				.thenAnswer(invocation -> created(invocation.getArgument(0)));
+		when(orderService.create(argThat(order -> order != null && order.getUser().getId() == 2L)))
+				.thenThrow(new OutOfStockException("Product with id: 7 does not have 5 units in stock"));
+		OrderPlacement placed = writer.submit(order(1L));
+		OrderPlacement failed = writer.submit(order(2L));
+
+		// Act
+		writer.drain(0);
+
+		// Assert
+		verify(transactionManager, times(1)).rollback(any());
+		OrderPlacement placedResult = writer.findById(placed.getId()).orElseThrow();
+		OrderPlacement failedResult = writer.findById(failed.getId()).orElseThrow();
+		assertEquals(PlacementStatus.PLACED, placedResult.getStatus());
+		assertEquals(PlacementStatus.FAILED, failedResult.getStatus());
+		assertEquals("Product with id: 7 does not have 5 units in stock", failedResult.getMessage());
+		assertNotNull(failedResult.getCompletedAt());
+	}
+
+	@Test
+	void submit_shouldReject_whenQueueIsFull() {
+		// Arrange
+		writer.submit(order(1L));
+		writer.submit(order(2L));
+		writer.submit(order(3L));
+
+		// Act & Assert
+		assertThrows(PlacementRejectedException.class, () -> writer.submit(order(4L)));
+	}
+
+	@Test
+	void submit_shouldReject_whenWriterIsStopped() {
+		// Arrange
+		writer.stop();
+
+		// Act & Assert
+		assertThrows(PlacementRejectedException.class, () -> writer.submit(order(1L)));
+	}
+
+	private static Order order(Long userId) {
+		User user = new User();
+		user.setId(userId);
+		Order order = new Order();
+		order.setUser(user);
+		return order;
+	}
+
+	private static Order created(Order order) {
+		Order created = new Order();
+		created.setId(100L + order.getUser().getId());
+		created.setUser(order.getUser());
+		return created;
+	}
+}
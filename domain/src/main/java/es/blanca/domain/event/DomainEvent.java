@@ -0,0 +1,5 @@
+package es.blanca.domain.event;
+
+// something that happened to an aggregate, published once its transaction has committed
+public interface DomainEvent {
+}
@@ -0,0 +1,4 @@
+package es.blanca.domain.event;
+
+public record OrderDeleted(Long orderId) implements DomainEvent {
+}
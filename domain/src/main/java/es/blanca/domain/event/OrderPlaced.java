@@ -0,0 +1,6 @@
+package es.blanca.domain.event;
+
+import java.time.LocalDateTime;
+
+public record OrderPlaced(Long orderId, Long userId, LocalDateTime placedAt) implements DomainEvent {
+}
@@ -0,0 +1,6 @@
+package es.blanca.domain.event;
+
+import es.blanca.domain.model.OrderStatus;
+
+public record OrderStatusChanged(Long orderId, OrderStatus previous, OrderStatus current) implements DomainEvent {
+}
@@ -0,0 +1,5 @@
+package es.blanca.domain.event;
+
+// version is the product's version after the update
+public record ProductUpdated(Long productId, Long version) implements DomainEvent {
+}
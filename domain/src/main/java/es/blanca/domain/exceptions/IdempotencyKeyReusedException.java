@@ -0,0 +1,7 @@
+package es.blanca.domain.exceptions;
+
+public class IdempotencyKeyReusedException extends RuntimeException {
+	public IdempotencyKeyReusedException(String message) {
+		super(message);
+	}
+}
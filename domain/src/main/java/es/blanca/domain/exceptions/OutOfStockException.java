@@ -0,0 +1,7 @@
+package es.blanca.domain.exceptions;
+
+public class OutOfStockException extends RuntimeException {
+	public OutOfStockException(String message) {
+		super(message);
+	}
+}
@@ -0,0 +1,7 @@
+package es.blanca.domain.exceptions;
+
+public class PlacementRejectedException extends RuntimeException {
+	public PlacementRejectedException(String message) {
+		super(message);
+	}
+}
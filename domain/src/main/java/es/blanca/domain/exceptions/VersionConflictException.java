@@ -0,0 +1,7 @@
+package es.blanca.domain.exceptions;
+
+public class VersionConflictException extends RuntimeException {
+	public VersionConflictException(String message) {
+		super(message);
+	}
+}
@@ -0,0 +1,19 @@
+package es.blanca.domain.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+
+// a change to an order or a product as downstream systems see it; payload is JSON-ready
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ChangeEvent {
+	private ChangeEventType type;
+	private Long aggregateId;
+	private Map<String, Object> payload;
+	private LocalDateTime createdAt;
+}
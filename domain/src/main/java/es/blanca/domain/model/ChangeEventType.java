@@ -0,0 +1,20 @@
+package es.blanca.domain.model;
+
+public enum ChangeEventType {
+	ORDER_CREATED("order"),
+	ORDER_UPDATED("order"),
+	ORDER_DELETED("order"),
+	PRODUCT_CREATED("product"),
+	PRODUCT_UPDATED("product"),
+	PRODUCT_DELETED("product");
+
+	private final String aggregateType;
+
+	ChangeEventType(String aggregateType) {
+		this.aggregateType = aggregateType;
+	}
+
+	public String getAggregateType() {
+		return aggregateType;
+	}
+}
@@ -0,0 +1,39 @@
+package es.blanca.domain.model;
+
+import lombok.EqualsAndHashCode;
+import lombok.ToString;
+
+import java.util.Collection;
+import java.util.Set;
+
+/**
+ * The properties of a model a read asks for, by their names in the model ({@code user},
+ * {@code orderProducts}, {@code country}...). Repositories only read the columns and
+ * associations it includes and leave the other properties null. {@link #ALL} reads
+ * everything, as the reads without a fieldset do.
+ */
+@EqualsAndHashCode
+@ToString
+public final class Fieldset {
+
+	public static final Fieldset ALL = new Fieldset(null);
+
+	// null for every property
+	private final Set<String> properties;
+
+	private Fieldset(Set<String> properties) {
+		this.properties = properties;
+	}
+
+	public static Fieldset of(Collection<String> properties) {
+		return new Fieldset(Set.copyOf(properties));
+	}
+
+	public boolean includes(String property) {
+		return properties == null || properties.contains(property);
+	}
+
+	public boolean isAll() {
+		return properties == null;
+	}
+}
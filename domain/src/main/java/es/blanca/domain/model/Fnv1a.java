@@ -0,0 +1,29 @@
+package es.blanca.domain.model;
+
+/**
+ * 64-bit FNV-1a, the checksum product revisions and entity tags are folded with.
+ * Values are folded byte by byte, lowest byte first; start from {@link #OFFSET_BASIS}.
+ */
+public final class Fnv1a {
+
+	public static final long OFFSET_BASIS = 0xcbf29ce484222325L;
+	private static final long PRIME = 0x100000001b3L;
+
+	private Fnv1a() {}
+
+	public static long fold(long hash, long value) {
+		for (int shift = 0; shift < Long.SIZE; shift += Byte.SIZE) {
+			hash ^= (value >>> shift) & 0xff;
+			hash *= PRIME;
+		}
+		return hash;
+	}
+
+	public static long fold(long hash, int value) {
+		for (int shift = 0; shift < Integer.SIZE; shift += Byte.SIZE) {
+			hash ^= (value >>> shift) & 0xff;
+			hash *= PRIME;
+		}
+		return hash;
+	}
+}
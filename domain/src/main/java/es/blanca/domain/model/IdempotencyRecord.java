@@ -0,0 +1,20 @@
+package es.blanca.domain.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+// an idempotency key and, once its request has completed, the response to replay
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class IdempotencyRecord {
+	private String key;
+	// identifies the request body the key was first used with
+	private String requestHash;
+	// null while the request is still running
+	private IdempotentResponse response;
+	private LocalDateTime expiresAt;
+}
@@ -0,0 +1,17 @@
+package es.blanca.domain.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// the response given to a request with an idempotency key, replayed to its retries
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class IdempotentResponse {
+	private int statusCode;
+	private String location;
+	private String body;
+	// false for the request that ran, true for the retries it is replayed to
+	private boolean replayed;
+}
@@ -0,0 +1,124 @@
+package es.blanca.domain.model;
+
+import java.io.Serializable;
+
+/**
+ * An amount with two decimals held as a long number of minor units (cents), so prices
+ * compare and add up exactly without boxing or floating point. 12.34 is {@code ofMinor(1234)}.
+ */
+public final class Money implements Comparable<Money>, Serializable {
+
+	public static final int SCALE = 2;
+	public static final Money ZERO = new Money(0);
+
+	private static final long MINOR_PER_UNIT = 100;
+
+	private final long minorUnits;
+
+	private Money(long minorUnits) {
+		this.minorUnits = minorUnits;
+	}
+
+	public static Money ofMinor(long minorUnits) {
+		return minorUnits == 0 ? ZERO : new Money(minorUnits);
+	}
+
+	/**
+	 * Parses a plain decimal such as {@code 12}, {@code 12.5} or {@code -0.99}. More than
+	 * two decimals are rejected rather than rounded.
+	 */
+	public static Money valueOf(String amount) {
+		if (amount == null || amount.isEmpty()) {
+			throw new IllegalArgumentException("Amount is empty");
+		}
+		int length = amount.length();
+		int i = 0;
+		boolean negative = amount.charAt(0) == '-';
+		if (negative || amount.charAt(0) == '+') {
+			i++;
+		}
+		long units = 0;
+		int digits = 0;
+		for (; i < length && amount.charAt(i) != '.'; i++) {
+			units = Math.addExact(Math.multiplyExact(units, 10), digit(amount, i));
+			digits++;
+		}
+		long fraction = 0;
+		int decimals = 0;
+		if (i < length) {
+			for (i++; i < length; i++) {
+				if (++decimals > SCALE) {
+					throw new IllegalArgumentException("Amount " + amount + " has more than " + SCALE + " decimals");
+				}
+				fraction = fraction * 10 + digit(amount, i);
+			}
+		}
+		if (digits == 0 && decimals == 0) {
+			throw new IllegalArgumentException("Amount " + amount + " has no digits");
+		}
+		for (; decimals < SCALE; decimals++) {
+			fraction *= 10;
+		}
+		long minor = Math.addExact(Math.multiplyExact(units, MINOR_PER_UNIT), fraction);
+		return ofMinor(negative ? -minor : minor);
+	}
+
+	public long minorUnits() {
+		return minorUnits;
+	}
+
+	public Money plus(Money other) {
+		return ofMinor(Math.addExact(minorUnits, other.minorUnits));
+	}
+
+	public Money times(long quantity) {
+		return ofMinor(Math.multiplyExact(minorUnits, quantity));
+	}
+
+	public boolean isPositive() {
+		return minorUnits > 0;
+	}
+
+	public boolean isNegative() {
+		return minorUnits < 0;
+	}
+
+	@Override
+	public int compareTo(Money other) {
+		return Long.compare(minorUnits, other.minorUnits);
+	}
+
+	@Override
+	public boolean equals(Object o) {
+		return this == o || o instanceof Money other && minorUnits == other.minorUnits;
+	}
+
+	@Override
+	public int hashCode() {
+		return Long.hashCode(minorUnits);
+	}
+
+	// plain decimal with both decimals, e.g. 12.30 or -0.05
+	@Override
+	public String toString() {
+		StringBuilder text = new StringBuilder(24);
+		long abs = Math.abs(minorUnits);
+		if (minorUnits < 0) {
+			text.append('-');
+		}
+		long cents = abs % MINOR_PER_UNIT;
+		text.append(abs / MINOR_PER_UNIT).append('.');
+		if (cents < 10) {
+			text.append('0');
+		}
+		return text.append(cents).toString();
+	}
+
+	private static int digit(String amount, int index) {
+		char c = amount.charAt(index);
+		if (c < '0' || c > '9') {
+			throw new IllegalArgumentException("Amount " + amount + " is not a decimal number");
+		}
+		return c - '0';
+	}
+}
@@ -1,7 +1,9 @@
 package es.blanca.domain.model;
 
+import lombok.AccessLevel;
 import lombok.AllArgsConstructor;
 import lombok.Data;
+import lombok.Getter;
 import lombok.NoArgsConstructor;
 
 import java.time.LocalDateTime;
@@ -16,4 +18,24 @@ public class Order {
 	private OrderStatus status;
 	private LocalDateTime createdAt;
 	private List<OrderProduct> orderProducts;
+	private Long version;
+	// the total a read took from storage without the lines, null to sum them
+	@Getter(AccessLevel.NONE)
+	private Money total;
+
+	// price times amount of every line, summed in minor units
+	public Money getTotal() {
+		if (this.total != null) {
+			return this.total;
+		}
+		long total = 0;
+		if (orderProducts != null) {
+			for (OrderProduct line : orderProducts) {
+				if (line.getProduct() != null && line.getProduct().getPrice() != null && line.getAmount() != null) {
+					total = Math.addExact(total, Math.multiplyExact(line.getProduct().getPrice().minorUnits(), line.getAmount()));
+				}
+			}
+		}
+		return Money.ofMinor(total);
+	}
 }
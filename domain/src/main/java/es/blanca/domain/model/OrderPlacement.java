@@ -0,0 +1,22 @@
+package es.blanca.domain.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+// an order accepted for asynchronous placement; orderId once PLACED, message once FAILED
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class OrderPlacement {
+	private UUID id;
+	private Long userId;
+	private PlacementStatus status;
+	private Long orderId;
+	private String message;
+	private LocalDateTime acceptedAt;
+	private LocalDateTime completedAt;
+}
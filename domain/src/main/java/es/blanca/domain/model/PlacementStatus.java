@@ -0,0 +1,7 @@
+package es.blanca.domain.model;
+
+public enum PlacementStatus {
+	QUEUED,
+	PLACED,
+	FAILED
+}
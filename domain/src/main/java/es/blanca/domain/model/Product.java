@@ -11,7 +11,10 @@ import java.time.LocalDateTime;
 public class Product {
 	private Long id;
 	private String name;
-	private Double price;
+	private Money price;
 	private ProductStatus status;
+	// units left to sell, null when the product's stock is not tracked
+	private Integer stock;
 	private LocalDateTime createdAt;
+	private Long version;
 }
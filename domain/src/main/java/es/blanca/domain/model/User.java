@@ -20,4 +20,5 @@ public class User {
 	private boolean isActive = true;
 	private Country country;
 	private List<Order> orders;
+	private Long version;
 }
@@ -0,0 +1,11 @@
+package es.blanca.domain.port;
+
+import es.blanca.domain.event.DomainEvent;
+
+import java.util.List;
+
+public interface DomainEventConsumer {
+	// runs on the consumer's own thread with the events published since its last call, oldest first;
+	// the list is reused after the call returns
+	void onEvents(List<DomainEvent> events);
+}
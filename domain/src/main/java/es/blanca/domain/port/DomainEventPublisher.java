@@ -0,0 +1,8 @@
+package es.blanca.domain.port;
+
+import es.blanca.domain.event.DomainEvent;
+
+public interface DomainEventPublisher {
+	// inside a transaction the event is only handed to the consumers once it commits
+	void publish(DomainEvent event);
+}
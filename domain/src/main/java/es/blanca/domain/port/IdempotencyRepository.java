@@ -0,0 +1,20 @@
+package es.blanca.domain.port;
+
+import es.blanca.domain.model.IdempotencyRecord;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+public interface IdempotencyRepository {
+	// throws IdempotencyConflictException if the key is already taken
+	void insert(IdempotencyRecord record);
+	// empty once the record has expired
+	Optional<IdempotencyRecord> findByKey(String key, LocalDateTime now);
+	// stores the response and the new expiry while the key still holds the given claim,
+	// false if the claim expired and the key was taken again
+	boolean complete(IdempotencyRecord claim, IdempotencyRecord record);
+	// deletes the key while it still holds the given claim
+	void delete(IdempotencyRecord claim);
+	boolean deleteIfExpired(String key, LocalDateTime now);
+	int deleteExpired(LocalDateTime now);
+}
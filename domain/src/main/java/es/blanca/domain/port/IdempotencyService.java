@@ -0,0 +1,13 @@
+package es.blanca.domain.port;
+
+import es.blanca.domain.model.IdempotentResponse;
+
+import java.util.function.Supplier;
+
+public interface IdempotencyService {
+	/**
+	 * Runs request once per key: a retry gets the stored response of the first run, or
+	 * waits for it while it is still running.
+	 */
+	IdempotentResponse execute(String key, String requestHash, Supplier<IdempotentResponse> request);
+}
@@ -0,0 +1,12 @@
+package es.blanca.domain.port;
+
+public interface InventoryRepository {
+	// takes amount units of the product if they are left, products without stock tracking always succeed
+	boolean reserve(Long productId, int amount);
+
+	// gives back units taken by reserve
+	void release(Long productId, int amount);
+
+	// replaces the stock of the product (null stops tracking it)
+	void setStock(Long productId, Integer stock);
+}
@@ -0,0 +1,14 @@
+package es.blanca.domain.port;
+
+import es.blanca.domain.model.Order;
+import es.blanca.domain.model.OrderPlacement;
+
+import java.util.Optional;
+import java.util.UUID;
+
+public interface OrderPlacementService {
+	// queues the order and returns at once; the order is created later, as by OrderService.create
+	OrderPlacement submit(Order order);
+	// empty once the placement is unknown or has expired
+	Optional<OrderPlacement> findById(UUID id);
+}
@@ -1,10 +1,22 @@
 package es.blanca.domain.port;
 
+import es.blanca.domain.model.Fieldset;
 import es.blanca.domain.model.Order;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 public interface OrderRepository extends  CrudRepository<Order,Long> {
 	// find orders by users
 	List<Order> findByUserId(Long userId);
+	// one page of a user's orders, oldest first
+	List<Order> findByUserId(Long userId, int page, int size);
+	// orders created from (inclusive) to (exclusive)
+	List<Order> findCreatedBetween(LocalDateTime from, LocalDateTime to);
+	List<Order> findByUserIdCreatedBetween(Long userId, LocalDateTime from, LocalDateTime to);
+	// the same reads, loading only the given properties of each order
+	List<Order> findAll(Fieldset fields);
+	List<Order> findByUserId(Long userId, Fieldset fields);
+	List<Order> findCreatedBetween(LocalDateTime from, LocalDateTime to, Fieldset fields);
+	List<Order> findByUserIdCreatedBetween(Long userId, LocalDateTime from, LocalDateTime to, Fieldset fields);
 }
@@ -0,0 +1,8 @@
+package es.blanca.domain.port;
+
+import es.blanca.domain.model.ChangeEvent;
+
+public interface OutboxRepository {
+	// stored in the caller's transaction, published once that commits
+	void append(ChangeEvent event);
+}
@@ -1,5 +1,6 @@
 package es.blanca.domain.port;
 
+import es.blanca.domain.model.Fieldset;
 import es.blanca.domain.model.Product;
 
 import java.util.List;
@@ -8,4 +9,8 @@ import java.util.Map;
 public interface ProductRepository extends  CrudRepository<Product,Long> {
 	// search using filters
 	List<Product> findWithFilters(Map<String, Object> filters);
+	// only the given properties of each product are read
+	List<Product> findWithFilters(Map<String, Object> filters, Fieldset fields);
+	// checksum of the id, version and stock of every product the same filters match
+	long findRevision(Map<String, Object> filters);
 }
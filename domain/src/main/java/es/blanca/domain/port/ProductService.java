@@ -1,5 +1,7 @@
 package es.blanca.domain.port;
 
+import es.blanca.domain.model.Fieldset;
+import es.blanca.domain.model.Money;
 import es.blanca.domain.model.Product;
 import es.blanca.domain.model.ProductStatus;
 
@@ -7,5 +9,13 @@ import java.util.List;
 import java.util.Map;
 
 public interface ProductService extends CrudService<Product,Long> {
-	List<Product> findWithFilters(String name, Double minPrice, Double maxPrice, ProductStatus status);
+	List<Product> findWithFilters(String name, Money minPrice, Money maxPrice, ProductStatus status);
+	// only the given properties of each product are read
+	List<Product> findWithFilters(String name, Money minPrice, Money maxPrice, ProductStatus status, Fieldset fields);
+
+	/**
+	 * Changes whenever the result of {@link #findWithFilters} with the same filters would,
+	 * without loading the products.
+	 */
+	long findRevision(String name, Money minPrice, Money maxPrice, ProductStatus status);
 }
@@ -1,11 +1,23 @@
 package es.blanca.domain.port;
 
+import es.blanca.domain.model.Fieldset;
 import es.blanca.domain.model.User;
 
+import java.util.List;
 import java.util.Optional;
 
 public interface UserRepository extends CrudRepository<User,Long> {
 	// specific User methods
 	Optional<User> findByEmail(String email);
+	// emails are unique across active and inactive users
 	boolean existsByEmail(String email);
+	// soft-deleted users left out
+	Optional<User> findActiveByEmail(String email);
+	// users come with their latest orders only, the rest are paged through OrderRepository.findByUserId
+	List<User> findAllActive();
+	List<User> findAllActive(int page, int size);
+	// orders and country are only loaded when the fieldset includes them
+	List<User> findAllActive(Fieldset fields, int page, int size);
+	// one page of a country's users, without their orders
+	List<User> findByCountryCode(String countryCode, int page, int size);
 }
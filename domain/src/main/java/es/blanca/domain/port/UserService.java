@@ -1,9 +1,19 @@
 package es.blanca.domain.port;
 
+import es.blanca.domain.model.Fieldset;
 import es.blanca.domain.model.User;
 
+import java.util.List;
 import java.util.Optional;
 
 public interface UserService extends CrudService<User,Long> {
 	Optional<User> assignCountry(Long userId, String countryCode);
+	// one page of a country's users, without their orders
+	List<User> findByCountryCode(String countryCode, int page, int size);
+	// the signed-in user, without their orders
+	Optional<User> findActiveByEmail(String email);
+	// one page of the active users, each with its latest orders
+	List<User> findAll(int page, int size);
+	// one page of the active users, orders and country only loaded when the fieldset includes them
+	List<User> findAll(Fieldset fields, int page, int size);
 }
@@ -0,0 +1,63 @@
+package es.blanca.domain.model;
+
+import org.testng.annotations.Test;
+
+import java.util.List;
+
+import static org.testng.Assert.*;
+
+public class MoneyTest {
+
+	@Test
+	public void valueOf_shouldParseToMinorUnits() {
+		assertEquals(Money.valueOf("12.34").minorUnits(), 1234);
+		assertEquals(Money.valueOf("12.3").minorUnits(), 1230);
+		assertEquals(Money.valueOf("12").minorUnits(), 1200);
+		assertEquals(Money.valueOf(".5").minorUnits(), 50);
+		assertEquals(Money.valueOf("-0.99").minorUnits(), -99);
+	}
+
+	@Test
+	public void valueOf_shouldRejectMoreThanTwoDecimals() {
+		assertThrows(IllegalArgumentException.class, () -> Money.valueOf("1.999"));
+	}
+
+	@Test
+	public void valueOf_shouldRejectAnythingButDecimals() {
+		assertThrows(IllegalArgumentException.class, () -> Money.valueOf("1e3"));
+		assertThrows(IllegalArgumentException.class, () -> Money.valueOf("-"));
+		assertThrows(IllegalArgumentException.class, () -> Money.valueOf(""));
+	}
+
+	@Test
+	public void toString_shouldAlwaysShowTwoDecimals() {
+		assertEquals(Money.ofMinor(1230).toString(), "12.30");
+		assertEquals(Money.ofMinor(5).toString(), "0.05");
+		assertEquals(Money.ofMinor(-105).toString(), "-1.05");
+		assertEquals(Money.valueOf(Money.ofMinor(99999).toString()), Money.ofMinor(99999));
+	}
+
+	@Test
+	public void arithmetic_shouldBeExact() {
+		Money tenCents = Money.valueOf("0.10");
+		Money total = Money.ZERO;
+		for (int i = 0; i < 10; i++) {
+			total = total.plus(tenCents);
+		}
+		assertEquals(total, Money.valueOf("1.00"));
+		assertEquals(Money.valueOf("19.99").times(3), Money.valueOf("59.97"));
+		assertThrows(ArithmeticException.class, () -> Money.ofMinor(Long.MAX_VALUE).plus(Money.ofMinor(1)));
+	}
+
+	@Test
+	public void orderTotal_shouldSumEveryLine() {
+		Product laptop = new Product();
+		laptop.setPrice(Money.valueOf("999.99"));
+		Product mouse = new Product();
+		mouse.setPrice(Money.valueOf("19.90"));
+		Order order = new Order();
+		order.setOrderProducts(List.of(new OrderProduct(order, laptop, 1), new OrderProduct(order, mouse, 3)));
+
+		assertEquals(order.getTotal(), Money.valueOf("1059.69"));
+	}
+}
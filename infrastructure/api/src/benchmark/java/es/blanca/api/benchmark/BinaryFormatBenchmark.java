@@ -0,0 +1,160 @@
+package es.blanca.api.benchmark;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import es.blanca.api.config.BinaryFormatConfig;
+import es.blanca.api.json.OutputDtoJsonComponent;
+import es.blanca.domain.model.Money;
+import es.blanca.domain.model.OrderStatus;
+import es.blanca.web.dto.OrderOutputDto;
+import es.blanca.web.json.MoneyJsonComponent;
+import org.junit.jupiter.api.Test;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A page of orders encoded to bytes and decoded back as JSON, CBOR or Smile, the formats
+ * {@link BinaryFormatConfig} negotiates. The mappers carry the same serializers as the
+ * application's, so the three payloads hold the same properties. One operation is one
+ * page of {@code orders} orders with {@code lines} lines each.
+ * <p>
+ * The {@code bytes} counter on {@code encode} is the payload written per second; divided
+ * by the operations it is the payload size of one page.
+ * <p>
+ * Run with {@code mvn -Pbenchmark test} in this module, JMH options go in -Djmh.args.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 1, jvmArgs = {"-Xms1g", "-Xmx1g"})
+public class BinaryFormatBenchmark {
+
+	@Param({"json", "cbor", "smile"})
+	public String format;
+
+	@Param({"20"})
+	public int orders;
+
+	@Param({"3", "50"})
+	public int lines;
+
+	private ObjectWriter writer;
+	private ObjectReader reader;
+	private List<OrderOutputDto> page;
+	private byte[] encoded;
+
+	@Setup
+	public void setUp() throws IOException {
+		ObjectMapper mapper = new ObjectMapper(factory(format))
+				.registerModule(new JavaTimeModule())
+				.registerModule(new SimpleModule()
+						.addSerializer(Money.class, new MoneyJsonComponent.Serializer())
+						.addDeserializer(Money.class, new MoneyJsonComponent.Deserializer())
+						.addSerializer(OrderOutputDto.class, new OutputDtoJsonComponent.OrderSerializer()))
+				.disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+		writer = mapper.writerFor(mapper.getTypeFactory().constructCollectionType(List.class, OrderOutputDto.class));
+		reader = mapper.readerFor(OrderOutputDto[].class);
+		page = new ArrayList<>(orders);
+		for (int i = 0; i < orders; i++) {
+			page.add(order(i, lines));
+		}
+		encoded = writer.writeValueAsBytes(page);
+	}
+
+	@Benchmark
+	public byte[] encode(Output output) throws IOException {
+		byte[] bytes = writer.writeValueAsBytes(page);
+		output.bytes += bytes.length;
+		return bytes;
+	}
+
+	@Benchmark
+	public OrderOutputDto[] decode() throws IOException {
+		return reader.readValue(encoded);
+	}
+
+	@AuxCounters(AuxCounters.Type.OPERATIONS)
+	@State(Scope.Thread)
+	public static class Output {
+
+		public long bytes;
+
+		@Setup(Level.Iteration)
+		public void reset() {
+			bytes = 0;
+		}
+	}
+
+	private static JsonFactory factory(String format) {
+		return switch (format) {
+			case "cbor" -> new CBORFactory();
+			case "smile" -> new SmileFactory();
+			default -> new JsonFactory();
+		};
+	}
+
+	private static OrderOutputDto order(int id, int lines) {
+		List<OrderOutputDto.OrderProductOutputDto> orderProducts = new ArrayList<>(lines);
+		for (int i = 0; i < lines; i++) {
+			OrderOutputDto.OrderProductOutputDto line = new OrderOutputDto.OrderProductOutputDto();
+			line.setProductId(1_000L + i);
+			line.setProductName("Product " + i);
+			line.setAmount(1 + i % 5);
+			orderProducts.add(line);
+		}
+		OrderOutputDto order = new OrderOutputDto();
+		order.setId(42L + id);
+		order.setUserId(7L);
+		order.setStatus(OrderStatus.PENDING);
+		order.setCreatedAt(LocalDateTime.of(2024, 5, 1, 10, 15, 30).plusMinutes(id));
+		order.setOrderProducts(orderProducts);
+		order.setTotal(Money.valueOf("1234.56"));
+		order.setVersion(3L);
+		return order;
+	}
+
+	@Test
+	void run() throws RunnerException, CommandLineOptionException {
+		// e.g. -Djmh.args="-p format=cbor -p lines=50"
+		String args = System.getProperty("jmh.args", "").trim();
+		Options options = new OptionsBuilder()
+				.parent(new CommandLineOptions(args.isEmpty() ? new String[0] : args.split("\\s+")))
+				.include(BinaryFormatBenchmark.class.getName())
+				.addProfiler(GCProfiler.class)
+				.build();
+		new Runner(options).run();
+	}
+}
@@ -0,0 +1,158 @@
+package es.blanca.api.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import es.blanca.api.compression.CompressionProperties;
+import es.blanca.api.compression.ResponseCompressionFilter;
+import es.blanca.api.json.OutputDtoJsonComponent;
+import es.blanca.domain.model.Money;
+import es.blanca.domain.model.OrderStatus;
+import es.blanca.web.dto.OrderOutputDto;
+import es.blanca.web.json.MoneyJsonComponent;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import org.junit.jupiter.api.Test;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One order serialized into a response by the bean serializer (serializer=reflective)
+ * or by {@link OutputDtoJsonComponent} (serializer=hand-written), sent as it is or
+ * through {@link ResponseCompressionFilter} with gzip accepted. One operation is one
+ * order with {@code lines} lines.
+ * <p>
+ * The {@code bytes} counter is the response body written per second (compressed when
+ * gzipped), and the GC profiler's {@code gc.alloc.rate.norm} the bytes allocated per
+ * serialized order.
+ * <p>
+ * Run with {@code mvn -Pbenchmark test} in this module, JMH options go in -Djmh.args.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 1, jvmArgs = {"-Xms1g", "-Xmx1g"})
+public class DtoSerializationBenchmark {
+
+	@Param({"reflective", "hand-written"})
+	public String serializer;
+
+	@Param({"identity", "gzip"})
+	public String encoding;
+
+	@Param({"3", "50"})
+	public int lines;
+
+	private ObjectWriter writer;
+	private ResponseCompressionFilter filter;
+	private FilterChain chain;
+	private MockHttpServletRequest request;
+
+	@Setup
+	public void setUp() {
+		ObjectMapper mapper = JsonMapper.builder()
+				.addModule(new JavaTimeModule())
+				.addModule(new SimpleModule().addSerializer(Money.class, new MoneyJsonComponent.Serializer()))
+				.disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+				.build();
+		if ("hand-written".equals(serializer)) {
+			mapper.registerModule(new SimpleModule().addSerializer(OrderOutputDto.class, new OutputDtoJsonComponent.OrderSerializer()));
+		}
+		writer = mapper.writerFor(OrderOutputDto.class);
+		OrderOutputDto order = order(lines);
+		chain = (req, res) -> {
+			res.setContentType("application/json");
+			writer.writeValue(res.getOutputStream(), order);
+		};
+
+		filter = new ResponseCompressionFilter(new CompressionProperties());
+		request = new MockHttpServletRequest("GET", "/orders/1");
+		if ("gzip".equals(encoding)) {
+			request.addHeader(HttpHeaders.ACCEPT_ENCODING, "gzip");
+		}
+	}
+
+	@Benchmark
+	public MockHttpServletResponse serializeOrder(Output output) throws IOException, ServletException {
+		MockHttpServletResponse response = new MockHttpServletResponse();
+		filter.doFilter(request, response, chain);
+		output.bytes += response.getContentAsByteArray().length;
+		return response;
+	}
+
+	@AuxCounters(AuxCounters.Type.OPERATIONS)
+	@State(Scope.Thread)
+	public static class Output {
+
+		public long bytes;
+
+		@Setup(Level.Iteration)
+		public void reset() {
+			bytes = 0;
+		}
+	}
+
+	private static OrderOutputDto order(int lines) {
+		List<OrderOutputDto.OrderProductOutputDto> orderProducts = new ArrayList<>(lines);
+		for (int i = 0; i < lines; i++) {
+			OrderOutputDto.OrderProductOutputDto line = new OrderOutputDto.OrderProductOutputDto();
+			line.setProductId(1_000L + i);
+			line.setProductName("Product " + i);
+			line.setAmount(1 + i % 5);
+			orderProducts.add(line);
+		}
+		OrderOutputDto order = new OrderOutputDto();
+		order.setId(42L);
+		order.setUserId(7L);
+		order.setStatus(OrderStatus.PENDING);
+		order.setCreatedAt(LocalDateTime.of(2024, 5, 1, 10, 15, 30));
+		order.setOrderProducts(orderProducts);
+		order.setTotal(Money.valueOf("1234.56"));
+		order.setVersion(3L);
+		return order;
+	}
+
+	@Test
+	void run() throws RunnerException, CommandLineOptionException {
+		// e.g. -Djmh.args="-p serializer=hand-written -p encoding=gzip"
+		String args = System.getProperty("jmh.args", "").trim();
+		Options options = new OptionsBuilder()
+				.parent(new CommandLineOptions(args.isEmpty() ? new String[0] : args.split("\\s+")))
+				.include(DtoSerializationBenchmark.class.getName())
+				.addProfiler(GCProfiler.class)
+				.build();
+		new Runner(options).run();
+	}
+}
@@ -0,0 +1,188 @@
+package es.blanca.api.benchmark;
+
+import es.blanca.api.ApiApplication;
+import es.blanca.domain.model.Money;
+import es.blanca.domain.model.OrderPlacement;
+import es.blanca.domain.model.PlacementStatus;
+import es.blanca.domain.model.Product;
+import es.blanca.domain.model.ProductStatus;
+import es.blanca.domain.port.OrderPlacementService;
+import es.blanca.domain.port.ProductService;
+import es.blanca.domain.port.UserService;
+import org.junit.jupiter.api.Test;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * POST /orders under 64 concurrent clients whose orders all take stock from the same
+ * two products, placed synchronously (mode=sync, 201 once committed) and through the
+ * group-commit writer (mode=async, 202 once queued). One operation is one order placed:
+ * in async mode the client then waits until its placement is PLACED. The placement is
+ * looked up in the server's OrderPlacementService every 10 ms rather than through
+ * the status URL, so the polling does not compete with the writer for the CPU.
+ * <p>
+ * Throughput and the sampled latency percentiles (p99) are reported for both. The server
+ * runs on in-memory H2 in the benchmark JVM, so the numbers only compare the two modes
+ * with each other.
+ * <p>
+ * Run with {@code mvn -Pbenchmark test} in this module, JMH options go in -Djmh.args.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 10)
+@Measurement(iterations = 3, time = 20)
+@Fork(value = 1, jvmArgs = {"-Xms1g", "-Xmx1g"})
+@Threads(64)
+public class OrderPlacementBenchmark {
+
+	private static final String EMAIL = "placement@example.com";
+	private static final String PASSWORD = "Benchmark1";
+	private static final Pattern TOKEN = Pattern.compile("\"token\"\\s*:\\s*\"([^\"]+)\"");
+	private static final Pattern PLACEMENT_ID = Pattern.compile("\"id\"\\s*:\\s*\"([0-9a-f-]+)\"");
+	private static final long POLL_NANOS = TimeUnit.MILLISECONDS.toNanos(10);
+
+	@Param({"sync", "async"})
+	public String mode;
+
+	private ConfigurableApplicationContext context;
+	private OrderPlacementService orderPlacementService;
+	private HttpClient client;
+	private URI baseUri;
+	private String token;
+	private String orderJson;
+
+	@Setup
+	public void startApplication() throws IOException, InterruptedException {
+		// command line arguments, so they win over application.properties
+		context = new SpringApplicationBuilder(ApiApplication.class)
+				.profiles("test")
+				.run("--server.port=0",
+						"--orders.placement.async=" + "async".equals(mode),
+						"--spring.datasource.url=jdbc:h2:mem:placement-" + mode + ";DB_CLOSE_DELAY=-1",
+						// only the placement mode is compared, nothing sheds load
+						"--rate-limit.enabled=false",
+						"--concurrency-limit.enabled=false",
+						"--bulkhead.enabled=false",
+						"--spring.jpa.show-sql=false",
+						"--logging.level.root=WARN",
+						"--logging.level.es.blanca=WARN",
+						"--logging.level.org.hibernate.SQL=WARN",
+						"--logging.level.org.springframework.security=WARN");
+		client = HttpClient.newBuilder()
+				.version(HttpClient.Version.HTTP_1_1)
+				.connectTimeout(Duration.ofSeconds(10))
+				.build();
+		baseUri = URI.create("http://localhost:" + ((WebServerApplicationContext) context).getWebServer().getPort());
+		orderPlacementService = context.getBean(OrderPlacementService.class);
+
+		// tracked stock, so every order line is a conditional update of one of these rows
+		ProductService productService = context.getBean(ProductService.class);
+		Product first = productService.create(new Product(null, "Hot product 1", Money.valueOf("9.99"), ProductStatus.AVAILABLE,
+				100_000_000, LocalDateTime.now(), null));
+		Product second = productService.create(new Product(null, "Hot product 2", Money.valueOf("4.99"), ProductStatus.AVAILABLE,
+				100_000_000, LocalDateTime.now(), null));
+
+		HttpResponse<String> registered = send(post("/auth/register",
+				"{\"fullName\":\"Placement User\",\"email\":\"" + EMAIL + "\",\"password\":\"" + PASSWORD + "\"}"));
+		Matcher matcher = TOKEN.matcher(registered.body());
+		if (!matcher.find()) {
+			throw new IllegalStateException("No token in the register response: " + registered.body());
+		}
+		token = matcher.group(1);
+		Long userId = context.getBean(UserService.class).findAll().stream()
+				.filter(user -> EMAIL.equals(user.getEmail()))
+				.findFirst()
+				.orElseThrow()
+				.getId();
+		orderJson = "{\"userId\":" + userId + ",\"orderProducts\":["
+				+ "{\"productId\":" + first.getId() + ",\"amount\":1},"
+				+ "{\"productId\":" + second.getId() + ",\"amount\":2}]}";
+	}
+
+	@TearDown
+	public void stopApplication() {
+		context.close();
+	}
+
+	@Benchmark
+	public Object placeOrder() throws IOException, InterruptedException {
+		HttpResponse<String> response = send(post("/orders", orderJson));
+		if (response.statusCode() == 201) {
+			return response.body();
+		}
+		Matcher id = PLACEMENT_ID.matcher(response.body());
+		if (response.statusCode() != 202 || !id.find()) {
+			throw new IllegalStateException("POST /orders answered " + response.statusCode() + ": " + response.body());
+		}
+		UUID placementId = UUID.fromString(id.group(1));
+		while (true) {
+			OrderPlacement placement = orderPlacementService.findById(placementId).orElseThrow();
+			if (placement.getStatus() == PlacementStatus.PLACED) {
+				return placement;
+			}
+			if (placement.getStatus() == PlacementStatus.FAILED) {
+				throw new IllegalStateException("Placement failed: " + placement.getMessage());
+			}
+			LockSupport.parkNanos(POLL_NANOS);
+		}
+	}
+
+	private HttpRequest post(String path, String json) {
+		HttpRequest.Builder builder = HttpRequest.newBuilder(baseUri.resolve(path))
+				.header("Content-Type", "application/json")
+				.POST(HttpRequest.BodyPublishers.ofString(json));
+		if (token != null) {
+			builder.header("Authorization", "Bearer " + token);
+		}
+		return builder.build();
+	}
+
+	private HttpResponse<String> send(HttpRequest request) throws IOException, InterruptedException {
+		return client.send(request, HttpResponse.BodyHandlers.ofString());
+	}
+
+	@Test
+	void run() throws RunnerException, CommandLineOptionException {
+		// e.g. -Djmh.args="-p mode=async -wi 1 -i 1"
+		String args = System.getProperty("jmh.args", "").trim();
+		Options options = new OptionsBuilder()
+				.parent(new CommandLineOptions(args.isEmpty() ? new String[0] : args.split("\\s+")))
+				.include(OrderPlacementBenchmark.class.getName())
+				.build();
+		new Runner(options).run();
+	}
+}
@@ -0,0 +1,165 @@
+package es.blanca.api.benchmark;
+
+import es.blanca.api.ApiApplication;
+import es.blanca.domain.model.Money;
+import es.blanca.domain.model.Product;
+import es.blanca.domain.model.ProductStatus;
+import es.blanca.domain.port.ProductService;
+import org.junit.jupiter.api.Test;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * The same API started with request handling on the Tomcat platform-thread pool
+ * (mode=platform, 200 threads) and on virtual threads (mode=virtual), each under 400
+ * concurrent clients:
+ * <ul>
+ *     <li>login: BCrypt plus the user lookup, the security path</li>
+ *     <li>listProducts: JWT validation plus a product query, the JDBC path</li>
+ * </ul>
+ * Throughput and the sampled latency percentiles (p99) are reported for both. The
+ * server runs on in-memory H2 in the benchmark JVM, so the numbers only compare the two
+ * modes with each other. mode=virtual needs JDK 21 or later and fails its setup on an
+ * older one, run {@code -Djmh.args="-p mode=platform"} there.
+ * <p>
+ * Run with {@code mvn -Pbenchmark test} in this module, JMH options go in -Djmh.args.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 10)
+@Measurement(iterations = 3, time = 20)
+@Fork(value = 1, jvmArgs = {"-Xms1g", "-Xmx1g"})
+@Threads(400)
+public class RequestExecutionBenchmark {
+
+	private static final String EMAIL = "benchmark@example.com";
+	private static final String PASSWORD = "Benchmark1";
+	private static final Pattern TOKEN = Pattern.compile("\"token\"\\s*:\\s*\"([^\"]+)\"");
+
+	@Param({"platform", "virtual"})
+	public String mode;
+
+	private ConfigurableApplicationContext context;
+	private HttpClient client;
+	private URI baseUri;
+	private String token;
+
+	@Setup
+	public void startApplication() throws IOException, InterruptedException {
+		boolean virtual = "virtual".equals(mode);
+		// Spring would silently fall back to the platform pool and report it as virtual
+		if (virtual && Runtime.version().feature() < 21) {
+			throw new IllegalStateException("JDK " + Runtime.version() + " has no virtual threads, run mode=virtual on JDK 21 or later");
+		}
+		// command line arguments, so they win over application.properties
+		context = new SpringApplicationBuilder(ApiApplication.class)
+				.profiles("test")
+				.run("--server.port=0",
+						"--server.tomcat.threads.max=200",
+						"--spring.threads.virtual.enabled=" + virtual,
+						"--spring.datasource.url=jdbc:h2:mem:benchmark-" + mode + ";DB_CLOSE_DELAY=-1",
+						// only the thread model is compared, nothing sheds load
+						"--rate-limit.enabled=false",
+						"--concurrency-limit.enabled=false",
+						"--bulkhead.enabled=false",
+						"--spring.jpa.show-sql=false",
+						"--logging.level.root=WARN",
+						"--logging.level.es.blanca=WARN",
+						"--logging.level.org.hibernate.SQL=WARN",
+						"--logging.level.org.springframework.security=WARN");
+		client = HttpClient.newBuilder()
+				.version(HttpClient.Version.HTTP_1_1)
+				.connectTimeout(Duration.ofSeconds(10))
+				.build();
+		baseUri = URI.create("http://localhost:" + ((WebServerApplicationContext) context).getWebServer().getPort());
+
+		ProductService productService = context.getBean(ProductService.class);
+		for (int i = 0; i < 50; i++) {
+			productService.create(new Product(null, "Product " + i, Money.valueOf("9.99"), ProductStatus.AVAILABLE,
+					100, LocalDateTime.now(), null));
+		}
+		String registered = send(post("/auth/register",
+				"{\"fullName\":\"Benchmark User\",\"email\":\"" + EMAIL + "\",\"password\":\"" + PASSWORD + "\"}"));
+		Matcher matcher = TOKEN.matcher(registered);
+		if (!matcher.find()) {
+			throw new IllegalStateException("No token in the register response: " + registered);
+		}
+		token = matcher.group(1);
+	}
+
+	@TearDown
+	public void stopApplication() {
+		context.close();
+	}
+
+	@Benchmark
+	public String login() throws IOException, InterruptedException {
+		return send(post("/auth/login", "{\"email\":\"" + EMAIL + "\",\"password\":\"" + PASSWORD + "\"}"));
+	}
+
+	@Benchmark
+	public String listProducts() throws IOException, InterruptedException {
+		return send(HttpRequest.newBuilder(baseUri.resolve("/products"))
+				.header("Authorization", "Bearer " + token)
+				.GET()
+				.build());
+	}
+
+	private HttpRequest post(String path, String json) {
+		return HttpRequest.newBuilder(baseUri.resolve(path))
+				.header("Content-Type", "application/json")
+				.POST(HttpRequest.BodyPublishers.ofString(json))
+				.build();
+	}
+
+	private String send(HttpRequest request) throws IOException, InterruptedException {
+		HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+		if (response.statusCode() >= 300) {
+			throw new IllegalStateException(request.uri() + " answered " + response.statusCode() + ": " + response.body());
+		}
+		return response.body();
+	}
+
+	@Test
+	void run() throws RunnerException, CommandLineOptionException {
+		// e.g. -Djmh.args="-p mode=virtual -wi 1 -i 1"
+		String args = System.getProperty("jmh.args", "").trim();
+		Options options = new OptionsBuilder()
+				.parent(new CommandLineOptions(args.isEmpty() ? new String[0] : args.split("\\s+")))
+				.include(RequestExecutionBenchmark.class.getName())
+				.build();
+		new Runner(options).run();
+	}
+}
@@ -5,15 +5,18 @@ import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.boot.autoconfigure.domain.EntityScan;
 import org.springframework.context.annotation.ComponentScan;
 import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication
 @ComponentScan(basePackages = {
 		"es.blanca.api",
+		"es.blanca.web",
 		"es.blanca.application",
 		"es.blanca.jpa"
 })
 @EnableJpaRepositories(basePackages = "es.blanca.jpa.repository")
-@EntityScan(basePackages = "es.blanca.jpa.entity")
+@EntityScan(basePackages = {"es.blanca.jpa.entity", "es.blanca.jpa.converter"})
+@EnableScheduling
 public class ApiApplication {
 
 	public static void main(String[] args) {
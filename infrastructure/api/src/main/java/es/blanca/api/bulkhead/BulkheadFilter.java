@@ -0,0 +1,126 @@
+package es.blanca.api.bulkhead;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import es.blanca.application.workload.Workload;
+import es.blanca.application.workload.WorkloadContext;
+import es.blanca.web.exception.CustomError;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.PathContainer;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.pattern.PathPattern;
+import org.springframework.web.util.pattern.PathPatternParser;
+
+import java.io.IOException;
+import java.time.LocalDate;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Splits request threads into one bounded partition per {@link Workload} and publishes the
+ * workload to the persistence layer, which serves it from its own connection pool.
+ * A burst of admin reports can therefore only take its own slots and connections.
+ */
+@Slf4j
+@Component
+public class BulkheadFilter extends OncePerRequestFilter {
+
+	private final BulkheadProperties properties;
+	private final ObjectMapper objectMapper;
+	private final List<PathPattern> reportingPatterns;
+	private final Map<Workload, Semaphore> partitions = new EnumMap<>(Workload.class);
+
+	public BulkheadFilter(BulkheadProperties properties, ObjectMapper objectMapper) {
+		this.properties = properties;
+		this.objectMapper = objectMapper;
+		this.reportingPatterns = properties.getReportingPatterns().stream()
+				.map(PathPatternParser.defaultInstance::parse)
+				.collect(Collectors.toList());
+		for (Workload workload : Workload.values()) {
+			partitions.put(workload, new Semaphore(properties.forWorkload(workload).getMaxConcurrent()));
+		}
+	}
+
+	@Override
+	protected boolean shouldNotFilter(HttpServletRequest request) {
+		return !properties.isEnabled();
+	}
+
+	@Override
+	protected void doFilterInternal(HttpServletRequest request,
+	                                HttpServletResponse response,
+	                                FilterChain filterChain) throws ServletException, IOException {
+		Workload workload = resolveWorkload(request, SecurityContextHolder.getContext().getAuthentication());
+		Semaphore partition = partitions.get(workload);
+		if (!acquire(partition, properties.forWorkload(workload).getMaxWait().toNanos())) {
+			reject(response, workload);
+			return;
+		}
+
+		WorkloadContext.set(workload);
+		try {
+			filterChain.doFilter(request, response);
+		} finally {
+			WorkloadContext.clear();
+			partition.release();
+		}
+	}
+
+	Workload resolveWorkload(HttpServletRequest request, Authentication authentication) {
+		if (!"GET".equals(request.getMethod()) || authentication == null) {
+			return Workload.INTERACTIVE;
+		}
+		boolean hasRole = authentication.getAuthorities().stream()
+				.anyMatch(auth -> auth.getAuthority().equals(properties.getReportingRole()));
+		if (!hasRole) {
+			return Workload.INTERACTIVE;
+		}
+		PathContainer path = PathContainer.parsePath(request.getRequestURI());
+		for (PathPattern pattern : reportingPatterns) {
+			if (pattern.matches(path)) {
+				return Workload.REPORTING;
+			}
+		}
+		return Workload.INTERACTIVE;
+	}
+
+	public int availableSlots(Workload workload) {
+		return partitions.get(workload).availablePermits();
+	}
+
+	private static boolean acquire(Semaphore partition, long maxWaitNanos) {
+		if (maxWaitNanos <= 0) {
+			return partition.tryAcquire();
+		}
+		try {
+			return partition.tryAcquire(maxWaitNanos, TimeUnit.NANOSECONDS);
+		} catch (InterruptedException ex) {
+			Thread.currentThread().interrupt();
+			return false;
+		}
+	}
+
+	private void reject(HttpServletResponse response, Workload workload) throws IOException {
+		log.warn("Bulkhead {} is full, rejecting request", workload);
+		CustomError error = CustomError.builder()
+				.timestamp(LocalDate.now())
+				.httpCode(HttpStatus.SERVICE_UNAVAILABLE.value())
+				.message("Too many " + workload.name().toLowerCase() + " requests in progress, please retry later")
+				.build();
+		response.setStatus(HttpStatus.SERVICE_UNAVAILABLE.value());
+		response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+		objectMapper.writeValue(response.getOutputStream(), error);
+	}
+}
@@ -0,0 +1,41 @@
+package es.blanca.api.bulkhead;
+
+import es.blanca.application.workload.Workload;
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+@Getter
+@Setter
+@Component
+@ConfigurationProperties(prefix = "bulkhead")
+public class BulkheadProperties {
+
+	private boolean enabled = true;
+
+	// GET routes that count as reporting when called by reportingRole
+	private List<String> reportingPatterns = new ArrayList<>(List.of("/users", "/orders"));
+	private String reportingRole = "ROLE_ADMIN";
+
+	private Map<Workload, Partition> partitions = new EnumMap<>(Workload.class);
+
+	public Partition forWorkload(Workload workload) {
+		return partitions.getOrDefault(workload, new Partition());
+	}
+
+	@Getter
+	@Setter
+	public static class Partition {
+		// request threads this workload may occupy at the same time
+		private int maxConcurrent = 100;
+		// how long a request may wait for a free slot before being rejected
+		private Duration maxWait = Duration.ZERO;
+	}
+}
@@ -0,0 +1,287 @@
+package es.blanca.api.compression;
+
+import es.blanca.web.etag.EntityTags;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.WriteListener;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpServletResponseWrapper;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.zip.Deflater;
+
+/**
+ * Holds the body back until it reaches the threshold. A body that ends before that is
+ * sent as it is, with its length; a longer one of a compressible type is gzipped from
+ * there on. Headers can still be changed when the decision is taken, since nothing has
+ * been written yet.
+ */
+class CompressingResponse extends HttpServletResponseWrapper {
+
+	private enum State {BUFFERING, COMPRESSING, PASSING_THROUGH}
+
+	private final GzipEncoderPool pool;
+	private final List<MediaType> mimeTypes;
+	private final int threshold;
+	private final String ifNoneMatch;
+	private final byte[] buffer;
+	private State state = State.BUFFERING;
+	private int count;
+	private long contentLength = -1;
+	private OutputStream target;
+	private Deflater deflater;
+	private byte[] deflateBuffer;
+	private ServletOutputStream outputStream;
+	private PrintWriter writer;
+
+	CompressingResponse(HttpServletResponse response, GzipEncoderPool pool, List<MediaType> mimeTypes, int threshold,
+	                    String ifNoneMatch) {
+		super(response);
+		this.pool = pool;
+		this.mimeTypes = mimeTypes;
+		this.threshold = threshold;
+		this.ifNoneMatch = ifNoneMatch;
+		this.buffer = pool.buffer();
+	}
+
+	@Override
+	public ServletOutputStream getOutputStream() {
+		if (writer != null) {
+			throw new IllegalStateException("getWriter() has already been called");
+		}
+		if (outputStream == null) {
+			outputStream = new BodyStream();
+		}
+		return outputStream;
+	}
+
+	@Override
+	public PrintWriter getWriter() {
+		if (writer == null) {
+			if (outputStream != null) {
+				throw new IllegalStateException("getOutputStream() has already been called");
+			}
+			String encoding = getCharacterEncoding();
+			Charset charset = encoding != null ? Charset.forName(encoding) : StandardCharsets.ISO_8859_1;
+			writer = new PrintWriter(new OutputStreamWriter(new BodyStream(), charset));
+		}
+		return writer;
+	}
+
+	@Override
+	public void setContentLength(int length) {
+		setContentLengthLong(length);
+	}
+
+	// kept back until it is known whether the body is compressed
+	@Override
+	public void setContentLengthLong(long length) {
+		if (state == State.PASSING_THROUGH) {
+			super.setContentLengthLong(length);
+		} else {
+			contentLength = length;
+		}
+	}
+
+	@Override
+	public void setHeader(String name, String value) {
+		if (HttpHeaders.CONTENT_LENGTH.equalsIgnoreCase(name)) {
+			setContentLengthLong(value != null ? Long.parseLong(value) : -1);
+		} else {
+			super.setHeader(name, value);
+		}
+	}
+
+	@Override
+	public void addHeader(String name, String value) {
+		if (HttpHeaders.CONTENT_LENGTH.equalsIgnoreCase(name)) {
+			setContentLengthLong(Long.parseLong(value));
+		} else {
+			super.addHeader(name, value);
+		}
+	}
+
+	@Override
+	public void setIntHeader(String name, int value) {
+		if (HttpHeaders.CONTENT_LENGTH.equalsIgnoreCase(name)) {
+			setContentLengthLong(value);
+		} else {
+			super.setIntHeader(name, value);
+		}
+	}
+
+	@Override
+	public void flushBuffer() throws IOException {
+		if (writer != null) {
+			writer.flush();
+		}
+		if (state != State.BUFFERING) {
+			target.flush();
+			super.flushBuffer();
+		}
+	}
+
+	@Override
+	public void resetBuffer() {
+		if (state == State.BUFFERING) {
+			count = 0;
+		}
+		super.resetBuffer();
+	}
+
+	@Override
+	public void reset() {
+		if (state == State.BUFFERING) {
+			count = 0;
+			contentLength = -1;
+		}
+		super.reset();
+	}
+
+	/**
+	 * Sends what is still held back and ends the gzip stream. Always called once the
+	 * request is done, it also gives the pooled deflater and buffers back.
+	 */
+	void finish() throws IOException {
+		try {
+			if (writer != null) {
+				writer.flush();
+			}
+			switch (state) {
+				case BUFFERING -> {
+					if (compressibleType()) {
+						addVary();
+					}
+					if (getStatus() == HttpServletResponse.SC_NOT_MODIFIED) {
+						keepGzipTag();
+					}
+					if (count > 0 && !isCommitted()) {
+						super.setContentLength(count);
+						getResponse().getOutputStream().write(buffer, 0, count);
+					} else if (contentLength >= 0 && !isCommitted()) {
+						super.setContentLengthLong(contentLength);
+					}
+				}
+				case COMPRESSING -> ((GzipOutputStream) target).finish();
+				case PASSING_THROUGH -> {
+				}
+			}
+		} finally {
+			pool.release(buffer);
+			if (deflater != null) {
+				pool.release(deflater);
+				pool.release(deflateBuffer);
+			}
+		}
+	}
+
+	private void write(byte[] bytes, int offset, int length) throws IOException {
+		if (state == State.BUFFERING) {
+			if (count + length <= threshold) {
+				System.arraycopy(bytes, offset, buffer, count, length);
+				count += length;
+				return;
+			}
+			start();
+		}
+		target.write(bytes, offset, length);
+	}
+
+	private void start() throws IOException {
+		if (compressibleType() && getHeader(HttpHeaders.CONTENT_ENCODING) == null && hasCompressibleStatus()) {
+			state = State.COMPRESSING;
+			super.setHeader(HttpHeaders.CONTENT_ENCODING, "gzip");
+			addVary();
+			gzipTag();
+			deflater = pool.deflater();
+			deflateBuffer = pool.buffer();
+			target = new GzipOutputStream(getResponse().getOutputStream(), deflater, deflateBuffer);
+		} else {
+			state = State.PASSING_THROUGH;
+			if (contentLength >= 0) {
+				super.setContentLengthLong(contentLength);
+			}
+			target = getResponse().getOutputStream();
+		}
+		target.write(buffer, 0, count);
+		count = 0;
+	}
+
+	private boolean compressibleType() {
+		String contentType = getContentType();
+		if (contentType == null) {
+			return false;
+		}
+		MediaType mediaType = MediaType.parseMediaType(contentType);
+		return mimeTypes.stream().anyMatch(type -> type.includes(mediaType));
+	}
+
+	private boolean hasCompressibleStatus() {
+		int status = getStatus();
+		return status != HttpServletResponse.SC_PARTIAL_CONTENT && status != HttpServletResponse.SC_NO_CONTENT;
+	}
+
+	private void addVary() {
+		String vary = getHeader(HttpHeaders.VARY);
+		if (vary == null || !vary.toLowerCase().contains("accept-encoding")) {
+			super.addHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+		}
+	}
+
+	// the gzipped body is another representation, so a strong tag must differ from the plain one
+	private void gzipTag() {
+		String tag = getHeader(HttpHeaders.ETAG);
+		if (tag != null && tag.endsWith("\"")) {
+			super.setHeader(HttpHeaders.ETAG, tag.substring(0, tag.length() - 1) + EntityTags.GZIP_SUFFIX + "\"");
+		}
+	}
+
+	// a client revalidating its gzipped copy keeps the tag it has
+	private void keepGzipTag() {
+		String tag = getHeader(HttpHeaders.ETAG);
+		if (tag != null && tag.endsWith("\"") && ifNoneMatch != null) {
+			String gzipped = tag.substring(0, tag.length() - 1) + EntityTags.GZIP_SUFFIX + "\"";
+			if (ifNoneMatch.contains(gzipped)) {
+				super.setHeader(HttpHeaders.ETAG, gzipped);
+			}
+		}
+	}
+
+	private class BodyStream extends ServletOutputStream {
+
+		@Override
+		public void write(int b) throws IOException {
+			CompressingResponse.this.write(new byte[]{(byte) b}, 0, 1);
+		}
+
+		@Override
+		public void write(byte[] bytes, int offset, int length) throws IOException {
+			CompressingResponse.this.write(bytes, offset, length);
+		}
+
+		// held back until the body is known to be short or has been started
+		@Override
+		public void flush() throws IOException {
+			if (state != State.BUFFERING) {
+				target.flush();
+			}
+		}
+
+		@Override
+		public boolean isReady() {
+			return true;
+		}
+
+		@Override
+		public void setWriteListener(WriteListener writeListener) {
+			throw new UnsupportedOperationException("Non-blocking writes are not supported while compressing");
+		}
+	}
+}
@@ -0,0 +1,32 @@
+package es.blanca.api.compression;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.Deflater;
+
+@Getter
+@Setter
+@Component
+@ConfigurationProperties(prefix = "compression")
+public class CompressionProperties {
+
+	private boolean enabled = true;
+
+	// smaller bodies are sent as they are, gzip would barely shrink them
+	private DataSize minResponseSize = DataSize.ofKilobytes(2);
+
+	// content types worth compressing
+	private List<String> mimeTypes = new ArrayList<>(List.of("application/json"));
+
+	// 1 (fastest) to 9 (smallest)
+	private int level = Deflater.DEFAULT_COMPRESSION;
+
+	// idle deflaters and buffers kept for the next responses
+	private int poolSize = 64;
+}
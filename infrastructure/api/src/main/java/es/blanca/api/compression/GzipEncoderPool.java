@@ -0,0 +1,48 @@
+package es.blanca.api.compression;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.zip.Deflater;
+
+/**
+ * Deflaters and response buffers shared between requests. A Deflater holds a few hundred
+ * kilobytes of native zlib state, and GZIPOutputStream allocates a new one per response,
+ * so they are reset and reused instead. Pooled explicitly rather than per thread, which
+ * would give every virtual thread its own.
+ */
+final class GzipEncoderPool {
+
+	private final int level;
+	private final int bufferSize;
+	private final BlockingQueue<Deflater> deflaters;
+	private final BlockingQueue<byte[]> buffers;
+
+	GzipEncoderPool(int level, int bufferSize, int capacity) {
+		this.level = level;
+		this.bufferSize = bufferSize;
+		this.deflaters = new ArrayBlockingQueue<>(capacity);
+		this.buffers = new ArrayBlockingQueue<>(capacity);
+	}
+
+	Deflater deflater() {
+		Deflater deflater = deflaters.poll();
+		// raw deflate, the gzip header and trailer are written by GzipOutputStream
+		return deflater != null ? deflater : new Deflater(level, true);
+	}
+
+	void release(Deflater deflater) {
+		deflater.reset();
+		if (!deflaters.offer(deflater)) {
+			deflater.end();
+		}
+	}
+
+	byte[] buffer() {
+		byte[] buffer = buffers.poll();
+		return buffer != null ? buffer : new byte[bufferSize];
+	}
+
+	void release(byte[] buffer) {
+		buffers.offer(buffer);
+	}
+}
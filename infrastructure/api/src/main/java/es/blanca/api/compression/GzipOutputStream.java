@@ -0,0 +1,87 @@
+package es.blanca.api.compression;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+
+/**
+ * The gzip framing (RFC 1952) around a raw Deflater taken from a {@link GzipEncoderPool}:
+ * what GZIPOutputStream does, minus creating a Deflater and a buffer per stream.
+ */
+final class GzipOutputStream extends OutputStream {
+
+	private static final byte[] HEADER = {0x1f, (byte) 0x8b, Deflater.DEFLATED, 0, 0, 0, 0, 0, 0, (byte) 0xff};
+
+	private final OutputStream out;
+	private final Deflater deflater;
+	private final byte[] buffer;
+	private final CRC32 crc = new CRC32();
+	private boolean finished;
+
+	GzipOutputStream(OutputStream out, Deflater deflater, byte[] buffer) throws IOException {
+		this.out = out;
+		this.deflater = deflater;
+		this.buffer = buffer;
+		out.write(HEADER);
+	}
+
+	@Override
+	public void write(int b) throws IOException {
+		write(new byte[]{(byte) b}, 0, 1);
+	}
+
+	@Override
+	public void write(byte[] bytes, int offset, int length) throws IOException {
+		if (finished) {
+			throw new IOException("Stream already finished");
+		}
+		if (length == 0) {
+			return;
+		}
+		crc.update(bytes, offset, length);
+		deflater.setInput(bytes, offset, length);
+		while (!deflater.needsInput()) {
+			deflate(Deflater.NO_FLUSH);
+		}
+	}
+
+	// written bytes only reach the client once the deflater lets go of them
+	@Override
+	public void flush() throws IOException {
+		if (!finished) {
+			deflate(Deflater.SYNC_FLUSH);
+		}
+		out.flush();
+	}
+
+	void finish() throws IOException {
+		if (finished) {
+			return;
+		}
+		finished = true;
+		deflater.finish();
+		while (!deflater.finished()) {
+			deflate(Deflater.NO_FLUSH);
+		}
+		writeIntLittleEndian((int) crc.getValue());
+		writeIntLittleEndian((int) deflater.getBytesRead());
+	}
+
+	private void deflate(int flush) throws IOException {
+		int length;
+		do {
+			length = deflater.deflate(buffer, 0, buffer.length, flush);
+			if (length > 0) {
+				out.write(buffer, 0, length);
+			}
+		} while (length == buffer.length);
+	}
+
+	private void writeIntLittleEndian(int value) throws IOException {
+		out.write(value & 0xff);
+		out.write((value >>> 8) & 0xff);
+		out.write((value >>> 16) & 0xff);
+		out.write((value >>> 24) & 0xff);
+	}
+}
@@ -0,0 +1,98 @@
+package es.blanca.api.compression;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Gzips responses for clients that accept it, once the body is past
+ * {@code compression.min-response-size}. Done here rather than by Tomcat's own
+ * compression, which leaves out every response with a strong ETag: the catalog
+ * listings the mobile app polls are exactly those. The tag of a gzipped body gets
+ * a {@code -gzip} suffix, so it stays strong and still revalidates.
+ * <p>
+ * Brotli is not offered, neither the JDK nor Tomcat has an encoder for it.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class ResponseCompressionFilter extends OncePerRequestFilter {
+
+	private final CompressionProperties properties;
+	private final List<MediaType> mimeTypes;
+	private final int threshold;
+	private final GzipEncoderPool pool;
+
+	public ResponseCompressionFilter(CompressionProperties properties) {
+		this.properties = properties;
+		this.mimeTypes = MediaType.parseMediaTypes(properties.getMimeTypes());
+		this.threshold = (int) properties.getMinResponseSize().toBytes();
+		this.pool = new GzipEncoderPool(properties.getLevel(), Math.max(threshold, 8192), properties.getPoolSize());
+	}
+
+	@Override
+	protected boolean shouldNotFilter(HttpServletRequest request) {
+		return !properties.isEnabled() || "HEAD".equals(request.getMethod())
+				|| !acceptsGzip(request.getHeader(HttpHeaders.ACCEPT_ENCODING));
+	}
+
+	@Override
+	protected void doFilterInternal(HttpServletRequest request,
+	                                HttpServletResponse response,
+	                                FilterChain filterChain) throws ServletException, IOException {
+		CompressingResponse compressing = new CompressingResponse(response, pool, mimeTypes, threshold,
+				request.getHeader(HttpHeaders.IF_NONE_MATCH));
+		try {
+			filterChain.doFilter(request, compressing);
+		} finally {
+			compressing.finish();
+		}
+	}
+
+	/**
+	 * Whether gzip has a non-zero quality, by name or through {@code *}.
+	 * {@code gzip;q=0} turns it off even when {@code *} is accepted.
+	 */
+	static boolean acceptsGzip(String acceptEncoding) {
+		if (acceptEncoding == null) {
+			return false;
+		}
+		Boolean wildcard = null;
+		for (String coding : acceptEncoding.split(",")) {
+			String[] parts = coding.split(";");
+			String name = parts[0].trim().toLowerCase(Locale.ROOT);
+			boolean accepted = quality(parts) > 0;
+			if (name.equals("gzip") || name.equals("x-gzip")) {
+				return accepted;
+			}
+			if (name.equals("*")) {
+				wildcard = accepted;
+			}
+		}
+		return Boolean.TRUE.equals(wildcard);
+	}
+
+	private static double quality(String[] parameters) {
+		for (int i = 1; i < parameters.length; i++) {
+			String parameter = parameters[i].trim();
+			if (parameter.startsWith("q=")) {
+				try {
+					return Double.parseDouble(parameter.substring(2));
+				} catch (NumberFormatException e) {
+					return 0;
+				}
+			}
+		}
+		return 1;
+	}
+}
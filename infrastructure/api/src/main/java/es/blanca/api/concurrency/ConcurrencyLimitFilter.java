@@ -0,0 +1,112 @@
+package es.blanca.api.concurrency;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import es.blanca.web.exception.CustomError;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.time.LocalDate;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Sheds load with 503 as soon as a traffic class has more requests in flight than its
+ * adaptive limit, instead of letting them queue in Tomcat until they time out.
+ */
+@Slf4j
+@Component
+public class ConcurrencyLimitFilter extends OncePerRequestFilter {
+
+	private final ConcurrencyLimitProperties properties;
+	private final ObjectMapper objectMapper;
+	private final Map<TrafficClass, GradientLimiter> limiters = new EnumMap<>(TrafficClass.class);
+
+	public ConcurrencyLimitFilter(ConcurrencyLimitProperties properties, ObjectMapper objectMapper, MeterRegistry meterRegistry) {
+		this.properties = properties;
+		this.objectMapper = objectMapper;
+		long now = System.nanoTime();
+		for (TrafficClass trafficClass : TrafficClass.values()) {
+			ConcurrencyLimitProperties.Limit limit = properties.forClass(trafficClass);
+			GradientLimiter limiter = new GradientLimiter(limit.getInitialLimit(), limit.getMinLimit(),
+					limit.getMaxLimit(), properties.getWindow().toNanos(), properties.getSmoothing(), now);
+			limiters.put(trafficClass, limiter);
+			registerMetrics(meterRegistry, trafficClass, limiter);
+		}
+	}
+
+	@Override
+	protected boolean shouldNotFilter(HttpServletRequest request) {
+		return !properties.isEnabled();
+	}
+
+	@Override
+	protected void doFilterInternal(HttpServletRequest request,
+	                                HttpServletResponse response,
+	                                FilterChain filterChain) throws ServletException, IOException {
+		TrafficClass trafficClass = TrafficClass.of(request, SecurityContextHolder.getContext().getAuthentication());
+		GradientLimiter limiter = limiters.get(trafficClass);
+		if (!limiter.tryAcquire()) {
+			reject(response, trafficClass, limiter);
+			return;
+		}
+
+		long start = System.nanoTime();
+		boolean sampled = false;
+		try {
+			filterChain.doFilter(request, response);
+			if (response.getStatus() < HttpStatus.INTERNAL_SERVER_ERROR.value()) {
+				long now = System.nanoTime();
+				limiter.release(now - start, now);
+				sampled = true;
+			}
+		} finally {
+			if (!sampled) {
+				limiter.releaseWithoutSample();
+			}
+		}
+	}
+
+	public GradientLimiter getLimiter(TrafficClass trafficClass) {
+		return limiters.get(trafficClass);
+	}
+
+	private void reject(HttpServletResponse response, TrafficClass trafficClass, GradientLimiter limiter) throws IOException {
+		log.warn("Shedding {} request, limit {} reached", trafficClass, limiter.getLimit());
+		CustomError error = CustomError.builder()
+				.timestamp(LocalDate.now())
+				.httpCode(HttpStatus.SERVICE_UNAVAILABLE.value())
+				.message("Server is overloaded, please retry later")
+				.build();
+		response.setStatus(HttpStatus.SERVICE_UNAVAILABLE.value());
+		response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+		objectMapper.writeValue(response.getOutputStream(), error);
+	}
+
+	private static void registerMetrics(MeterRegistry registry, TrafficClass trafficClass, GradientLimiter limiter) {
+		String tag = trafficClass.name().toLowerCase();
+		Gauge.builder("http.server.concurrency.limit", limiter, GradientLimiter::getLimit)
+				.description("Current adaptive concurrency limit")
+				.tag("class", tag)
+				.register(registry);
+		Gauge.builder("http.server.concurrency.inflight", limiter, GradientLimiter::getInFlight)
+				.description("Requests currently in flight")
+				.tag("class", tag)
+				.register(registry);
+		FunctionCounter.builder("http.server.concurrency.rejected", limiter, GradientLimiter::getRejected)
+				.description("Requests shed because the limit was reached")
+				.tag("class", tag)
+				.register(registry);
+	}
+}
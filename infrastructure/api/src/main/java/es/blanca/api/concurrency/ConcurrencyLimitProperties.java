@@ -0,0 +1,40 @@
+package es.blanca.api.concurrency;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+
+@Getter
+@Setter
+@Component
+@ConfigurationProperties(prefix = "concurrency-limit")
+public class ConcurrencyLimitProperties {
+
+	private boolean enabled = true;
+
+	// how often each limiter re-evaluates its limit from the observed latency
+	private Duration window = Duration.ofSeconds(1);
+
+	// weight of the new limit against the previous one, 0..1
+	private double smoothing = 0.2;
+
+	// classes without an entry use the defaults of Limit
+	private Map<TrafficClass, Limit> classes = new EnumMap<>(TrafficClass.class);
+
+	public Limit forClass(TrafficClass trafficClass) {
+		return classes.getOrDefault(trafficClass, new Limit());
+	}
+
+	@Getter
+	@Setter
+	public static class Limit {
+		private int initialLimit = 20;
+		private int minLimit = 2;
+		private int maxLimit = 200;
+	}
+}
@@ -0,0 +1,116 @@
+package es.blanca.api.concurrency;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Adaptive concurrency limit in the style of the gradient algorithm: once per window the
+ * average latency is compared with a long term baseline. Latency above the baseline means
+ * requests are queueing, so the limit shrinks; while latency stays flat it grows by a
+ * small queue allowance (sqrt of the limit).
+ */
+public class GradientLimiter {
+
+	private static final int MIN_SAMPLES_PER_WINDOW = 10;
+	private static final double TOLERANCE = 1.5;
+	private static final double LONG_RTT_WEIGHT = 0.05;
+
+	private final int minLimit;
+	private final int maxLimit;
+	private final long windowNanos;
+	private final double smoothing;
+
+	private final AtomicInteger inFlight = new AtomicInteger();
+	private final AtomicInteger peakInFlight = new AtomicInteger();
+	private final LongAdder rejected = new LongAdder();
+	private final LongAdder windowRttSum = new LongAdder();
+	private final LongAdder windowSamples = new LongAdder();
+	private final AtomicLong windowStart;
+
+	private volatile double limit;
+	private double longRtt;
+
+	public GradientLimiter(int initialLimit, int minLimit, int maxLimit, long windowNanos, double smoothing, long nowNanos) {
+		this.minLimit = minLimit;
+		this.maxLimit = maxLimit;
+		this.windowNanos = windowNanos;
+		this.smoothing = smoothing;
+		this.limit = Math.max(minLimit, Math.min(maxLimit, initialLimit));
+		this.windowStart = new AtomicLong(nowNanos);
+	}
+
+	/**
+	 * @return true when the request may proceed; the caller must then call {@link #release}
+	 */
+	public boolean tryAcquire() {
+		while (true) {
+			int current = inFlight.get();
+			if (current >= (int) limit) {
+				rejected.increment();
+				return false;
+			}
+			if (inFlight.compareAndSet(current, current + 1)) {
+				peakInFlight.accumulateAndGet(current + 1, Math::max);
+				return true;
+			}
+		}
+	}
+
+	public void release(long rttNanos, long nowNanos) {
+		inFlight.decrementAndGet();
+		windowRttSum.add(rttNanos);
+		windowSamples.increment();
+
+		long start = windowStart.get();
+		if (nowNanos - start >= windowNanos && windowStart.compareAndSet(start, nowNanos)) {
+			updateLimit();
+		}
+	}
+
+	/**
+	 * Releases the slot without feeding the latency sample, e.g. when the request failed.
+	 */
+	public void releaseWithoutSample() {
+		inFlight.decrementAndGet();
+	}
+
+	private synchronized void updateLimit() {
+		long samples = windowSamples.sumThenReset();
+		long rttSum = windowRttSum.sumThenReset();
+		int peak = peakInFlight.getAndSet(inFlight.get());
+		if (samples < MIN_SAMPLES_PER_WINDOW) {
+			return;
+		}
+
+		double shortRtt = (double) rttSum / samples;
+		if (longRtt == 0 || shortRtt < longRtt) {
+			// latency improved, follow it down right away
+			longRtt = shortRtt;
+		} else {
+			longRtt = longRtt * (1 - LONG_RTT_WEIGHT) + shortRtt * LONG_RTT_WEIGHT;
+		}
+
+		double current = limit;
+		double gradient = Math.max(0.5, Math.min(1.0, TOLERANCE * longRtt / shortRtt));
+		double newLimit = current * gradient + Math.sqrt(current);
+		if (peak < current / 2) {
+			// not using the limit we already have, so there is no evidence to grow it
+			newLimit = Math.min(newLimit, current);
+		}
+		newLimit = current * (1 - smoothing) + newLimit * smoothing;
+		limit = Math.max(minLimit, Math.min(maxLimit, newLimit));
+	}
+
+	public int getLimit() {
+		return (int) limit;
+	}
+
+	public int getInFlight() {
+		return inFlight.get();
+	}
+
+	public long getRejected() {
+		return rejected.sum();
+	}
+}
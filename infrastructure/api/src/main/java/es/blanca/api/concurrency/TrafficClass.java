@@ -0,0 +1,27 @@
+package es.blanca.api.concurrency;
+
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.security.core.Authentication;
+
+public enum TrafficClass {
+	AUTH,
+	READ,
+	WRITE,
+	ADMIN_WRITE;
+
+	public static TrafficClass of(HttpServletRequest request, Authentication authentication) {
+		String uri = request.getRequestURI();
+		if (uri.equals("/auth") || uri.startsWith("/auth/")) {
+			return AUTH;
+		}
+		String method = request.getMethod();
+		if ("GET".equals(method) || "HEAD".equals(method) || "OPTIONS".equals(method)) {
+			return READ;
+		}
+		if (authentication != null && authentication.getAuthorities().stream()
+				.anyMatch(auth -> auth.getAuthority().equals("ROLE_ADMIN"))) {
+			return ADMIN_WRITE;
+		}
+		return WRITE;
+	}
+}
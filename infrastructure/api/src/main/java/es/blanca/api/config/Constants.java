@@ -12,6 +12,7 @@ public class Constants {
 	public static final String PRODUCT_NAME_NOT_BLANK = "Product name cannot be blank.";
 	public static final String PRICE_NOT_NULL = "Price cannot be null.";
 	public static final String PRICE_POSITIVE = "Price must be a positive value.";
+	public static final String STOCK_NOT_NEGATIVE = "Stock cannot be negative.";
 	public static final String STATUS_NOT_NULL = "Status cannot be null.";
 	public static final String USER_ID_NOT_NULL = "User ID cannot be null.";
 	public static final String PRODUCTS_NOT_EMPTY = "The list of products cannot be empty.";
@@ -23,6 +24,13 @@ public class Constants {
 	public static final int COUNTRY_CODE_MIN_LENGTH = 1;
 	public static final int COUNTRY_CODE_MAX_LENGTH = 3;
 	public static final String COUNTRY_NAME_NOT_BLANK = "Country name cannot be blank.";
-
+	public static final String PLACEMENT_NOT_FOUND_BY_ID = "Order placement with id %s not found";
+	// seconds a client is asked to wait when the placement queue is full
+	public static final String PLACEMENT_RETRY_AFTER_SECONDS = "1";
+	// seconds a client is asked to wait before resending a request that lost to a concurrent one
+	public static final String CONCURRENCY_FAILURE_RETRY_AFTER_SECONDS = "1";
+	public static final String IDEMPOTENCY_KEY_HEADER = "Idempotency-Key";
+	// set on a response replayed to the retry of a request with an Idempotency-Key
+	public static final String IDEMPOTENT_REPLAYED_HEADER = "Idempotent-Replayed";
 
 }
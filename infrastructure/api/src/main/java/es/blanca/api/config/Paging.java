@@ -0,0 +1,18 @@
+package es.blanca.api.config;
+
+// page and size request parameters of the paged listings
+public final class Paging {
+	private Paging() {}
+
+	public static final String DEFAULT_PAGE_SIZE = "20";
+	public static final int MAX_PAGE_SIZE = 100;
+
+	// out of range pages are clamped rather than rejected
+	public static int pageNumber(int page) {
+		return Math.max(page, 0);
+	}
+
+	public static int pageSize(int size) {
+		return Math.min(Math.max(size, 1), MAX_PAGE_SIZE);
+	}
+}
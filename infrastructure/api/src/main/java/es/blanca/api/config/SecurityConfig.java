@@ -1,5 +1,8 @@
 package es.blanca.api.config;
 
+import es.blanca.api.bulkhead.BulkheadFilter;
+import es.blanca.api.concurrency.ConcurrencyLimitFilter;
+import es.blanca.api.ratelimit.RateLimitFilter;
 import es.blanca.api.security.JwtAuthenticationFilter;
 import lombok.RequiredArgsConstructor;
 import org.springframework.context.annotation.Bean;
@@ -25,6 +28,9 @@ import org.springframework.security.web.authentication.UsernamePasswordAuthentic
 public class SecurityConfig {
 
 	private final JwtAuthenticationFilter jwtAuthenticationFilter;
+	private final RateLimitFilter rateLimitFilter;
+	private final ConcurrencyLimitFilter concurrencyLimitFilter;
+	private final BulkheadFilter bulkheadFilter;
 	private final UserDetailsService userDetailsService;
 
 	@Bean
@@ -52,10 +58,14 @@ public class SecurityConfig {
 				.sessionManagement(session -> session.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
 				.authorizeHttpRequests(auth -> auth
 						.requestMatchers("/auth/**", "/h2-console/**", "/error").permitAll()
+						.requestMatchers("/actuator/pinning").hasRole("ADMIN")
 						.anyRequest().authenticated()
 				)
 				.authenticationProvider(authenticationProvider())
-				.addFilterBefore(jwtAuthenticationFilter, UsernamePasswordAuthenticationFilter.class);
+				.addFilterBefore(jwtAuthenticationFilter, UsernamePasswordAuthenticationFilter.class)
+				.addFilterAfter(rateLimitFilter, JwtAuthenticationFilter.class)
+				.addFilterAfter(concurrencyLimitFilter, RateLimitFilter.class)
+				.addFilterAfter(bulkheadFilter, ConcurrencyLimitFilter.class);
 
 		// Para H2 Console (solo desarrollo)
 		http.headers(headers -> headers.frameOptions(frameOptions -> frameOptions.sameOrigin()));
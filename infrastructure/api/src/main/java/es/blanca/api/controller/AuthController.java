@@ -48,7 +48,7 @@ public class AuthController {
 		SecurityContextHolder.getContext().setAuthentication(authentication);
 		String jwt = tokenProvider.generateToken(authentication);
 
-		User user = userRepository.findByEmail(loginRequest.getEmail()).orElseThrow();
+		User user = userRepository.findActiveByEmail(loginRequest.getEmail()).orElseThrow();
 
 		log.info("User {} logged in successfully", loginRequest.getEmail());
 		return ResponseEntity.ok(new AuthResponse(jwt, user.getEmail(), user.getRole().name()));
@@ -1,20 +1,30 @@
 package es.blanca.api.controller;
 
 import es.blanca.api.dto.input.CountryInputDto;
-import es.blanca.api.dto.output.CountryOutputDto;
+import es.blanca.api.dto.output.UserOutputDto;
+import es.blanca.api.etag.HttpCacheProperties;
 import es.blanca.api.mapper.CountryApiMapper;
+import es.blanca.api.mapper.UserApiMapper;
 import es.blanca.domain.model.Country;
 import es.blanca.domain.port.CountryService;
+import es.blanca.domain.port.UserService;
+import es.blanca.web.dto.CountryOutputDto;
+import es.blanca.web.etag.EntityTags;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.Arrays;
 import java.util.List;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static es.blanca.api.config.Paging.*;
 
 @Slf4j
 @RestController
@@ -24,6 +34,9 @@ public class CountryController {
 
 	private final CountryService countryService;
 	private final CountryApiMapper countryApiMapper;
+	private final UserService userService;
+	private final UserApiMapper userApiMapper;
+	private final HttpCacheProperties httpCacheProperties;
 
 	@PostMapping
 	@PreAuthorize("hasRole('ADMIN')")
@@ -35,18 +48,50 @@ public class CountryController {
 
 	@GetMapping
 	@PreAuthorize("hasAnyRole('ADMIN', 'USER')")
-	public ResponseEntity<List<CountryOutputDto>> getAllCountries() {
+	public ResponseEntity<List<CountryOutputDto>> getAllCountries(
+			@RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
 		log.info("Request to fetch all countries.");
-		return ResponseEntity.ok(countryService.findAll().stream()
-				.map(countryApiMapper::toOutputDto)
+		List<Country> countries = countryService.findAll();
+		String tag = EntityTags.ofFields(countries.stream()
+				.flatMap(country -> Stream.of(country.getCode(), country.getName()))
 				.collect(Collectors.toList()));
+		if (EntityTags.matches(ifNoneMatch, tag)) {
+			return EntityTags.notModified(tag, httpCacheProperties.forCountries());
+		}
+		return ResponseEntity.ok()
+				.eTag(tag)
+				.cacheControl(httpCacheProperties.forCountries())
+				.body(countries.stream()
+						.map(countryApiMapper::toOutputDto)
+						.collect(Collectors.toList()));
 	}
 
 	@GetMapping("/{id}")
 	@PreAuthorize("hasAnyRole('ADMIN', 'USER')")
-	public ResponseEntity<CountryOutputDto> getCountryById(@PathVariable String id) {
+	public ResponseEntity<CountryOutputDto> getCountryById(@PathVariable String id,
+	                                                       @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+		// countries have no version, the tag is a checksum of the two fields they show
 		Country country = countryService.findById(id).orElseThrow();
-		return ResponseEntity.ok(countryApiMapper.toOutputDto(country));
+		String tag = EntityTags.ofFields(Arrays.asList(country.getCode(), country.getName()));
+		if (EntityTags.matches(ifNoneMatch, tag)) {
+			return EntityTags.notModified(tag, httpCacheProperties.forCountries());
+		}
+		return ResponseEntity.ok()
+				.eTag(tag)
+				.cacheControl(httpCacheProperties.forCountries())
+				.body(countryApiMapper.toOutputDto(country));
+	}
+
+	@GetMapping("/{id}/users")
+	@PreAuthorize("hasRole('ADMIN')")
+	public ResponseEntity<List<UserOutputDto>> getCountryUsers(
+			@PathVariable String id,
+			@RequestParam(defaultValue = "0") int page,
+			@RequestParam(defaultValue = DEFAULT_PAGE_SIZE) int size) {
+		log.info("Request to fetch page {} of the users of country {}", page, id);
+		return ResponseEntity.ok(userService.findByCountryCode(id, pageNumber(page), pageSize(size)).stream()
+				.map(userApiMapper::toOutputDto)
+				.collect(Collectors.toList()));
 	}
 
 	@PutMapping("/{id}")
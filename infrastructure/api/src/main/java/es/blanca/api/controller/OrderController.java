@@ -1,19 +1,31 @@
 package es.blanca.api.controller;
 
 import es.blanca.api.dto.input.OrderInputDto;
-import es.blanca.api.dto.output.OrderOutputDto;
+import es.blanca.api.dto.output.PlacementOutputDto;
+import es.blanca.api.fields.DtoFields;
+import es.blanca.api.fields.SparseFieldset;
+import es.blanca.api.idempotency.IdempotentResponses;
 import es.blanca.api.mapper.OrderApiMapper;
+import es.blanca.domain.exceptions.EntityNotFoundException;
 import es.blanca.domain.exceptions.ForbiddenOperationException;
 import es.blanca.domain.model.Order;
+import es.blanca.domain.model.OrderPlacement;
 import es.blanca.domain.model.OrderProduct;
 import es.blanca.domain.model.Product;
 import es.blanca.domain.model.User;
+import es.blanca.domain.port.IdempotencyService;
+import es.blanca.domain.port.OrderPlacementService;
 import es.blanca.domain.port.OrderService;
 import es.blanca.domain.port.ProductService;
 import es.blanca.domain.port.UserService;
+import es.blanca.web.dto.OrderOutputDto;
+import es.blanca.web.etag.EntityTags;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
@@ -21,9 +33,15 @@ import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.bind.annotation.*;
 
+import java.net.URI;
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.UUID;
 import java.util.stream.Collectors;
 
+import static es.blanca.api.config.Constants.IDEMPOTENCY_KEY_HEADER;
+import static es.blanca.api.config.Constants.PLACEMENT_NOT_FOUND_BY_ID;
+
 @Slf4j
 @RestController
 @RequestMapping("/orders")
@@ -34,20 +52,30 @@ public class OrderController {
 	private final OrderApiMapper orderApiMapper;
 	private final UserService userService;
 	private final ProductService productService;
+	private final OrderPlacementService orderPlacementService;
+	private final IdempotencyService idempotencyService;
+	private final IdempotentResponses idempotentResponses;
+
+	// orders.placement.async: POST /orders queues the order and answers 202
+	@Value("${orders.placement.async:false}")
+	private boolean asyncPlacement;
+
+	// open ends of a creation date range given with only one of from and to
+	private static final LocalDateTime NO_LOWER_BOUND = LocalDateTime.of(1970, 1, 1, 0, 0);
+	private static final LocalDateTime NO_UPPER_BOUND = LocalDateTime.of(9999, 12, 31, 0, 0);
 
 	@PostMapping
 	@PreAuthorize("hasAnyRole('ADMIN', 'USER')")
-	public ResponseEntity<OrderOutputDto> createOrder(@Valid @RequestBody OrderInputDto dto) {
+	public ResponseEntity<?> createOrder(@Valid @RequestBody OrderInputDto dto,
+	                                     @RequestHeader(value = IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey,
+	                                     @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept) {
 		Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
 		String currentUserEmail = authentication.getName();
 
 		// Si es USER, solo puede crear pedidos para sí mismo
 		if (authentication.getAuthorities().stream()
 				.anyMatch(auth -> auth.getAuthority().equals("ROLE_USER"))) {
-			User currentUser = userService.findAll().stream()
-					.filter(u -> u.getEmail().equals(currentUserEmail))
-					.findFirst()
-					.orElseThrow();
+			User currentUser = userService.findActiveByEmail(currentUserEmail).orElseThrow();
 
 			if (!currentUser.getId().equals(dto.getUserId())) {
 				log.warn("User {} attempted to create order for another user", currentUserEmail);
@@ -55,11 +83,27 @@ public class OrderController {
 			}
 		}
 
+		// a retry with the same key gets the first response instead of a second order
+		if (idempotencyKey != null) {
+			return idempotentResponses.toResponseEntity(idempotencyService.execute(
+					idempotentResponses.scopedKey(currentUserEmail, idempotencyKey),
+					idempotentResponses.requestHash(dto),
+					() -> idempotentResponses.capture(submitOrder(dto))), accept);
+		}
+		return submitOrder(dto);
+	}
+
+	private ResponseEntity<?> submitOrder(OrderInputDto dto) {
+		if (asyncPlacement) {
+			return placeOrder(dto);
+		}
+
 		log.info("Creating order for user: {}", dto.getUserId());
 
-		// Crear Order
+		// Crear Order; the order only stores the user's id, OrderService checks the user exists
 		Order order = new Order();
-		User user = userService.findById(dto.getUserId()).orElseThrow();
+		User user = new User();
+		user.setId(dto.getUserId());
 		order.setUser(user);
 
 		// Crear OrderProducts
@@ -80,33 +124,79 @@ public class OrderController {
 		return new ResponseEntity<>(orderApiMapper.toOutputDto(createdOrder), HttpStatus.CREATED);
 	}
 
+	@GetMapping("/placements/{id}")
+	@PreAuthorize("hasAnyRole('ADMIN', 'USER')")
+	public ResponseEntity<PlacementOutputDto> getPlacement(@PathVariable UUID id) {
+		Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+		String currentUserEmail = authentication.getName();
+
+		OrderPlacement placement = orderPlacementService.findById(id)
+				.orElseThrow(() -> new EntityNotFoundException(String.format(PLACEMENT_NOT_FOUND_BY_ID, id)));
+
+		// Si es USER, solo puede ver sus propios pedidos
+		if (authentication.getAuthorities().stream()
+				.anyMatch(auth -> auth.getAuthority().equals("ROLE_USER"))) {
+			User currentUser = userService.findActiveByEmail(currentUserEmail).orElseThrow();
+
+			if (!placement.getUserId().equals(currentUser.getId())) {
+				log.warn("User {} attempted to access the order placement of another user", currentUserEmail);
+				throw new ForbiddenOperationException("You can only view your own orders");
+			}
+		}
+
+		ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+		if (placement.getOrderId() != null) {
+			response.location(URI.create("/orders/" + placement.getOrderId()));
+		}
+		return response.body(orderApiMapper.toPlacementOutputDto(placement));
+	}
+
 	@GetMapping
 	@PreAuthorize("hasAnyRole('ADMIN', 'USER')")
-	public ResponseEntity<List<OrderOutputDto>> getAllOrders() {
+	public ResponseEntity<?> getAllOrders(
+			@RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+			@RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+			@RequestParam(required = false) String fields) {
 		Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
 		String currentUserEmail = authentication.getName();
+		SparseFieldset fieldset = DtoFields.ORDERS.parse(fields);
 
+		// with a creation date range only the orders of those months are read
+		boolean ranged = from != null || to != null;
+		LocalDateTime rangeFrom = from != null ? from : NO_LOWER_BOUND;
+		LocalDateTime rangeTo = to != null ? to : NO_UPPER_BOUND;
 		List<Order> orders;
 
 		// Si es USER, solo puede ver sus propios pedidos
 		if (authentication.getAuthorities().stream()
 				.anyMatch(auth -> auth.getAuthority().equals("ROLE_USER"))) {
-			User currentUser = userService.findAll().stream()
-					.filter(u -> u.getEmail().equals(currentUserEmail))
-					.findFirst()
-					.orElseThrow();
+			User currentUser = userService.findActiveByEmail(currentUserEmail).orElseThrow();
 
 			log.info("Fetching orders for user: {}", currentUser.getId());
-			orders = orderService.findByUserId(currentUser.getId());
+			if (fieldset != null) {
+				orders = ranged
+						? orderService.findByUserIdCreatedBetween(currentUser.getId(), rangeFrom, rangeTo, fieldset.fieldset())
+						: orderService.findByUserId(currentUser.getId(), fieldset.fieldset());
+			} else {
+				orders = ranged
+						? orderService.findByUserIdCreatedBetween(currentUser.getId(), rangeFrom, rangeTo)
+						: orderService.findByUserId(currentUser.getId());
+			}
 		} else {
 			// Si es ADMIN, puede ver todos los pedidos
 			log.info("Fetching all orders (admin)");
-			orders = orderService.findAll();
+			if (fieldset != null) {
+				orders = ranged ? orderService.findCreatedBetween(rangeFrom, rangeTo, fieldset.fieldset())
+						: orderService.findAll(fieldset.fieldset());
+			} else {
+				orders = ranged ? orderService.findCreatedBetween(rangeFrom, rangeTo) : orderService.findAll();
+			}
 		}
 
-		return ResponseEntity.ok(orders.stream()
+		List<OrderOutputDto> body = orders.stream()
 				.map(orderApiMapper::toOutputDto)
-				.collect(Collectors.toList()));
+				.collect(Collectors.toList());
+		return ResponseEntity.ok(fieldset == null ? body : fieldset.applyTo(body));
 	}
 
 	@GetMapping("/{id}")
@@ -120,10 +210,7 @@ public class OrderController {
 		// Si es USER, solo puede ver sus propios pedidos
 		if (authentication.getAuthorities().stream()
 				.anyMatch(auth -> auth.getAuthority().equals("ROLE_USER"))) {
-			User currentUser = userService.findAll().stream()
-					.filter(u -> u.getEmail().equals(currentUserEmail))
-					.findFirst()
-					.orElseThrow();
+			User currentUser = userService.findActiveByEmail(currentUserEmail).orElseThrow();
 
 			if (!order.getUser().getId().equals(currentUser.getId())) {
 				log.warn("User {} attempted to access order from another user", currentUserEmail);
@@ -132,15 +219,17 @@ public class OrderController {
 		}
 
 		log.info("Fetching order with id: {}", id);
-		return ResponseEntity.ok(orderApiMapper.toOutputDto(order));
+		return ResponseEntity.ok().eTag(EntityTags.of(order.getVersion())).body(orderApiMapper.toOutputDto(order));
 	}
 
 	@PutMapping("/{id}")
 	@PreAuthorize("hasRole('ADMIN')")
-	public ResponseEntity<OrderOutputDto> updateOrder(@PathVariable Long id, @Valid @RequestBody OrderInputDto dto) {
+	public ResponseEntity<OrderOutputDto> updateOrder(@PathVariable Long id, @Valid @RequestBody OrderInputDto dto,
+	                                                  @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
 		log.info("Attempting to update order with id: {}", id);
 
 		Order orderToUpdate = new Order();
+		orderToUpdate.setVersion(EntityTags.expectedVersion(ifMatch));
 		if (dto.getUserId() != null) {
 			User user = userService.findById(dto.getUserId()).orElseThrow();
 			orderToUpdate.setUser(user);
@@ -148,7 +237,7 @@ public class OrderController {
 
 		orderService.update(id, orderToUpdate);
 		Order updatedOrder = orderService.findById(id).orElseThrow();
-		return ResponseEntity.ok(orderApiMapper.toOutputDto(updatedOrder));
+		return ResponseEntity.ok().eTag(EntityTags.of(updatedOrder.getVersion())).body(orderApiMapper.toOutputDto(updatedOrder));
 	}
 
 	@DeleteMapping("/{id}")
@@ -158,4 +247,29 @@ public class OrderController {
 		log.info("Attempting to delete order with id: {}", id);
 		orderService.delete(id);
 	}
-}
\ No newline at end of file
+
+	/**
+	 * Queues the order for the group-commit writer. The user and the products are only
+	 * referenced by id here and checked when the order is created; the status URL says
+	 * whether that worked.
+	 */
+	private ResponseEntity<PlacementOutputDto> placeOrder(OrderInputDto dto) {
+		log.info("Queueing order for user: {}", dto.getUserId());
+		Order order = new Order();
+		User user = new User();
+		user.setId(dto.getUserId());
+		order.setUser(user);
+		order.setOrderProducts(dto.getOrderProducts().stream()
+				.map(opDto -> {
+					Product product = new Product();
+					product.setId(opDto.getProductId());
+					return new OrderProduct(order, product, opDto.getAmount());
+				})
+				.collect(Collectors.toList()));
+
+		OrderPlacement placement = orderPlacementService.submit(order);
+		return ResponseEntity.accepted()
+				.location(URI.create("/orders/placements/" + placement.getId()))
+				.body(orderApiMapper.toPlacementOutputDto(placement));
+	}
+}
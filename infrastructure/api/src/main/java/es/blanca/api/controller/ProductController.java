@@ -1,14 +1,20 @@
 package es.blanca.api.controller;
 
 import es.blanca.api.dto.input.ProductInputDto;
-import es.blanca.api.dto.output.ProductOutputDto;
+import es.blanca.api.etag.HttpCacheProperties;
+import es.blanca.api.fields.DtoFields;
+import es.blanca.api.fields.SparseFieldset;
 import es.blanca.api.mapper.ProductApiMapper;
+import es.blanca.domain.model.Money;
 import es.blanca.domain.model.Product;
 import es.blanca.domain.model.ProductStatus;
 import es.blanca.domain.port.ProductService;
+import es.blanca.web.dto.ProductOutputDto;
+import es.blanca.web.etag.EntityTags;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
@@ -25,6 +31,7 @@ public class ProductController {
 
 	private final ProductService productService;
 	private final ProductApiMapper productApiMapper;
+	private final HttpCacheProperties httpCacheProperties;
 
 	@PostMapping
 	@PreAuthorize("hasRole('ADMIN')")
@@ -36,31 +43,59 @@ public class ProductController {
 
 	@GetMapping
 	@PreAuthorize("hasAnyRole('ADMIN', 'USER')")
-	public ResponseEntity<List<ProductOutputDto>> findProducts(
+	public ResponseEntity<?> findProducts(
 			@RequestParam(required = false) String name,
-			@RequestParam(required = false) Double minPrice,
-			@RequestParam(required = false) Double maxPrice,
-			@RequestParam(required = false) ProductStatus status) {
+			@RequestParam(required = false) Money minPrice,
+			@RequestParam(required = false) Money maxPrice,
+			@RequestParam(required = false) ProductStatus status,
+			@RequestParam(required = false) String fields,
+			@RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
 		log.info("Searching for products with filters");
-		List<Product> products = productService.findWithFilters(name, minPrice, maxPrice, status);
-		return ResponseEntity.ok(products.stream().map(productApiMapper::toOutputDto).collect(Collectors.toList()));
+		SparseFieldset fieldset = DtoFields.PRODUCTS.parse(fields);
+		// the revision only reads id, version and stock, the products are loaded if it changed
+		long revision = productService.findRevision(name, minPrice, maxPrice, status);
+		// a sparse listing is another representation of the same revision
+		String tag = fieldset == null ? EntityTags.ofRevision(revision)
+				: EntityTags.ofFields(List.of(revision, fieldset.names()));
+		if (EntityTags.matches(ifNoneMatch, tag)) {
+			return EntityTags.notModified(tag, httpCacheProperties.forProducts());
+		}
+		// with fields= only those columns are read
+		List<Product> products = fieldset == null ? productService.findWithFilters(name, minPrice, maxPrice, status)
+				: productService.findWithFilters(name, minPrice, maxPrice, status, fieldset.fieldset());
+		List<ProductOutputDto> body = products.stream().map(productApiMapper::toOutputDto).collect(Collectors.toList());
+		return ResponseEntity.ok()
+				.eTag(tag)
+				.cacheControl(httpCacheProperties.forProducts())
+				.body(fieldset == null ? body : fieldset.applyTo(body));
 	}
 
 	@GetMapping("/{id}")
 	@PreAuthorize("hasAnyRole('ADMIN', 'USER')")
-	public ResponseEntity<ProductOutputDto> getProductById(@PathVariable Long id) {
+	public ResponseEntity<ProductOutputDto> getProductById(@PathVariable Long id,
+	                                                       @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+		// a second-level cache hit, a 304 saves mapping and writing the body
 		Product product = productService.findById(id).orElseThrow();
-		return ResponseEntity.ok(productApiMapper.toOutputDto(product));
+		String tag = EntityTags.of(product.getVersion(), product.getStock());
+		if (EntityTags.matches(ifNoneMatch, tag)) {
+			return EntityTags.notModified(tag, httpCacheProperties.forProducts());
+		}
+		return ResponseEntity.ok()
+				.eTag(tag)
+				.cacheControl(httpCacheProperties.forProducts())
+				.body(productApiMapper.toOutputDto(product));
 	}
 
 	@PutMapping("/{id}")
 	@PreAuthorize("hasRole('ADMIN')")
-	public ResponseEntity<ProductOutputDto> updateProduct(@PathVariable Long id, @Valid @RequestBody ProductInputDto dto) {
+	public ResponseEntity<ProductOutputDto> updateProduct(@PathVariable Long id, @Valid @RequestBody ProductInputDto dto,
+	                                                      @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
 		log.info("Attempting to update product: {}", id);
 		Product productToUpdate = productApiMapper.toDomain(dto);
+		productToUpdate.setVersion(EntityTags.expectedVersion(ifMatch));
 		productService.update(id, productToUpdate);
 		Product updatedProduct = productService.findById(id).orElseThrow();
-		return ResponseEntity.ok(productApiMapper.toOutputDto(updatedProduct));
+		return ResponseEntity.ok().eTag(EntityTags.of(updatedProduct.getVersion(), updatedProduct.getStock())).body(productApiMapper.toOutputDto(updatedProduct));
 	}
 
 	@DeleteMapping("/{id}")
@@ -3,14 +3,21 @@ package es.blanca.api.controller;
 import es.blanca.api.dto.input.UserCreateInputDto;
 import es.blanca.api.dto.input.UserUpdateDto;
 import es.blanca.api.dto.output.UserOutputDto;
+import es.blanca.api.fields.DtoFields;
+import es.blanca.api.fields.SparseFieldset;
+import es.blanca.api.mapper.OrderApiMapper;
 import es.blanca.api.mapper.UserApiMapper;
 import es.blanca.domain.exceptions.ForbiddenOperationException;
 import es.blanca.domain.model.Role;
 import es.blanca.domain.model.User;
+import es.blanca.domain.port.OrderService;
 import es.blanca.domain.port.UserService;
+import es.blanca.web.dto.OrderOutputDto;
+import es.blanca.web.etag.EntityTags;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
@@ -22,6 +29,8 @@ import org.springframework.web.bind.annotation.*;
 import java.util.List;
 import java.util.stream.Collectors;
 
+import static es.blanca.api.config.Paging.*;
+
 @Slf4j
 @RestController
 @RequestMapping("/users")
@@ -30,6 +39,8 @@ public class UserController {
 
 	private final UserService userService;
 	private final UserApiMapper userApiMapper;
+	private final OrderService orderService;
+	private final OrderApiMapper orderApiMapper;
 	private final PasswordEncoder passwordEncoder;
 
 	@PostMapping
@@ -45,11 +56,21 @@ public class UserController {
 
 	@GetMapping
 	@PreAuthorize("hasRole('ADMIN')")
-	public ResponseEntity<List<UserOutputDto>> getAllUsers() {
-		log.info("Fetching all users");
-		return ResponseEntity.ok(userService.findAll().stream()
+	public ResponseEntity<?> getAllUsers(
+			@RequestParam(required = false) String fields,
+			@RequestParam(defaultValue = "0") int page,
+			@RequestParam(defaultValue = DEFAULT_PAGE_SIZE) int size) {
+		log.info("Fetching page {} of the users", page);
+		SparseFieldset fieldset = DtoFields.USERS.parse(fields);
+		if (fieldset == null) {
+			return ResponseEntity.ok(userService.findAll(pageNumber(page), pageSize(size)).stream()
+					.map(userApiMapper::toOutputDto)
+					.collect(Collectors.toList()));
+		}
+		// the orders and the country are only loaded, and mapped, when asked for
+		return ResponseEntity.ok(fieldset.applyTo(userService.findAll(fieldset.fieldset(), pageNumber(page), pageSize(size)).stream()
 				.map(userApiMapper::toOutputDto)
-				.collect(Collectors.toList()));
+				.collect(Collectors.toList())));
 	}
 
 	@GetMapping("/{id}")
@@ -57,19 +78,37 @@ public class UserController {
 	public ResponseEntity<UserOutputDto> getUserById(@PathVariable Long id) {
 		log.info("Fetching user with id: {}", id);
 		User user = userService.findById(id).orElseThrow();
-		return ResponseEntity.ok(userApiMapper.toOutputDto(user));
+		return ResponseEntity.ok().eTag(EntityTags.of(user.getVersion())).body(userApiMapper.toOutputDto(user));
+	}
+
+	@GetMapping("/{id}/orders")
+	@PreAuthorize("hasRole('ADMIN')")
+	public ResponseEntity<List<OrderOutputDto>> getUserOrders(
+			@PathVariable Long id,
+			@RequestParam(defaultValue = "0") int page,
+			@RequestParam(defaultValue = DEFAULT_PAGE_SIZE) int size) {
+		log.info("Fetching page {} of the orders of user {}", page, id);
+		return ResponseEntity.ok(orderService.findByUserId(id, pageNumber(page), pageSize(size)).stream()
+				.map(orderApiMapper::toOutputDto)
+				.collect(Collectors.toList()));
 	}
 
 	@PutMapping("/{id}")
 	@PreAuthorize("hasRole('ADMIN')")
 	public ResponseEntity<UserOutputDto> updateUser(
 			@PathVariable Long id,
-			@Valid @RequestBody UserUpdateDto dto) {
+			@Valid @RequestBody UserUpdateDto dto,
+			@RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
 
 		log.info("Attempting to update user with id: {}", id);
+		Long expectedVersion = EntityTags.expectedVersion(ifMatch);
 
 		// ✅ SOLUCIÓN: Obtener usuario existente
 		User existingUser = userService.findById(id).orElseThrow();
+		// without If-Match the version just read still guards against a concurrent update
+		if (expectedVersion != null) {
+			existingUser.setVersion(expectedVersion);
+		}
 
 		// Actualizar solo campos del DTO
 		if (dto.getFullName() != null) {
@@ -89,7 +128,7 @@ public class UserController {
 		userService.update(id, existingUser);
 		User updatedUser = userService.findById(id).orElseThrow();
 
-		return ResponseEntity.ok(userApiMapper.toOutputDto(updatedUser));
+		return ResponseEntity.ok().eTag(EntityTags.of(updatedUser.getVersion())).body(userApiMapper.toOutputDto(updatedUser));
 	}
 
 	@DeleteMapping("/{id}")
@@ -112,10 +151,7 @@ public class UserController {
 		// Si es USER, solo puede modificar su propio país
 		if (authentication.getAuthorities().stream()
 				.anyMatch(auth -> auth.getAuthority().equals("ROLE_USER"))) {
-			User currentUser = userService.findAll().stream()
-					.filter(u -> u.getEmail().equals(currentUserEmail))
-					.findFirst()
-					.orElseThrow();
+			User currentUser = userService.findActiveByEmail(currentUserEmail).orElseThrow();
 
 			if (!currentUser.getId().equals(id)) {
 				log.warn("User {} attempted to modify country for another user", currentUserEmail);
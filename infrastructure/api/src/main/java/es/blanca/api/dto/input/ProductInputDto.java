@@ -1,9 +1,11 @@
 package es.blanca.api.dto.input;
 
+import es.blanca.api.dto.validation.PositiveMoney;
+import es.blanca.domain.model.Money;
 import es.blanca.domain.model.ProductStatus;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
-import jakarta.validation.constraints.Positive;
+import jakarta.validation.constraints.PositiveOrZero;
 import lombok.Data;
 
 import static es.blanca.api.config.Constants.*;
@@ -14,9 +16,13 @@ public class ProductInputDto {
 	private String name;
 
 	@NotNull(message = PRICE_NOT_NULL)
-	@Positive(message = PRICE_POSITIVE)
-	private Double price;
+	@PositiveMoney(message = PRICE_POSITIVE)
+	private Money price;
 
 	@NotNull(message = STATUS_NOT_NULL)
 	private ProductStatus status;
+
+	// optional, products without stock are not tracked
+	@PositiveOrZero(message = STOCK_NOT_NEGATIVE)
+	private Integer stock;
 }
@@ -0,0 +1,18 @@
+package es.blanca.api.dto.output;
+
+import es.blanca.domain.model.PlacementStatus;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+@Data
+public class PlacementOutputDto {
+	private UUID id;
+	private Long userId;
+	private PlacementStatus status;
+	private Long orderId;
+	private String message;
+	private LocalDateTime acceptedAt;
+	private LocalDateTime completedAt;
+}
@@ -1,5 +1,7 @@
 package es.blanca.api.dto.output;
 
+import es.blanca.web.dto.CountryOutputDto;
+import es.blanca.web.dto.OrderOutputDto;
 import lombok.Data;
 
 import java.time.LocalDateTime;
@@ -14,4 +16,5 @@ public class UserOutputDto {
 	private boolean isActive;
 	private CountryOutputDto country;
 	private List<OrderOutputDto> orders;
+	private Long version;
 }
@@ -0,0 +1,13 @@
+package es.blanca.api.dto.validation;
+
+import es.blanca.domain.model.Money;
+import jakarta.validation.ConstraintValidator;
+import jakarta.validation.ConstraintValidatorContext;
+
+public class PositiveMoneyValidator implements ConstraintValidator<PositiveMoney, Money> {
+
+	@Override
+	public boolean isValid(Money value, ConstraintValidatorContext context) {
+		return value == null || value.isPositive();
+	}
+}
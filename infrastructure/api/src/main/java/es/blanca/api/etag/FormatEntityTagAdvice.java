@@ -0,0 +1,57 @@
+package es.blanca.api.etag;
+
+import es.blanca.web.etag.EntityTags;
+import org.springframework.core.MethodParameter;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.http.server.ServletServerHttpResponse;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyAdvice;
+
+/**
+ * Suffixes the tag of a CBOR or Smile response, whose bytes are not the JSON ones the
+ * controller built the tag for. Runs once the format has been negotiated, for 304s too,
+ * so a binary copy revalidates with the tag it was sent with.
+ */
+@ControllerAdvice
+public class FormatEntityTagAdvice implements ResponseBodyAdvice<Object> {
+
+	private static final MediaType SMILE = new MediaType("application", "x-jackson-smile");
+
+	@Override
+	public boolean supports(MethodParameter returnType, Class<? extends HttpMessageConverter<?>> converterType) {
+		return true;
+	}
+
+	@Override
+	public Object beforeBodyWrite(Object body, MethodParameter returnType, MediaType selectedContentType,
+	                              Class<? extends HttpMessageConverter<?>> selectedConverterType,
+	                              ServerHttpRequest request, ServerHttpResponse response) {
+		String tag = response.getHeaders().getETag();
+		String suffix = suffix(selectedContentType);
+		if (tag == null || suffix == null || !tag.endsWith("\"") || tag.endsWith(suffix + "\"")) {
+			return body;
+		}
+		// a 200 to a GET already has its tag on the servlet response (checkNotModified)
+		if (response instanceof ServletServerHttpResponse servletResponse
+				&& servletResponse.getServletResponse().containsHeader(HttpHeaders.ETAG)) {
+			servletResponse.getServletResponse().setHeader(HttpHeaders.ETAG, EntityTags.withSuffix(tag, suffix));
+		} else {
+			response.getHeaders().setETag(EntityTags.withSuffix(tag, suffix));
+		}
+		return body;
+	}
+
+	private static String suffix(MediaType contentType) {
+		if (MediaType.APPLICATION_CBOR.isCompatibleWith(contentType)) {
+			return EntityTags.CBOR_SUFFIX;
+		}
+		if (SMILE.isCompatibleWith(contentType)) {
+			return EntityTags.SMILE_SUFFIX;
+		}
+		return null;
+	}
+}
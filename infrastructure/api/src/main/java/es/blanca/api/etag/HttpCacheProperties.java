@@ -0,0 +1,38 @@
+package es.blanca.api.etag;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.http.CacheControl;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * How long clients may reuse a catalog response before asking again. The responses
+ * depend on who is logged in, so only the client itself may cache them; after max-age
+ * it revalidates with the entity tag and usually gets a 304.
+ */
+@Getter
+@Setter
+@Component
+@ConfigurationProperties(prefix = "http-cache")
+public class HttpCacheProperties {
+
+	// products and their stock, which changes with every order
+	private Duration products = Duration.ofSeconds(5);
+	// countries only change through the admin API
+	private Duration countries = Duration.ofHours(1);
+
+	public CacheControl forProducts() {
+		return policy(products);
+	}
+
+	public CacheControl forCountries() {
+		return policy(countries);
+	}
+
+	private static CacheControl policy(Duration maxAge) {
+		return CacheControl.maxAge(maxAge).cachePrivate().mustRevalidate();
+	}
+}
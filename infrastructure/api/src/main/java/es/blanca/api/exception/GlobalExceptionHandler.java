@@ -1,8 +1,18 @@
 package es.blanca.api.exception;
 
+import es.blanca.api.fields.InvalidFieldsException;
 import es.blanca.domain.exceptions.EmailAlreadyExistsException;
 import es.blanca.domain.exceptions.EntityNotFoundException;
 import es.blanca.domain.exceptions.ForbiddenOperationException;
+import es.blanca.domain.exceptions.IdempotencyConflictException;
+import es.blanca.domain.exceptions.IdempotencyKeyReusedException;
+import es.blanca.domain.exceptions.OutOfStockException;
+import es.blanca.domain.exceptions.PlacementRejectedException;
+import es.blanca.domain.exceptions.VersionConflictException;
+import es.blanca.web.exception.CustomError;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.MethodArgumentNotValidException;
@@ -11,6 +21,9 @@ import org.springframework.web.bind.annotation.ExceptionHandler;
 
 import java.time.LocalDate;
 
+import static es.blanca.api.config.Constants.CONCURRENCY_FAILURE_RETRY_AFTER_SECONDS;
+import static es.blanca.api.config.Constants.PLACEMENT_RETRY_AFTER_SECONDS;
+
 @ControllerAdvice
 public class GlobalExceptionHandler {
 
@@ -34,12 +47,71 @@ public class GlobalExceptionHandler {
 		return new ResponseEntity<>(error, HttpStatus.CONFLICT); // 409
 	}
 
+	@ExceptionHandler(OutOfStockException.class)
+	public ResponseEntity<CustomError> handleOutOfStockException(OutOfStockException ex) {
+		CustomError error = buildError(ex.getMessage(), HttpStatus.CONFLICT);
+		return new ResponseEntity<>(error, HttpStatus.CONFLICT); // 409
+	}
+
 	@ExceptionHandler(ForbiddenOperationException.class)
 	public ResponseEntity<CustomError> handleForbiddenOperationException(ForbiddenOperationException ex) {
 		CustomError error = buildError(ex.getMessage(), HttpStatus.FORBIDDEN);
 		return new ResponseEntity<>(error, HttpStatus.FORBIDDEN); // 403
 	}
 
+	@ExceptionHandler(VersionConflictException.class)
+	public ResponseEntity<CustomError> handleVersionConflictException(VersionConflictException ex) {
+		CustomError error = buildError(ex.getMessage(), HttpStatus.PRECONDITION_FAILED);
+		return new ResponseEntity<>(error, HttpStatus.PRECONDITION_FAILED); // 412
+	}
+
+	// a concurrent update committed between our read and our write
+	@ExceptionHandler(OptimisticLockingFailureException.class)
+	public ResponseEntity<CustomError> handleOptimisticLockingFailureException(OptimisticLockingFailureException ex) {
+		CustomError error = buildError("The entity was modified concurrently, fetch it again and retry", HttpStatus.PRECONDITION_FAILED);
+		return new ResponseEntity<>(error, HttpStatus.PRECONDITION_FAILED); // 412
+	}
+
+	// the database gave up on the transaction for a concurrent one (serialization failure,
+	// deadlock, lock timeout), the same request can simply be sent again
+	@ExceptionHandler(ConcurrencyFailureException.class)
+	public ResponseEntity<CustomError> handleConcurrencyFailureException(ConcurrencyFailureException ex) {
+		CustomError error = buildError("The request conflicted with a concurrent one, retry it", HttpStatus.CONFLICT);
+		return ResponseEntity.status(HttpStatus.CONFLICT)
+				.header(HttpHeaders.RETRY_AFTER, CONCURRENCY_FAILURE_RETRY_AFTER_SECONDS)
+				.body(error); // 409
+	}
+
+	// the placement queue is full, the order was not taken
+	@ExceptionHandler(PlacementRejectedException.class)
+	public ResponseEntity<CustomError> handlePlacementRejectedException(PlacementRejectedException ex) {
+		CustomError error = buildError(ex.getMessage(), HttpStatus.SERVICE_UNAVAILABLE);
+		return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+				.header(HttpHeaders.RETRY_AFTER, PLACEMENT_RETRY_AFTER_SECONDS)
+				.body(error); // 503
+	}
+
+	// the first request with this Idempotency-Key is still running
+	@ExceptionHandler(IdempotencyConflictException.class)
+	public ResponseEntity<CustomError> handleIdempotencyConflictException(IdempotencyConflictException ex) {
+		CustomError error = buildError(ex.getMessage(), HttpStatus.CONFLICT);
+		return ResponseEntity.status(HttpStatus.CONFLICT)
+				.header(HttpHeaders.RETRY_AFTER, PLACEMENT_RETRY_AFTER_SECONDS)
+				.body(error); // 409
+	}
+
+	@ExceptionHandler(IdempotencyKeyReusedException.class)
+	public ResponseEntity<CustomError> handleIdempotencyKeyReusedException(IdempotencyKeyReusedException ex) {
+		CustomError error = buildError(ex.getMessage(), HttpStatus.UNPROCESSABLE_ENTITY);
+		return new ResponseEntity<>(error, HttpStatus.UNPROCESSABLE_ENTITY); // 422
+	}
+
+	@ExceptionHandler(InvalidFieldsException.class)
+	public ResponseEntity<CustomError> handleInvalidFieldsException(InvalidFieldsException ex) {
+		CustomError error = buildError(ex.getMessage(), HttpStatus.BAD_REQUEST);
+		return new ResponseEntity<>(error, HttpStatus.BAD_REQUEST); // 400
+	}
+
 	@ExceptionHandler(MethodArgumentNotValidException.class)
 	public ResponseEntity<CustomError> handleValidationExceptions(MethodArgumentNotValidException ex) {
 		CustomError error = buildError(ex.getBindingResult().getFieldError().getDefaultMessage(), HttpStatus.UNPROCESSABLE_ENTITY);
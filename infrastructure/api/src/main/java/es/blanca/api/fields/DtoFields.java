@@ -0,0 +1,93 @@
+package es.blanca.api.fields;
+
+import es.blanca.api.dto.output.UserOutputDto;
+import es.blanca.domain.model.Fieldset;
+import es.blanca.web.dto.OrderOutputDto;
+import es.blanca.web.dto.ProductOutputDto;
+
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * The properties of an output DTO a listing can be narrowed to, each with the model
+ * property it is read from. An order's {@code total} is read as stored, without its lines.
+ */
+public final class DtoFields {
+
+	public static final DtoFields ORDERS = new DtoFields(OrderOutputDto.class)
+			.field("id")
+			.field("userId", "user")
+			.field("status")
+			.field("createdAt")
+			.field("orderProducts")
+			.field("total")
+			.field("version");
+
+	public static final DtoFields PRODUCTS = new DtoFields(ProductOutputDto.class)
+			.field("id")
+			.field("name")
+			.field("price")
+			.field("status")
+			.field("stock")
+			.field("createdAt")
+			.field("version");
+
+	public static final DtoFields USERS = new DtoFields(UserOutputDto.class)
+			.field("id")
+			.field("fullName")
+			.field("email")
+			.field("createdAt")
+			.field("active")
+			.field("country")
+			.field("orders")
+			.field("version");
+
+	private final Class<?> type;
+	// DTO property to model property, in the DTO's order
+	private final Map<String, String> properties = new LinkedHashMap<>();
+
+	private DtoFields(Class<?> type) {
+		this.type = type;
+	}
+
+	private DtoFields field(String name) {
+		return field(name, name);
+	}
+
+	private DtoFields field(String name, String modelProperty) {
+		properties.put(name, modelProperty);
+		return this;
+	}
+
+	/**
+	 * Parses a comma separated list such as {@code id,status}. Null when there is no list,
+	 * the whole DTO is wanted then.
+	 *
+	 * @throws InvalidFieldsException for a name that is not a property of the DTO
+	 */
+	public SparseFieldset parse(String fields) {
+		if (fields == null || fields.isBlank()) {
+			return null;
+		}
+		Set<String> names = new HashSet<>();
+		Set<String> modelProperties = new HashSet<>();
+		for (String field : fields.split(",")) {
+			String name = field.trim();
+			if (name.isEmpty()) {
+				continue;
+			}
+			String modelProperty = properties.get(name);
+			if (modelProperty == null) {
+				throw new InvalidFieldsException(String.format("Unknown field '%s', expected any of %s", name, properties.keySet()));
+			}
+			names.add(name);
+			modelProperties.add(modelProperty);
+		}
+		if (names.isEmpty()) {
+			return null;
+		}
+		return new SparseFieldset(type, Set.copyOf(names), Fieldset.of(modelProperties));
+	}
+}
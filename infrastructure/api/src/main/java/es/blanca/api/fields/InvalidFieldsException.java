@@ -0,0 +1,8 @@
+package es.blanca.api.fields;
+
+// a fields= parameter naming a property the DTO does not have
+public class InvalidFieldsException extends RuntimeException {
+	public InvalidFieldsException(String message) {
+		super(message);
+	}
+}
@@ -0,0 +1,61 @@
+package es.blanca.api.fields;
+
+import com.fasterxml.jackson.databind.ser.BeanPropertyFilter;
+import com.fasterxml.jackson.databind.ser.FilterProvider;
+import es.blanca.domain.model.Fieldset;
+import org.springframework.http.converter.json.MappingJacksonValue;
+
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * The properties of one output DTO a {@code fields=} parameter asks for, and the model
+ * properties the repositories have to read for them.
+ * <p>
+ * It goes out with the response body as the writer's filter provider, see
+ * {@link #applyTo}, so it reaches the output DTO serializers in every format. They skip
+ * the properties of this DTO type it leaves out; DTOs of other types nested in it are
+ * written in full.
+ */
+public final class SparseFieldset extends FilterProvider {
+
+	private final Class<?> type;
+	private final Set<String> names;
+	private final Fieldset fieldset;
+
+	SparseFieldset(Class<?> type, Set<String> names, Fieldset fieldset) {
+		this.type = type;
+		this.names = names;
+		this.fieldset = fieldset;
+	}
+
+	public boolean appliesTo(Class<?> dtoType) {
+		return type == dtoType;
+	}
+
+	public boolean includes(String name) {
+		return names.contains(name);
+	}
+
+	// the requested names in a fixed order, whatever order the parameter listed them in
+	public String names() {
+		return String.join(",", new TreeSet<>(names));
+	}
+
+	public Fieldset fieldset() {
+		return fieldset;
+	}
+
+	public MappingJacksonValue applyTo(Object body) {
+		MappingJacksonValue value = new MappingJacksonValue(body);
+		value.setFilters(this);
+		return value;
+	}
+
+	// no @JsonFilter bean is ever looked up here, the serializers read the fieldset itself
+	@Override
+	@Deprecated
+	public BeanPropertyFilter findFilter(Object filterId) {
+		return null;
+	}
+}
@@ -0,0 +1,138 @@
+package es.blanca.api.idempotency;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import es.blanca.domain.model.IdempotentResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.List;
+
+import static es.blanca.api.config.Constants.IDEMPOTENT_REPLAYED_HEADER;
+
+/**
+ * Turns responses into what the idempotency store keeps and back. The body is stored as
+ * the JSON this API would have written, so a JSON replay is byte for byte the original.
+ * A retry that accepts CBOR or Smile gets the stored JSON re-encoded in that format.
+ */
+@Component
+@RequiredArgsConstructor
+public class IdempotentResponses {
+
+	private static final MediaType SMILE = new MediaType("application", "x-jackson-smile");
+	// in the order a wildcard prefers them, as the message converters do
+	private static final List<MediaType> FORMATS = List.of(MediaType.APPLICATION_JSON, MediaType.APPLICATION_CBOR, SMILE);
+
+	private final ObjectMapper objectMapper;
+	private final MappingJackson2CborHttpMessageConverter cborConverter;
+	private final MappingJackson2SmileHttpMessageConverter smileConverter;
+
+	// one key space per user, and a fixed length whatever key the client sends
+	public String scopedKey(String principal, String idempotencyKey) {
+		return sha256((principal + "\n" + idempotencyKey).getBytes(StandardCharsets.UTF_8));
+	}
+
+	public String requestHash(Object request) {
+		return sha256(toJson(request).getBytes(StandardCharsets.UTF_8));
+	}
+
+	public IdempotentResponse capture(ResponseEntity<?> response) {
+		URI location = response.getHeaders().getLocation();
+		return new IdempotentResponse(response.getStatusCode().value(), location != null ? location.toString() : null,
+				response.getBody() != null ? toJson(response.getBody()) : null, false);
+	}
+
+	public ResponseEntity<?> toResponseEntity(IdempotentResponse response, String accept) {
+		ResponseEntity.BodyBuilder builder = ResponseEntity.status(response.getStatusCode());
+		if (response.getLocation() != null) {
+			builder.header(HttpHeaders.LOCATION, response.getLocation());
+		}
+		if (response.isReplayed()) {
+			builder.header(IDEMPOTENT_REPLAYED_HEADER, "true");
+		}
+		if (response.getBody() == null) {
+			return builder.build();
+		}
+		MediaType format = format(accept);
+		if (format.equals(MediaType.APPLICATION_CBOR)) {
+			return builder.contentType(format).body(reencode(response.getBody(), cborConverter.getObjectMapper()));
+		}
+		if (format.equals(SMILE)) {
+			return builder.contentType(format).body(reencode(response.getBody(), smileConverter.getObjectMapper()));
+		}
+		return builder.contentType(MediaType.APPLICATION_JSON).body(response.getBody());
+	}
+
+	// the accepted format with the highest quality, JSON without an Accept header
+	private static MediaType format(String accept) {
+		if (accept == null || accept.isBlank()) {
+			return MediaType.APPLICATION_JSON;
+		}
+		MediaType chosen = MediaType.APPLICATION_JSON;
+		double quality = 0;
+		try {
+			for (MediaType accepted : MediaType.parseMediaTypes(accept)) {
+				for (MediaType format : FORMATS) {
+					if (accepted.includes(format) && accepted.getQualityValue() > quality) {
+						chosen = format;
+						quality = accepted.getQualityValue();
+						break;
+					}
+				}
+			}
+		} catch (InvalidMediaTypeException e) {
+			return MediaType.APPLICATION_JSON;
+		}
+		return chosen;
+	}
+
+	// token by token; decimals through their text, the way MoneyJsonComponent writes them
+	private byte[] reencode(String json, ObjectMapper mapper) {
+		ByteArrayOutputStream out = new ByteArrayOutputStream(json.length());
+		try (JsonParser parser = objectMapper.getFactory().createParser(json);
+		     JsonGenerator generator = mapper.getFactory().createGenerator(out)) {
+			while (parser.nextToken() != null) {
+				if (parser.currentToken() == JsonToken.VALUE_NUMBER_FLOAT) {
+					generator.writeNumber(parser.getText());
+				} else {
+					generator.copyCurrentEvent(parser);
+				}
+			}
+		} catch (IOException e) {
+			throw new IllegalStateException("Could not re-encode the stored response", e);
+		}
+		return out.toByteArray();
+	}
+
+	private String toJson(Object value) {
+		try {
+			return objectMapper.writeValueAsString(value);
+		} catch (JsonProcessingException e) {
+			throw new IllegalStateException("Could not serialize " + value.getClass().getSimpleName(), e);
+		}
+	}
+
+	private static String sha256(byte[] bytes) {
+		try {
+			return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(bytes));
+		} catch (NoSuchAlgorithmException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+}
@@ -0,0 +1,273 @@
+package es.blanca.api.json;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.SerializableString;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.JsonSerializer;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.ser.ResolvableSerializer;
+import es.blanca.api.dto.output.UserOutputDto;
+import es.blanca.api.fields.SparseFieldset;
+import es.blanca.domain.model.Money;
+import es.blanca.web.dto.CountryOutputDto;
+import es.blanca.web.dto.OrderOutputDto;
+import es.blanca.web.dto.ProductOutputDto;
+import org.springframework.boot.jackson.JsonComponent;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Serializers for the output DTOs every listing returns, writing the same JSON as the
+ * bean serializer would: same property names and order, nulls included. They call the
+ * getters directly with pre-encoded property names instead of going through the
+ * reflective property writers.
+ * <p>
+ * Dates and money still go through the mapper's own serializers, looked up once, so
+ * they follow the application's Jackson configuration. A {@link SparseFieldset} set as
+ * the writer's filter provider leaves out the properties of its DTO it does not include.
+ */
+@JsonComponent
+public class OutputDtoJsonComponent {
+
+	private static final SerializableString ID = new SerializedString("id");
+	private static final SerializableString USER_ID = new SerializedString("userId");
+	private static final SerializableString STATUS = new SerializedString("status");
+	private static final SerializableString CREATED_AT = new SerializedString("createdAt");
+	private static final SerializableString ORDER_PRODUCTS = new SerializedString("orderProducts");
+	private static final SerializableString TOTAL = new SerializedString("total");
+	private static final SerializableString VERSION = new SerializedString("version");
+	private static final SerializableString PRODUCT_ID = new SerializedString("productId");
+	private static final SerializableString PRODUCT_NAME = new SerializedString("productName");
+	private static final SerializableString AMOUNT = new SerializedString("amount");
+	private static final SerializableString NAME = new SerializedString("name");
+	private static final SerializableString PRICE = new SerializedString("price");
+	private static final SerializableString STOCK = new SerializedString("stock");
+	private static final SerializableString FULL_NAME = new SerializedString("fullName");
+	private static final SerializableString EMAIL = new SerializedString("email");
+	private static final SerializableString ACTIVE = new SerializedString("active");
+	private static final SerializableString COUNTRY = new SerializedString("country");
+	private static final SerializableString ORDERS = new SerializedString("orders");
+	private static final SerializableString CODE = new SerializedString("code");
+
+	public static class OrderSerializer extends DtoSerializer<OrderOutputDto> {
+		@Override
+		public void serialize(OrderOutputDto order, JsonGenerator generator, SerializerProvider provider) throws IOException {
+			writeOrder(order, generator, provider, fieldset(provider, OrderOutputDto.class));
+		}
+	}
+
+	public static class ProductSerializer extends DtoSerializer<ProductOutputDto> {
+		@Override
+		public void serialize(ProductOutputDto product, JsonGenerator generator, SerializerProvider provider) throws IOException {
+			SparseFieldset fields = fieldset(provider, ProductOutputDto.class);
+			generator.writeStartObject(product);
+			if (writeFieldName(generator, fields, ID)) {
+				writeNumber(generator, product.getId());
+			}
+			if (writeFieldName(generator, fields, NAME)) {
+				generator.writeString(product.getName());
+			}
+			if (writeFieldName(generator, fields, PRICE)) {
+				writeMoney(product.getPrice(), generator, provider);
+			}
+			if (writeFieldName(generator, fields, STATUS)) {
+				writeEnum(generator, product.getStatus());
+			}
+			if (writeFieldName(generator, fields, STOCK)) {
+				writeNumber(generator, product.getStock());
+			}
+			if (writeFieldName(generator, fields, CREATED_AT)) {
+				writeDate(product.getCreatedAt(), generator, provider);
+			}
+			if (writeFieldName(generator, fields, VERSION)) {
+				writeNumber(generator, product.getVersion());
+			}
+			generator.writeEndObject();
+		}
+	}
+
+	public static class UserSerializer extends DtoSerializer<UserOutputDto> {
+		@Override
+		public void serialize(UserOutputDto user, JsonGenerator generator, SerializerProvider provider) throws IOException {
+			SparseFieldset fields = fieldset(provider, UserOutputDto.class);
+			generator.writeStartObject(user);
+			if (writeFieldName(generator, fields, ID)) {
+				writeNumber(generator, user.getId());
+			}
+			if (writeFieldName(generator, fields, FULL_NAME)) {
+				generator.writeString(user.getFullName());
+			}
+			if (writeFieldName(generator, fields, EMAIL)) {
+				generator.writeString(user.getEmail());
+			}
+			if (writeFieldName(generator, fields, CREATED_AT)) {
+				writeDate(user.getCreatedAt(), generator, provider);
+			}
+			if (writeFieldName(generator, fields, COUNTRY)) {
+				writeCountry(user.getCountry(), generator);
+			}
+			if (writeFieldName(generator, fields, ORDERS)) {
+				List<OrderOutputDto> orders = user.getOrders();
+				if (orders == null) {
+					generator.writeNull();
+				} else {
+					generator.writeStartArray(orders, orders.size());
+					for (OrderOutputDto order : orders) {
+						// embedded orders are whole, the fieldset names user properties
+						writeOrder(order, generator, provider, null);
+					}
+					generator.writeEndArray();
+				}
+			}
+			if (writeFieldName(generator, fields, VERSION)) {
+				writeNumber(generator, user.getVersion());
+			}
+			// last: the bean serializer cannot tie isActive() to the isActive field
+			if (writeFieldName(generator, fields, ACTIVE)) {
+				generator.writeBoolean(user.isActive());
+			}
+			generator.writeEndObject();
+		}
+
+		private static void writeCountry(CountryOutputDto country, JsonGenerator generator) throws IOException {
+			if (country == null) {
+				generator.writeNull();
+				return;
+			}
+			generator.writeStartObject(country);
+			generator.writeFieldName(CODE);
+			generator.writeString(country.getCode());
+			generator.writeFieldName(NAME);
+			generator.writeString(country.getName());
+			generator.writeEndObject();
+		}
+	}
+
+	/**
+	 * Keeps the mapper's serializers for the value types the DTOs share. Resolved once,
+	 * when the mapper builds this serializer.
+	 */
+	abstract static class DtoSerializer<T> extends JsonSerializer<T> implements ResolvableSerializer {
+
+		private JsonSerializer<Object> dateSerializer;
+		private JsonSerializer<Object> moneySerializer;
+
+		@Override
+		public void resolve(SerializerProvider provider) throws JsonMappingException {
+			dateSerializer = provider.findValueSerializer(LocalDateTime.class);
+			moneySerializer = provider.findValueSerializer(Money.class);
+		}
+
+		void writeOrder(OrderOutputDto order, JsonGenerator generator, SerializerProvider provider, SparseFieldset fields) throws IOException {
+			if (order == null) {
+				generator.writeNull();
+				return;
+			}
+			generator.writeStartObject(order);
+			if (writeFieldName(generator, fields, ID)) {
+				writeNumber(generator, order.getId());
+			}
+			if (writeFieldName(generator, fields, USER_ID)) {
+				writeNumber(generator, order.getUserId());
+			}
+			if (writeFieldName(generator, fields, STATUS)) {
+				writeEnum(generator, order.getStatus());
+			}
+			if (writeFieldName(generator, fields, CREATED_AT)) {
+				writeDate(order.getCreatedAt(), generator, provider);
+			}
+			if (writeFieldName(generator, fields, ORDER_PRODUCTS)) {
+				List<OrderOutputDto.OrderProductOutputDto> lines = order.getOrderProducts();
+				if (lines == null) {
+					generator.writeNull();
+				} else {
+					generator.writeStartArray(lines, lines.size());
+					for (OrderOutputDto.OrderProductOutputDto line : lines) {
+						writeLine(line, generator);
+					}
+					generator.writeEndArray();
+				}
+			}
+			if (writeFieldName(generator, fields, TOTAL)) {
+				writeMoney(order.getTotal(), generator, provider);
+			}
+			if (writeFieldName(generator, fields, VERSION)) {
+				writeNumber(generator, order.getVersion());
+			}
+			generator.writeEndObject();
+		}
+
+		void writeDate(LocalDateTime date, JsonGenerator generator, SerializerProvider provider) throws IOException {
+			if (date == null) {
+				generator.writeNull();
+			} else {
+				dateSerializer.serialize(date, generator, provider);
+			}
+		}
+
+		void writeMoney(Money money, JsonGenerator generator, SerializerProvider provider) throws IOException {
+			if (money == null) {
+				generator.writeNull();
+			} else {
+				moneySerializer.serialize(money, generator, provider);
+			}
+		}
+
+		private static void writeLine(OrderOutputDto.OrderProductOutputDto line, JsonGenerator generator) throws IOException {
+			if (line == null) {
+				generator.writeNull();
+				return;
+			}
+			generator.writeStartObject(line);
+			generator.writeFieldName(PRODUCT_ID);
+			writeNumber(generator, line.getProductId());
+			generator.writeFieldName(PRODUCT_NAME);
+			generator.writeString(line.getProductName());
+			generator.writeFieldName(AMOUNT);
+			writeNumber(generator, line.getAmount());
+			generator.writeEndObject();
+		}
+
+		static void writeNumber(JsonGenerator generator, Long value) throws IOException {
+			if (value == null) {
+				generator.writeNull();
+			} else {
+				generator.writeNumber(value);
+			}
+		}
+
+		static void writeNumber(JsonGenerator generator, Integer value) throws IOException {
+			if (value == null) {
+				generator.writeNull();
+			} else {
+				generator.writeNumber(value);
+			}
+		}
+
+		// the fieldset the writer carries for this DTO type, null to write every property
+		static SparseFieldset fieldset(SerializerProvider provider, Class<?> type) {
+			return provider.getFilterProvider() instanceof SparseFieldset fields && fields.appliesTo(type) ? fields : null;
+		}
+
+		// writes the property's name and returns true when the fieldset includes it
+		static boolean writeFieldName(JsonGenerator generator, SparseFieldset fields, SerializableString name) throws IOException {
+			if (fields != null && !fields.includes(name.getValue())) {
+				return false;
+			}
+			generator.writeFieldName(name);
+			return true;
+		}
+
+		// enums are written by name, the mapper's default
+		static void writeEnum(JsonGenerator generator, Enum<?> value) throws IOException {
+			if (value == null) {
+				generator.writeNull();
+			} else {
+				generator.writeString(value.name());
+			}
+		}
+	}
+}
@@ -1,8 +1,8 @@
 package es.blanca.api.mapper;
 
 import es.blanca.api.dto.input.CountryInputDto;
-import es.blanca.api.dto.output.CountryOutputDto;
 import es.blanca.domain.model.Country;
+import es.blanca.web.dto.CountryOutputDto;
 import org.mapstruct.Mapper;
 
 @Mapper(componentModel = "spring")
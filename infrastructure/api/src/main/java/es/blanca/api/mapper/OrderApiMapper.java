@@ -1,9 +1,11 @@
 package es.blanca.api.mapper;
 
 import es.blanca.api.dto.input.OrderInputDto;
-import es.blanca.api.dto.output.OrderOutputDto;
+import es.blanca.api.dto.output.PlacementOutputDto;
 import es.blanca.domain.model.Order;
+import es.blanca.domain.model.OrderPlacement;
 import es.blanca.domain.model.OrderProduct;
+import es.blanca.web.dto.OrderOutputDto;
 import org.mapstruct.Mapper;
 import org.mapstruct.Mapping;
 
@@ -13,9 +15,12 @@ public interface OrderApiMapper {
 	OrderOutputDto toOutputDto(Order order);
 
 	OrderInputDto toInputDto(Order order);
+	@Mapping(target = "total", ignore = true)
 	Order toDomain(OrderInputDto inputDto);
 
 	@Mapping(source = "product.id", target = "productId")
 	@Mapping(source = "product.name", target = "productName")
 	OrderOutputDto.OrderProductOutputDto toOrderProductOutputDto(OrderProduct orderProduct);
+
+	PlacementOutputDto toPlacementOutputDto(OrderPlacement placement);
 }
@@ -1,8 +1,8 @@
 package es.blanca.api.mapper;
 
 import es.blanca.api.dto.input.ProductInputDto;
-import es.blanca.api.dto.output.ProductOutputDto;
 import es.blanca.domain.model.Product;
+import es.blanca.web.dto.ProductOutputDto;
 import org.mapstruct.Mapper;
 
 @Mapper(componentModel = "spring")
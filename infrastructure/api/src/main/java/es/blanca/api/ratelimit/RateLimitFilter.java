@@ -0,0 +1,148 @@
+package es.blanca.api.ratelimit;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import es.blanca.web.exception.CustomError;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.PathContainer;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.pattern.PathPattern;
+import org.springframework.web.util.pattern.PathPatternParser;
+
+import java.io.IOException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Throttles requests per authenticated email, or per client IP on /auth/** and for
+ * anonymous callers. Runs right after JwtAuthenticationFilter so the principal is known.
+ */
+@Slf4j
+@Component
+public class RateLimitFilter extends OncePerRequestFilter {
+
+	private static final PathPattern AUTH_PATTERN = PathPatternParser.defaultInstance.parse("/auth/**");
+	private static final String DEFAULT_RULE = "default";
+
+	private final RateLimitProperties properties;
+	private final TokenBucketRegistry registry;
+	private final ObjectMapper objectMapper;
+	private final List<CompiledRule> rules;
+
+	public RateLimitFilter(RateLimitProperties properties, TokenBucketRegistry registry, ObjectMapper objectMapper) {
+		this.properties = properties;
+		this.registry = registry;
+		this.objectMapper = objectMapper;
+		this.rules = compile(properties.getRules());
+	}
+
+	@Override
+	protected boolean shouldNotFilter(HttpServletRequest request) {
+		return !properties.isEnabled();
+	}
+
+	@Override
+	protected void doFilterInternal(HttpServletRequest request,
+	                                HttpServletResponse response,
+	                                FilterChain filterChain) throws ServletException, IOException {
+		PathContainer path = PathContainer.parsePath(request.getRequestURI());
+		Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+		boolean authenticated = authentication != null && authentication.isAuthenticated()
+				&& !(authentication instanceof AnonymousAuthenticationToken);
+
+		String client = !authenticated || AUTH_PATTERN.matches(path)
+				? "ip:" + request.getRemoteAddr()
+				: "user:" + authentication.getName();
+
+		CompiledRule rule = resolveRule(request.getMethod(), path, authenticated ? authentication : null);
+		String ruleName = rule != null ? rule.name : DEFAULT_RULE;
+		RateLimitProperties.Limit limit = rule != null ? rule.limit : properties.getDefaultLimit();
+
+		long waitNanos = registry.tryAcquire(ruleName + '|' + client, limit);
+		if (waitNanos > 0) {
+			reject(response, client, ruleName, waitNanos);
+			return;
+		}
+		filterChain.doFilter(request, response);
+	}
+
+	private CompiledRule resolveRule(String method, PathContainer path, Authentication authentication) {
+		for (CompiledRule rule : rules) {
+			if (rule.matches(method, path, authentication)) {
+				return rule;
+			}
+		}
+		return null;
+	}
+
+	private void reject(HttpServletResponse response, String client, String ruleName, long waitNanos) throws IOException {
+		long retryAfterSeconds = Math.max(1L, TimeUnit.NANOSECONDS.toSeconds(waitNanos + 999_999_999L));
+		log.warn("Rate limit '{}' exceeded for {}, retry after {}s", ruleName, client, retryAfterSeconds);
+
+		CustomError error = CustomError.builder()
+				.timestamp(LocalDate.now())
+				.httpCode(HttpStatus.TOO_MANY_REQUESTS.value())
+				.message("Too many requests, retry after " + retryAfterSeconds + " seconds")
+				.build();
+		response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+		response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds));
+		response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+		objectMapper.writeValue(response.getOutputStream(), error);
+	}
+
+	private static List<CompiledRule> compile(List<RateLimitProperties.Rule> rules) {
+		List<CompiledRule> compiled = new ArrayList<>(rules.size());
+		for (int i = 0; i < rules.size(); i++) {
+			RateLimitProperties.Rule rule = rules.get(i);
+			compiled.add(new CompiledRule(
+					rule.getName() != null ? rule.getName() : "rule-" + i,
+					PathPatternParser.defaultInstance.parse(rule.getPattern()),
+					rule.getMethods().stream().map(String::toUpperCase).collect(Collectors.toSet()),
+					StringUtils.hasText(rule.getRole()) ? rule.getRole() : null,
+					rule));
+		}
+		return compiled;
+	}
+
+	private record CompiledRule(String name, PathPattern pattern, Set<String> methods, String role,
+	                            RateLimitProperties.Limit limit) {
+
+		boolean matches(String method, PathContainer path, Authentication authentication) {
+			if (!methods.isEmpty() && !methods.contains(method)) {
+				return false;
+			}
+			if (role != null && !hasRole(authentication)) {
+				return false;
+			}
+			return pattern.matches(path);
+		}
+
+		private boolean hasRole(Authentication authentication) {
+			if (authentication == null) {
+				return false;
+			}
+			for (GrantedAuthority authority : authentication.getAuthorities()) {
+				if (role.equals(authority.getAuthority())) {
+					return true;
+				}
+			}
+			return false;
+		}
+	}
+}
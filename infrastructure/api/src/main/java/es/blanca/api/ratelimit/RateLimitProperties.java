@@ -0,0 +1,46 @@
+package es.blanca.api.ratelimit;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+@Getter
+@Setter
+@Component
+@ConfigurationProperties(prefix = "rate-limit")
+public class RateLimitProperties {
+
+	private boolean enabled = true;
+
+	// buckets untouched (and full) for this long are evicted
+	private Duration idleTimeout = Duration.ofMinutes(10);
+
+	// applied when no rule matches the request
+	private Limit defaultLimit = new Limit();
+
+	// evaluated in order, the first matching rule wins
+	private List<Rule> rules = new ArrayList<>();
+
+	@Getter
+	@Setter
+	public static class Limit {
+		private int capacity = 100;
+		private double refillPerSecond = 50;
+	}
+
+	@Getter
+	@Setter
+	public static class Rule extends Limit {
+		private String name;
+		private String pattern = "/**";
+		// empty means any method
+		private List<String> methods = new ArrayList<>();
+		// e.g. ROLE_ADMIN, empty means any role
+		private String role;
+	}
+}
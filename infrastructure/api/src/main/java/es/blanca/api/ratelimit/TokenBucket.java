@@ -0,0 +1,51 @@
+package es.blanca.api.ratelimit;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Token bucket implemented as a generic cell rate algorithm (GCRA).
+ * The whole state is the theoretical arrival time of the next request,
+ * so taking a token is a single CAS and never blocks.
+ */
+public class TokenBucket {
+
+	private final long emissionIntervalNanos;
+	private final long burstToleranceNanos;
+	private final AtomicLong theoreticalArrival;
+
+	public TokenBucket(int capacity, double refillPerSecond, long nowNanos) {
+		if (capacity < 1 || refillPerSecond <= 0) {
+			throw new IllegalArgumentException("Capacity and refill rate must be positive");
+		}
+		this.emissionIntervalNanos = Math.max(1L, (long) (1_000_000_000L / refillPerSecond));
+		this.burstToleranceNanos = emissionIntervalNanos * (capacity - 1);
+		this.theoreticalArrival = new AtomicLong(nowNanos);
+	}
+
+	/**
+	 * Tries to take one token.
+	 *
+	 * @return 0 when the request is allowed, otherwise the nanoseconds to wait for the next token
+	 */
+	public long tryAcquire(long nowNanos) {
+		while (true) {
+			long tat = theoreticalArrival.get();
+			long base = tat - nowNanos > 0 ? tat : nowNanos;
+			long waitNanos = base - burstToleranceNanos - nowNanos;
+			if (waitNanos > 0) {
+				return waitNanos;
+			}
+			if (theoreticalArrival.compareAndSet(tat, base + emissionIntervalNanos)) {
+				return 0;
+			}
+		}
+	}
+
+	/**
+	 * A bucket is idle when it has been full for longer than the given time. Dropping it
+	 * loses nothing, since a new bucket starts full as well.
+	 */
+	public boolean isIdle(long nowNanos, long idleNanos) {
+		return nowNanos - theoreticalArrival.get() > idleNanos;
+	}
+}
@@ -0,0 +1,45 @@
+package es.blanca.api.ratelimit;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Holds one bucket per (rule, client) key. The map is lock-striped per bin and the
+ * buckets themselves are lock-free, so concurrent clients never contend on a shared lock.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class TokenBucketRegistry {
+
+	private final RateLimitProperties properties;
+	private final ConcurrentMap<String, TokenBucket> buckets = new ConcurrentHashMap<>();
+
+	public long tryAcquire(String key, RateLimitProperties.Limit limit) {
+		long now = System.nanoTime();
+		TokenBucket bucket = buckets.get(key);
+		if (bucket == null) {
+			bucket = buckets.computeIfAbsent(key,
+					k -> new TokenBucket(limit.getCapacity(), limit.getRefillPerSecond(), now));
+		}
+		return bucket.tryAcquire(now);
+	}
+
+	@Scheduled(fixedDelayString = "${rate-limit.eviction-interval-ms:60000}")
+	public void evictIdleBuckets() {
+		long now = System.nanoTime();
+		long idleNanos = properties.getIdleTimeout().toNanos();
+		int before = buckets.size();
+		buckets.values().removeIf(bucket -> bucket.isIdle(now, idleNanos));
+		log.debug("Evicted {} idle rate limit buckets", before - buckets.size());
+	}
+
+	public int size() {
+		return buckets.size();
+	}
+}
@@ -27,12 +27,9 @@ public class CustomUserDetailsService implements UserDetailsService {
 	public UserDetails loadUserByUsername(String email) throws UsernameNotFoundException {
 		log.debug("Loading user by email: {}", email);
 
-		User user = userRepository.findByEmail(email)
-				.orElseThrow(() -> new UsernameNotFoundException("User not found with email: " + email));
-
-		if (!user.isActive()) {
-			throw new UsernameNotFoundException("User is not active: " + email);
-		}
+		// inactive users are not found, they cannot log in
+		User user = userRepository.findActiveByEmail(email)
+				.orElseThrow(() -> new UsernameNotFoundException("No active user with email: " + email));
 
 		return new org.springframework.security.core.userdetails.User(
 				user.getEmail(),
@@ -0,0 +1,34 @@
+package es.blanca.api.threads;
+
+import java.util.List;
+
+/**
+ * Where a virtual thread was pinned to its carrier, decided by the innermost frame of
+ * the pinned stack that belongs to one of the known blocking paths.
+ */
+public enum PinnedPath {
+	JDBC(List.of("java.sql.", "javax.sql.", "com.zaxxer.hikari.", "org.postgresql.", "org.h2.",
+			"org.hibernate.", "org.springframework.jdbc.", "es.blanca.jpa.")),
+	SECURITY(List.of("org.springframework.security.", "io.jsonwebtoken.", "es.blanca.api.security.")),
+	OTHER(List.of());
+
+	private final List<String> packages;
+
+	PinnedPath(List<String> packages) {
+		this.packages = packages;
+	}
+
+	/**
+	 * @param frames the pinned stack as "class.method:line", innermost first
+	 */
+	public static PinnedPath of(List<String> frames) {
+		for (String frame : frames) {
+			for (PinnedPath path : values()) {
+				if (path.packages.stream().anyMatch(frame::startsWith)) {
+					return path;
+				}
+			}
+		}
+		return OTHER;
+	}
+}
@@ -0,0 +1,24 @@
+package es.blanca.api.threads;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/**
+ * GET /actuator/pinning: pinned time per path and the latest pinned stacks.
+ */
+@Component
+@Endpoint(id = "pinning")
+@ConditionalOnProperty(name = "spring.threads.virtual.enabled", havingValue = "true")
+@RequiredArgsConstructor
+public class PinningEndpoint {
+
+	private final VirtualThreadPinningMonitor monitor;
+
+	@ReadOperation
+	public VirtualThreadPinningMonitor.Snapshot pinning() {
+		return monitor.snapshot();
+	}
+}
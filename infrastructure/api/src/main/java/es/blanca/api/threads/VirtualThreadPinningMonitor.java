@@ -0,0 +1,140 @@
+package es.blanca.api.threads;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordedStackTrace;
+import jdk.jfr.consumer.RecordedThread;
+import jdk.jfr.consumer.RecordingStream;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Streams the JFR jdk.VirtualThreadPinned events of this JVM while the virtual-thread
+ * mode is on. A pinned virtual thread blocks its carrier, so enough of them (a
+ * synchronized JDBC driver, a lock held around BCrypt) bring back the thread-pool limits
+ * the mode is meant to remove.
+ * <p>
+ * Each event is counted per {@link PinnedPath} in the jvm.threads.virtual.pinned timer
+ * and the latest ones are kept with their stack for the pinning actuator endpoint.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "spring.threads.virtual.enabled", havingValue = "true")
+public class VirtualThreadPinningMonitor implements SmartLifecycle {
+
+	static final String PINNED_EVENT = "jdk.VirtualThreadPinned";
+	private static final int FIRST_VIRTUAL_THREAD_RELEASE = 21;
+
+	private final VirtualThreadProperties properties;
+	private final Map<PinnedPath, Timer> timers = new EnumMap<>(PinnedPath.class);
+	private final Deque<PinnedSample> recent = new ArrayDeque<>();
+	private volatile RecordingStream stream;
+
+	public VirtualThreadPinningMonitor(VirtualThreadProperties properties, MeterRegistry meterRegistry) {
+		this.properties = properties;
+		for (PinnedPath path : PinnedPath.values()) {
+			timers.put(path, Timer.builder("jvm.threads.virtual.pinned")
+					.description("Time virtual threads spent pinned to their carrier thread")
+					.tag("path", path.name().toLowerCase())
+					.register(meterRegistry));
+		}
+	}
+
+	@Override
+	public void start() {
+		if (Runtime.version().feature() < FIRST_VIRTUAL_THREAD_RELEASE) {
+			log.warn("Virtual threads need JDK {}, running on {}: requests stay on platform threads and pinning is not monitored",
+					FIRST_VIRTUAL_THREAD_RELEASE, Runtime.version());
+			return;
+		}
+		RecordingStream recordingStream = new RecordingStream();
+		recordingStream.enable(PINNED_EVENT).withThreshold(properties.getThreshold()).withStackTrace();
+		recordingStream.onEvent(PINNED_EVENT, this::record);
+		recordingStream.startAsync();
+		stream = recordingStream;
+		log.info("Monitoring virtual thread pinning over {}", properties.getThreshold());
+	}
+
+	@Override
+	public void stop() {
+		RecordingStream recordingStream = stream;
+		stream = null;
+		if (recordingStream != null) {
+			recordingStream.close();
+		}
+	}
+
+	@Override
+	public boolean isRunning() {
+		return stream != null;
+	}
+
+	private void record(RecordedEvent event) {
+		RecordedThread thread = event.getThread();
+		record(PinnedPath.of(frames(event.getStackTrace(), Integer.MAX_VALUE)), event.getDuration(),
+				thread != null ? thread.getJavaName() : null,
+				frames(event.getStackTrace(), properties.getStackDepth()));
+	}
+
+	void record(PinnedPath path, Duration duration, String thread, List<String> stack) {
+		timers.get(path).record(duration);
+		synchronized (recent) {
+			if (recent.size() == properties.getRecentEvents()) {
+				recent.removeLast();
+			}
+			recent.addFirst(new PinnedSample(Instant.now(), path, duration.toNanos() / 1_000_000.0, thread, stack));
+		}
+	}
+
+	public Snapshot snapshot() {
+		Map<PinnedPath, PathTotals> totals = new EnumMap<>(PinnedPath.class);
+		timers.forEach((path, timer) -> totals.put(path, new PathTotals(timer.count(),
+				timer.totalTime(TimeUnit.MILLISECONDS), timer.max(TimeUnit.MILLISECONDS))));
+		List<PinnedSample> samples;
+		synchronized (recent) {
+			samples = new ArrayList<>(recent);
+		}
+		return new Snapshot(isRunning(), properties.getThreshold(), totals, samples);
+	}
+
+	private static List<String> frames(RecordedStackTrace stackTrace, int depth) {
+		List<String> frames = new ArrayList<>();
+		if (stackTrace == null) {
+			return frames;
+		}
+		for (RecordedFrame frame : stackTrace.getFrames()) {
+			if (frames.size() == depth) {
+				break;
+			}
+			if (frame.isJavaFrame()) {
+				frames.add(frame.getMethod().getType().getName() + "." + frame.getMethod().getName()
+						+ ":" + frame.getLineNumber());
+			}
+		}
+		return frames;
+	}
+
+	public record Snapshot(boolean monitoring, Duration threshold, Map<PinnedPath, PathTotals> totals,
+	                       List<PinnedSample> recent) {
+	}
+
+	public record PathTotals(long count, double totalMillis, double maxMillis) {
+	}
+
+	public record PinnedSample(Instant at, PinnedPath path, double durationMillis, String thread, List<String> stack) {
+	}
+}
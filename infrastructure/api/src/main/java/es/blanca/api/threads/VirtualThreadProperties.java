@@ -0,0 +1,27 @@
+package es.blanca.api.threads;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Pinning diagnostics for the virtual-thread mode (spring.threads.virtual.enabled=true,
+ * JDK 21 or later). Pinned sections shorter than the threshold are not reported.
+ */
+@Getter
+@Setter
+@Component
+@ConfigurationProperties(prefix = "virtual-threads.pinning")
+public class VirtualThreadProperties {
+
+	private Duration threshold = Duration.ofMillis(20);
+
+	// pinned sections kept with their stack for the pinning endpoint
+	private int recentEvents = 50;
+
+	// frames of each stack kept in those samples
+	private int stackDepth = 12;
+}
@@ -0,0 +1,99 @@
+package es.blanca.api.bulkhead;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import es.blanca.application.workload.Workload;
+import es.blanca.application.workload.WorkloadContext;
+import jakarta.servlet.FilterChain;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BulkheadFilterTest {
+
+	private BulkheadFilter filter;
+
+	@BeforeEach
+	void setUp() {
+		BulkheadProperties properties = new BulkheadProperties();
+		BulkheadProperties.Partition reporting = new BulkheadProperties.Partition();
+		reporting.setMaxConcurrent(1);
+		properties.getPartitions().put(Workload.REPORTING, reporting);
+		filter = new BulkheadFilter(properties, new ObjectMapper().registerModule(new JavaTimeModule()));
+	}
+
+	@Test
+	void resolveWorkload_shouldBeReporting_forAdminListing() {
+		// Act
+		Workload workload = filter.resolveWorkload(new MockHttpServletRequest("GET", "/orders"), auth("ROLE_ADMIN"));
+
+		// Assert
+		assertEquals(Workload.REPORTING, workload);
+	}
+
+	@Test
+	void resolveWorkload_shouldBeInteractive_forUserTrafficAndWrites() {
+		// Act & Assert
+		assertEquals(Workload.INTERACTIVE,
+				filter.resolveWorkload(new MockHttpServletRequest("GET", "/orders"), auth("ROLE_USER")));
+		assertEquals(Workload.INTERACTIVE,
+				filter.resolveWorkload(new MockHttpServletRequest("POST", "/orders"), auth("ROLE_ADMIN")));
+		assertEquals(Workload.INTERACTIVE,
+				filter.resolveWorkload(new MockHttpServletRequest("GET", "/orders/1"), auth("ROLE_ADMIN")));
+	}
+
+	@Test
+	void doFilter_shouldExposeWorkloadToChainAndClearItAfterwards() throws Exception {
+		// Arrange
+		AtomicReference<Workload> seen = new AtomicReference<>();
+		FilterChain chain = (req, res) -> seen.set(WorkloadContext.current());
+
+		// Act
+		filter.doFilter(new MockHttpServletRequest("GET", "/products"), new MockHttpServletResponse(), chain);
+
+		// Assert
+		assertEquals(Workload.INTERACTIVE, seen.get());
+		assertEquals(Workload.INTERACTIVE, WorkloadContext.current());
+		assertEquals(100, filter.availableSlots(Workload.INTERACTIVE));
+	}
+
+	@Test
+	void doFilter_shouldReject_whenReportingPartitionIsFull() throws Exception {
+		// Arrange
+		SecurityContextHolder.getContext().setAuthentication(auth("ROLE_ADMIN"));
+		AtomicInteger nestedStatus = new AtomicInteger();
+		FilterChain chain = (req, res) -> {
+			MockHttpServletResponse nested = new MockHttpServletResponse();
+			// a second report while the first one still holds the only slot
+			filter.doFilter(new MockHttpServletRequest("GET", "/users"), nested, (r, s) -> {});
+			nestedStatus.set(nested.getStatus());
+		};
+
+		try {
+			// Act
+			filter.doFilter(new MockHttpServletRequest("GET", "/users"), new MockHttpServletResponse(), chain);
+		} finally {
+			SecurityContextHolder.clearContext();
+		}
+
+		// Assert
+		assertEquals(503, nestedStatus.get());
+		assertEquals(1, filter.availableSlots(Workload.REPORTING));
+	}
+
+	private static Authentication auth(String role) {
+		return new UsernamePasswordAuthenticationToken("someone@example.com", null,
+				List.of(new SimpleGrantedAuthority(role)));
+	}
+}
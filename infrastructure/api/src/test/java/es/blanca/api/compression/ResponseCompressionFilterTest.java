@@ -0,0 +1,158 @@
+package es.blanca.api.compression;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.http.HttpServletResponse;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.util.unit.DataSize;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ResponseCompressionFilterTest {
+
+	private static final String LARGE_JSON = "[" + "{\"id\":1,\"name\":\"Keyboard\"},".repeat(200) + "{}]";
+
+	private ResponseCompressionFilter filter;
+
+	@BeforeEach
+	void setUp() {
+		CompressionProperties properties = new CompressionProperties();
+		properties.setMinResponseSize(DataSize.ofBytes(1024));
+		filter = new ResponseCompressionFilter(properties);
+	}
+
+	@Test
+	void doFilter_shouldGzipLargeJson_andSuffixItsTag() throws Exception {
+		// Arrange
+		MockHttpServletRequest request = get("gzip, deflate, br");
+		MockHttpServletResponse response = new MockHttpServletResponse();
+
+		// Act
+		filter.doFilter(request, response, json(LARGE_JSON, "\"abc\""));
+
+		// Assert
+		assertEquals("gzip", response.getHeader(HttpHeaders.CONTENT_ENCODING));
+		assertEquals(HttpHeaders.ACCEPT_ENCODING, response.getHeader(HttpHeaders.VARY));
+		assertEquals("\"abc-gzip\"", response.getHeader(HttpHeaders.ETAG));
+		assertNull(response.getHeader(HttpHeaders.CONTENT_LENGTH));
+		assertTrue(response.getContentAsByteArray().length < LARGE_JSON.length());
+		assertEquals(LARGE_JSON, gunzip(response.getContentAsByteArray()));
+	}
+
+	@Test
+	void doFilter_shouldSendSmallJsonAsItIs_withItsLength() throws Exception {
+		// Arrange
+		MockHttpServletRequest request = get("gzip");
+		MockHttpServletResponse response = new MockHttpServletResponse();
+
+		// Act
+		filter.doFilter(request, response, json("{\"id\":1}", "\"abc\""));
+
+		// Assert
+		assertNull(response.getHeader(HttpHeaders.CONTENT_ENCODING));
+		assertEquals("\"abc\"", response.getHeader(HttpHeaders.ETAG));
+		assertEquals(8, response.getContentLength());
+		assertEquals("{\"id\":1}", response.getContentAsString());
+	}
+
+	@Test
+	void doFilter_shouldNotCompress_whenGzipIsNotAccepted() throws Exception {
+		// Arrange
+		MockHttpServletResponse identity = new MockHttpServletResponse();
+		MockHttpServletResponse refused = new MockHttpServletResponse();
+
+		// Act
+		filter.doFilter(new MockHttpServletRequest("GET", "/products"), identity, json(LARGE_JSON, null));
+		filter.doFilter(get("gzip;q=0, *"), refused, json(LARGE_JSON, null));
+
+		// Assert
+		assertNull(identity.getHeader(HttpHeaders.CONTENT_ENCODING));
+		assertEquals(LARGE_JSON, identity.getContentAsString());
+		assertNull(refused.getHeader(HttpHeaders.CONTENT_ENCODING));
+	}
+
+	@Test
+	void doFilter_shouldNotCompressOtherContentTypes() throws Exception {
+		// Arrange
+		MockHttpServletResponse response = new MockHttpServletResponse();
+		FilterChain csv = (req, res) -> {
+			res.setContentType("text/csv");
+			res.setContentLength(LARGE_JSON.length());
+			res.getOutputStream().write(LARGE_JSON.getBytes(StandardCharsets.UTF_8));
+		};
+
+		// Act
+		filter.doFilter(get("gzip"), response, csv);
+
+		// Assert
+		assertNull(response.getHeader(HttpHeaders.CONTENT_ENCODING));
+		assertEquals(LARGE_JSON.length(), response.getContentLength());
+		assertEquals(LARGE_JSON, response.getContentAsString());
+	}
+
+	@Test
+	void doFilter_shouldKeepTheGzipTag_whenTheGzippedCopyIsStillCurrent() throws Exception {
+		// Arrange
+		MockHttpServletRequest request = get("gzip");
+		request.addHeader(HttpHeaders.IF_NONE_MATCH, "\"abc-gzip\"");
+		MockHttpServletResponse response = new MockHttpServletResponse();
+		FilterChain notModified = (req, res) -> {
+			((HttpServletResponse) res).setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+			((HttpServletResponse) res).setHeader(HttpHeaders.ETAG, "\"abc\"");
+		};
+
+		// Act
+		filter.doFilter(request, response, notModified);
+
+		// Assert
+		assertEquals(304, response.getStatus());
+		assertEquals("\"abc-gzip\"", response.getHeader(HttpHeaders.ETAG));
+		assertEquals(0, response.getContentAsByteArray().length);
+	}
+
+	@Test
+	void acceptsGzip_shouldFollowTheQualities() {
+		// Act & Assert
+		assertTrue(ResponseCompressionFilter.acceptsGzip("gzip"));
+		assertTrue(ResponseCompressionFilter.acceptsGzip("br;q=1.0, gzip;q=0.8"));
+		assertTrue(ResponseCompressionFilter.acceptsGzip("*"));
+		assertFalse(ResponseCompressionFilter.acceptsGzip("identity"));
+		assertFalse(ResponseCompressionFilter.acceptsGzip("gzip;q=0"));
+		assertFalse(ResponseCompressionFilter.acceptsGzip(null));
+	}
+
+	private static MockHttpServletRequest get(String acceptEncoding) {
+		MockHttpServletRequest request = new MockHttpServletRequest("GET", "/products");
+		request.addHeader(HttpHeaders.ACCEPT_ENCODING, acceptEncoding);
+		return request;
+	}
+
+	private static FilterChain json(String body, String etag) {
+		return (req, res) -> {
+			HttpServletResponse response = (HttpServletResponse) res;
+			response.setContentType("application/json");
+			if (etag != null) {
+				response.setHeader(HttpHeaders.ETAG, etag);
+			}
+			byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+			response.setHeader(HttpHeaders.CONTENT_LENGTH, String.valueOf(bytes.length));
+			// written in two parts, the first one below the threshold
+			response.getOutputStream().write(bytes, 0, Math.min(10, bytes.length));
+			response.getOutputStream().write(bytes, Math.min(10, bytes.length), bytes.length - Math.min(10, bytes.length));
+			response.flushBuffer();
+		};
+	}
+
+	private static String gunzip(byte[] bytes) throws Exception {
+		try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(bytes))) {
+			return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+		}
+	}
+}
@@ -0,0 +1,97 @@
+package es.blanca.api.concurrency;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+class ConcurrencyLimitFilterTest {
+
+	private final BlockingController controller = new BlockingController();
+	private final ExecutorService executor = Executors.newSingleThreadExecutor();
+
+	private ConcurrencyLimitFilter filter;
+	private MockMvc mockMvc;
+
+	@BeforeEach
+	void setUp() {
+		// a single read in flight saturates the READ class
+		ConcurrencyLimitProperties properties = new ConcurrencyLimitProperties();
+		ConcurrencyLimitProperties.Limit read = new ConcurrencyLimitProperties.Limit();
+		read.setInitialLimit(1);
+		read.setMinLimit(1);
+		read.setMaxLimit(1);
+		properties.getClasses().put(TrafficClass.READ, read);
+
+		filter = new ConcurrencyLimitFilter(properties, new ObjectMapper().registerModule(new JavaTimeModule()),
+				new SimpleMeterRegistry());
+		mockMvc = MockMvcBuilders.standaloneSetup(controller).addFilters(filter).build();
+	}
+
+	@AfterEach
+	void tearDown() {
+		controller.release.countDown();
+		executor.shutdownNow();
+	}
+
+	@Test
+	void doFilter_shouldReturn503_whenTheLimitIsSaturated() throws Exception {
+		// Arrange
+		Future<MvcResult> first = executor.submit(() -> mockMvc.perform(get("/products")).andReturn());
+		assertTrue(controller.entered.await(10, TimeUnit.SECONDS));
+
+		// Act & Assert
+		mockMvc.perform(get("/products"))
+				.andExpect(status().isServiceUnavailable())
+				.andExpect(jsonPath("$.httpCode").value(503));
+		// writes have their own limit
+		mockMvc.perform(post("/products"))
+				.andExpect(status().isOk());
+
+		controller.release.countDown();
+		assertEquals(200, first.get(10, TimeUnit.SECONDS).getResponse().getStatus());
+		assertEquals(1, filter.getLimiter(TrafficClass.READ).getRejected());
+		assertEquals(0, filter.getLimiter(TrafficClass.READ).getInFlight());
+	}
+
+	// an inner class, so the application contexts of the other tests do not scan it
+	@RestController
+	class BlockingController {
+
+		final CountDownLatch entered = new CountDownLatch(1);
+		final CountDownLatch release = new CountDownLatch(1);
+
+		// holds its slot until the test lets it go
+		@GetMapping("/products")
+		String findProducts() throws InterruptedException {
+			entered.countDown();
+			release.await(10, TimeUnit.SECONDS);
+			return "[]";
+		}
+
+		@PostMapping("/products")
+		String createProduct() {
+			return "{}";
+		}
+	}
+}
@@ -0,0 +1,87 @@
+package es.blanca.api.concurrency;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GradientLimiterTest {
+
+	private static final long WINDOW = TimeUnit.SECONDS.toNanos(1);
+	private static final long MILLIS = TimeUnit.MILLISECONDS.toNanos(1);
+
+	@Test
+	void tryAcquire_shouldRejectAndCount_whenLimitReached() {
+		// Arrange
+		GradientLimiter limiter = new GradientLimiter(2, 1, 10, WINDOW, 1.0, 0);
+
+		// Act
+		boolean first = limiter.tryAcquire();
+		boolean second = limiter.tryAcquire();
+		boolean third = limiter.tryAcquire();
+
+		// Assert
+		assertTrue(first);
+		assertTrue(second);
+		assertFalse(third);
+		assertEquals(1, limiter.getRejected());
+		assertEquals(2, limiter.getInFlight());
+	}
+
+	@Test
+	void release_shouldGrowLimit_whenLatencyIsStableAndLimitIsUsed() {
+		// Arrange
+		GradientLimiter limiter = new GradientLimiter(10, 1, 100, WINDOW, 1.0, 0);
+
+		// Act
+		runWindow(limiter, 10, 10 * MILLIS, WINDOW);
+		runWindow(limiter, 10, 10 * MILLIS, 2 * WINDOW);
+
+		// Assert
+		assertTrue(limiter.getLimit() > 10);
+	}
+
+	@Test
+	void release_shouldShrinkLimit_whenLatencyRises() {
+		// Arrange
+		GradientLimiter limiter = new GradientLimiter(20, 1, 100, WINDOW, 1.0, 0);
+		runWindow(limiter, 20, 10 * MILLIS, WINDOW);
+		int baseline = limiter.getLimit();
+
+		// Act
+		runWindow(limiter, 20, 100 * MILLIS, 2 * WINDOW);
+
+		// Assert
+		assertTrue(limiter.getLimit() < baseline);
+	}
+
+	@Test
+	void release_shouldNotGoBelowMinLimit() {
+		// Arrange
+		GradientLimiter limiter = new GradientLimiter(12, 10, 100, WINDOW, 1.0, 0);
+		runWindow(limiter, 12, MILLIS, WINDOW);
+
+		// Act
+		for (int i = 2; i < 5; i++) {
+			runWindow(limiter, 12, 1000 * MILLIS, i * WINDOW);
+		}
+
+		// Assert
+		assertEquals(10, limiter.getLimit());
+	}
+
+	private static void runWindow(GradientLimiter limiter, int concurrency, long rtt, long windowEnd) {
+		// fill the limit so the limiter is not application-limited, then complete enough samples
+		for (int round = 0; round < 10; round++) {
+			int acquired = 0;
+			while (acquired < concurrency && limiter.tryAcquire()) {
+				acquired++;
+			}
+			for (int i = 0; i < acquired; i++) {
+				boolean last = round == 9 && i == acquired - 1;
+				limiter.release(rtt, last ? windowEnd : windowEnd - WINDOW / 2);
+			}
+		}
+	}
+}
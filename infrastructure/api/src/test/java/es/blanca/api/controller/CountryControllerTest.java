@@ -2,11 +2,15 @@ package es.blanca.api.controller;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import es.blanca.api.dto.input.CountryInputDto;
-import es.blanca.api.dto.output.CountryOutputDto;
+import es.blanca.api.dto.output.UserOutputDto;
 import es.blanca.api.mapper.CountryApiMapper;
+import es.blanca.api.mapper.UserApiMapper;
 import es.blanca.domain.exceptions.EntityNotFoundException;
 import es.blanca.domain.model.Country;
+import es.blanca.domain.model.User;
 import es.blanca.domain.port.CountryService;
+import es.blanca.domain.port.UserService;
+import es.blanca.web.dto.CountryOutputDto;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -14,14 +18,17 @@ import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMock
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.web.servlet.MockMvc;
 
 import java.util.Arrays;
+import java.util.List;
 import java.util.Optional;
 
+import static org.hamcrest.Matchers.not;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
@@ -49,6 +56,12 @@ class CountryControllerTest {
 	@MockBean
 	private CountryApiMapper countryApiMapper;
 
+	@MockBean
+	private UserService userService;
+
+	@MockBean
+	private UserApiMapper userApiMapper;
+
 	private Country testCountry;
 	private CountryOutputDto countryOutputDto;
 	private CountryInputDto countryInputDto;
@@ -86,6 +99,25 @@ class CountryControllerTest {
 		verify(countryService, times(1)).create(any(Country.class));
 	}
 
+	@Test
+	@WithMockUser(roles = "ADMIN")
+	void getCountryUsers_shouldClampThePageSize() throws Exception {
+		// Arrange
+		User user = new User();
+		user.setId(1L);
+		UserOutputDto userOutputDto = new UserOutputDto();
+		userOutputDto.setId(1L);
+		when(userService.findByCountryCode("ES", 0, 100)).thenReturn(List.of(user));
+		when(userApiMapper.toOutputDto(user)).thenReturn(userOutputDto);
+
+		// Act & Assert
+		mockMvc.perform(get("/countries/ES/users").param("size", "5000"))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$[0].id").value(1));
+
+		verify(userService, times(1)).findByCountryCode("ES", 0, 100);
+	}
+
 	@Test
 	@WithMockUser(roles = "USER")
 	void createCountry_shouldReturn403_whenUserIsNotAdmin() throws Exception {
@@ -150,6 +182,44 @@ class CountryControllerTest {
 		verify(countryService, times(1)).findAll();
 	}
 
+	@Test
+	@WithMockUser(roles = "USER")
+	void getAllCountries_shouldReturn304WithoutMapping_whenTagMatches() throws Exception {
+		// Arrange
+		when(countryService.findAll()).thenReturn(Arrays.asList(testCountry));
+		when(countryApiMapper.toOutputDto(testCountry)).thenReturn(countryOutputDto);
+		String tag = mockMvc.perform(get("/countries"))
+				.andExpect(status().isOk())
+				.andExpect(header().string(HttpHeaders.CACHE_CONTROL, "max-age=3600, must-revalidate, private"))
+				.andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+		clearInvocations(countryApiMapper);
+
+		// Act & Assert
+		mockMvc.perform(get("/countries")
+						.header(HttpHeaders.IF_NONE_MATCH, tag))
+				.andExpect(status().isNotModified())
+				.andExpect(header().string(HttpHeaders.ETAG, tag));
+
+		verifyNoInteractions(countryApiMapper);
+	}
+
+	@Test
+	@WithMockUser(roles = "USER")
+	void getCountryById_shouldChangeTag_whenNameChanges() throws Exception {
+		// Arrange
+		when(countryService.findById("ES")).thenReturn(Optional.of(testCountry));
+		when(countryApiMapper.toOutputDto(any(Country.class))).thenReturn(countryOutputDto);
+		String tag = mockMvc.perform(get("/countries/ES"))
+				.andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+		when(countryService.findById("ES")).thenReturn(Optional.of(new Country("ES", "España")));
+
+		// Act & Assert
+		mockMvc.perform(get("/countries/ES")
+						.header(HttpHeaders.IF_NONE_MATCH, tag))
+				.andExpect(status().isOk())
+				.andExpect(header().string(HttpHeaders.ETAG, not(tag)));
+	}
+
 	@Test
 	@WithMockUser(roles = "USER")
 	void getCountryById_shouldReturnCountry_whenExists() throws Exception {
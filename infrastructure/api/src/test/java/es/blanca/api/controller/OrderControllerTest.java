@@ -2,14 +2,18 @@ package es.blanca.api.controller;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import es.blanca.api.dto.input.OrderInputDto;
-import es.blanca.api.dto.output.OrderOutputDto;
+import es.blanca.api.dto.output.PlacementOutputDto;
 import es.blanca.api.mapper.OrderApiMapper;
 import es.blanca.domain.exceptions.EntityNotFoundException;
 import es.blanca.domain.exceptions.ForbiddenOperationException;
+import es.blanca.domain.exceptions.PlacementRejectedException;
 import es.blanca.domain.model.*;
+import es.blanca.domain.port.OrderPlacementService;
 import es.blanca.domain.port.OrderService;
 import es.blanca.domain.port.ProductService;
 import es.blanca.domain.port.UserService;
+import es.blanca.web.dto.OrderOutputDto;
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -18,15 +22,22 @@ import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.http.MediaType;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.util.AopTestUtils;
+import org.springframework.test.util.ReflectionTestUtils;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 
 import java.time.LocalDateTime;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.List;
 import java.util.Optional;
+import java.util.UUID;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
@@ -48,6 +59,9 @@ class OrderControllerTest {
 	@Autowired
 	private ObjectMapper objectMapper;
 
+	@Autowired
+	private MappingJackson2CborHttpMessageConverter cborConverter;
+
 	@MockBean
 	private OrderService orderService;
 
@@ -60,6 +74,12 @@ class OrderControllerTest {
 	@MockBean
 	private ProductService productService;
 
+	@MockBean
+	private OrderPlacementService orderPlacementService;
+
+	@Autowired
+	private OrderController orderController;
+
 	private User testUser;
 	private Order testOrder;
 	private OrderOutputDto orderOutputDto;
@@ -78,7 +98,7 @@ class OrderControllerTest {
 		testProduct = new Product();
 		testProduct.setId(1L);
 		testProduct.setName("Test Product");
-		testProduct.setPrice(99.99);
+		testProduct.setPrice(Money.valueOf("99.99"));
 
 		testOrder = new Order();
 		testOrder.setId(1L);
@@ -99,11 +119,16 @@ class OrderControllerTest {
 		orderInputDto.setOrderProducts(Arrays.asList(orderProduct));
 	}
 
+	@AfterEach
+	void tearDown() {
+		setAsyncPlacement(false);
+	}
+
 	@Test
 	@WithMockUser(username = "test@example.com", roles = "USER")
 	void createOrder_shouldReturn201_whenUserCreatesOwnOrder() throws Exception {
 		// Arrange
-		when(userService.findAll()).thenReturn(Arrays.asList(testUser));
+		when(userService.findActiveByEmail("test@example.com")).thenReturn(Optional.of(testUser));
 		when(userService.findById(1L)).thenReturn(Optional.of(testUser));
 		when(productService.findById(1L)).thenReturn(Optional.of(testProduct));
 		when(orderService.create(any(Order.class))).thenReturn(testOrder);
@@ -126,7 +151,7 @@ class OrderControllerTest {
 	void createOrder_shouldReturn403_whenUserTriesToCreateOrderForOtherUser() throws Exception {
 		// Arrange
 		orderInputDto.setUserId(2L); // Intentando crear pedido para otro usuario
-		when(userService.findAll()).thenReturn(Arrays.asList(testUser));
+		when(userService.findActiveByEmail("test@example.com")).thenReturn(Optional.of(testUser));
 
 		// Act & Assert
 		mockMvc.perform(post("/orders")
@@ -159,11 +184,111 @@ class OrderControllerTest {
 
 
 
+	@Test
+	@WithMockUser(username = "test@example.com", roles = "USER")
+	void createOrder_shouldReplayTheFirstResponse_whenRetriedWithTheSameIdempotencyKey() throws Exception {
+		// Arrange
+		String idempotencyKey = UUID.randomUUID().toString();
+		when(userService.findActiveByEmail("test@example.com")).thenReturn(Optional.of(testUser));
+		when(productService.findById(1L)).thenReturn(Optional.of(testProduct));
+		when(orderService.create(any(Order.class))).thenReturn(testOrder);
+		when(orderApiMapper.toOutputDto(any(Order.class))).thenReturn(orderOutputDto);
+		String body = objectMapper.writeValueAsString(orderInputDto);
+
+		// Act & Assert
+		String first = mockMvc.perform(post("/orders")
+						.with(csrf())
+						.header("Idempotency-Key", idempotencyKey)
+						.contentType(MediaType.APPLICATION_JSON)
+						.content(body))
+				.andExpect(status().isCreated())
+				.andExpect(header().doesNotExist("Idempotent-Replayed"))
+				.andReturn().getResponse().getContentAsString();
+		mockMvc.perform(post("/orders")
+						.with(csrf())
+						.header("Idempotency-Key", idempotencyKey)
+						.contentType(MediaType.APPLICATION_JSON)
+						.content(body))
+				.andExpect(status().isCreated())
+				.andExpect(header().string("Idempotent-Replayed", "true"))
+				.andExpect(content().json(first))
+				.andExpect(jsonPath("$.id").value(1));
+
+		verify(orderService, times(1)).create(any(Order.class));
+	}
+
+	@Test
+	@WithMockUser(username = "test@example.com", roles = "USER")
+	void createOrder_shouldReplayInTheAcceptedFormat() throws Exception {
+		// Arrange
+		String idempotencyKey = UUID.randomUUID().toString();
+		orderOutputDto.setTotal(Money.valueOf("199.90"));
+		when(userService.findActiveByEmail("test@example.com")).thenReturn(Optional.of(testUser));
+		when(productService.findById(1L)).thenReturn(Optional.of(testProduct));
+		when(orderService.create(any(Order.class))).thenReturn(testOrder);
+		when(orderApiMapper.toOutputDto(any(Order.class))).thenReturn(orderOutputDto);
+		String body = objectMapper.writeValueAsString(orderInputDto);
+		mockMvc.perform(post("/orders")
+						.with(csrf())
+						.header("Idempotency-Key", idempotencyKey)
+						.contentType(MediaType.APPLICATION_JSON)
+						.content(body))
+				.andExpect(status().isCreated())
+				.andExpect(content().contentType(MediaType.APPLICATION_JSON));
+
+		// Act
+		MvcResult result = mockMvc.perform(post("/orders")
+						.with(csrf())
+						.header("Idempotency-Key", idempotencyKey)
+						.contentType(MediaType.APPLICATION_JSON)
+						.accept(MediaType.APPLICATION_CBOR)
+						.content(body))
+				.andExpect(status().isCreated())
+				.andExpect(header().string("Idempotent-Replayed", "true"))
+				.andExpect(content().contentType(MediaType.APPLICATION_CBOR))
+				.andReturn();
+
+		// Assert
+		OrderOutputDto order = cborConverter.getObjectMapper()
+				.readValue(result.getResponse().getContentAsByteArray(), OrderOutputDto.class);
+		assertEquals(1L, order.getId());
+		assertEquals(Money.valueOf("199.90"), order.getTotal());
+		verify(orderService, times(1)).create(any(Order.class));
+	}
+
+	@Test
+	@WithMockUser(username = "test@example.com", roles = "USER")
+	void createOrder_shouldReturn422_whenTheIdempotencyKeyIsReusedForAnotherOrder() throws Exception {
+		// Arrange
+		String idempotencyKey = UUID.randomUUID().toString();
+		when(userService.findActiveByEmail("test@example.com")).thenReturn(Optional.of(testUser));
+		when(productService.findById(1L)).thenReturn(Optional.of(testProduct));
+		when(orderService.create(any(Order.class))).thenReturn(testOrder);
+		when(orderApiMapper.toOutputDto(any(Order.class))).thenReturn(orderOutputDto);
+		mockMvc.perform(post("/orders")
+						.with(csrf())
+						.header("Idempotency-Key", idempotencyKey)
+						.contentType(MediaType.APPLICATION_JSON)
+						.content(objectMapper.writeValueAsString(orderInputDto)))
+				.andExpect(status().isCreated());
+		orderInputDto.getOrderProducts().get(0).setAmount(5);
+
+		// Act & Assert
+		mockMvc.perform(post("/orders")
+						.with(csrf())
+						.header("Idempotency-Key", idempotencyKey)
+						.contentType(MediaType.APPLICATION_JSON)
+						.content(objectMapper.writeValueAsString(orderInputDto)))
+				.andExpect(status().isUnprocessableEntity());
+
+		verify(orderService, times(1)).create(any(Order.class));
+	}
+
 	@Test
 	@WithMockUser(username = "test@example.com", roles = "USER")
 	void getAllOrders_shouldReturnOnlyUserOrders_whenUserIsNotAdmin() throws Exception {
 		// Arrange
-		when(userService.findAll()).thenReturn(Arrays.asList(testUser));
+		when(userService.findActiveByEmail("test@example.com")).thenReturn(Optional.of(testUser));
 		when(orderService.findByUserId(1L)).thenReturn(Arrays.asList(testOrder));
 		when(orderApiMapper.toOutputDto(any(Order.class))).thenReturn(orderOutputDto);
 
@@ -202,12 +327,68 @@ class OrderControllerTest {
 		verify(orderService, never()).findByUserId(any());
 	}
 
+	@Test
+	@WithMockUser(roles = "ADMIN")
+	void getAllOrders_shouldReadOnlyTheRequestedFields_whenFieldsAreGiven() throws Exception {
+		// Arrange
+		Order header = new Order();
+		header.setId(1L);
+		header.setStatus(OrderStatus.PENDING);
+		when(orderService.findAll(Fieldset.of(List.of("id", "status")))).thenReturn(List.of(header));
+		when(orderApiMapper.toOutputDto(header)).thenReturn(orderOutputDto);
+
+		// Act & Assert
+		mockMvc.perform(get("/orders")
+						.with(csrf())
+						.param("fields", "id,status"))
+				.andExpect(status().isOk())
+				.andExpect(content().json("[{\"id\":1,\"status\":\"PENDING\"}]", true));
+
+		verify(orderService, never()).findAll();
+	}
+
+	@Test
+	@WithMockUser(username = "test@example.com", roles = "USER")
+	void getAllOrders_shouldReadTheStoredTotal_whenTheTotalIsRequested() throws Exception {
+		// Arrange
+		when(userService.findActiveByEmail("test@example.com")).thenReturn(Optional.of(testUser));
+		when(orderService.findByUserId(1L, Fieldset.of(List.of("id", "total")))).thenReturn(List.of(testOrder));
+		orderOutputDto.setTotal(Money.valueOf("199.98"));
+		when(orderApiMapper.toOutputDto(testOrder)).thenReturn(orderOutputDto);
+
+		// Act & Assert
+		mockMvc.perform(get("/orders")
+						.with(csrf())
+						.param("fields", "id,total"))
+				.andExpect(status().isOk())
+				.andExpect(content().json("[{\"id\":1,\"total\":199.98}]", true));
+	}
+
+	@Test
+	@WithMockUser(roles = "ADMIN")
+	void getAllOrders_shouldQueryTheCreationRange_whenFromIsGiven() throws Exception {
+		// Arrange
+		LocalDateTime from = LocalDateTime.of(2026, 9, 1, 0, 0);
+		when(orderService.findCreatedBetween(eq(from), any(LocalDateTime.class))).thenReturn(Arrays.asList(testOrder));
+		when(orderApiMapper.toOutputDto(testOrder)).thenReturn(orderOutputDto);
+
+		// Act & Assert
+		mockMvc.perform(get("/orders")
+						.param("from", "2026-09-01T00:00:00")
+						.with(csrf()))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$[0].id").value(1));
+
+		verify(orderService, times(1)).findCreatedBetween(eq(from), any(LocalDateTime.class));
+		verify(orderService, never()).findAll();
+	}
+
 	@Test
 	@WithMockUser(username = "test@example.com", roles = "USER")
 	void getOrderById_shouldReturnOrder_whenUserOwnsOrder() throws Exception {
 		// Arrange
 		when(orderService.findById(1L)).thenReturn(Optional.of(testOrder));
-		when(userService.findAll()).thenReturn(Arrays.asList(testUser));
+		when(userService.findActiveByEmail("test@example.com")).thenReturn(Optional.of(testUser));
 		when(orderApiMapper.toOutputDto(any(Order.class))).thenReturn(orderOutputDto);
 
 		// Act & Assert
@@ -219,6 +400,39 @@ class OrderControllerTest {
 		verify(orderService, times(1)).findById(1L);
 	}
 
+	@Test
+	@WithMockUser(username = "test@example.com", roles = "USER")
+	void getOrderById_shouldReturnCbor_whenAccepted() throws Exception {
+		// Arrange
+		OrderOutputDto.OrderProductOutputDto line = new OrderOutputDto.OrderProductOutputDto();
+		line.setProductId(1L);
+		line.setProductName("Test Product");
+		line.setAmount(2);
+		orderOutputDto.setOrderProducts(Arrays.asList(line));
+		orderOutputDto.setCreatedAt(LocalDateTime.of(2024, 5, 1, 10, 15, 30));
+		orderOutputDto.setTotal(Money.valueOf("199.98"));
+		when(orderService.findById(1L)).thenReturn(Optional.of(testOrder));
+		when(userService.findActiveByEmail("test@example.com")).thenReturn(Optional.of(testUser));
+		when(orderApiMapper.toOutputDto(any(Order.class))).thenReturn(orderOutputDto);
+
+		// Act
+		MvcResult result = mockMvc.perform(get("/orders/1")
+						.with(csrf())
+						.accept(MediaType.APPLICATION_CBOR))
+				.andExpect(status().isOk())
+				.andExpect(content().contentType(MediaType.APPLICATION_CBOR))
+				.andReturn();
+
+		// Assert
+		OrderOutputDto order = cborConverter.getObjectMapper()
+				.readValue(result.getResponse().getContentAsByteArray(), OrderOutputDto.class);
+		assertEquals(OrderStatus.PENDING, order.getStatus());
+		assertEquals(LocalDateTime.of(2024, 5, 1, 10, 15, 30), order.getCreatedAt());
+		assertEquals(Money.valueOf("199.98"), order.getTotal());
+		assertEquals("Test Product", order.getOrderProducts().get(0).getProductName());
+		assertEquals(2, order.getOrderProducts().get(0).getAmount());
+	}
+
 	@Test
 	@WithMockUser(username = "test@example.com", roles = "USER")
 	void getOrderById_shouldReturn403_whenUserDoesNotOwnOrder() throws Exception {
@@ -232,7 +446,7 @@ class OrderControllerTest {
 		otherOrder.setUser(otherUser);
 
 		when(orderService.findById(2L)).thenReturn(Optional.of(otherOrder));
-		when(userService.findAll()).thenReturn(Arrays.asList(testUser));
+		when(userService.findActiveByEmail("test@example.com")).thenReturn(Optional.of(testUser));
 
 		// Act & Assert
 		mockMvc.perform(get("/orders/2")
@@ -356,4 +570,110 @@ class OrderControllerTest {
 						.with(csrf()))
 				.andExpect(status().isNotFound());
 	}
-}
\ No newline at end of file
+
+	@Test
+	@WithMockUser(username = "test@example.com", roles = "USER")
+	void createOrder_shouldReturn202WithStatusUrl_whenPlacementIsAsync() throws Exception {
+		// Arrange
+		setAsyncPlacement(true);
+		OrderPlacement placement = placement(1L, PlacementStatus.QUEUED, null);
+		when(userService.findActiveByEmail("test@example.com")).thenReturn(Optional.of(testUser));
+		when(orderPlacementService.submit(any(Order.class))).thenReturn(placement);
+		when(orderApiMapper.toPlacementOutputDto(placement)).thenReturn(placementOutputDto(placement));
+
+		// Act & Assert
+		mockMvc.perform(post("/orders")
+						.with(csrf())
+						.contentType(MediaType.APPLICATION_JSON)
+						.content(objectMapper.writeValueAsString(orderInputDto)))
+				.andExpect(status().isAccepted())
+				.andExpect(header().string("Location", "/orders/placements/" + placement.getId()))
+				.andExpect(jsonPath("$.status").value("QUEUED"));
+
+		// user and products are only checked by the writer
+		verify(orderPlacementService).submit(argThat(order -> order.getUser().getId().equals(1L)
+				&& order.getOrderProducts().get(0).getProduct().getId().equals(1L)
+				&& order.getOrderProducts().get(0).getAmount() == 2));
+		verify(productService, never()).findById(any());
+		verify(orderService, never()).create(any(Order.class));
+	}
+
+	@Test
+	@WithMockUser(roles = "ADMIN")
+	void createOrder_shouldReturn503_whenPlacementQueueIsFull() throws Exception {
+		// Arrange
+		setAsyncPlacement(true);
+		when(orderPlacementService.submit(any(Order.class)))
+				.thenThrow(new PlacementRejectedException("10000 orders are already waiting to be placed, retry later"));
+
+		// Act & Assert
+		mockMvc.perform(post("/orders")
+						.with(csrf())
+						.contentType(MediaType.APPLICATION_JSON)
+						.content(objectMapper.writeValueAsString(orderInputDto)))
+				.andExpect(status().isServiceUnavailable())
+				.andExpect(header().string("Retry-After", "1"));
+	}
+
+	@Test
+	@WithMockUser(username = "test@example.com", roles = "USER")
+	void getPlacement_shouldReturnPlacementWithOrderLocation_whenPlaced() throws Exception {
+		// Arrange
+		OrderPlacement placement = placement(1L, PlacementStatus.PLACED, 7L);
+		when(orderPlacementService.findById(placement.getId())).thenReturn(Optional.of(placement));
+		when(userService.findActiveByEmail("test@example.com")).thenReturn(Optional.of(testUser));
+		when(orderApiMapper.toPlacementOutputDto(placement)).thenReturn(placementOutputDto(placement));
+
+		// Act & Assert
+		mockMvc.perform(get("/orders/placements/" + placement.getId()))
+				.andExpect(status().isOk())
+				.andExpect(header().string("Location", "/orders/7"))
+				.andExpect(jsonPath("$.status").value("PLACED"))
+				.andExpect(jsonPath("$.orderId").value(7));
+	}
+
+	@Test
+	@WithMockUser(username = "test@example.com", roles = "USER")
+	void getPlacement_shouldReturn403_whenUserDoesNotOwnPlacement() throws Exception {
+		// Arrange
+		OrderPlacement placement = placement(2L, PlacementStatus.QUEUED, null);
+		when(orderPlacementService.findById(placement.getId())).thenReturn(Optional.of(placement));
+		when(userService.findActiveByEmail("test@example.com")).thenReturn(Optional.of(testUser));
+
+		// Act & Assert
+		mockMvc.perform(get("/orders/placements/" + placement.getId()))
+				.andExpect(status().isForbidden());
+	}
+
+	@Test
+	@WithMockUser(roles = "ADMIN")
+	void getPlacement_shouldReturn404_whenPlacementIsUnknown() throws Exception {
+		// Arrange
+		UUID id = UUID.randomUUID();
+		when(orderPlacementService.findById(id)).thenReturn(Optional.empty());
+
+		// Act & Assert
+		mockMvc.perform(get("/orders/placements/" + id))
+				.andExpect(status().isNotFound());
+	}
+
+	// the flag is read once from orders.placement.async, the tests switch it on the controller
+	private void setAsyncPlacement(boolean async) {
+		Object target = AopTestUtils.getUltimateTargetObject(orderController);
+		ReflectionTestUtils.setField(target, "asyncPlacement", async);
+	}
+
+	private static OrderPlacement placement(Long userId, PlacementStatus status, Long orderId) {
+		return new OrderPlacement(UUID.randomUUID(), userId, status, orderId, null, LocalDateTime.now(),
+				status == PlacementStatus.QUEUED ? null : LocalDateTime.now());
+	}
+
+	private static PlacementOutputDto placementOutputDto(OrderPlacement placement) {
+		PlacementOutputDto dto = new PlacementOutputDto();
+		dto.setId(placement.getId());
+		dto.setUserId(placement.getUserId());
+		dto.setStatus(placement.getStatus());
+		dto.setOrderId(placement.getOrderId());
+		return dto;
+	}
+}
@@ -2,12 +2,15 @@ package es.blanca.api.controller;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import es.blanca.api.dto.input.ProductInputDto;
-import es.blanca.api.dto.output.ProductOutputDto;
 import es.blanca.api.mapper.ProductApiMapper;
 import es.blanca.domain.exceptions.EntityNotFoundException;
+import es.blanca.domain.exceptions.VersionConflictException;
+import es.blanca.domain.model.Fieldset;
+import es.blanca.domain.model.Money;
 import es.blanca.domain.model.Product;
 import es.blanca.domain.model.ProductStatus;
 import es.blanca.domain.port.ProductService;
+import es.blanca.web.dto.ProductOutputDto;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -15,15 +18,22 @@ import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMock
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.dao.CannotAcquireLockException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 
 import java.time.LocalDateTime;
 import java.util.Arrays;
+import java.util.List;
 import java.util.Optional;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
@@ -45,6 +55,12 @@ class ProductControllerTest {
 	@Autowired
 	private ObjectMapper objectMapper;
 
+	@Autowired
+	private MappingJackson2CborHttpMessageConverter cborConverter;
+
+	@Autowired
+	private MappingJackson2SmileHttpMessageConverter smileConverter;
+
 	@MockBean
 	private ProductService productService;
 
@@ -60,19 +76,19 @@ class ProductControllerTest {
 		testProduct = new Product();
 		testProduct.setId(1L);
 		testProduct.setName("Test Product");
-		testProduct.setPrice(99.99);
+		testProduct.setPrice(Money.valueOf("99.99"));
 		testProduct.setStatus(ProductStatus.AVAILABLE);
 		testProduct.setCreatedAt(LocalDateTime.now());
 
 		productOutputDto = new ProductOutputDto();
 		productOutputDto.setId(1L);
 		productOutputDto.setName("Test Product");
-		productOutputDto.setPrice(99.99);
+		productOutputDto.setPrice(Money.valueOf("99.99"));
 		productOutputDto.setStatus(ProductStatus.AVAILABLE);
 
 		productInputDto = new ProductInputDto();
 		productInputDto.setName("New Product");
-		productInputDto.setPrice(49.99);
+		productInputDto.setPrice(Money.valueOf("49.99"));
 		productInputDto.setStatus(ProductStatus.AVAILABLE);
 	}
 
@@ -96,6 +112,33 @@ class ProductControllerTest {
 		verify(productService, times(1)).create(any(Product.class));
 	}
 
+	@Test
+	@WithMockUser(roles = "ADMIN")
+	void createProduct_shouldReadAndWriteSmile() throws Exception {
+		// Arrange
+		when(productApiMapper.toDomain(any(ProductInputDto.class))).thenReturn(testProduct);
+		when(productService.create(any(Product.class))).thenReturn(testProduct);
+		when(productApiMapper.toOutputDto(any(Product.class))).thenReturn(productOutputDto);
+		ObjectMapper smile = smileConverter.getObjectMapper();
+
+		// Act
+		MvcResult result = mockMvc.perform(post("/products")
+						.with(csrf())
+						.contentType("application/x-jackson-smile")
+						.accept("application/x-jackson-smile")
+						.content(smile.writeValueAsBytes(productInputDto)))
+				.andExpect(status().isCreated())
+				.andExpect(content().contentType("application/x-jackson-smile"))
+				.andReturn();
+
+		// Assert
+		ProductOutputDto created = smile.readValue(result.getResponse().getContentAsByteArray(), ProductOutputDto.class);
+		assertEquals(1L, created.getId());
+		assertEquals(Money.valueOf("99.99"), created.getPrice());
+		verify(productApiMapper).toDomain(argThat(input -> "New Product".equals(input.getName())
+				&& Money.valueOf("49.99").equals(input.getPrice())));
+	}
+
 	@Test
 	@WithMockUser(roles = "USER")
 	void createProduct_shouldReturn403_whenUserIsNotAdmin() throws Exception {
@@ -127,7 +170,7 @@ class ProductControllerTest {
 	@WithMockUser(roles = "ADMIN")
 	void createProduct_shouldReturn422_whenPriceIsNegative() throws Exception {
 		// Arrange
-		productInputDto.setPrice(-10.0);
+		productInputDto.setPrice(Money.valueOf("-10.0"));
 
 		// Act & Assert
 		mockMvc.perform(post("/products")
@@ -168,7 +211,7 @@ class ProductControllerTest {
 	@WithMockUser(roles = "USER")
 	void findProducts_shouldReturnProducts_withFilters() throws Exception {
 		// Arrange
-		when(productService.findWithFilters("Test", 50.0, 100.0, ProductStatus.AVAILABLE))
+		when(productService.findWithFilters("Test", Money.valueOf("50.0"), Money.valueOf("100.0"), ProductStatus.AVAILABLE))
 				.thenReturn(Arrays.asList(testProduct));
 		when(productApiMapper.toOutputDto(testProduct)).thenReturn(productOutputDto);
 
@@ -183,7 +226,217 @@ class ProductControllerTest {
 				.andExpect(jsonPath("$[0].id").value(1));
 
 		verify(productService, times(1))
-				.findWithFilters("Test", 50.0, 100.0, ProductStatus.AVAILABLE);
+				.findWithFilters("Test", Money.valueOf("50.0"), Money.valueOf("100.0"), ProductStatus.AVAILABLE);
+	}
+
+	@Test
+	@WithMockUser(roles = "USER")
+	void findProducts_shouldReturnCbor_whenAccepted() throws Exception {
+		// Arrange
+		when(productService.findWithFilters(null, null, null, null)).thenReturn(Arrays.asList(testProduct));
+		when(productApiMapper.toOutputDto(testProduct)).thenReturn(productOutputDto);
+
+		// Act
+		MvcResult result = mockMvc.perform(get("/products")
+						.with(csrf())
+						.accept(MediaType.APPLICATION_CBOR))
+				.andExpect(status().isOk())
+				.andExpect(content().contentType(MediaType.APPLICATION_CBOR))
+				.andExpect(header().stringValues(HttpHeaders.VARY, org.hamcrest.Matchers.hasItem(HttpHeaders.ACCEPT)))
+				.andReturn();
+
+		// Assert
+		ProductOutputDto[] products = cborConverter.getObjectMapper()
+				.readValue(result.getResponse().getContentAsByteArray(), ProductOutputDto[].class);
+		assertEquals(1, products.length);
+		assertEquals("Test Product", products[0].getName());
+		assertEquals(Money.valueOf("99.99"), products[0].getPrice());
+		assertEquals(ProductStatus.AVAILABLE, products[0].getStatus());
+	}
+
+	@Test
+	@WithMockUser(roles = "USER")
+	void findProducts_shouldReturnJson_whenAnyTypeIsAccepted() throws Exception {
+		// Arrange
+		when(productService.findWithFilters(null, null, null, null)).thenReturn(Arrays.asList(testProduct));
+		when(productApiMapper.toOutputDto(testProduct)).thenReturn(productOutputDto);
+
+		// Act & Assert
+		mockMvc.perform(get("/products")
+						.with(csrf())
+						.accept(MediaType.ALL))
+				.andExpect(status().isOk())
+				.andExpect(content().contentType(MediaType.APPLICATION_JSON))
+				.andExpect(jsonPath("$[0].price").value(99.99));
+	}
+
+	@Test
+	@WithMockUser(roles = "USER")
+	void findProducts_shouldReadAndReturnOnlyTheRequestedFields() throws Exception {
+		// Arrange
+		Product projected = new Product();
+		projected.setId(1L);
+		projected.setName("Test Product");
+		projected.setPrice(Money.valueOf("99.99"));
+		ProductOutputDto output = new ProductOutputDto();
+		output.setId(1L);
+		output.setName("Test Product");
+		output.setPrice(Money.valueOf("99.99"));
+		when(productService.findWithFilters(null, null, null, null, Fieldset.of(List.of("id", "name", "price"))))
+				.thenReturn(List.of(projected));
+		when(productApiMapper.toOutputDto(projected)).thenReturn(output);
+
+		// Act & Assert
+		mockMvc.perform(get("/products")
+						.with(csrf())
+						.param("fields", "id, name,price"))
+				.andExpect(status().isOk())
+				.andExpect(content().json("[{\"id\":1,\"name\":\"Test Product\",\"price\":99.99}]", true));
+
+		verify(productService, never()).findWithFilters(null, null, null, null);
+	}
+
+	@Test
+	@WithMockUser(roles = "USER")
+	void findProducts_shouldReturn400_whenAFieldIsUnknown() throws Exception {
+		// Act & Assert
+		mockMvc.perform(get("/products")
+						.with(csrf())
+						.param("fields", "id,password"))
+				.andExpect(status().isBadRequest())
+				.andExpect(jsonPath("$.message").value(org.hamcrest.Matchers.containsString("password")));
+
+		verifyNoInteractions(productService);
+	}
+
+	@Test
+	@WithMockUser(roles = "USER")
+	void findProducts_shouldReturnETagAndCacheControl() throws Exception {
+		// Arrange
+		when(productService.findRevision(null, null, null, null)).thenReturn(0xabcL);
+		when(productService.findWithFilters(null, null, null, null)).thenReturn(Arrays.asList(testProduct));
+		when(productApiMapper.toOutputDto(testProduct)).thenReturn(productOutputDto);
+
+		// Act & Assert
+		mockMvc.perform(get("/products"))
+				.andExpect(status().isOk())
+				.andExpect(header().string(HttpHeaders.ETAG, "\"abc\""))
+				.andExpect(header().string(HttpHeaders.CACHE_CONTROL, "max-age=5, must-revalidate, private"));
+	}
+
+	@Test
+	@WithMockUser(roles = "USER")
+	void findProducts_shouldTagTheSparseListingApart() throws Exception {
+		// Arrange
+		when(productService.findRevision(null, null, null, null)).thenReturn(0xabcL);
+
+		// Act & Assert
+		// the full listing's tag does not revalidate a sparse copy
+		mockMvc.perform(get("/products")
+						.param("fields", "name,id")
+						.header(HttpHeaders.IF_NONE_MATCH, "\"abc\""))
+				.andExpect(status().isOk())
+				.andExpect(header().string(HttpHeaders.ETAG, org.hamcrest.Matchers.not("\"abc\"")));
+		// the same names in another order are the same representation
+		String tag = mockMvc.perform(get("/products")
+						.param("fields", "id,name"))
+				.andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+		mockMvc.perform(get("/products")
+						.param("fields", "name,id")
+						.header(HttpHeaders.IF_NONE_MATCH, tag))
+				.andExpect(status().isNotModified());
+	}
+
+	@Test
+	@WithMockUser(roles = "USER")
+	void findProducts_shouldReturn304WithoutLoadingProducts_whenRevisionMatches() throws Exception {
+		// Arrange
+		when(productService.findRevision("Test", null, null, null)).thenReturn(0xabcL);
+
+		// Act & Assert
+		mockMvc.perform(get("/products")
+						.param("name", "Test")
+						.header(HttpHeaders.IF_NONE_MATCH, "\"abc\""))
+				.andExpect(status().isNotModified())
+				.andExpect(header().string(HttpHeaders.ETAG, "\"abc\""))
+				.andExpect(content().string(""));
+
+		verify(productService, never()).findWithFilters(any(), any(), any(), any());
+		verifyNoInteractions(productApiMapper);
+	}
+
+	@Test
+	@WithMockUser(roles = "USER")
+	void findProducts_shouldReturn304_whenTheClientHoldsTheGzippedCopy() throws Exception {
+		// Arrange
+		when(productService.findRevision(null, null, null, null)).thenReturn(0xabcL);
+
+		// Act & Assert
+		mockMvc.perform(get("/products")
+						.header(HttpHeaders.ACCEPT_ENCODING, "gzip")
+						.header(HttpHeaders.IF_NONE_MATCH, "\"abc-gzip\""))
+				.andExpect(status().isNotModified())
+				.andExpect(header().string(HttpHeaders.ETAG, "\"abc-gzip\""));
+
+		verify(productService, never()).findWithFilters(any(), any(), any(), any());
+	}
+
+	@Test
+	@WithMockUser(roles = "USER")
+	void getProductById_shouldReturn304_whenVersionAndStockMatch() throws Exception {
+		// Arrange
+		testProduct.setVersion(3L);
+		testProduct.setStock(40);
+		when(productService.findById(1L)).thenReturn(Optional.of(testProduct));
+
+		// Act & Assert
+		mockMvc.perform(get("/products/1")
+						.header(HttpHeaders.IF_NONE_MATCH, "\"3-40\""))
+				.andExpect(status().isNotModified())
+				.andExpect(header().string(HttpHeaders.CACHE_CONTROL, "max-age=5, must-revalidate, private"));
+
+		verifyNoInteractions(productApiMapper);
+	}
+
+	@Test
+	@WithMockUser(roles = "USER")
+	void getProductById_shouldTagEachFormatApart() throws Exception {
+		// Arrange
+		testProduct.setVersion(3L);
+		testProduct.setStock(40);
+		when(productService.findById(1L)).thenReturn(Optional.of(testProduct));
+		when(productApiMapper.toOutputDto(any(Product.class))).thenReturn(productOutputDto);
+
+		// Act & Assert
+		mockMvc.perform(get("/products/1")
+						.accept(MediaType.APPLICATION_CBOR))
+				.andExpect(status().isOk())
+				.andExpect(header().string(HttpHeaders.ETAG, "\"3-40-cbor\""));
+		mockMvc.perform(get("/products/1")
+						.accept("application/x-jackson-smile"))
+				.andExpect(status().isOk())
+				.andExpect(header().string(HttpHeaders.ETAG, "\"3-40-smile\""));
+		mockMvc.perform(get("/products/1")
+						.accept(MediaType.APPLICATION_CBOR)
+						.header(HttpHeaders.IF_NONE_MATCH, "\"3-40-cbor\""))
+				.andExpect(status().isNotModified())
+				.andExpect(header().string(HttpHeaders.ETAG, "\"3-40-cbor\""));
+	}
+
+	@Test
+	@WithMockUser(roles = "USER")
+	void getProductById_shouldReturn200_whenStockChangedSinceTheTag() throws Exception {
+		// Arrange
+		testProduct.setVersion(3L);
+		testProduct.setStock(39);
+		when(productService.findById(1L)).thenReturn(Optional.of(testProduct));
+		when(productApiMapper.toOutputDto(any(Product.class))).thenReturn(productOutputDto);
+
+		// Act & Assert
+		mockMvc.perform(get("/products/1")
+						.header(HttpHeaders.IF_NONE_MATCH, "\"3-40\""))
+				.andExpect(status().isOk())
+				.andExpect(header().string(HttpHeaders.ETAG, "\"3-39\""));
 	}
 
 	@Test
@@ -198,7 +451,8 @@ class ProductControllerTest {
 						.with(csrf()))
 				.andExpect(status().isOk())
 				.andExpect(jsonPath("$.id").value(1))
-				.andExpect(jsonPath("$.name").value("Test Product"));
+				.andExpect(jsonPath("$.name").value("Test Product"))
+				.andExpect(content().string(org.hamcrest.Matchers.containsString("\"price\":99.99")));
 
 		verify(productService, times(1)).findById(1L);
 	}
@@ -235,6 +489,98 @@ class ProductControllerTest {
 		verify(productService, times(1)).update(eq(1L), any(Product.class));
 	}
 
+	@Test
+	@WithMockUser(roles = "ADMIN")
+	void updateProduct_shouldPassIfMatchVersion_andReturnNewETag() throws Exception {
+		// Arrange
+		Product productToUpdate = new Product();
+		testProduct.setVersion(4L);
+		when(productApiMapper.toDomain(any(ProductInputDto.class))).thenReturn(productToUpdate);
+		when(productService.findById(1L)).thenReturn(Optional.of(testProduct));
+		when(productApiMapper.toOutputDto(any(Product.class))).thenReturn(productOutputDto);
+
+		// Act & Assert
+		mockMvc.perform(put("/products/1")
+						.with(csrf())
+						.header(HttpHeaders.IF_MATCH, "\"3\"")
+						.contentType(MediaType.APPLICATION_JSON)
+						.content(objectMapper.writeValueAsString(productInputDto)))
+				.andExpect(status().isOk())
+				.andExpect(header().string(HttpHeaders.ETAG, "\"4\""));
+
+		verify(productService).update(eq(1L), argThat(product -> Long.valueOf(3L).equals(product.getVersion())));
+	}
+
+	@Test
+	@WithMockUser(roles = "ADMIN")
+	void updateProduct_shouldTakeTheVersionFromAProductTagWithStock() throws Exception {
+		// Arrange
+		when(productApiMapper.toDomain(any(ProductInputDto.class))).thenReturn(new Product());
+		when(productService.findById(1L)).thenReturn(Optional.of(testProduct));
+		when(productApiMapper.toOutputDto(any(Product.class))).thenReturn(productOutputDto);
+
+		// Act & Assert
+		mockMvc.perform(put("/products/1")
+						.with(csrf())
+						.header(HttpHeaders.IF_MATCH, "\"3-40\"")
+						.contentType(MediaType.APPLICATION_JSON)
+						.content(objectMapper.writeValueAsString(productInputDto)))
+				.andExpect(status().isOk());
+
+		verify(productService).update(eq(1L), argThat(product -> Long.valueOf(3L).equals(product.getVersion())));
+	}
+
+	@Test
+	@WithMockUser(roles = "ADMIN")
+	void updateProduct_shouldReturn412_whenVersionConflicts() throws Exception {
+		// Arrange
+		when(productApiMapper.toDomain(any(ProductInputDto.class))).thenReturn(new Product());
+		doThrow(new VersionConflictException("Product with id 1 is at version 4, the update was based on version 3"))
+				.when(productService).update(eq(1L), any(Product.class));
+
+		// Act & Assert
+		mockMvc.perform(put("/products/1")
+						.with(csrf())
+						.header(HttpHeaders.IF_MATCH, "\"3\"")
+						.contentType(MediaType.APPLICATION_JSON)
+						.content(objectMapper.writeValueAsString(productInputDto)))
+				.andExpect(status().isPreconditionFailed());
+	}
+
+	@Test
+	@WithMockUser(roles = "ADMIN")
+	void updateProduct_shouldReturn409_whenTheDatabaseAbortsTheTransaction() throws Exception {
+		// Arrange
+		when(productApiMapper.toDomain(any(ProductInputDto.class))).thenReturn(new Product());
+		doThrow(new CannotAcquireLockException("could not serialize access due to concurrent update"))
+				.when(productService).update(eq(1L), any(Product.class));
+
+		// Act & Assert
+		mockMvc.perform(put("/products/1")
+						.with(csrf())
+						.contentType(MediaType.APPLICATION_JSON)
+						.content(objectMapper.writeValueAsString(productInputDto)))
+				.andExpect(status().isConflict())
+				.andExpect(header().exists(HttpHeaders.RETRY_AFTER));
+	}
+
+	@Test
+	@WithMockUser(roles = "ADMIN")
+	void updateProduct_shouldReturn412_whenIfMatchIsNotAVersion() throws Exception {
+		// Arrange
+		when(productApiMapper.toDomain(any(ProductInputDto.class))).thenReturn(new Product());
+
+		// Act & Assert
+		mockMvc.perform(put("/products/1")
+						.with(csrf())
+						.header(HttpHeaders.IF_MATCH, "W/\"3\"")
+						.contentType(MediaType.APPLICATION_JSON)
+						.content(objectMapper.writeValueAsString(productInputDto)))
+				.andExpect(status().isPreconditionFailed());
+
+		verify(productService, never()).update(any(), any());
+	}
+
 	@Test
 	@WithMockUser(roles = "USER")
 	void updateProduct_shouldReturn403_whenUserIsNotAdmin() throws Exception {
@@ -4,12 +4,17 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import es.blanca.api.dto.input.UserCreateInputDto;
 import es.blanca.api.dto.input.UserUpdateDto;
 import es.blanca.api.dto.output.UserOutputDto;
+import es.blanca.api.mapper.OrderApiMapper;
 import es.blanca.api.mapper.UserApiMapper;
 import es.blanca.domain.exceptions.EmailAlreadyExistsException;
 import es.blanca.domain.exceptions.EntityNotFoundException;
+import es.blanca.domain.model.Fieldset;
+import es.blanca.domain.model.Order;
 import es.blanca.domain.model.Role;
 import es.blanca.domain.model.User;
+import es.blanca.domain.port.OrderService;
 import es.blanca.domain.port.UserService;
+import es.blanca.web.dto.OrderOutputDto;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -25,6 +30,7 @@ import org.springframework.test.web.servlet.MockMvc;
 
 import java.time.LocalDateTime;
 import java.util.Arrays;
+import java.util.List;
 import java.util.Optional;
 
 import static org.mockito.ArgumentMatchers.any;
@@ -62,6 +68,12 @@ class UserControllerTest {
 	@MockBean
 	private PasswordEncoder passwordEncoder;
 
+	@MockBean
+	private OrderService orderService;
+
+	@MockBean
+	private OrderApiMapper orderApiMapper;
+
 	private User testUser;
 	private UserOutputDto userOutputDto;
 	private UserCreateInputDto createInputDto;
@@ -94,6 +106,25 @@ class UserControllerTest {
 		updateDto.setEmail("updated@example.com");
 	}
 
+	@Test
+	@WithMockUser(roles = "ADMIN")
+	void getUserOrders_shouldReturnTheRequestedPage() throws Exception {
+		// Arrange
+		Order order = new Order();
+		order.setId(5L);
+		OrderOutputDto orderOutputDto = new OrderOutputDto();
+		orderOutputDto.setId(5L);
+		when(orderService.findByUserId(1L, 3, 10)).thenReturn(List.of(order));
+		when(orderApiMapper.toOutputDto(order)).thenReturn(orderOutputDto);
+
+		// Act & Assert
+		mockMvc.perform(get("/users/1/orders").param("page", "3").param("size", "10"))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$[0].id").value(5));
+
+		verify(orderService, never()).findByUserId(1L);
+	}
+
 	@Test
 	@WithMockUser(roles = "ADMIN")
 	void createUser_shouldReturn201_whenDataIsValid() throws Exception {
@@ -157,7 +188,7 @@ class UserControllerTest {
 		output2.setId(2L);
 		output2.setEmail("user2@example.com");
 
-		when(userService.findAll()).thenReturn(Arrays.asList(testUser, user2));
+		when(userService.findAll(0, 20)).thenReturn(Arrays.asList(testUser, user2));
 		when(userApiMapper.toOutputDto(testUser)).thenReturn(userOutputDto);
 		when(userApiMapper.toOutputDto(user2)).thenReturn(output2);
 
@@ -168,7 +199,47 @@ class UserControllerTest {
 				.andExpect(jsonPath("$[0].id").value(1))
 				.andExpect(jsonPath("$[1].id").value(2));
 
-		verify(userService, times(1)).findAll();
+		verify(userService, times(1)).findAll(0, 20);
+		verify(userService, never()).findAll();
+	}
+
+	@Test
+	@WithMockUser(roles = "ADMIN")
+	void getAllUsers_shouldClampThePageSize() throws Exception {
+		// Arrange
+		when(userService.findAll(3, 100)).thenReturn(List.of(testUser));
+		when(userApiMapper.toOutputDto(testUser)).thenReturn(userOutputDto);
+
+		// Act & Assert
+		mockMvc.perform(get("/users")
+						.with(csrf())
+						.param("page", "3")
+						.param("size", "5000"))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$[0].id").value(1));
+	}
+
+	@Test
+	@WithMockUser(roles = "ADMIN")
+	void getAllUsers_shouldNotLoadOrders_whenFieldsLeaveThemOut() throws Exception {
+		// Arrange
+		User projected = new User();
+		projected.setId(1L);
+		projected.setEmail("test@example.com");
+		UserOutputDto output = new UserOutputDto();
+		output.setId(1L);
+		output.setEmail("test@example.com");
+		when(userService.findAll(Fieldset.of(List.of("id", "email")), 0, 20)).thenReturn(List.of(projected));
+		when(userApiMapper.toOutputDto(projected)).thenReturn(output);
+
+		// Act & Assert
+		mockMvc.perform(get("/users")
+						.with(csrf())
+						.param("fields", "id,email"))
+				.andExpect(status().isOk())
+				.andExpect(content().json("[{\"id\":1,\"email\":\"test@example.com\"}]", true));
+
+		verify(userService, never()).findAll();
 	}
 
 	@Test
@@ -287,7 +358,7 @@ class UserControllerTest {
 	@WithMockUser(username = "test@example.com", roles = "USER")
 	void assignCountry_shouldReturn200_whenUserUpdatesOwnCountry() throws Exception {
 		// Arrange
-		when(userService.findAll()).thenReturn(Arrays.asList(testUser));
+		when(userService.findActiveByEmail("test@example.com")).thenReturn(Optional.of(testUser));
 		when(userService.assignCountry(1L, "ES")).thenReturn(Optional.of(testUser));
 		when(userApiMapper.toOutputDto(any(User.class))).thenReturn(userOutputDto);
 
@@ -308,7 +379,7 @@ class UserControllerTest {
 		otherUser.setId(2L);
 		otherUser.setEmail("other@example.com");
 
-		when(userService.findAll()).thenReturn(Arrays.asList(testUser));
+		when(userService.findActiveByEmail("test@example.com")).thenReturn(Optional.of(testUser));
 
 		// Act & Assert
 		mockMvc.perform(patch("/users/2/country")
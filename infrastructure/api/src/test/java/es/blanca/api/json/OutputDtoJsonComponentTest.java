@@ -0,0 +1,152 @@
+package es.blanca.api.json;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import es.blanca.api.dto.output.UserOutputDto;
+import es.blanca.api.fields.DtoFields;
+import es.blanca.domain.model.Money;
+import es.blanca.domain.model.OrderStatus;
+import es.blanca.domain.model.ProductStatus;
+import es.blanca.web.dto.CountryOutputDto;
+import es.blanca.web.dto.OrderOutputDto;
+import es.blanca.web.dto.ProductOutputDto;
+import es.blanca.web.json.MoneyJsonComponent;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OutputDtoJsonComponentTest {
+
+	private ObjectMapper reflective;
+	private ObjectMapper handWritten;
+
+	@BeforeEach
+	void setUp() {
+		reflective = mapper();
+		handWritten = mapper().registerModule(new SimpleModule()
+				.addSerializer(OrderOutputDto.class, new OutputDtoJsonComponent.OrderSerializer())
+				.addSerializer(ProductOutputDto.class, new OutputDtoJsonComponent.ProductSerializer())
+				.addSerializer(UserOutputDto.class, new OutputDtoJsonComponent.UserSerializer()));
+	}
+
+	@Test
+	void order_shouldBeWrittenLikeTheBeanSerializerWritesIt() throws Exception {
+		// Arrange
+		OrderOutputDto order = order(7L);
+
+		// Act & Assert
+		assertEquals(reflective.writeValueAsString(order), handWritten.writeValueAsString(order));
+		assertEquals(reflective.writeValueAsString(List.of(order, order(8L))), handWritten.writeValueAsString(List.of(order, order(8L))));
+	}
+
+	@Test
+	void product_shouldBeWrittenLikeTheBeanSerializerWritesIt() throws Exception {
+		// Arrange
+		ProductOutputDto product = new ProductOutputDto();
+		product.setId(3L);
+		product.setName("Teclado \"mecánico\"");
+		product.setPrice(Money.valueOf("49.90"));
+		product.setStatus(ProductStatus.AVAILABLE);
+		product.setStock(12);
+		product.setCreatedAt(LocalDateTime.of(2024, 5, 1, 10, 0));
+		product.setVersion(2L);
+
+		// Act & Assert
+		assertEquals(reflective.writeValueAsString(product), handWritten.writeValueAsString(product));
+	}
+
+	@Test
+	void user_shouldBeWrittenLikeTheBeanSerializerWritesIt_withItsOrders() throws Exception {
+		// Arrange
+		CountryOutputDto country = new CountryOutputDto();
+		country.setCode("ES");
+		country.setName("Spain");
+		UserOutputDto user = new UserOutputDto();
+		user.setId(1L);
+		user.setFullName("Ana García");
+		user.setEmail("ana@example.com");
+		user.setCreatedAt(LocalDateTime.of(2024, 1, 2, 3, 4, 5, 600_000_000));
+		user.setActive(true);
+		user.setCountry(country);
+		user.setOrders(List.of(order(7L)));
+		user.setVersion(4L);
+
+		// Act & Assert
+		assertEquals(reflective.writeValueAsString(user), handWritten.writeValueAsString(user));
+	}
+
+	@Test
+	void emptyDtos_shouldWriteEveryPropertyAsNull() throws Exception {
+		// Arrange
+		OrderOutputDto order = new OrderOutputDto();
+		order.setOrderProducts(new ArrayList<>(Collections.singletonList(null)));
+
+		// Act & Assert
+		assertEquals(reflective.writeValueAsString(order), handWritten.writeValueAsString(order));
+		assertEquals(reflective.writeValueAsString(new ProductOutputDto()), handWritten.writeValueAsString(new ProductOutputDto()));
+		assertEquals(reflective.writeValueAsString(new UserOutputDto()), handWritten.writeValueAsString(new UserOutputDto()));
+	}
+
+	@Test
+	void sparseFieldset_shouldWriteOnlyTheRequestedPropertiesInTheDtoOrder() throws Exception {
+		// Act
+		String json = handWritten.writer(DtoFields.ORDERS.parse("total,id,status"))
+				.writeValueAsString(List.of(order(7L)));
+
+		// Assert
+		assertEquals("[{\"id\":7,\"status\":\"PENDING\",\"total\":104.79}]", json);
+	}
+
+	@Test
+	void sparseFieldset_shouldWriteEmbeddedOrdersInFull() throws Exception {
+		// Arrange
+		UserOutputDto user = new UserOutputDto();
+		user.setId(1L);
+		user.setEmail("ana@example.com");
+		user.setOrders(List.of(order(7L)));
+
+		// Act
+		String json = handWritten.writer(DtoFields.USERS.parse("id,orders")).writeValueAsString(user);
+
+		// Assert
+		assertEquals("{\"id\":1,\"orders\":[" + reflective.writeValueAsString(order(7L)) + "]}", json);
+	}
+
+	private static ObjectMapper mapper() {
+		// what the application's mapper does with these types
+		return JsonMapper.builder()
+				.addModule(new JavaTimeModule())
+				.addModule(new SimpleModule().addSerializer(Money.class, new MoneyJsonComponent.Serializer()))
+				.disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+				.build();
+	}
+
+	private static OrderOutputDto order(Long id) {
+		OrderOutputDto.OrderProductOutputDto first = new OrderOutputDto.OrderProductOutputDto();
+		first.setProductId(3L);
+		first.setProductName("Keyboard");
+		first.setAmount(2);
+		OrderOutputDto.OrderProductOutputDto second = new OrderOutputDto.OrderProductOutputDto();
+		second.setProductId(4L);
+		second.setProductName(null);
+		second.setAmount(1);
+		OrderOutputDto order = new OrderOutputDto();
+		order.setId(id);
+		order.setUserId(1L);
+		order.setStatus(OrderStatus.PENDING);
+		order.setCreatedAt(LocalDateTime.of(2024, 5, 1, 10, 0, 30));
+		order.setOrderProducts(List.of(first, second));
+		order.setTotal(Money.valueOf("104.79"));
+		order.setVersion(0L);
+		return order;
+	}
+}
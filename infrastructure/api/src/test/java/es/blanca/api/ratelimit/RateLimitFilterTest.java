@@ -0,0 +1,109 @@
+package es.blanca.api.ratelimit;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RateLimitFilterTest {
+
+	private RateLimitFilter filter;
+
+	@BeforeEach
+	void setUp() {
+		RateLimitProperties properties = new RateLimitProperties();
+		properties.getDefaultLimit().setCapacity(2);
+		properties.getDefaultLimit().setRefillPerSecond(0.001);
+
+		RateLimitProperties.Rule adminRule = new RateLimitProperties.Rule();
+		adminRule.setName("admin");
+		adminRule.setRole("ROLE_ADMIN");
+		adminRule.setCapacity(5);
+		adminRule.setRefillPerSecond(0.001);
+		properties.setRules(List.of(adminRule));
+
+		ObjectMapper objectMapper = new ObjectMapper().registerModule(new JavaTimeModule());
+		filter = new RateLimitFilter(properties, new TokenBucketRegistry(properties), objectMapper);
+	}
+
+	@AfterEach
+	void tearDown() {
+		SecurityContextHolder.clearContext();
+	}
+
+	@Test
+	void doFilter_shouldReturn429WithRetryAfter_whenUserExceedsLimit() throws Exception {
+		// Arrange
+		authenticate("user@example.com", "ROLE_USER");
+
+		// Act
+		int first = perform("/orders").getStatus();
+		int second = perform("/orders").getStatus();
+		MockHttpServletResponse third = perform("/orders");
+
+		// Assert
+		assertEquals(200, first);
+		assertEquals(200, second);
+		assertEquals(429, third.getStatus());
+		assertNotNull(third.getHeader("Retry-After"));
+	}
+
+	@Test
+	void doFilter_shouldKeepSeparateBucketsPerUser() throws Exception {
+		// Arrange
+		authenticate("first@example.com", "ROLE_USER");
+		perform("/orders");
+		perform("/orders");
+		authenticate("second@example.com", "ROLE_USER");
+
+		// Act & Assert
+		assertEquals(200, perform("/orders").getStatus());
+	}
+
+	@Test
+	void doFilter_shouldApplyRoleSpecificRule() throws Exception {
+		// Arrange
+		authenticate("admin@example.com", "ROLE_ADMIN");
+
+		// Act & Assert
+		for (int i = 0; i < 5; i++) {
+			assertEquals(200, perform("/users").getStatus());
+		}
+		assertEquals(429, perform("/users").getStatus());
+	}
+
+	@Test
+	void doFilter_shouldKeyAuthEndpointsOnIp() throws Exception {
+		// Arrange
+		authenticate("user@example.com", "ROLE_USER");
+		perform("/auth/login");
+		perform("/auth/login");
+		SecurityContextHolder.clearContext();
+
+		// Act & Assert: same IP, now anonymous, shares the bucket
+		assertEquals(429, perform("/auth/login").getStatus());
+	}
+
+	private void authenticate(String email, String role) {
+		SecurityContextHolder.getContext().setAuthentication(new UsernamePasswordAuthenticationToken(
+				email, null, List.of(new SimpleGrantedAuthority(role))));
+	}
+
+	private MockHttpServletResponse perform(String uri) throws Exception {
+		MockHttpServletRequest request = new MockHttpServletRequest("GET", uri);
+		MockHttpServletResponse response = new MockHttpServletResponse();
+		filter.doFilter(request, response, new MockFilterChain());
+		return response;
+	}
+}
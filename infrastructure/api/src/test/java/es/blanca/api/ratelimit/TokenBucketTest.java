@@ -0,0 +1,60 @@
+package es.blanca.api.ratelimit;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TokenBucketTest {
+
+	private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+
+	@Test
+	void tryAcquire_shouldAllowBurstUpToCapacity() {
+		// Arrange
+		TokenBucket bucket = new TokenBucket(3, 1, 0);
+
+		// Act & Assert
+		assertEquals(0, bucket.tryAcquire(0));
+		assertEquals(0, bucket.tryAcquire(0));
+		assertEquals(0, bucket.tryAcquire(0));
+		assertTrue(bucket.tryAcquire(0) > 0);
+	}
+
+	@Test
+	void tryAcquire_shouldReturnWaitUntilNextToken_whenEmpty() {
+		// Arrange
+		TokenBucket bucket = new TokenBucket(1, 2, 0);
+		bucket.tryAcquire(0);
+
+		// Act
+		long wait = bucket.tryAcquire(0);
+
+		// Assert
+		assertEquals(SECOND / 2, wait);
+	}
+
+	@Test
+	void tryAcquire_shouldRefillOverTime() {
+		// Arrange
+		TokenBucket bucket = new TokenBucket(2, 1, 0);
+		bucket.tryAcquire(0);
+		bucket.tryAcquire(0);
+
+		// Act & Assert
+		assertTrue(bucket.tryAcquire(SECOND / 2) > 0);
+		assertEquals(0, bucket.tryAcquire(SECOND));
+	}
+
+	@Test
+	void isIdle_shouldBeTrue_onlyAfterBucketHasBeenFullForIdleTime() {
+		// Arrange
+		TokenBucket bucket = new TokenBucket(5, 1, 0);
+		bucket.tryAcquire(0);
+
+		// Act & Assert
+		assertFalse(bucket.isIdle(SECOND, SECOND));
+		assertTrue(bucket.isIdle(3 * SECOND, SECOND));
+	}
+}
@@ -0,0 +1,55 @@
+package es.blanca.api.threads;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class VirtualThreadPinningMonitorTest {
+
+	@Test
+	void pinnedPath_shouldFollowTheInnermostKnownFrame() {
+		// Act
+		PinnedPath jdbc = PinnedPath.of(List.of(
+				"java.lang.Object.wait:0",
+				"org.h2.engine.SessionLocal.lock:120",
+				"org.springframework.security.authentication.dao.DaoAuthenticationProvider.retrieveUser:90"));
+		PinnedPath security = PinnedPath.of(List.of(
+				"org.springframework.security.crypto.bcrypt.BCrypt.hashpw:600",
+				"es.blanca.api.controller.AuthController.login:45"));
+		PinnedPath other = PinnedPath.of(List.of("java.util.concurrent.ConcurrentHashMap.computeIfAbsent:1700"));
+
+		// Assert
+		assertEquals(PinnedPath.JDBC, jdbc);
+		assertEquals(PinnedPath.SECURITY, security);
+		assertEquals(PinnedPath.OTHER, other);
+	}
+
+	@Test
+	void snapshot_shouldTotalPerPathAndKeepTheLatestSamples() {
+		// Arrange
+		VirtualThreadProperties properties = new VirtualThreadProperties();
+		properties.setRecentEvents(2);
+		SimpleMeterRegistry registry = new SimpleMeterRegistry();
+		VirtualThreadPinningMonitor monitor = new VirtualThreadPinningMonitor(properties, registry);
+
+		// Act
+		monitor.record(PinnedPath.JDBC, Duration.ofMillis(30), "", List.of("org.h2.command.Command.executeQuery:190"));
+		monitor.record(PinnedPath.JDBC, Duration.ofMillis(50), "", List.of("org.h2.command.Command.executeQuery:190"));
+		monitor.record(PinnedPath.SECURITY, Duration.ofMillis(25), "", List.of("org.springframework.security.crypto.bcrypt.BCrypt.hashpw:600"));
+		VirtualThreadPinningMonitor.Snapshot snapshot = monitor.snapshot();
+
+		// Assert
+		assertFalse(snapshot.monitoring());
+		assertEquals(2, snapshot.totals().get(PinnedPath.JDBC).count());
+		assertEquals(80.0, snapshot.totals().get(PinnedPath.JDBC).totalMillis(), 0.001);
+		assertEquals(50.0, snapshot.totals().get(PinnedPath.JDBC).maxMillis(), 0.001);
+		assertEquals(1, snapshot.totals().get(PinnedPath.SECURITY).count());
+		assertEquals(List.of(PinnedPath.SECURITY, PinnedPath.JDBC), snapshot.recent().stream()
+				.map(VirtualThreadPinningMonitor.PinnedSample::path).toList());
+		assertEquals(2, registry.get("jvm.threads.virtual.pinned").tag("path", "jdbc").timer().count());
+	}
+}
@@ -0,0 +1,55 @@
+package es.blanca.jpa.adapter;
+
+import es.blanca.domain.exceptions.IdempotencyConflictException;
+import es.blanca.domain.model.IdempotencyRecord;
+import es.blanca.domain.port.IdempotencyRepository;
+import es.blanca.jpa.idempotency.IdempotencyKeyDao;
+import lombok.RequiredArgsConstructor;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+import static es.blanca.application.config.ApplicationConstants.IDEMPOTENT_REQUEST_IN_PROGRESS;
+
+@Repository
+@RequiredArgsConstructor
+public class IdempotencyRepositoryAdapter implements IdempotencyRepository {
+
+	private final IdempotencyKeyDao idempotencyKeyDao;
+
+	@Override
+	public void insert(IdempotencyRecord record) {
+		try {
+			idempotencyKeyDao.insert(record);
+		} catch (DuplicateKeyException e) {
+			throw new IdempotencyConflictException(IDEMPOTENT_REQUEST_IN_PROGRESS);
+		}
+	}
+
+	@Override
+	public Optional<IdempotencyRecord> findByKey(String key, LocalDateTime now) {
+		return idempotencyKeyDao.find(key, now);
+	}
+
+	@Override
+	public boolean complete(IdempotencyRecord claim, IdempotencyRecord record) {
+		return idempotencyKeyDao.complete(claim, record);
+	}
+
+	@Override
+	public void delete(IdempotencyRecord claim) {
+		idempotencyKeyDao.delete(claim);
+	}
+
+	@Override
+	public boolean deleteIfExpired(String key, LocalDateTime now) {
+		return idempotencyKeyDao.deleteIfExpired(key, now);
+	}
+
+	@Override
+	public int deleteExpired(LocalDateTime now) {
+		return idempotencyKeyDao.deleteExpired(now);
+	}
+}
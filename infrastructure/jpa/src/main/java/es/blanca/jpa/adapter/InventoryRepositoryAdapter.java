@@ -0,0 +1,42 @@
+package es.blanca.jpa.adapter;
+
+import es.blanca.domain.port.InventoryRepository;
+import es.blanca.jpa.inventory.HotStockInventory;
+import es.blanca.jpa.inventory.ProductStockDao;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Repository;
+
+// hot products go through their in-memory counter, every other one straight to its row
+@Repository
+@RequiredArgsConstructor
+public class InventoryRepositoryAdapter implements InventoryRepository {
+
+	private final ProductStockDao productStockDao;
+	private final HotStockInventory hotStockInventory;
+
+	@Override
+	public boolean reserve(Long productId, int amount) {
+		if (hotStockInventory.handles(productId)) {
+			return hotStockInventory.reserve(productId, amount);
+		}
+		return productStockDao.take(productId, amount);
+	}
+
+	@Override
+	public void release(Long productId, int amount) {
+		if (hotStockInventory.handles(productId)) {
+			hotStockInventory.release(productId, amount);
+		} else {
+			productStockDao.put(productId, amount);
+		}
+	}
+
+	@Override
+	public void setStock(Long productId, Integer stock) {
+		if (hotStockInventory.handles(productId)) {
+			hotStockInventory.setStock(productId, stock);
+		} else {
+			productStockDao.set(productId, stock);
+		}
+	}
+}
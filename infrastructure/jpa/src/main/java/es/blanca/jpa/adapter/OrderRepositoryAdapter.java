@@ -1,16 +1,36 @@
 package es.blanca.jpa.adapter;
 
+import es.blanca.domain.exceptions.EntityNotFoundException;
+import es.blanca.domain.model.Fieldset;
 import es.blanca.domain.model.Order;
+import es.blanca.domain.model.OrderStatus;
+import es.blanca.domain.model.User;
 import es.blanca.domain.port.OrderRepository;
 import es.blanca.jpa.entity.OrderEntity;
+import es.blanca.jpa.entity.OrderProductEntity;
+import es.blanca.jpa.entity.ProductEntity;
 import es.blanca.jpa.mapper.OrderPersistenceMapper;
 import es.blanca.jpa.repository.OrderJpaRepository;
+import es.blanca.jpa.repository.ProductJpaRepository;
+import es.blanca.jpa.repository.UserJpaRepository;
+import es.blanca.jpa.view.OrderViewDao;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.Tuple;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Selection;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
-import java.util.stream.Collectors;
+
+import static es.blanca.application.config.ApplicationConstants.PRODUCT_NOT_FOUND_BY_ID;
 
 @Repository
 @RequiredArgsConstructor
@@ -19,18 +39,133 @@ public class OrderRepositoryAdapter implements OrderRepository {
 
 	private final OrderJpaRepository orderJpaRepository;
 	private final OrderPersistenceMapper orderPersistenceMapper;
+	private final UserJpaRepository userJpaRepository;
+	private final ProductJpaRepository productJpaRepository;
+	private final OrderViewDao orderViewDao;
+	private final EntityManager entityManager;
 
+	// listings are served from the order_view read model
 	@Override
 	public List<Order> findByUserId(Long userId) {
-		return orderJpaRepository.findByUserId(userId).stream()
-				.map(orderPersistenceMapper::toDomain)
-				.collect(Collectors.toList());
+		return orderViewDao.findByUserId(userId);
+	}
+
+	@Override
+	public List<Order> findByUserId(Long userId, int page, int size) {
+		return orderViewDao.findByUserId(userId, page, size);
+	}
+
+	// a date range reads the orders tables, where it only touches the months in the range
+	@Override
+	public List<Order> findCreatedBetween(LocalDateTime from, LocalDateTime to) {
+		return orderPersistenceMapper.toDomainList(orderJpaRepository.findCreatedBetween(from, to));
+	}
+
+	@Override
+	public List<Order> findByUserIdCreatedBetween(Long userId, LocalDateTime from, LocalDateTime to) {
+		return orderPersistenceMapper.toDomainList(orderJpaRepository.findByUserIdCreatedBetween(userId, from, to));
+	}
+
+	@Override
+	public List<Order> findAll(Fieldset fields) {
+		return orderViewDao.findAll(fields);
+	}
+
+	@Override
+	public List<Order> findByUserId(Long userId, Fieldset fields) {
+		return orderViewDao.findByUserId(userId, fields);
+	}
+
+	// without orderProducts neither the lines nor their products are joined, the total
+	// alone comes from the view where it is stored
+	@Override
+	public List<Order> findCreatedBetween(LocalDateTime from, LocalDateTime to, Fieldset fields) {
+		if (fields.includes("orderProducts")) {
+			return findCreatedBetween(from, to);
+		}
+		return fields.includes("total") ? orderViewDao.findCreatedBetween(null, from, to, fields)
+				: findHeadersCreatedBetween(null, from, to, fields);
+	}
+
+	@Override
+	public List<Order> findByUserIdCreatedBetween(Long userId, LocalDateTime from, LocalDateTime to, Fieldset fields) {
+		if (fields.includes("orderProducts")) {
+			return findByUserIdCreatedBetween(userId, from, to);
+		}
+		return fields.includes("total") ? orderViewDao.findCreatedBetween(userId, from, to, fields)
+				: findHeadersCreatedBetween(userId, from, to, fields);
+	}
+
+	/**
+	 * Selects the requested columns of the orders table alone. The user comes from the
+	 * order's own foreign key, the users table is not joined either.
+	 */
+	private List<Order> findHeadersCreatedBetween(Long userId, LocalDateTime from, LocalDateTime to, Fieldset fields) {
+		CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+		CriteriaQuery<Tuple> query = cb.createTupleQuery();
+		Root<OrderEntity> root = query.from(OrderEntity.class);
+		Path<Long> id = root.get("id");
+		Path<Long> user = root.get("user").get("id");
+		Path<OrderStatus> status = root.get("status");
+		Path<LocalDateTime> createdAt = root.get("createdAt");
+		Path<Long> version = root.get("version");
+		List<Selection<?>> columns = new ArrayList<>();
+		columns.add(id);
+		if (fields.includes("user")) {
+			columns.add(user);
+		}
+		if (fields.includes("status")) {
+			columns.add(status);
+		}
+		if (fields.includes("createdAt")) {
+			columns.add(createdAt);
+		}
+		if (fields.includes("version")) {
+			columns.add(version);
+		}
+		query.multiselect(columns);
+
+		List<Predicate> predicates = new ArrayList<>();
+		predicates.add(cb.greaterThanOrEqualTo(createdAt, from));
+		predicates.add(cb.lessThan(createdAt, to));
+		if (userId != null) {
+			predicates.add(cb.equal(user, userId));
+		}
+		query.where(cb.and(predicates.toArray(new Predicate[0])));
+		query.orderBy(cb.asc(id));
+
+		List<Order> orders = new ArrayList<>();
+		for (Tuple row : entityManager.createQuery(query).getResultList()) {
+			Order order = new Order();
+			if (fields.includes("id")) {
+				order.setId(row.get(id));
+			}
+			if (fields.includes("user")) {
+				User owner = new User();
+				owner.setId(row.get(user));
+				order.setUser(owner);
+			}
+			if (fields.includes("status")) {
+				order.setStatus(row.get(status));
+			}
+			if (fields.includes("createdAt")) {
+				order.setCreatedAt(row.get(createdAt));
+			}
+			if (fields.includes("version")) {
+				order.setVersion(row.get(version));
+			}
+			orders.add(order);
+		}
+		return orders;
 	}
 
 	@Override
 	public Order save(Order order) {
 		OrderEntity orderEntity = orderPersistenceMapper.toEntity(order);
-		OrderEntity orderEntitySaved = orderJpaRepository.save(orderEntity);
+		attachReferences(orderEntity);
+		// flushed so the view gets the id and the version the order is committed with
+		OrderEntity orderEntitySaved = orderJpaRepository.saveAndFlush(orderEntity);
+		orderViewDao.write(orderEntitySaved);
 		return orderPersistenceMapper.toDomain(orderEntitySaved);
 	}
 
@@ -41,13 +176,12 @@ public class OrderRepositoryAdapter implements OrderRepository {
 
 	@Override
 	public List<Order> findAll() {
-		return orderJpaRepository.findAll().stream()
-				.map(orderPersistenceMapper::toDomain)
-				.collect(Collectors.toList());
+		return orderViewDao.findAll();
 	}
 
 	@Override
 	public void deleteById(Long id) {
+		// the view row is removed with the order by its foreign key
 		orderJpaRepository.deleteById(id);
 	}
 
@@ -55,4 +189,25 @@ public class OrderRepositoryAdapter implements OrderRepository {
 	public boolean existsById(Long id) {
 		return orderJpaRepository.existsById(id);
 	}
+
+	/**
+	 * The mapper only builds detached copies of the user and products. Swap them for managed
+	 * instances: a reference for the user (only its id is written) and the products, since the
+	 * order lines take their identity from them. Products are looked up by id one at a time so
+	 * they are served from the second-level cache once warm.
+	 */
+	private void attachReferences(OrderEntity orderEntity) {
+		if (orderEntity.getUser() != null) {
+			orderEntity.setUser(userJpaRepository.getReferenceById(orderEntity.getUser().getId()));
+		}
+		if (orderEntity.getOrderProducts() == null || orderEntity.getOrderProducts().isEmpty()) {
+			return;
+		}
+		for (OrderProductEntity orderProduct : orderEntity.getOrderProducts()) {
+			Long productId = orderProduct.getProduct().getId();
+			ProductEntity product = productJpaRepository.findById(productId).orElseThrow(
+					() -> new EntityNotFoundException(String.format(PRODUCT_NOT_FOUND_BY_ID, productId)));
+			orderProduct.setProduct(product);
+		}
+	}
 }
@@ -0,0 +1,19 @@
+package es.blanca.jpa.adapter;
+
+import es.blanca.domain.model.ChangeEvent;
+import es.blanca.domain.port.OutboxRepository;
+import es.blanca.jpa.outbox.OutboxDao;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Repository;
+
+@Repository
+@RequiredArgsConstructor
+public class OutboxRepositoryAdapter implements OutboxRepository {
+
+	private final OutboxDao outboxDao;
+
+	@Override
+	public void append(ChangeEvent event) {
+		outboxDao.insert(event);
+	}
+}
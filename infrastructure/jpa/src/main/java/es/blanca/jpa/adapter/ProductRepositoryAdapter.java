@@ -1,24 +1,34 @@
 package es.blanca.jpa.adapter;
 
+import es.blanca.domain.model.Fieldset;
+import es.blanca.domain.model.Fnv1a;
+import es.blanca.domain.model.Money;
 import es.blanca.domain.model.Product;
 import es.blanca.domain.model.ProductStatus;
 import es.blanca.domain.port.ProductRepository;
 import es.blanca.jpa.entity.ProductEntity;
 import es.blanca.jpa.mapper.ProductPersistenceMapper;
 import es.blanca.jpa.repository.ProductJpaRepository;
+import es.blanca.jpa.repository.ProductJpaRepository.VersionAndStock;
+import es.blanca.jpa.view.OrderViewRefreshDao;
 import jakarta.persistence.EntityManager;
 import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Tuple;
 import jakarta.persistence.TypedQuery;
 import jakarta.persistence.criteria.CriteriaBuilder;
 import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Path;
 import jakarta.persistence.criteria.Predicate;
 import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Selection;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
 
 import java.util.stream.Collectors;
@@ -31,17 +41,54 @@ public class ProductRepositoryAdapter implements ProductRepository {
 	private final ProductJpaRepository productJpaRepository;
 	private final ProductPersistenceMapper productPersistenceMapper;
 	private final EntityManager entityManager;
+	private final OrderViewRefreshDao orderViewRefreshDao;
 
+	// every column a product listing can project, by its property name
+	private static final List<String> PROPERTIES = List.of("id", "name", "price", "status", "stock", "createdAt", "version");
+
+	/**
+	 * An update is flushed right away: the version is only incremented when the merged
+	 * entity is written, and the caller maps the returned product into its events. It
+	 * also requests, in the same transaction, a refresh of the order views holding the
+	 * product, which OrderViewRefresher carries out later.
+	 */
 	@Override
 	public Product save(Product product) {
 		ProductEntity productEntity = productPersistenceMapper.toEntity(product) ;
-		ProductEntity productEntitySaved = productJpaRepository.save(productEntity);
+		if (product.getId() == null) {
+			return productPersistenceMapper.toDomain(productJpaRepository.save(productEntity));
+		}
+		ProductEntity productEntitySaved = productJpaRepository.saveAndFlush(productEntity);
+		orderViewRefreshDao.request(productEntitySaved.getId());
 		return productPersistenceMapper.toDomain(productEntitySaved);
 	}
 
+	/**
+	 * The entity usually comes from the second-level cache, whose stock lags behind the
+	 * reservations (see ProductStockDao), so the stock is read from the row. The version
+	 * is read with it: a cached copy is only evicted once the update has committed (see
+	 * ProductCacheEvictor), and in between it is dropped here and loaded again, so the
+	 * tag of a GET is never built from an older version than the row's.
+	 */
 	@Override
 	public Optional<Product> findById(Long id) {
-		return productJpaRepository.findById(id).map(productPersistenceMapper::toDomain) ;
+		Optional<VersionAndStock> row = productJpaRepository.findVersionAndStockById(id);
+		if (row.isEmpty()) {
+			return Optional.empty();
+		}
+		Optional<ProductEntity> entity = productJpaRepository.findById(id);
+		if (entity.isPresent() && !Objects.equals(entity.get().getVersion(), row.get().getVersion())) {
+			if (entityManager.contains(entity.get())) {
+				entityManager.detach(entity.get());
+			}
+			entityManager.getEntityManagerFactory().getCache().evict(ProductEntity.class, id);
+			entity = productJpaRepository.findById(id);
+		}
+		return entity.map(found -> {
+			Product product = productPersistenceMapper.toDomain(found);
+			product.setStock(row.get().getStock());
+			return product;
+		});
 	}
 
 	@Override
@@ -67,6 +114,90 @@ public class ProductRepositoryAdapter implements ProductRepository {
 		CriteriaQuery<ProductEntity> query = cb.createQuery(ProductEntity.class);
 		Root<ProductEntity> root = query.from(ProductEntity.class);
 
+		List<Predicate> predicates = predicates(cb, root, filters);
+
+		// ✅ ARREGLO: Añade esta condición para evitar llamar a .where() con una lista vacía.
+		if (!predicates.isEmpty()) {
+			query.where(cb.and(predicates.toArray(new Predicate[0])));
+		}
+		// a stable order, so the same products always give the same listing
+		query.orderBy(cb.asc(root.get("id")));
+
+		TypedQuery<ProductEntity> typedQuery = entityManager.createQuery(query);
+		List<ProductEntity> resultEntities = typedQuery.getResultList();
+
+		return resultEntities.stream()
+				.map(productPersistenceMapper::toDomain)
+				.collect(Collectors.toList());
+	}
+
+	/**
+	 * Selects only the requested columns and builds the products from them, the rest of
+	 * each product is left null. Nothing goes through the persistence context.
+	 */
+	@Override
+	public List<Product> findWithFilters(Map<String, Object> filters, Fieldset fields) {
+		if (fields.isAll()) {
+			return findWithFilters(filters);
+		}
+		CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+		CriteriaQuery<Tuple> query = cb.createTupleQuery();
+		Root<ProductEntity> root = query.from(ProductEntity.class);
+		List<String> properties = PROPERTIES.stream().filter(fields::includes).collect(Collectors.toList());
+		query.multiselect(properties.stream()
+				.map(property -> root.get(property).alias(property))
+				.toArray(Selection[]::new));
+
+		List<Predicate> predicates = predicates(cb, root, filters);
+		if (!predicates.isEmpty()) {
+			query.where(cb.and(predicates.toArray(new Predicate[0])));
+		}
+		query.orderBy(cb.asc(root.get("id")));
+
+		List<Product> products = new ArrayList<>();
+		for (Tuple row : entityManager.createQuery(query).getResultList()) {
+			Product product = new Product();
+			for (String property : properties) {
+				setProperty(product, property, row.get(property));
+			}
+			products.add(product);
+		}
+		return products;
+	}
+
+	/**
+	 * Folds the id, version and stock of the matching products in id order. Updates bump
+	 * the version but reservations only write the stock, so both are needed to notice every
+	 * change to the listing. Only those three columns are read, no entities are loaded.
+	 */
+	@Override
+	public long findRevision(Map<String, Object> filters) {
+		CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+		CriteriaQuery<Tuple> query = cb.createTupleQuery();
+		Root<ProductEntity> root = query.from(ProductEntity.class);
+		Path<Long> id = root.get("id");
+		Path<Long> version = root.get("version");
+		Path<Integer> stock = root.get("stock");
+		query.multiselect(id, version, stock);
+
+		List<Predicate> predicates = predicates(cb, root, filters);
+		if (!predicates.isEmpty()) {
+			query.where(cb.and(predicates.toArray(new Predicate[0])));
+		}
+		query.orderBy(cb.asc(id));
+
+		long revision = Fnv1a.OFFSET_BASIS;
+		for (Tuple row : entityManager.createQuery(query).getResultList()) {
+			revision = Fnv1a.fold(revision, row.get(id));
+			revision = Fnv1a.fold(revision, row.get(version));
+			// an untracked stock (NULL) must not look like a stock of 0
+			Integer units = row.get(stock);
+			revision = Fnv1a.fold(revision, units != null ? units : -1L);
+		}
+		return revision;
+	}
+
+	private static List<Predicate> predicates(CriteriaBuilder cb, Root<ProductEntity> root, Map<String, Object> filters) {
 		List<Predicate> predicates = new ArrayList<>();
 
 		filters.forEach((field, value) -> {
@@ -75,27 +206,29 @@ public class ProductRepositoryAdapter implements ProductRepository {
 					predicates.add(cb.like(cb.lower(root.get("name")), "%" + ((String) value).toLowerCase() + "%"));
 					break;
 				case "minPrice":
-					predicates.add(cb.greaterThanOrEqualTo(root.get("price"), (Double) value));
+					predicates.add(cb.greaterThanOrEqualTo(root.<Money>get("price"), (Money) value));
 					break;
 				case "maxPrice":
-					predicates.add(cb.lessThanOrEqualTo(root.get("price"), (Double) value));
+					predicates.add(cb.lessThanOrEqualTo(root.<Money>get("price"), (Money) value));
 					break;
 				case "status":
 					predicates.add(cb.equal(root.get("status"), (ProductStatus) value));
 					break;
 			}
 		});
+		return predicates;
+	}
 
-		// ✅ ARREGLO: Añade esta condición para evitar llamar a .where() con una lista vacía.
-		if (!predicates.isEmpty()) {
-			query.where(cb.and(predicates.toArray(new Predicate[0])));
+	private static void setProperty(Product product, String property, Object value) {
+		switch (property) {
+			case "id" -> product.setId((Long) value);
+			case "name" -> product.setName((String) value);
+			case "price" -> product.setPrice((Money) value);
+			case "status" -> product.setStatus((ProductStatus) value);
+			case "stock" -> product.setStock((Integer) value);
+			case "createdAt" -> product.setCreatedAt((LocalDateTime) value);
+			case "version" -> product.setVersion((Long) value);
+			default -> throw new IllegalArgumentException("Unknown product property " + property);
 		}
-
-		TypedQuery<ProductEntity> typedQuery = entityManager.createQuery(query);
-		List<ProductEntity> resultEntities = typedQuery.getResultList();
-
-		return resultEntities.stream()
-				.map(productPersistenceMapper::toDomain)
-				.collect(Collectors.toList());
 	}
 }
@@ -1,15 +1,38 @@
 package es.blanca.jpa.adapter;
 
 import es.blanca.domain.exceptions.EntityNotFoundException;
+import es.blanca.domain.model.Country;
+import es.blanca.domain.model.Fieldset;
+import es.blanca.domain.model.Order;
 import es.blanca.domain.model.User;
 import es.blanca.domain.port.UserRepository;
+import es.blanca.jpa.entity.CountryEntity;
+import es.blanca.jpa.entity.OrderEntity;
 import es.blanca.jpa.entity.UserEntity;
+import es.blanca.jpa.mapper.OrderPersistenceMapper;
 import es.blanca.jpa.mapper.UserPersistenceMapper;
+import es.blanca.jpa.repository.OrderJpaRepository;
 import es.blanca.jpa.repository.UserJpaRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.Tuple;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Join;
+import jakarta.persistence.criteria.JoinType;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Selection;
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.stream.Collectors;
 
@@ -19,6 +42,14 @@ public class UserRepositoryAdapter implements UserRepository {
 
 	private final UserJpaRepository userJpaRepository;
 	private final UserPersistenceMapper userPersistenceMapper;
+	private final OrderJpaRepository orderJpaRepository;
+	private final OrderPersistenceMapper orderPersistenceMapper;
+	private final EntityManager entityManager;
+
+	// orders embedded in each user, the latest ones; GET /users/{id}/orders pages through all of them
+	static final int EMBEDDED_ORDERS = 20;
+	// users per query loading their orders, keeps the IN list and the result bounded
+	private static final int USERS_PER_ORDER_QUERY = 100;
 
 	@Override
 	public void deleteById(Long userId) {
@@ -30,6 +61,7 @@ public class UserRepositoryAdapter implements UserRepository {
 		return userJpaRepository.existsById(userId);
 	}
 
+	// only used to authenticate, so the user's orders are not loaded
 	@Override
 	public Optional<User> findByEmail(String email) {
 		return userJpaRepository.findByEmail(email).map(userPersistenceMapper::toDomain);
@@ -40,40 +72,184 @@ public class UserRepositoryAdapter implements UserRepository {
 		return userJpaRepository.existsByEmail(email);
 	}
 
+	@Override
+	public Optional<User> findActiveByEmail(String email) {
+		return userJpaRepository.findActiveByEmail(email).map(userPersistenceMapper::toDomain);
+	}
+
+	@Override
+	public List<User> findAllActive() {
+		return withOrders(userJpaRepository.findAllActive());
+	}
+
+	@Override
+	public List<User> findAllActive(int page, int size) {
+		return withOrders(userJpaRepository.findAllActive(PageRequest.of(page, size)));
+	}
+
+	/**
+	 * Selects only the requested columns of the active users. The country is joined and
+	 * the orders loaded with their single query only when the fieldset includes them.
+	 */
+	@Override
+	public List<User> findAllActive(Fieldset fields, int page, int size) {
+		if (fields.isAll()) {
+			return findAllActive(page, size);
+		}
+		CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+		CriteriaQuery<Tuple> query = cb.createTupleQuery();
+		Root<UserEntity> root = query.from(UserEntity.class);
+		Path<Long> id = root.get("id");
+		Path<String> fullName = root.get("fullName");
+		Path<String> email = root.get("email");
+		Path<LocalDateTime> createdAt = root.get("createdAt");
+		Path<Boolean> active = root.get("isActive");
+		Path<Long> version = root.get("version");
+		List<Selection<?>> columns = new ArrayList<>();
+		// the id is always read, the orders are attached by it
+		columns.add(id);
+		if (fields.includes("fullName")) {
+			columns.add(fullName);
+		}
+		if (fields.includes("email")) {
+			columns.add(email);
+		}
+		if (fields.includes("createdAt")) {
+			columns.add(createdAt);
+		}
+		if (fields.includes("active")) {
+			columns.add(active);
+		}
+		if (fields.includes("version")) {
+			columns.add(version);
+		}
+		Path<String> countryCode = null;
+		Path<String> countryName = null;
+		if (fields.includes("country")) {
+			Join<UserEntity, CountryEntity> country = root.join("country", JoinType.LEFT);
+			countryCode = country.get("code");
+			countryName = country.get("name");
+			columns.add(countryCode);
+			columns.add(countryName);
+		}
+		query.multiselect(columns);
+		query.where(cb.isTrue(active));
+		query.orderBy(cb.asc(id));
+
+		List<Tuple> rows = entityManager.createQuery(query)
+				.setFirstResult(page * size)
+				.setMaxResults(size)
+				.getResultList();
+		Map<Long, List<Order>> ordersByUser = fields.includes("orders")
+				? ordersByUser(rows.stream().map(row -> row.get(id)).collect(Collectors.toList()))
+				: Collections.emptyMap();
+		List<User> users = new ArrayList<>(rows.size());
+		for (Tuple row : rows) {
+			User user = new User();
+			if (fields.includes("id")) {
+				user.setId(row.get(id));
+			}
+			if (fields.includes("fullName")) {
+				user.setFullName(row.get(fullName));
+			}
+			if (fields.includes("email")) {
+				user.setEmail(row.get(email));
+			}
+			if (fields.includes("createdAt")) {
+				user.setCreatedAt(row.get(createdAt));
+			}
+			if (fields.includes("active")) {
+				user.setActive(row.get(active));
+			}
+			if (fields.includes("version")) {
+				user.setVersion(row.get(version));
+			}
+			if (countryCode != null) {
+				String code = row.get(countryCode);
+				user.setCountry(code != null ? new Country(code, row.get(countryName)) : null);
+			}
+			if (fields.includes("orders")) {
+				user.setOrders(ordersByUser.getOrDefault(row.get(id), new ArrayList<>()));
+			}
+			users.add(user);
+		}
+		return users;
+	}
+
 	@Override
 	public User save(User user) {
 		UserEntity userEntity = userPersistenceMapper.toEntity(user);
 
-		// 2. Si el usuario ya existe (es una actualización), debemos preservar la colección de 'orders'.
 		if (user.getId() != null) {
-			// 2.1. Recupera la entidad original de la base de datos, que sí tiene la lista de 'orders'.
 			UserEntity existingEntity = userJpaRepository.findById(user.getId()).orElseThrow(
 					() -> new EntityNotFoundException("No se puede actualizar el usuario porque no se encontró el ID: " + user.getId())
 			);
-
-			// 2.2. Asigna la colección de 'orders' existente a la nueva entidad que vamos a guardar.
-			//      Con esto, evitamos que Hibernate piense que la colección ha sido eliminada.
-			userEntity.setOrders(existingEntity.getOrders());
+			// the compaction archives users some time after they were deactivated
+			if (existingEntity.isActive() != userEntity.isActive()) {
+				userEntity.setDeactivatedAt(userEntity.isActive() ? null : LocalDateTime.now());
+			} else {
+				userEntity.setDeactivatedAt(existingEntity.getDeactivatedAt());
+			}
 		}
 
-		// 3. Guarda la entidad (ya sea nueva o actualizada con sus 'orders' preservados).
 		UserEntity savedEntity = userJpaRepository.save(userEntity);
 
-		// 4. Mapea de vuelta al dominio y retorna.
-		return userPersistenceMapper.toDomain(savedEntity);
+		// the orders are not written through the user, so the caller's list is still current
+		User savedUser = userPersistenceMapper.toDomain(savedEntity);
+		savedUser.setOrders(user.getOrders() != null ? user.getOrders() : new ArrayList<>());
+		return savedUser;
+	}
+
+	// a country can have any number of users, so they are only listed a page at a time and without their orders
+	@Override
+	public List<User> findByCountryCode(String countryCode, int page, int size) {
+		return userJpaRepository.findByCountryCode(countryCode, PageRequest.of(page, size)).stream()
+				.map(userPersistenceMapper::toDomain)
+				.collect(Collectors.toList());
 	}
 
 	@Override
 	public Optional<User> findById(Long id) {
-		return userJpaRepository.findById(id).map(userPersistenceMapper::toDomain);
+		return userJpaRepository.findById(id).map(userEntity -> withOrders(List.of(userEntity)).get(0));
 	}
 
 	@Override
 	public List<User> findAll() {
-		return userJpaRepository.findAll().stream()
-				.map(userPersistenceMapper::toDomain)
-				.collect(Collectors.toList());
+		return withOrders(userJpaRepository.findAll());
 	}
 
+	/**
+	 * Loads the latest orders of the given users a few queries at a time instead of walking
+	 * each user's lazy collection, which would add a query per user and per order.
+	 */
+	private List<User> withOrders(List<UserEntity> userEntities) {
+		Map<Long, List<Order>> ordersByUser = ordersByUser(userEntities.stream()
+				.map(UserEntity::getId)
+				.collect(Collectors.toList()));
+
+		return userEntities.stream()
+				.map(userEntity -> {
+					User user = userPersistenceMapper.toDomain(userEntity);
+					user.setOrders(ordersByUser.getOrDefault(userEntity.getId(), new ArrayList<>()));
+					return user;
+				})
+				.collect(Collectors.toList());
+	}
 
+	// at most EMBEDDED_ORDERS per user, oldest first, in chunks of USERS_PER_ORDER_QUERY users
+	private Map<Long, List<Order>> ordersByUser(List<Long> userIds) {
+		Map<Long, List<Order>> ordersByUser = new HashMap<>();
+		for (int from = 0; from < userIds.size(); from += USERS_PER_ORDER_QUERY) {
+			List<Long> chunk = userIds.subList(from, Math.min(from + USERS_PER_ORDER_QUERY, userIds.size()));
+			List<Long> orderIds = orderJpaRepository.findLatestIdsByUserIdIn(chunk, EMBEDDED_ORDERS);
+			if (orderIds.isEmpty()) {
+				continue;
+			}
+			orderJpaRepository.findByIdIn(orderIds).stream()
+					.sorted(Comparator.comparing(OrderEntity::getId))
+					.forEach(order -> ordersByUser.computeIfAbsent(order.getUser().getId(), id -> new ArrayList<>())
+							.add(orderPersistenceMapper.toDomain(order)));
+		}
+		return ordersByUser;
+	}
 }
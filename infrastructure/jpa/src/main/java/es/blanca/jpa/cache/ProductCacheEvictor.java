@@ -0,0 +1,32 @@
+package es.blanca.jpa.cache;
+
+import es.blanca.domain.event.DomainEvent;
+import es.blanca.domain.event.ProductUpdated;
+import es.blanca.domain.port.DomainEventConsumer;
+import es.blanca.jpa.entity.ProductEntity;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Drops an updated product from the second-level cache once the update has committed.
+ * The merge caches the product with the stock it was read with, while orders keep
+ * taking units through ProductStockDao, so the next load starts again from the row.
+ */
+@Component
+@RequiredArgsConstructor
+public class ProductCacheEvictor implements DomainEventConsumer {
+
+	private final EntityManagerFactory entityManagerFactory;
+
+	@Override
+	public void onEvents(List<DomainEvent> events) {
+		for (DomainEvent event : events) {
+			if (event instanceof ProductUpdated updated) {
+				entityManagerFactory.getCache().evict(ProductEntity.class, updated.productId());
+			}
+		}
+	}
+}
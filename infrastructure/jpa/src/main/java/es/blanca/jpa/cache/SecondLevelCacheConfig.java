@@ -0,0 +1,61 @@
+package es.blanca.jpa.cache;
+
+import com.github.benmanes.caffeine.jcache.configuration.CaffeineConfiguration;
+import com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider;
+import org.hibernate.cache.jcache.ConfigSettings;
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+import java.net.URI;
+import java.util.OptionalLong;
+import java.util.UUID;
+
+/**
+ * Local Caffeine-backed JCache regions for Hibernate's second-level cache. Regions are
+ * created up front from {@link SecondLevelCacheProperties} so every one of them is bounded;
+ * Hibernate refuses to start if an entity points at a region that is not configured.
+ */
+@Configuration
+@ConditionalOnProperty(name = "jpa.cache.enabled", havingValue = "true", matchIfMissing = true)
+public class SecondLevelCacheConfig {
+
+	@Bean(destroyMethod = "close")
+	public CacheManager hibernateCacheManager(SecondLevelCacheProperties properties) {
+		// a manager of its own per application context, regions are never shared between them
+		CacheManager cacheManager = Caching.getCachingProvider(CaffeineCachingProvider.class.getName())
+				.getCacheManager(URI.create("jpa-second-level-cache:" + UUID.randomUUID()), getClass().getClassLoader());
+		properties.getRegions().forEach((name, region) ->
+				cacheManager.createCache(name, configuration(region, properties.isStatistics())));
+		return cacheManager;
+	}
+
+	@Bean
+	public HibernatePropertiesCustomizer secondLevelCacheCustomizer(CacheManager hibernateCacheManager,
+	                                                                SecondLevelCacheProperties properties) {
+		return hibernateProperties -> {
+			hibernateProperties.put(AvailableSettings.USE_SECOND_LEVEL_CACHE, true);
+			hibernateProperties.put(AvailableSettings.CACHE_REGION_FACTORY, "jcache");
+			hibernateProperties.put(ConfigSettings.CACHE_MANAGER, hibernateCacheManager);
+			hibernateProperties.put(ConfigSettings.MISSING_CACHE_STRATEGY, "fail");
+			hibernateProperties.put(AvailableSettings.GENERATE_STATISTICS, properties.isStatistics());
+		};
+	}
+
+	private static CaffeineConfiguration<Object, Object> configuration(SecondLevelCacheProperties.Region region,
+	                                                                   boolean statistics) {
+		CaffeineConfiguration<Object, Object> configuration = new CaffeineConfiguration<>();
+		configuration.setMaximumSize(OptionalLong.of(region.getMaxEntries()));
+		if (region.getExpireAfterWrite() != null) {
+			configuration.setExpireAfterWrite(OptionalLong.of(region.getExpireAfterWrite().toNanos()));
+		}
+		// hibernate already stores disassembled state, no need to copy it again
+		configuration.setStoreByValue(false);
+		configuration.setStatisticsEnabled(statistics);
+		return configuration;
+	}
+}
@@ -0,0 +1,45 @@
+package es.blanca.jpa.cache;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+@Getter
+@Setter
+@Component
+@ConfigurationProperties(prefix = "jpa.cache")
+public class SecondLevelCacheProperties {
+
+	public static final String COUNTRIES = "countries";
+	public static final String PRODUCTS = "products";
+
+	private boolean enabled = true;
+
+	// hibernate statistics, including hit/miss/put counts per region
+	private boolean statistics = false;
+
+	// one entry per @Cache region, every region must be listed here
+	private Map<String, Region> regions = new LinkedHashMap<>(Map.of(
+			COUNTRIES, new Region(500),
+			PRODUCTS, new Region(10_000)));
+
+	@Getter
+	@Setter
+	public static class Region {
+		private long maxEntries = 1000;
+		// unset means entries live until evicted by size or invalidated by a write
+		private Duration expireAfterWrite;
+
+		public Region() {
+		}
+
+		Region(long maxEntries) {
+			this.maxEntries = maxEntries;
+		}
+	}
+}
@@ -0,0 +1,84 @@
+package es.blanca.jpa.compaction;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Moves users that have been soft-deleted for longer than users.compaction.inactive-for
+ * from users to users_archive, so logins and listings keep working on live accounts.
+ * <p>
+ * A user is only moved once none of its orders are left in the orders table, their
+ * foreign key would not let it go. Orders archived into order_archive no longer
+ * reference users (V13), they keep the id of the archived user. Each batch locks its
+ * rows first: a user reactivated while the batch runs is either moved before or skipped.
+ */
+@Slf4j
+@Component
+public class UserCompaction {
+
+	private static final String CANDIDATES = "SELECT id FROM users u WHERE u.is_active = FALSE AND u.deactivated_at < :cutoff "
+			+ "AND NOT EXISTS (SELECT 1 FROM orders o WHERE o.user_id = u.id) ORDER BY u.id LIMIT :limit FOR UPDATE";
+	private static final String ARCHIVE = "INSERT INTO users_archive (id, role, full_name, email, password, created_at, "
+			+ "country_code, version, deactivated_at, archived_at) SELECT id, role, full_name, email, password, created_at, "
+			+ "country_code, version, deactivated_at, CURRENT_TIMESTAMP FROM users WHERE id IN (:ids)";
+	private static final String DELETE = "DELETE FROM users WHERE id IN (:ids)";
+
+	private final NamedParameterJdbcTemplate jdbcTemplate;
+	private final UserCompactionProperties properties;
+	private final TransactionTemplate transaction;
+
+	public UserCompaction(NamedParameterJdbcTemplate jdbcTemplate, UserCompactionProperties properties,
+	                      PlatformTransactionManager transactionManager) {
+		this.jdbcTemplate = jdbcTemplate;
+		this.properties = properties;
+		this.transaction = new TransactionTemplate(transactionManager);
+	}
+
+	@Scheduled(cron = "${users.compaction.cron:0 0 4 * * *}")
+	public void compactScheduled() {
+		if (properties.isEnabled()) {
+			compact();
+		}
+	}
+
+	/**
+	 * Returns the number of users archived.
+	 */
+	public int compact() {
+		Timestamp cutoff = Timestamp.valueOf(LocalDateTime.now().minus(properties.getInactiveFor()));
+		int archived = 0;
+		while (true) {
+			Integer moved = transaction.execute(status -> {
+				List<Long> ids = jdbcTemplate.queryForList(CANDIDATES, new MapSqlParameterSource()
+						.addValue("cutoff", cutoff)
+						.addValue("limit", properties.getBatchSize()), Long.class);
+				if (ids.isEmpty()) {
+					return 0;
+				}
+				MapSqlParameterSource batch = new MapSqlParameterSource("ids", ids);
+				jdbcTemplate.update(ARCHIVE, batch);
+				return jdbcTemplate.update(DELETE, batch);
+			});
+			if (moved == null || moved == 0) {
+				break;
+			}
+			archived += moved;
+			if (moved < properties.getBatchSize()) {
+				break;
+			}
+		}
+		if (archived > 0) {
+			log.info("Archived {} users inactive since before {}", archived, cutoff);
+		}
+		return archived;
+	}
+}
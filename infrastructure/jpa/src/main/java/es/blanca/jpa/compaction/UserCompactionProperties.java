@@ -0,0 +1,20 @@
+package es.blanca.jpa.compaction;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+@Getter
+@Setter
+@Component
+@ConfigurationProperties(prefix = "users.compaction")
+public class UserCompactionProperties {
+	private boolean enabled = false;
+	// how long a user stays soft-deleted in the users table before it is archived
+	private Duration inactiveFor = Duration.ofDays(365);
+	// users moved per transaction
+	private int batchSize = 500;
+}
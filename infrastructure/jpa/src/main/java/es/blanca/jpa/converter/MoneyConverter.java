@@ -0,0 +1,23 @@
+package es.blanca.jpa.converter;
+
+import es.blanca.domain.model.Money;
+import jakarta.persistence.AttributeConverter;
+import jakarta.persistence.Converter;
+import org.hibernate.annotations.Immutable;
+
+// Money is stored as its minor units in a BIGINT column. @Immutable lets Hibernate
+// keep the instance as its dirty-checking snapshot instead of deep copying it.
+@Immutable
+@Converter(autoApply = true)
+public class MoneyConverter implements AttributeConverter<Money, Long> {
+
+	@Override
+	public Long convertToDatabaseColumn(Money money) {
+		return money != null ? money.minorUnits() : null;
+	}
+
+	@Override
+	public Money convertToEntityAttribute(Long minorUnits) {
+		return minorUnits != null ? Money.ofMinor(minorUnits) : null;
+	}
+}
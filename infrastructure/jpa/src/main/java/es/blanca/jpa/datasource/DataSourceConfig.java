@@ -0,0 +1,99 @@
+package es.blanca.jpa.datasource;
+
+import com.zaxxer.hikari.HikariDataSource;
+import es.blanca.application.workload.Workload;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * One Hikari pool per workload, built from the regular spring.datasource.* settings.
+ * The reporting pool is kept small so full-table admin reports can only ever hold a
+ * few connections, whatever the load.
+ * <p>
+ * Read-only transactions are sent to the configured replicas. The connection is only
+ * fetched on first use, once the transaction has been marked read-only, so the proxy
+ * knows which side to pick.
+ */
+@Configuration
+public class DataSourceConfig {
+
+	@Bean
+	public WorkloadRoutingDataSource writeDataSource(DataSourceProperties properties, Environment environment,
+	                                                 @Value("${datasource.reporting.maximum-pool-size:3}") int reportingPoolSize) {
+		Map<Workload, HikariDataSource> pools = new EnumMap<>(Workload.class);
+
+		HikariDataSource interactive = createPool(properties, environment, "interactive");
+		pools.put(Workload.INTERACTIVE, interactive);
+
+		HikariDataSource reporting = createPool(properties, environment, "reporting");
+		reporting.setMaximumPoolSize(reportingPoolSize);
+		if (reporting.getMinimumIdle() > reportingPoolSize) {
+			reporting.setMinimumIdle(reportingPoolSize);
+		}
+		pools.put(Workload.REPORTING, reporting);
+
+		return new WorkloadRoutingDataSource(pools);
+	}
+
+	@Bean
+	public ReplicaRoutingDataSource readDataSource(WorkloadRoutingDataSource writeDataSource,
+	                                               DataSourceProperties properties, Environment environment,
+	                                               ReplicaProperties replicaProperties) {
+		Map<String, DataSource> replicas = new LinkedHashMap<>();
+		List<ReplicaProperties.Instance> instances = replicaProperties.getInstances();
+		for (int i = 0; i < instances.size(); i++) {
+			String name = "replica-" + i;
+			replicas.put(name, createReplicaPool(properties, environment, replicaProperties, instances.get(i), name));
+		}
+		return new ReplicaRoutingDataSource(writeDataSource, replicas,
+				replicaProperties.getMaxLag(), replicaProperties.getLagQuery());
+	}
+
+	@Bean
+	@Primary
+	public DataSource dataSource(WorkloadRoutingDataSource writeDataSource, ReplicaRoutingDataSource readDataSource) {
+		LazyConnectionDataSourceProxy dataSource = new LazyConnectionDataSourceProxy(writeDataSource);
+		if (readDataSource.hasReplicas()) {
+			dataSource.setReadOnlyDataSource(readDataSource);
+		}
+		return dataSource;
+	}
+
+	static HikariDataSource createPool(DataSourceProperties properties, Environment environment, String name) {
+		HikariDataSource pool = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+		Binder.get(environment).bind("spring.datasource.hikari", Bindable.ofInstance(pool));
+		pool.setPoolName(name);
+		return pool;
+	}
+
+	static HikariDataSource createReplicaPool(DataSourceProperties properties, Environment environment,
+	                                          ReplicaProperties replicaProperties, ReplicaProperties.Instance instance,
+	                                          String name) {
+		HikariDataSource pool = new HikariDataSource();
+		// timeouts and auto-commit follow the primary pools
+		Binder.get(environment).bind("spring.datasource.hikari", Bindable.ofInstance(pool));
+		pool.setPoolName(name);
+		pool.setDriverClassName(properties.determineDriverClassName());
+		pool.setJdbcUrl(instance.getUrl());
+		pool.setUsername(instance.getUsername() != null ? instance.getUsername() : properties.determineUsername());
+		pool.setPassword(instance.getPassword() != null ? instance.getPassword() : properties.determinePassword());
+		pool.setMaximumPoolSize(replicaProperties.getMaximumPoolSize());
+		pool.setReadOnly(true);
+		// a replica that is down at startup is just skipped until the health check sees it
+		pool.setInitializationFailTimeout(-1);
+		return pool;
+	}
+}
@@ -0,0 +1,39 @@
+package es.blanca.jpa.datasource;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+@Getter
+@Setter
+@Component
+@ConfigurationProperties(prefix = "datasource.replicas")
+public class ReplicaProperties {
+
+	// no instances means every read goes to the primary
+	private List<Instance> instances = new ArrayList<>();
+
+	// replicas lagging further behind are skipped until they catch up
+	private Duration maxLag = Duration.ofSeconds(5);
+
+	// must return the replication lag in seconds as a single number
+	private String lagQuery = "SELECT CASE WHEN NOT pg_is_in_recovery() "
+			+ "OR pg_last_wal_receive_lsn() = pg_last_wal_replay_lsn() THEN 0 "
+			+ "ELSE EXTRACT(EPOCH FROM now() - pg_last_xact_replay_timestamp()) END";
+
+	private int maximumPoolSize = 10;
+
+	@Getter
+	@Setter
+	public static class Instance {
+		private String url;
+		// username and password default to the primary ones
+		private String username;
+		private String password;
+	}
+}
@@ -0,0 +1,120 @@
+package es.blanca.jpa.datasource;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import javax.sql.DataSource;
+import java.io.Closeable;
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Read-only side of the datasource: spreads connections round-robin over the replicas that
+ * are reachable and within the allowed lag, and falls back to the primary when none is.
+ */
+@Slf4j
+public class ReplicaRoutingDataSource extends AbstractDataSource implements InitializingBean, DisposableBean {
+
+	private final DataSource primary;
+	private final List<Replica> replicas = new ArrayList<>();
+	private final double maxLagSeconds;
+	private final String lagQuery;
+	private final AtomicInteger next = new AtomicInteger();
+
+	public ReplicaRoutingDataSource(DataSource primary, Map<String, DataSource> replicas, Duration maxLag, String lagQuery) {
+		this.primary = primary;
+		replicas.forEach((name, dataSource) -> this.replicas.add(new Replica(name, dataSource)));
+		this.maxLagSeconds = maxLag.toMillis() / 1000.0;
+		this.lagQuery = lagQuery;
+	}
+
+	@Override
+	public Connection getConnection() throws SQLException {
+		return select().getConnection();
+	}
+
+	@Override
+	public Connection getConnection(String username, String password) throws SQLException {
+		return select().getConnection(username, password);
+	}
+
+	public boolean hasReplicas() {
+		return !replicas.isEmpty();
+	}
+
+	public int healthyReplicas() {
+		return (int) replicas.stream().filter(replica -> replica.healthy).count();
+	}
+
+	DataSource select() {
+		int size = replicas.size();
+		if (size == 0) {
+			return primary;
+		}
+		int start = Math.floorMod(next.getAndIncrement(), size);
+		for (int i = 0; i < size; i++) {
+			Replica replica = replicas.get((start + i) % size);
+			if (replica.healthy) {
+				return replica.dataSource;
+			}
+		}
+		return primary;
+	}
+
+	@Override
+	public void afterPropertiesSet() {
+		checkReplicas();
+	}
+
+	@Scheduled(fixedDelayString = "${datasource.replicas.check-interval-ms:5000}")
+	public void checkReplicas() {
+		for (Replica replica : replicas) {
+			try (Connection connection = replica.dataSource.getConnection();
+			     Statement statement = connection.createStatement();
+			     ResultSet resultSet = statement.executeQuery(lagQuery)) {
+				double lag = resultSet.next() ? resultSet.getDouble(1) : Double.MAX_VALUE;
+				boolean healthy = lag <= maxLagSeconds;
+				if (healthy != replica.healthy) {
+					log.info("Replica {} is now {} (lag {}s)", replica.name, healthy ? "in use" : "skipped", lag);
+				}
+				replica.healthy = healthy;
+			} catch (Exception ex) {
+				if (replica.healthy) {
+					log.warn("Replica {} is unreachable, reads fall back to other nodes", replica.name, ex);
+				}
+				replica.healthy = false;
+			}
+		}
+	}
+
+	@Override
+	public void destroy() throws IOException {
+		for (Replica replica : replicas) {
+			if (replica.dataSource instanceof Closeable closeable) {
+				closeable.close();
+			}
+		}
+	}
+
+	private static final class Replica {
+		private final String name;
+		private final DataSource dataSource;
+		private volatile boolean healthy;
+
+		private Replica(String name, DataSource dataSource) {
+			this.name = name;
+			this.dataSource = dataSource;
+		}
+	}
+}
@@ -0,0 +1,36 @@
+package es.blanca.jpa.datasource;
+
+import com.zaxxer.hikari.HikariDataSource;
+import es.blanca.application.workload.Workload;
+import es.blanca.application.workload.WorkloadContext;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Routes each connection request to the pool of the current {@link Workload}, so admin
+ * reports and user traffic never compete for the same connections.
+ */
+public class WorkloadRoutingDataSource extends AbstractRoutingDataSource implements DisposableBean {
+
+	private final Map<Workload, HikariDataSource> pools;
+
+	public WorkloadRoutingDataSource(Map<Workload, HikariDataSource> pools) {
+		this.pools = new EnumMap<>(pools);
+		setTargetDataSources(new HashMap<>(pools));
+		setDefaultTargetDataSource(pools.get(Workload.INTERACTIVE));
+	}
+
+	@Override
+	protected Object determineCurrentLookupKey() {
+		return WorkloadContext.current();
+	}
+
+	@Override
+	public void destroy() {
+		pools.values().forEach(HikariDataSource::close);
+	}
+}
@@ -1,18 +1,21 @@
 package es.blanca.jpa.entity;
 
+import es.blanca.jpa.cache.SecondLevelCacheProperties;
 import jakarta.persistence.*;
 
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
-
-import java.util.List;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 @Getter
 @Setter
 @NoArgsConstructor
 @Entity
 @Table(name="countries")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = SecondLevelCacheProperties.COUNTRIES)
 public class CountryEntity {
 	@Id
 	private String code;
@@ -20,7 +23,4 @@ public class CountryEntity {
 	@Column(nullable = false, unique = true)
 	private String name;
 
-	@OneToMany(mappedBy = "country")
-	private List<UserEntity> users;
-
 }
@@ -16,8 +16,14 @@ import java.util.List;
 @NoArgsConstructor
 @Entity
 @Table(name="orders")
+@NamedEntityGraph(name = OrderEntity.WITH_PRODUCTS,
+		attributeNodes = @NamedAttributeNode(value = "orderProducts", subgraph = "orderProducts"),
+		subgraphs = @NamedSubgraph(name = "orderProducts", attributeNodes = @NamedAttributeNode("product")))
 public class OrderEntity {
 
+	// order lines and their products, everything an Order is mapped with
+	public static final String WITH_PRODUCTS = "Order.withProducts";
+
 	@Id
 	@GeneratedValue(strategy=GenerationType.IDENTITY)
 	private Long id;
@@ -33,6 +39,10 @@ public class OrderEntity {
 	@Column(name="creation_date", updatable = false)
 	private LocalDateTime createdAt;
 
+	@Version
+	@Column(nullable = false)
+	private Long version;
+
 	@OneToMany(mappedBy = "order", cascade = CascadeType.ALL, orphanRemoval = true)
 	private List<OrderProductEntity> orderProducts;
 }
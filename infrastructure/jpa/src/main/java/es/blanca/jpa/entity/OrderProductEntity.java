@@ -5,6 +5,8 @@ import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
 
+import java.time.LocalDateTime;
+
 @Getter
 @Setter
 @NoArgsConstructor
@@ -28,4 +30,8 @@ public class OrderProductEntity  {
 	@Column(nullable = false)
 	private Integer amount;
 
+	// copy of the order's creation date, the partition key of orders_products
+	@Column(name = "order_creation_date", nullable = false, updatable = false)
+	private LocalDateTime orderCreatedAt;
+
 }
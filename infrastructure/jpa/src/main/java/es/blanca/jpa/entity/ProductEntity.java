@@ -1,19 +1,24 @@
 package es.blanca.jpa.entity;
 
+import es.blanca.domain.model.Money;
 import es.blanca.domain.model.ProductStatus;
+import es.blanca.jpa.cache.SecondLevelCacheProperties;
 import jakarta.persistence.*;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 import java.time.LocalDateTime;
-import java.util.List;
 
 @Getter
 @Setter
 @NoArgsConstructor
 @Entity
 @Table(name="products")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = SecondLevelCacheProperties.PRODUCTS)
 public class ProductEntity {
 
 	@Id
@@ -23,16 +28,23 @@ public class ProductEntity {
 	@Column(nullable = false)
 	private String name;
 
-	@Column(nullable = false)
-	private Double price;
+	// minor units, see MoneyConverter
+	@Column(name = "price_minor", nullable = false)
+	private Money price;
 
 	@Enumerated(EnumType.STRING)  // Store the enum name as a String in the database for better readability
 	@Column(nullable = false, name="product_status")
 	private ProductStatus status;
 
+	// only set on insert, afterwards it changes through the conditional updates of ProductStockDao,
+	// so the cached copy is stale and reads that show it take it from the row
+	@Column(updatable = false)
+	private Integer stock;
+
 	@Column(nullable = false, name="creation_date")
 	private LocalDateTime createdAt;
 
-	@OneToMany(mappedBy = "product")
-	private List<OrderProductEntity> orderProducts;
+	@Version
+	@Column(nullable = false)
+	private Long version;
 }
@@ -8,7 +8,6 @@ import lombok.NoArgsConstructor;
 import lombok.Setter;
 
 import java.time.LocalDateTime;
-import java.util.List;
 
 @Getter
 @Setter
@@ -41,11 +40,15 @@ public class UserEntity {
 	@Column(name="is_active")
 	private boolean isActive = true;
 
+	@Column(name="deactivated_at")
+	private LocalDateTime deactivatedAt;
+
+	@Version
+	@Column(nullable = false)
+	private Long version;
+
 	@ManyToOne(fetch=FetchType.LAZY)
 	@JoinColumn(name="country_code")
 	private CountryEntity country;
 
-	@OneToMany(mappedBy = "user", cascade = CascadeType.ALL, orphanRemoval = true)
-	private List<OrderEntity> orders;
-
 }
@@ -0,0 +1,29 @@
+package es.blanca.jpa.fetch;
+
+import org.aopalliance.intercept.MethodInterceptor;
+
+/**
+ * Tracks whether the current thread is inside a Spring Data repository call, the only
+ * place where strict fetch mode lets Hibernate load lazy associations.
+ */
+final class RepositoryCallScope {
+
+	private static final ThreadLocal<int[]> DEPTH = ThreadLocal.withInitial(() -> new int[1]);
+
+	static final MethodInterceptor INTERCEPTOR = invocation -> {
+		int[] depth = DEPTH.get();
+		depth[0]++;
+		try {
+			return invocation.proceed();
+		} finally {
+			depth[0]--;
+		}
+	};
+
+	private RepositoryCallScope() {
+	}
+
+	static boolean isActive() {
+		return DEPTH.get()[0] > 0;
+	}
+}
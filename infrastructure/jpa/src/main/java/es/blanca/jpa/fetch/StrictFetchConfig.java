@@ -0,0 +1,45 @@
+package es.blanca.jpa.fetch;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventType;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.repository.core.support.RepositoryFactoryBeanSupport;
+
+/**
+ * Test mode (jpa.strict-fetch.enabled=true) that turns every lazy load outside a
+ * repository call into an exception, so fetch contracts that miss an association
+ * fail fast instead of silently issuing extra queries.
+ */
+@Configuration
+@ConditionalOnProperty(name = "jpa.strict-fetch.enabled", havingValue = "true")
+public class StrictFetchConfig {
+
+	@Bean
+	static BeanPostProcessor repositoryCallScopePostProcessor() {
+		return new BeanPostProcessor() {
+			@Override
+			public Object postProcessBeforeInitialization(Object bean, String beanName) {
+				if (bean instanceof RepositoryFactoryBeanSupport<?, ?, ?> factoryBean) {
+					factoryBean.addRepositoryFactoryCustomizer(factory -> factory.addRepositoryProxyPostProcessor(
+							(proxyFactory, repositoryInformation) -> proxyFactory.addAdvice(RepositoryCallScope.INTERCEPTOR)));
+				}
+				return bean;
+			}
+		};
+	}
+
+	@Bean
+	public StrictFetchListener strictFetchListener(EntityManagerFactory entityManagerFactory) {
+		StrictFetchListener listener = new StrictFetchListener();
+		EventListenerRegistry registry = entityManagerFactory.unwrap(SessionFactoryImplementor.class)
+				.getServiceRegistry().getService(EventListenerRegistry.class);
+		registry.prependListeners(EventType.INIT_COLLECTION, listener);
+		registry.prependListeners(EventType.LOAD, listener);
+		return listener;
+	}
+}
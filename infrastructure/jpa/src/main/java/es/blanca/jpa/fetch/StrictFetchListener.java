@@ -0,0 +1,31 @@
+package es.blanca.jpa.fetch;
+
+import org.hibernate.LazyInitializationException;
+import org.hibernate.event.spi.InitializeCollectionEvent;
+import org.hibernate.event.spi.InitializeCollectionEventListener;
+import org.hibernate.event.spi.LoadEvent;
+import org.hibernate.event.spi.LoadEventListener;
+
+/**
+ * Fails any lazy collection or proxy initialization that happens outside a repository
+ * call, i.e. anything the use case's fetch contract did not load up front.
+ */
+public class StrictFetchListener implements InitializeCollectionEventListener, LoadEventListener {
+
+	@Override
+	public void onInitializeCollection(InitializeCollectionEvent event) {
+		if (!RepositoryCallScope.isActive()) {
+			throw new LazyInitializationException("Lazy load of collection " + event.getCollection().getRole()
+					+ " outside a repository call, add it to the fetch contract");
+		}
+	}
+
+	@Override
+	public void onLoad(LoadEvent event, LoadType loadType) {
+		// IMMEDIATE_LOAD is how Hibernate initializes an uninitialized proxy
+		if (loadType == LoadEventListener.IMMEDIATE_LOAD && !RepositoryCallScope.isActive()) {
+			throw new LazyInitializationException("Lazy load of " + event.getEntityClassName() + "#"
+					+ event.getEntityId() + " outside a repository call, add it to the fetch contract");
+		}
+	}
+}
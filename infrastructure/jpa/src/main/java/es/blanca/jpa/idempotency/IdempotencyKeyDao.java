@@ -0,0 +1,69 @@
+package es.blanca.jpa.idempotency;
+
+import es.blanca.domain.model.IdempotencyRecord;
+import es.blanca.domain.model.IdempotentResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Component;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+// the idempotency_keys table; a duplicate key on insert is how a taken key shows up.
+// A claim is the row's request_hash and in-flight expires_at: completing or releasing it
+// only matches while the key has not expired and been claimed again in between.
+@Component
+@RequiredArgsConstructor
+public class IdempotencyKeyDao {
+
+	private static final String INSERT = "INSERT INTO idempotency_keys (idempotency_key, request_hash, expires_at) VALUES (?, ?, ?)";
+	private static final String FIND = "SELECT idempotency_key, request_hash, status_code, location, response_body, expires_at "
+			+ "FROM idempotency_keys WHERE idempotency_key = ? AND expires_at >= ?";
+	private static final String CLAIMED = " AND request_hash = ? AND expires_at = ? AND status_code IS NULL";
+	private static final String COMPLETE = "UPDATE idempotency_keys SET status_code = ?, location = ?, response_body = ?, "
+			+ "expires_at = ? WHERE idempotency_key = ?" + CLAIMED;
+	private static final String DELETE = "DELETE FROM idempotency_keys WHERE idempotency_key = ?";
+	private static final String DELETE_CLAIM = DELETE + CLAIMED;
+	private static final String DELETE_IF_EXPIRED = DELETE + " AND expires_at < ?";
+	private static final String DELETE_EXPIRED = "DELETE FROM idempotency_keys WHERE expires_at < ?";
+
+	private final JdbcTemplate jdbcTemplate;
+	private final RowMapper<IdempotencyRecord> recordRowMapper = (resultSet, rowNum) -> {
+		int statusCode = resultSet.getInt("status_code");
+		IdempotentResponse response = resultSet.wasNull() ? null
+				: new IdempotentResponse(statusCode, resultSet.getString("location"), resultSet.getString("response_body"), false);
+		return new IdempotencyRecord(resultSet.getString("idempotency_key"), resultSet.getString("request_hash"), response,
+				resultSet.getTimestamp("expires_at").toLocalDateTime());
+	};
+
+	public void insert(IdempotencyRecord record) {
+		jdbcTemplate.update(INSERT, record.getKey(), record.getRequestHash(), Timestamp.valueOf(record.getExpiresAt()));
+	}
+
+	public Optional<IdempotencyRecord> find(String key, LocalDateTime now) {
+		List<IdempotencyRecord> records = jdbcTemplate.query(FIND, recordRowMapper, key, Timestamp.valueOf(now));
+		return records.stream().findFirst();
+	}
+
+	public boolean complete(IdempotencyRecord claim, IdempotencyRecord record) {
+		IdempotentResponse response = record.getResponse();
+		return jdbcTemplate.update(COMPLETE, response.getStatusCode(), response.getLocation(), response.getBody(),
+				Timestamp.valueOf(record.getExpiresAt()), claim.getKey(), claim.getRequestHash(),
+				Timestamp.valueOf(claim.getExpiresAt())) == 1;
+	}
+
+	public void delete(IdempotencyRecord claim) {
+		jdbcTemplate.update(DELETE_CLAIM, claim.getKey(), claim.getRequestHash(), Timestamp.valueOf(claim.getExpiresAt()));
+	}
+
+	public boolean deleteIfExpired(String key, LocalDateTime now) {
+		return jdbcTemplate.update(DELETE_IF_EXPIRED, key, Timestamp.valueOf(now)) == 1;
+	}
+
+	public int deleteExpired(LocalDateTime now) {
+		return jdbcTemplate.update(DELETE_EXPIRED, Timestamp.valueOf(now));
+	}
+}
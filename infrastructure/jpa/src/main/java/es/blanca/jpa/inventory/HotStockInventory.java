@@ -0,0 +1,197 @@
+package es.blanca.jpa.inventory;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Reservations for the configured hot products, served from a {@link StripedStockCounter}.
+ * <p>
+ * When a counter runs dry it leases a batch of units from the products row in its own
+ * transaction, so the row is written once per batch instead of once per order line.
+ * Releases go back into the counter once their transaction commits, and units a counter
+ * has not used for a while are written back to the row by {@link #writeBehind()}. The row
+ * therefore always holds the units nobody has leased, which keeps several instances from
+ * selling the same units.
+ * <p>
+ * A reservation taken from a counter is put back if the order's transaction rolls back,
+ * and so are the units a stock change drained. Leases and write-backs run under the
+ * counter's {@link java.util.concurrent.locks.ReentrantLock}, not a monitor, so a virtual
+ * thread waiting on their JDBC calls does not pin its carrier.
+ * <p>
+ * Leased units only live in this instance's memory until {@link #writeBehind()} or a
+ * clean shutdown ({@link #destroy()}) puts them back. If the process crashes or is
+ * killed, the units it still held are lost: the row no longer counts them and nothing
+ * will sell them again. Each hot product loses at most a lease-size (or a single larger
+ * reservation) per instance this way, until an administrator sets its stock again.
+ */
+@Slf4j
+@Component
+public class HotStockInventory implements DisposableBean {
+
+	private final ProductStockDao productStockDao;
+	private final InventoryProperties.HotProducts properties;
+	private final TransactionTemplate newTransaction;
+	private final Map<Long, StripedStockCounter> counters = new ConcurrentHashMap<>();
+	private final Set<Long> untracked = ConcurrentHashMap.newKeySet();
+
+	public HotStockInventory(ProductStockDao productStockDao, InventoryProperties inventoryProperties,
+	                         PlatformTransactionManager transactionManager) {
+		this.productStockDao = productStockDao;
+		this.properties = inventoryProperties.getHotProducts();
+		this.newTransaction = new TransactionTemplate(transactionManager);
+		this.newTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+	}
+
+	public boolean handles(Long productId) {
+		return properties.isEnabled() && properties.getIds().contains(productId);
+	}
+
+	public boolean reserve(Long productId, int amount) {
+		if (untracked.contains(productId)) {
+			return true;
+		}
+		StripedStockCounter counter = counter(productId);
+		if (counter.tryTake(amount) || reserveSlow(productId, counter, amount)) {
+			putBackOnRollback(counter, amount);
+			return true;
+		}
+		// the lease may have found out the product is not tracked
+		return untracked.contains(productId);
+	}
+
+	public void release(Long productId, int amount) {
+		if (!untracked.contains(productId)) {
+			// a release that rolls back never gave the units back
+			StripedStockCounter counter = counter(productId);
+			afterCommit(() -> counter.add(amount));
+		}
+	}
+
+	public void setStock(Long productId, Integer stock) {
+		StripedStockCounter counter = counter(productId);
+		counter.lock().lock();
+		try {
+			// the new stock replaces whatever this instance had leased, unless it rolls back
+			long drained = counter.drain();
+			putBackOnRollback(counter, drained);
+			productStockDao.set(productId, stock);
+			afterCommit(() -> {
+				if (stock == null) {
+					untracked.add(productId);
+				} else {
+					untracked.remove(productId);
+				}
+			});
+		} finally {
+			counter.lock().unlock();
+		}
+	}
+
+	// gives idle counters' units back to the products row
+	@Scheduled(fixedDelayString = "${inventory.hot-products.write-behind-interval-ms:5000}")
+	public void writeBehind() {
+		long idleSince = System.nanoTime() - properties.getIdleTimeout().toNanos();
+		counters.forEach((productId, counter) -> {
+			if (counter.lastUsedNanos() - idleSince < 0) {
+				writeBack(productId, counter);
+			}
+		});
+	}
+
+	@Override
+	public void destroy() {
+		counters.forEach(this::writeBack);
+	}
+
+	/**
+	 * Only one thread per product gets here at a time. It pools what the stripes still
+	 * hold (a large amount may not fit in any single stripe) and leases more if needed.
+	 */
+	private boolean reserveSlow(Long productId, StripedStockCounter counter, int amount) {
+		counter.lock().lock();
+		try {
+			if (counter.tryTake(amount)) {
+				return true;
+			}
+			long held = counter.drain();
+			if (held < amount) {
+				long wanted = Math.max(properties.getLeaseSize(), amount - held);
+				long leased = newTransaction.execute(status -> productStockDao.takeUpTo(productId, wanted));
+				if (leased == ProductStockDao.UNTRACKED) {
+					untracked.add(productId);
+					counter.add(held);
+					return false;
+				}
+				held += leased;
+			}
+			if (held < amount) {
+				counter.add(held);
+				return false;
+			}
+			counter.add(held - amount);
+			return true;
+		} finally {
+			counter.lock().unlock();
+		}
+	}
+
+	private void writeBack(Long productId, StripedStockCounter counter) {
+		counter.lock().lock();
+		try {
+			long units = counter.drain();
+			if (units == 0) {
+				return;
+			}
+			try {
+				newTransaction.executeWithoutResult(status -> productStockDao.put(productId, units));
+			} catch (RuntimeException e) {
+				log.warn("Could not write back {} units of product {}, keeping them", units, productId, e);
+				counter.add(units);
+			}
+		} finally {
+			counter.lock().unlock();
+		}
+	}
+
+	private StripedStockCounter counter(Long productId) {
+		return counters.computeIfAbsent(productId, id -> new StripedStockCounter(properties.getStripes()));
+	}
+
+	private static void putBackOnRollback(StripedStockCounter counter, long amount) {
+		if (amount == 0 || !TransactionSynchronizationManager.isSynchronizationActive()) {
+			return;
+		}
+		TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+			@Override
+			public void afterCompletion(int status) {
+				if (status == STATUS_ROLLED_BACK) {
+					counter.add(amount);
+				}
+			}
+		});
+	}
+
+	private static void afterCommit(Runnable action) {
+		if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+			action.run();
+			return;
+		}
+		TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+			@Override
+			public void afterCommit() {
+				action.run();
+			}
+		});
+	}
+}
@@ -0,0 +1,38 @@
+package es.blanca.jpa.inventory;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.HashSet;
+import java.util.Set;
+
+@Getter
+@Setter
+@Component
+@ConfigurationProperties(prefix = "inventory")
+public class InventoryProperties {
+
+	private HotProducts hotProducts = new HotProducts();
+
+	/**
+	 * Products whose reservations are served from an in-memory counter instead of one
+	 * conditional update per order line. The units a counter holds are not persisted: an
+	 * instance that crashes loses up to a lease of each hot product (see HotStockInventory).
+	 */
+	@Getter
+	@Setter
+	public static class HotProducts {
+		private boolean enabled = false;
+		private Set<Long> ids = new HashSet<>();
+		private int stripes = Runtime.getRuntime().availableProcessors();
+		// units taken from the products row each time the counter runs dry, and the most
+		// an instance loses per product if it dies without writing them back
+		private int leaseSize = 50;
+		// units still held by a counter this long after its last reservation go back to the row,
+		// a shorter timeout leaves less to lose in a crash
+		private Duration idleTimeout = Duration.ofSeconds(30);
+	}
+}
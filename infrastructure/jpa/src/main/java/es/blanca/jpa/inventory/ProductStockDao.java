@@ -0,0 +1,108 @@
+package es.blanca.jpa.inventory;
+
+import es.blanca.domain.exceptions.EntityNotFoundException;
+import es.blanca.jpa.entity.ProductEntity;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+
+import static es.blanca.application.config.ApplicationConstants.PRODUCT_NOT_FOUND_BY_ID;
+
+/**
+ * Stock updates on the products row. Each one is a single conditional statement, so
+ * concurrent orders never read-modify-write the stock and never oversell it; the row
+ * lock is only held for the rest of the calling transaction.
+ * <p>
+ * Plain JDBC rather than a JPQL bulk update, which would drop the whole products region
+ * of the second-level cache on every order. The stock of a cached product therefore lags
+ * behind reservations, so reads that show it take it from the row instead (see
+ * ProductRepositoryAdapter#findById).
+ */
+@Component
+@RequiredArgsConstructor
+public class ProductStockDao {
+
+	// a NULL stock is not tracked: it stays NULL and the update always matches
+	private static final String TAKE = "UPDATE products SET stock = stock - ? WHERE id = ? AND (stock IS NULL OR stock >= ?)";
+	private static final String TAKE_TRACKED = "UPDATE products SET stock = stock - ? WHERE id = ? AND stock >= ?";
+	private static final String PUT = "UPDATE products SET stock = stock + ? WHERE id = ?";
+	private static final String SET = "UPDATE products SET stock = ? WHERE id = ?";
+	private static final String STOCK = "SELECT stock FROM products WHERE id = ?";
+
+	// returned by takeUpTo for products without stock tracking
+	public static final long UNTRACKED = -1;
+
+	private final JdbcTemplate jdbcTemplate;
+	private final EntityManagerFactory entityManagerFactory;
+
+	public boolean take(Long productId, int amount) {
+		if (jdbcTemplate.update(TAKE, amount, productId, amount) == 1) {
+			return true;
+		}
+		requireExists(productId);
+		return false;
+	}
+
+	public void put(Long productId, long amount) {
+		if (jdbcTemplate.update(PUT, amount, productId) == 0) {
+			requireExists(productId);
+		}
+	}
+
+	public void set(Long productId, Integer stock) {
+		if (jdbcTemplate.update(SET, stock, productId) == 0) {
+			throw new EntityNotFoundException(String.format(PRODUCT_NOT_FOUND_BY_ID, productId));
+		}
+		// an explicit stock change should show up in the cache too, evicted earlier a
+		// concurrent read could cache the old stock again before the new one is committed
+		evictAfterCommit(productId);
+	}
+
+	/**
+	 * Takes as many units as are left, up to max. Returns the units taken, or
+	 * {@link #UNTRACKED} when the product has no stock to take from.
+	 */
+	public long takeUpTo(Long productId, long max) {
+		while (true) {
+			List<Integer> stock = jdbcTemplate.queryForList(STOCK, Integer.class, productId);
+			if (stock.isEmpty()) {
+				throw new EntityNotFoundException(String.format(PRODUCT_NOT_FOUND_BY_ID, productId));
+			}
+			if (stock.get(0) == null) {
+				return UNTRACKED;
+			}
+			long amount = Math.min(max, stock.get(0));
+			if (amount == 0) {
+				return 0;
+			}
+			// retried if another writer got in between the read and the update
+			if (jdbcTemplate.update(TAKE_TRACKED, amount, productId, amount) == 1) {
+				return amount;
+			}
+		}
+	}
+
+	private void evictAfterCommit(Long productId) {
+		if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+			entityManagerFactory.getCache().evict(ProductEntity.class, productId);
+			return;
+		}
+		TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+			@Override
+			public void afterCommit() {
+				entityManagerFactory.getCache().evict(ProductEntity.class, productId);
+			}
+		});
+	}
+
+	private void requireExists(Long productId) {
+		if (jdbcTemplate.queryForList(STOCK, Integer.class, productId).isEmpty()) {
+			throw new EntityNotFoundException(String.format(PRODUCT_NOT_FOUND_BY_ID, productId));
+		}
+	}
+}
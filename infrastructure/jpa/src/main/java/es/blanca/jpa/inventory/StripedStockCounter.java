@@ -0,0 +1,81 @@
+package es.blanca.jpa.inventory;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Units of one product held in memory, spread over several stripes so concurrent
+ * reservations mostly CAS different cache lines instead of all contending on one value.
+ * A thread starts at its own stripe and moves on to the next ones when it is short.
+ */
+class StripedStockCounter {
+
+	// longs per stripe, keeps each stripe on its own 128-byte line
+	private static final int PADDING = 16;
+
+	private final int stripes;
+	private final AtomicLongArray cells;
+	// serializes the leases, write-backs and stock changes of the product
+	private final ReentrantLock lock = new ReentrantLock();
+	private volatile long lastUsedNanos = System.nanoTime();
+
+	StripedStockCounter(int stripes) {
+		this.stripes = Math.max(1, stripes);
+		this.cells = new AtomicLongArray(this.stripes * PADDING);
+	}
+
+	boolean tryTake(int amount) {
+		lastUsedNanos = System.nanoTime();
+		int start = home();
+		for (int i = 0; i < stripes; i++) {
+			int cell = ((start + i) % stripes) * PADDING;
+			long units;
+			while ((units = cells.get(cell)) >= amount) {
+				if (cells.compareAndSet(cell, units, units - amount)) {
+					return true;
+				}
+			}
+		}
+		return false;
+	}
+
+	// spreads the units evenly, the remainder goes to the caller's stripe
+	void add(long amount) {
+		long share = amount / stripes;
+		if (share > 0) {
+			for (int i = 0; i < stripes; i++) {
+				cells.addAndGet(i * PADDING, share);
+			}
+		}
+		cells.addAndGet(home() * PADDING, amount - share * stripes);
+	}
+
+	// takes every unit out of the counter
+	long drain() {
+		long total = 0;
+		for (int i = 0; i < stripes; i++) {
+			total += cells.getAndSet(i * PADDING, 0);
+		}
+		return total;
+	}
+
+	long available() {
+		long total = 0;
+		for (int i = 0; i < stripes; i++) {
+			total += cells.get(i * PADDING);
+		}
+		return total;
+	}
+
+	ReentrantLock lock() {
+		return lock;
+	}
+
+	long lastUsedNanos() {
+		return lastUsedNanos;
+	}
+
+	private int home() {
+		return (int) (Thread.currentThread().getId() % stripes);
+	}
+}
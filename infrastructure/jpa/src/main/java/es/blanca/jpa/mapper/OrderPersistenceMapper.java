@@ -20,27 +20,77 @@
 package es.blanca.jpa.mapper;
 
 import es.blanca.domain.model.Order;
+import es.blanca.domain.model.OrderProduct;
+import es.blanca.domain.model.User;
 import es.blanca.jpa.entity.OrderEntity;
+import es.blanca.jpa.entity.OrderProductEntity;
+import es.blanca.jpa.entity.OrderProductId;
+import es.blanca.jpa.entity.UserEntity;
+import org.mapstruct.AfterMapping;
 import org.mapstruct.Mapper;
-import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.context.annotation.Lazy;
+import org.mapstruct.Mapping;
+import org.mapstruct.MappingTarget;
+import org.mapstruct.Named;
 
 import java.util.List;
 
-@Mapper(componentModel = "spring")
+/**
+ * Maps an order with its lines and products (the {@link OrderEntity#WITH_PRODUCTS} graph).
+ * The user is only carried by id and the line's back reference to its order is left out,
+ * so mapping never walks into associations the query did not fetch.
+ */
+@Mapper(componentModel = "spring", uses = ProductPersistenceMapper.class)
 public abstract class OrderPersistenceMapper {
 
-	@Autowired
-	@Lazy
-	protected UserPersistenceMapper userPersistenceMapper;
-
-	@Autowired
-	@Lazy
-	protected OrderProductPersistenceMapper orderProductPersistenceMapper;
-
+	@Mapping(target = "user", qualifiedByName = "userReference")
+	@Mapping(target = "total", ignore = true)
 	public abstract Order toDomain(OrderEntity orderEntity);
 
+	@Mapping(target = "user", qualifiedByName = "userEntityReference")
 	public abstract OrderEntity toEntity(Order order);
 
 	public abstract List<Order> toDomainList(List<OrderEntity> orderEntities);
-}
\ No newline at end of file
+
+	@Mapping(target = "order", ignore = true)
+	protected abstract OrderProduct toDomain(OrderProductEntity orderProductEntity);
+
+	@Mapping(target = "id", ignore = true)
+	@Mapping(target = "order", ignore = true)
+	@Mapping(target = "orderCreatedAt", ignore = true)
+	protected abstract OrderProductEntity toEntity(OrderProduct orderProduct);
+
+	@AfterMapping
+	protected void linkOrderProducts(@MappingTarget OrderEntity orderEntity) {
+		if (orderEntity.getOrderProducts() == null) {
+			return;
+		}
+		for (OrderProductEntity orderProduct : orderEntity.getOrderProducts()) {
+			OrderProductId id = new OrderProductId();
+			id.setOrderId(orderEntity.getId());
+			id.setProductId(orderProduct.getProduct().getId());
+			orderProduct.setId(id);
+			orderProduct.setOrder(orderEntity);
+			orderProduct.setOrderCreatedAt(orderEntity.getCreatedAt());
+		}
+	}
+
+	@Named("userReference")
+	protected User userReference(UserEntity userEntity) {
+		if (userEntity == null) {
+			return null;
+		}
+		User user = new User();
+		user.setId(userEntity.getId());
+		return user;
+	}
+
+	@Named("userEntityReference")
+	protected UserEntity userEntityReference(User user) {
+		if (user == null) {
+			return null;
+		}
+		UserEntity userEntity = new UserEntity();
+		userEntity.setId(user.getId());
+		return userEntity;
+	}
+}
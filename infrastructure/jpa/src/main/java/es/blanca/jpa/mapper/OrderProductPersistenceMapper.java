@@ -82,6 +82,7 @@ public abstract class OrderProductPersistenceMapper {
 		orderProductEntity.setOrder(orderPersistenceMapper.toEntity(orderProduct.getOrder()));
 		orderProductEntity.setProduct(productPersistenceMapper.toEntity(orderProduct.getProduct()));
 		orderProductEntity.setAmount(orderProduct.getAmount());
+		orderProductEntity.setOrderCreatedAt(orderProduct.getOrder().getCreatedAt());
 
 		return orderProductEntity;
 	}
@@ -4,8 +4,6 @@ import es.blanca.domain.model.User;
 import es.blanca.jpa.entity.UserEntity;
 import org.mapstruct.Mapper;
 import org.mapstruct.Mapping;
-import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.context.annotation.Lazy;
 
 //@Mapper(componentModel = "spring", uses = {CountryPersistenceMapper.class, OrderPersistenceMapper.class})
 //public interface UserPersistenceMapper {
@@ -15,16 +13,14 @@ import org.springframework.context.annotation.Lazy;
 //	UserEntity toEntity(User domain);
 //}
 
+// orders are attached by UserRepositoryAdapter from their own query
 @Mapper(componentModel = "spring", uses={CountryPersistenceMapper.class})
 public abstract  class UserPersistenceMapper{
-	@Autowired
-	@Lazy
-	protected OrderPersistenceMapper orderPersistenceMapper;
 
-	@Mapping(target = "orders", expression = "java(orderPersistenceMapper.toDomainList(user.getOrders()))")
+	@Mapping(target = "orders", ignore = true)
 	public abstract User toDomain(UserEntity user);
 
-	@Mapping(target = "orders", ignore = true)
+	@Mapping(target = "deactivatedAt", ignore = true)
 	public abstract UserEntity toEntity(User domain);
 
 }
@@ -0,0 +1,82 @@
+package es.blanca.jpa.outbox;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+/**
+ * Appends each event as one JSON line to outbox.file.path. A batch is written with a
+ * single write and forced to disk before the relay deletes it from the table.
+ */
+@Component
+@ConditionalOnProperty(prefix = "outbox", name = "sink", havingValue = "file", matchIfMissing = true)
+public class FileOutboxSink implements OutboxSink, DisposableBean {
+
+	private final Path path;
+	private final JsonFactory jsonFactory = new JsonFactory();
+	private FileChannel channel;
+
+	public FileOutboxSink(OutboxProperties properties) {
+		this.path = Path.of(properties.getFile().getPath());
+	}
+
+	@Override
+	public synchronized void publish(List<OutboxEvent> events) {
+		try {
+			ByteArrayOutputStream lines = new ByteArrayOutputStream(events.size() * 256);
+			for (OutboxEvent event : events) {
+				try (JsonGenerator generator = jsonFactory.createGenerator(lines)) {
+					generator.writeStartObject();
+					generator.writeNumberField("id", event.id());
+					generator.writeStringField("aggregateType", event.aggregateType());
+					generator.writeNumberField("aggregateId", event.aggregateId());
+					generator.writeStringField("type", event.type());
+					generator.writeStringField("createdAt", event.createdAt().toString());
+					generator.writeFieldName("payload");
+					generator.writeRawValue(event.payload());
+					generator.writeEndObject();
+				}
+				lines.write('\n');
+			}
+			ByteBuffer buffer = ByteBuffer.wrap(lines.toByteArray());
+			FileChannel file = channel();
+			while (buffer.hasRemaining()) {
+				file.write(buffer);
+			}
+			file.force(false);
+		} catch (IOException e) {
+			throw new UncheckedIOException("Could not append the outbox events to " + path, e);
+		}
+	}
+
+	// opened on the first batch, so nodes that never relay do not create the file
+	private FileChannel channel() throws IOException {
+		if (channel == null) {
+			Path parent = path.toAbsolutePath().getParent();
+			if (parent != null) {
+				Files.createDirectories(parent);
+			}
+			channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+		}
+		return channel;
+	}
+
+	@Override
+	public synchronized void destroy() throws IOException {
+		if (channel != null) {
+			channel.close();
+		}
+	}
+}
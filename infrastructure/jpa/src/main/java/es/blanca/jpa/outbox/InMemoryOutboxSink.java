@@ -0,0 +1,40 @@
+package es.blanca.jpa.outbox;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+
+// keeps the last outbox.memory.capacity events, for tests and local runs
+@Component
+@ConditionalOnProperty(prefix = "outbox", name = "sink", havingValue = "memory")
+public class InMemoryOutboxSink implements OutboxSink {
+
+	private final int capacity;
+	private final Deque<OutboxEvent> events = new ArrayDeque<>();
+
+	public InMemoryOutboxSink(OutboxProperties properties) {
+		this.capacity = properties.getMemory().getCapacity();
+	}
+
+	@Override
+	public synchronized void publish(List<OutboxEvent> batch) {
+		for (OutboxEvent event : batch) {
+			if (events.size() == capacity) {
+				events.removeFirst();
+			}
+			events.addLast(event);
+		}
+	}
+
+	public synchronized List<OutboxEvent> events() {
+		return new ArrayList<>(events);
+	}
+
+	public synchronized void clear() {
+		events.clear();
+	}
+}
@@ -0,0 +1,80 @@
+package es.blanca.jpa.outbox;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import es.blanca.domain.model.ChangeEvent;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The outbox table. Writers only ever insert, the relay claims the oldest rows with
+ * SKIP LOCKED so relays on several nodes each take a different batch instead of
+ * waiting on each other, and deletes them once they are published.
+ */
+@Component
+public class OutboxDao {
+
+	private static final String INSERT = "INSERT INTO outbox (aggregate_type, aggregate_id, event_type, payload, created_at) "
+			+ "VALUES (:aggregateType, :aggregateId, :type, :payload, :createdAt)";
+	private static final String CLAIM = "SELECT id, aggregate_type, aggregate_id, event_type, payload, created_at FROM outbox "
+			+ "ORDER BY id LIMIT :limit FOR UPDATE SKIP LOCKED";
+	private static final String DELETE = "DELETE FROM outbox WHERE id IN (:ids)";
+	private static final String BACKLOG = "SELECT COUNT(*) AS pending, MIN(created_at) AS oldest FROM outbox";
+
+	private final NamedParameterJdbcTemplate jdbcTemplate;
+	private final ObjectWriter payloadWriter;
+	private final RowMapper<OutboxEvent> eventRowMapper = (resultSet, rowNum) -> new OutboxEvent(
+			resultSet.getLong("id"), resultSet.getString("aggregate_type"), resultSet.getLong("aggregate_id"),
+			resultSet.getString("event_type"), resultSet.getString("payload"),
+			resultSet.getTimestamp("created_at").toLocalDateTime());
+
+	public OutboxDao(NamedParameterJdbcTemplate jdbcTemplate) {
+		this.jdbcTemplate = jdbcTemplate;
+		this.payloadWriter = new ObjectMapper().writerFor(new TypeReference<Map<String, Object>>() {
+		});
+	}
+
+	public void insert(ChangeEvent event) {
+		String payload;
+		try {
+			payload = payloadWriter.writeValueAsString(event.getPayload());
+		} catch (JsonProcessingException e) {
+			throw new IllegalStateException("Could not serialize the payload of " + event.getType(), e);
+		}
+		jdbcTemplate.update(INSERT, new MapSqlParameterSource()
+				.addValue("aggregateType", event.getType().getAggregateType())
+				.addValue("aggregateId", event.getAggregateId())
+				.addValue("type", event.getType().name())
+				.addValue("payload", payload)
+				.addValue("createdAt", Timestamp.valueOf(event.getCreatedAt())));
+	}
+
+	// must run in a transaction, the rows stay locked until it ends
+	public List<OutboxEvent> claim(int limit) {
+		return jdbcTemplate.query(CLAIM, new MapSqlParameterSource("limit", limit), eventRowMapper);
+	}
+
+	public int delete(List<Long> ids) {
+		return jdbcTemplate.update(DELETE, new MapSqlParameterSource("ids", ids));
+	}
+
+	public Backlog backlog() {
+		return jdbcTemplate.queryForObject(BACKLOG, Map.of(), (resultSet, rowNum) -> {
+			Timestamp oldest = resultSet.getTimestamp("oldest");
+			return new Backlog(resultSet.getLong("pending"), oldest != null ? oldest.toLocalDateTime() : null);
+		});
+	}
+
+	// oldest is null when nothing is pending
+	public record Backlog(long pending, LocalDateTime oldest) {
+	}
+}
@@ -0,0 +1,8 @@
+package es.blanca.jpa.outbox;
+
+import java.time.LocalDateTime;
+
+// an outbox row as the sinks get it, the payload is the JSON stored by the writer
+public record OutboxEvent(long id, String aggregateType, long aggregateId, String type, String payload,
+                          LocalDateTime createdAt) {
+}
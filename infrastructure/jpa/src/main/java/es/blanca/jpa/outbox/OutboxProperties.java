@@ -0,0 +1,41 @@
+package es.blanca.jpa.outbox;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Getter
+@Setter
+@Component
+@ConfigurationProperties(prefix = "outbox")
+public class OutboxProperties {
+
+	// file or memory
+	private String sink = "file";
+	private Relay relay = new Relay();
+	private File file = new File();
+	private Memory memory = new Memory();
+
+	@Getter
+	@Setter
+	public static class Relay {
+		private boolean enabled = false;
+		// events claimed, published and deleted per transaction
+		private int batchSize = 500;
+	}
+
+	@Getter
+	@Setter
+	public static class File {
+		// one JSON object per line, appended
+		private String path = "logs/outbox-events.jsonl";
+	}
+
+	@Getter
+	@Setter
+	public static class Memory {
+		// the oldest events are dropped past this many
+		private int capacity = 10000;
+	}
+}
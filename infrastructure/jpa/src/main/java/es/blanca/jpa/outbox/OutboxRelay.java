@@ -0,0 +1,142 @@
+package es.blanca.jpa.outbox;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.FunctionTimer;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.TimeGauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Drains the outbox into the configured {@link OutboxSink}. Each batch is claimed,
+ * published and deleted in one transaction, so an event is gone from the table only
+ * once its sink has it; a failed publish leaves the batch for the next run. Delivery
+ * is therefore at least once, and events of one aggregate can reach the sink out of
+ * order when several nodes relay, consumers go by the version in the payload.
+ * <p>
+ * The pending count and the age of the oldest pending event are read after every run.
+ * The lag gauge keeps growing from that age while the relay is stuck.
+ */
+@Slf4j
+@Component
+public class OutboxRelay implements MeterBinder {
+
+	private final OutboxDao outboxDao;
+	private final OutboxSink sink;
+	private final OutboxProperties.Relay properties;
+	private final TransactionTemplate transaction;
+
+	private final LongAdder published = new LongAdder();
+	private final LongAdder batches = new LongAdder();
+	private final LongAdder publishNanos = new LongAdder();
+	private final LongAdder failures = new LongAdder();
+	private final AtomicLong pending = new AtomicLong();
+	// epoch millis of the oldest pending event, 0 when there is none
+	private final AtomicLong oldestPending = new AtomicLong();
+
+	public OutboxRelay(OutboxDao outboxDao, OutboxSink sink, OutboxProperties outboxProperties,
+	                   PlatformTransactionManager transactionManager) {
+		this.outboxDao = outboxDao;
+		this.sink = sink;
+		this.properties = outboxProperties.getRelay();
+		this.transaction = new TransactionTemplate(transactionManager);
+	}
+
+	@Scheduled(fixedDelayString = "${outbox.relay.interval-ms:1000}")
+	public void relayScheduled() {
+		if (properties.isEnabled()) {
+			relay();
+		}
+	}
+
+	/**
+	 * Publishes batches until the outbox is empty or a batch fails, and returns the
+	 * number of events published.
+	 */
+	public int relay() {
+		int relayed = 0;
+		try {
+			while (true) {
+				Integer count = transaction.execute(status -> relayBatch());
+				if (count == null || count == 0) {
+					break;
+				}
+				relayed += count;
+				if (count < properties.getBatchSize()) {
+					break;
+				}
+			}
+		} catch (RuntimeException e) {
+			failures.increment();
+			log.warn("Outbox batch could not be published, retrying on the next run", e);
+		}
+		refreshBacklog();
+		return relayed;
+	}
+
+	private int relayBatch() {
+		List<OutboxEvent> events = outboxDao.claim(properties.getBatchSize());
+		if (events.isEmpty()) {
+			return 0;
+		}
+		long start = System.nanoTime();
+		sink.publish(events);
+		publishNanos.add(System.nanoTime() - start);
+		outboxDao.delete(events.stream().map(OutboxEvent::id).toList());
+		batches.increment();
+		published.add(events.size());
+		return events.size();
+	}
+
+	private void refreshBacklog() {
+		try {
+			OutboxDao.Backlog backlog = outboxDao.backlog();
+			pending.set(backlog.pending());
+			oldestPending.set(backlog.oldest() != null ? toEpochMillis(backlog.oldest()) : 0);
+		} catch (RuntimeException e) {
+			log.warn("Could not read the outbox backlog", e);
+		}
+	}
+
+	public Duration lag() {
+		long oldest = oldestPending.get();
+		return oldest == 0 ? Duration.ZERO : Duration.ofMillis(Math.max(0, System.currentTimeMillis() - oldest));
+	}
+
+	@Override
+	public void bindTo(MeterRegistry registry) {
+		FunctionCounter.builder("outbox.events.published", published, LongAdder::doubleValue)
+				.description("Outbox events handed to the sink")
+				.register(registry);
+		FunctionCounter.builder("outbox.relay.failures", failures, LongAdder::doubleValue)
+				.description("Relay runs stopped by a failed batch")
+				.register(registry);
+		FunctionTimer.builder("outbox.relay.publish", this, relay -> relay.batches.sum(),
+						relay -> relay.publishNanos.sum(), TimeUnit.NANOSECONDS)
+				.description("Time the sink took per batch")
+				.register(registry);
+		Gauge.builder("outbox.pending", pending, AtomicLong::get)
+				.description("Events left in the outbox after the last relay run")
+				.register(registry);
+		TimeGauge.builder("outbox.lag", this, TimeUnit.MILLISECONDS, relay -> relay.lag().toMillis())
+				.description("Age of the oldest event left in the outbox")
+				.register(registry);
+	}
+
+	private static long toEpochMillis(LocalDateTime time) {
+		return time.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+	}
+}
@@ -0,0 +1,13 @@
+package es.blanca.jpa.outbox;
+
+import java.util.List;
+
+/**
+ * Where the relay publishes the outbox. A batch is deleted from the table only once
+ * publish returns, if it throws the batch is published again on the next run, so a sink
+ * must accept the same events more than once (the event id tells them apart).
+ */
+public interface OutboxSink {
+
+	void publish(List<OutboxEvent> events);
+}
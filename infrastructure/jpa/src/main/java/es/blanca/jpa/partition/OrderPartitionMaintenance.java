@@ -0,0 +1,92 @@
+package es.blanca.jpa.partition;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Date;
+import java.time.YearMonth;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+/**
+ * Keeps the monthly order partitions ahead of time and archives the old ones.
+ * <p>
+ * The partitions of the next months are created at startup and every night, so new
+ * orders never land in the default partition. Months older than the retention window
+ * are detached and moved to the order_archive schema, one month per transaction: the
+ * live tables, their indexes and their vacuums only cover the retained months.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "orders.partitioning.enabled", havingValue = "true")
+public class OrderPartitionMaintenance implements ApplicationRunner {
+
+	private static final Pattern MONTHLY_PARTITION = Pattern.compile("orders_y(\\d{4})m(\\d{2})");
+	private static final String PARTITIONS = "SELECT c.relname FROM pg_inherits i JOIN pg_class c ON c.oid = i.inhrelid "
+			+ "WHERE i.inhparent = 'orders'::regclass";
+
+	private final JdbcTemplate jdbcTemplate;
+	private final OrderPartitionProperties properties;
+	private final TransactionTemplate transaction;
+
+	public OrderPartitionMaintenance(JdbcTemplate jdbcTemplate, OrderPartitionProperties properties,
+	                                 PlatformTransactionManager transactionManager) {
+		this.jdbcTemplate = jdbcTemplate;
+		this.properties = properties;
+		this.transaction = new TransactionTemplate(transactionManager);
+	}
+
+	@Override
+	public void run(ApplicationArguments args) {
+		createAhead();
+	}
+
+	@Scheduled(cron = "${orders.partitioning.cron:0 30 3 * * *}")
+	public void maintain() {
+		createAhead();
+		archiveExpired();
+	}
+
+	public void createAhead() {
+		YearMonth current = YearMonth.now();
+		// pooled connections are not in auto-commit mode, outside a transaction the DDL would be rolled back
+		transaction.executeWithoutResult(status -> {
+			for (int i = 0; i <= properties.getMonthsAhead(); i++) {
+				Date firstDay = Date.valueOf(current.plusMonths(i).atDay(1));
+				jdbcTemplate.queryForList("SELECT create_order_partitions(?)", firstDay);
+			}
+		});
+	}
+
+	public void archiveExpired() {
+		YearMonth oldestRetained = YearMonth.now().minusMonths(properties.getRetentionMonths());
+		for (YearMonth month : expiredMonths(jdbcTemplate.queryForList(PARTITIONS, String.class), oldestRetained)) {
+			log.info("Archiving the orders of {}", month);
+			transaction.executeWithoutResult(status -> jdbcTemplate.queryForList(
+					"SELECT archive_order_partition(?)", Date.valueOf(month.atDay(1))));
+		}
+	}
+
+	/**
+	 * Months of the given monthly partitions before the oldest retained one, oldest first.
+	 * The default partition and anything not named after a month are left alone.
+	 */
+	static List<YearMonth> expiredMonths(List<String> partitions, YearMonth oldestRetained) {
+		return partitions.stream()
+				.map(MONTHLY_PARTITION::matcher)
+				.filter(Matcher::matches)
+				.map(matcher -> YearMonth.of(Integer.parseInt(matcher.group(1)), Integer.parseInt(matcher.group(2))))
+				.filter(month -> month.isBefore(oldestRetained))
+				.sorted()
+				.collect(Collectors.toList());
+	}
+}
@@ -0,0 +1,22 @@
+package es.blanca.jpa.partition;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * Monthly partitions of orders and orders_products, PostgreSQL only
+ * (see db/vendor/postgresql/V8__partition_orders_by_month.sql).
+ */
+@Getter
+@Setter
+@Component
+@ConfigurationProperties(prefix = "orders.partitioning")
+public class OrderPartitionProperties {
+	private boolean enabled = false;
+	// partitions are created this many months past the current one
+	private int monthsAhead = 3;
+	// months before the current one whose orders stay in the live tables
+	private int retentionMonths = 24;
+}
@@ -1,10 +1,52 @@
 package es.blanca.jpa.repository;
 
 import es.blanca.jpa.entity.OrderEntity;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 public interface OrderJpaRepository extends JpaRepository<OrderEntity,Long> {
+
+	@EntityGraph(OrderEntity.WITH_PRODUCTS)
 	List<OrderEntity> findByUserId(Long userId);
+
+	// the ids of the latest perUser orders of each user
+	@Query("select r.id from (select o.id as id, row_number() over (partition by o.user.id order by o.id desc) as position "
+			+ "from OrderEntity o where o.user.id in :userIds) r where r.position <= :perUser")
+	List<Long> findLatestIdsByUserIdIn(@Param("userIds") Collection<Long> userIds, @Param("perUser") int perUser);
+
+	@Override
+	@EntityGraph(OrderEntity.WITH_PRODUCTS)
+	Optional<OrderEntity> findById(Long id);
+
+	@Override
+	@EntityGraph(OrderEntity.WITH_PRODUCTS)
+	List<OrderEntity> findAll();
+
+	// The lines are filtered on their own copy of the creation date as well, so PostgreSQL
+	// prunes the orders_products partitions too. It always equals the order's, no line is lost.
+	@Query("select distinct o from OrderEntity o left join fetch o.orderProducts op left join fetch op.product "
+			+ "where o.createdAt >= :from and o.createdAt < :to "
+			+ "and (op is null or (op.orderCreatedAt >= :from and op.orderCreatedAt < :to)) order by o.id")
+	List<OrderEntity> findCreatedBetween(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
+
+	@Query("select distinct o from OrderEntity o left join fetch o.orderProducts op left join fetch op.product "
+			+ "where o.user.id = :userId and o.createdAt >= :from and o.createdAt < :to "
+			+ "and (op is null or (op.orderCreatedAt >= :from and op.orderCreatedAt < :to)) order by o.id")
+	List<OrderEntity> findByUserIdCreatedBetween(@Param("userId") Long userId,
+	                                             @Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
+
+	@EntityGraph(OrderEntity.WITH_PRODUCTS)
+	List<OrderEntity> findByIdIn(Collection<Long> ids);
+
+	// ids only, paging a fetch graph with a collection would be done in memory
+	@Query("select o.id from OrderEntity o where o.id > :after order by o.id")
+	List<Long> findIdsAfter(@Param("after") Long after, Pageable pageable);
 }
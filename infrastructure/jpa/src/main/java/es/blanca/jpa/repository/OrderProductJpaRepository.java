@@ -2,7 +2,17 @@ package es.blanca.jpa.repository;
 
 import es.blanca.jpa.entity.OrderProductEntity;
 import es.blanca.jpa.entity.OrderProductId;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.List;
 
 public interface OrderProductJpaRepository extends JpaRepository<OrderProductEntity, OrderProductId> {
+
+	// keyset paging over the orders that contain a product
+	@Query("select op.id.orderId from OrderProductEntity op where op.id.productId = :productId "
+			+ "and op.id.orderId > :after order by op.id.orderId")
+	List<Long> findOrderIdsByProductId(@Param("productId") Long productId, @Param("after") Long after, Pageable pageable);
 }
@@ -2,6 +2,20 @@ package es.blanca.jpa.repository;
 
 import es.blanca.jpa.entity.ProductEntity;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.Optional;
 
 public interface ProductJpaRepository extends JpaRepository<ProductEntity,Long> {
+
+	// from the row, never from the second-level cache
+	@Query("select p.version as version, p.stock as stock from ProductEntity p where p.id = :id")
+	Optional<VersionAndStock> findVersionAndStockById(@Param("id") Long id);
+
+	interface VersionAndStock {
+		Long getVersion();
+
+		Integer getStock();
+	}
 }
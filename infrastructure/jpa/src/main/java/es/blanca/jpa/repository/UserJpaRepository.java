@@ -1,11 +1,43 @@
 package es.blanca.jpa.repository;
 
 import es.blanca.jpa.entity.UserEntity;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.util.List;
 import java.util.Optional;
 
+// orders are never fetched through the user, see UserRepositoryAdapter
 public interface UserJpaRepository extends JpaRepository<UserEntity,Long> {
+	@EntityGraph(attributePaths = "country")
 	Optional<UserEntity>findByEmail(String email);
 	boolean existsByEmail(String email);
+
+	@Override
+	@EntityGraph(attributePaths = "country")
+	Optional<UserEntity> findById(Long id);
+
+	@Override
+	@EntityGraph(attributePaths = "country")
+	List<UserEntity> findAll();
+
+	// served by the partial indexes on active users (PostgreSQL, V10)
+	@EntityGraph(attributePaths = "country")
+	@Query("select u from UserEntity u where u.email = :email and u.isActive = true")
+	Optional<UserEntity> findActiveByEmail(@Param("email") String email);
+
+	@EntityGraph(attributePaths = "country")
+	@Query("select u from UserEntity u where u.isActive = true order by u.id")
+	List<UserEntity> findAllActive();
+
+	@EntityGraph(attributePaths = "country")
+	@Query("select u from UserEntity u where u.isActive = true order by u.id")
+	List<UserEntity> findAllActive(Pageable pageable);
+
+	@EntityGraph(attributePaths = "country")
+	@Query("select u from UserEntity u where u.country.code = :countryCode order by u.id")
+	List<UserEntity> findByCountryCode(@Param("countryCode") String countryCode, Pageable pageable);
 }
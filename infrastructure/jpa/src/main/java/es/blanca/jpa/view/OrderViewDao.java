@@ -0,0 +1,222 @@
+package es.blanca.jpa.view;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import es.blanca.domain.model.Fieldset;
+import es.blanca.domain.model.Money;
+import es.blanca.domain.model.Order;
+import es.blanca.domain.model.OrderProduct;
+import es.blanca.domain.model.OrderStatus;
+import es.blanca.domain.model.Product;
+import es.blanca.domain.model.User;
+import es.blanca.jpa.entity.OrderEntity;
+import es.blanca.jpa.entity.OrderProductEntity;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Component;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.StringJoiner;
+
+/**
+ * The order_view read model: one row per order holding everything an order listing
+ * shows, so listing a user's orders is a single range scan instead of joining orders,
+ * lines, products and users and mapping the entities.
+ * <p>
+ * Rows are projected from the order entity with its lines and products loaded and
+ * written in the caller's transaction, so the view commits or rolls back with the order.
+ */
+@Component
+public class OrderViewDao {
+
+	private static final String UPDATE = "UPDATE order_view SET user_id = ?, status = ?, creation_date = ?, version = ?, "
+			+ "total_minor = ?, order_lines = ? WHERE order_id = ? AND version <= ?";
+	private static final String INSERT = "INSERT INTO order_view (user_id, status, creation_date, version, total_minor, "
+			+ "order_lines, order_id) VALUES (?, ?, ?, ?, ?, ?, ?)";
+	private static final String EXISTS = "SELECT COUNT(*) FROM order_view WHERE order_id = ?";
+	private static final String SELECT = select(Fieldset.ALL);
+	private static final String FIND_ALL = SELECT + " ORDER BY order_id";
+	private static final String FIND_BY_USER_ID = SELECT + " WHERE user_id = ? ORDER BY order_id";
+	private static final String FIND_PAGE_BY_USER_ID = FIND_BY_USER_ID + " LIMIT ? OFFSET ?";
+
+	private final JdbcTemplate jdbcTemplate;
+	private final ObjectWriter linesWriter;
+	private final ObjectReader linesReader;
+	private final RowMapper<Order> orderRowMapper = (resultSet, rowNum) -> toOrder(resultSet, Fieldset.ALL);
+
+	public OrderViewDao(JdbcTemplate jdbcTemplate) {
+		this.jdbcTemplate = jdbcTemplate;
+		ObjectMapper objectMapper = new ObjectMapper();
+		TypeReference<List<Line>> lines = new TypeReference<>() {
+		};
+		this.linesWriter = objectMapper.writerFor(lines);
+		this.linesReader = objectMapper.readerFor(lines);
+	}
+
+	/**
+	 * Inserts or replaces the order's row. The order must have been flushed, so its id
+	 * and version are the ones the database holds. A row already written from a newer
+	 * version of the order is kept, a refresh that loaded the order earlier loses.
+	 */
+	public void write(OrderEntity order) {
+		List<Line> lines = new ArrayList<>();
+		long total = 0;
+		if (order.getOrderProducts() != null) {
+			for (OrderProductEntity orderProduct : order.getOrderProducts()) {
+				Line line = new Line(orderProduct.getProduct().getId(), orderProduct.getProduct().getName(),
+						orderProduct.getProduct().getPrice().minorUnits(), orderProduct.getAmount());
+				lines.add(line);
+				total = Math.addExact(total, Math.multiplyExact(line.unitPrice(), line.amount()));
+			}
+		}
+		Object[] row = {order.getUser().getId(), order.getStatus().name(),
+				order.getCreatedAt() != null ? Timestamp.valueOf(order.getCreatedAt()) : null,
+				order.getVersion(), total, serialize(lines), order.getId()};
+		// the order's own row lock (insert or version bump) keeps two writers from racing here
+		if (jdbcTemplate.update(UPDATE, append(row, order.getVersion())) == 0 && !exists(order.getId())) {
+			jdbcTemplate.update(INSERT, row);
+		}
+	}
+
+	public List<Order> findAll() {
+		return jdbcTemplate.query(FIND_ALL, orderRowMapper);
+	}
+
+	public List<Order> findByUserId(Long userId) {
+		return jdbcTemplate.query(FIND_BY_USER_ID, orderRowMapper, userId);
+	}
+
+	public List<Order> findByUserId(Long userId, int page, int size) {
+		return jdbcTemplate.query(FIND_PAGE_BY_USER_ID, orderRowMapper, userId, size, (long) page * size);
+	}
+
+	// only the columns of the given properties are read, the lines only with orderProducts
+	// and the total from total_minor without them
+	public List<Order> findAll(Fieldset fields) {
+		return jdbcTemplate.query(select(fields) + " ORDER BY order_id", (resultSet, rowNum) -> toOrder(resultSet, fields));
+	}
+
+	public List<Order> findByUserId(Long userId, Fieldset fields) {
+		return jdbcTemplate.query(select(fields) + " WHERE user_id = ? ORDER BY order_id",
+				(resultSet, rowNum) -> toOrder(resultSet, fields), userId);
+	}
+
+	// a null user for every user's orders
+	public List<Order> findCreatedBetween(Long userId, LocalDateTime from, LocalDateTime to, Fieldset fields) {
+		String range = " WHERE creation_date >= ? AND creation_date < ?";
+		RowMapper<Order> rowMapper = (resultSet, rowNum) -> toOrder(resultSet, fields);
+		if (userId == null) {
+			return jdbcTemplate.query(select(fields) + range + " ORDER BY order_id", rowMapper,
+					Timestamp.valueOf(from), Timestamp.valueOf(to));
+		}
+		return jdbcTemplate.query(select(fields) + range + " AND user_id = ? ORDER BY order_id", rowMapper,
+				Timestamp.valueOf(from), Timestamp.valueOf(to), userId);
+	}
+
+	private static String select(Fieldset fields) {
+		StringJoiner columns = new StringJoiner(", ", "SELECT ", " FROM order_view");
+		// the key is always read, an order with none of the given properties is still a row
+		columns.add("order_id");
+		if (fields.includes("user")) {
+			columns.add("user_id");
+		}
+		if (fields.includes("status")) {
+			columns.add("status");
+		}
+		if (fields.includes("createdAt")) {
+			columns.add("creation_date");
+		}
+		if (fields.includes("version")) {
+			columns.add("version");
+		}
+		if (fields.includes("total") && !fields.includes("orderProducts")) {
+			columns.add("total_minor");
+		}
+		if (fields.includes("orderProducts")) {
+			columns.add("order_lines");
+		}
+		return columns.toString();
+	}
+
+	/**
+	 * The user is only carried by id and each product by id, name and price, the same
+	 * shape the listing endpoints expose.
+	 */
+	private Order toOrder(ResultSet resultSet, Fieldset fields) throws SQLException {
+		Order order = new Order();
+		if (fields.includes("id")) {
+			order.setId(resultSet.getLong("order_id"));
+		}
+		if (fields.includes("user")) {
+			User user = new User();
+			user.setId(resultSet.getLong("user_id"));
+			order.setUser(user);
+		}
+		if (fields.includes("status")) {
+			order.setStatus(OrderStatus.valueOf(resultSet.getString("status")));
+		}
+		if (fields.includes("createdAt")) {
+			Timestamp createdAt = resultSet.getTimestamp("creation_date");
+			order.setCreatedAt(createdAt != null ? createdAt.toLocalDateTime() : null);
+		}
+		if (fields.includes("version")) {
+			order.setVersion(resultSet.getLong("version"));
+		}
+		if (fields.includes("total") && !fields.includes("orderProducts")) {
+			order.setTotal(Money.ofMinor(resultSet.getLong("total_minor")));
+		}
+		if (!fields.includes("orderProducts")) {
+			return order;
+		}
+		List<Line> lines = deserialize(resultSet.getString("order_lines"));
+		List<OrderProduct> orderProducts = new ArrayList<>(lines.size());
+		for (Line line : lines) {
+			Product product = new Product();
+			product.setId(line.productId());
+			product.setName(line.productName());
+			product.setPrice(Money.ofMinor(line.unitPrice()));
+			orderProducts.add(new OrderProduct(order, product, line.amount()));
+		}
+		order.setOrderProducts(orderProducts);
+		return order;
+	}
+
+	private boolean exists(Long orderId) {
+		return jdbcTemplate.queryForObject(EXISTS, Long.class, orderId) > 0;
+	}
+
+	private static Object[] append(Object[] row, Object value) {
+		Object[] extended = Arrays.copyOf(row, row.length + 1);
+		extended[row.length] = value;
+		return extended;
+	}
+
+	private String serialize(List<Line> lines) {
+		try {
+			return linesWriter.writeValueAsString(lines);
+		} catch (JsonProcessingException e) {
+			throw new IllegalStateException("Could not write order lines", e);
+		}
+	}
+
+	private List<Line> deserialize(String linesJson) {
+		try {
+			return linesReader.readValue(linesJson);
+		} catch (JsonProcessingException e) {
+			throw new IllegalStateException("Could not read order lines " + linesJson, e);
+		}
+	}
+
+	// unit price in minor units, as it was when the row was last written
+	record Line(Long productId, String productName, long unitPrice, int amount) {
+	}
+}
@@ -0,0 +1,80 @@
+package es.blanca.jpa.view;
+
+import es.blanca.jpa.entity.OrderEntity;
+import es.blanca.jpa.repository.OrderJpaRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+
+/**
+ * Rewrites the order_view row of every order, after the view was added or if it ever
+ * drifts from the orders. Started with order-view.rebuild=true (for example
+ * {@code --order-view.rebuild=true} on the command line) and runs at startup.
+ * <p>
+ * Orders are walked by id in batches, each in its own transaction, so the rebuild never
+ * holds more than one batch in memory and listings keep being served meanwhile.
+ */
+@Slf4j
+@Component
+public class OrderViewRebuilder implements ApplicationRunner {
+
+	private final OrderJpaRepository orderJpaRepository;
+	private final OrderViewDao orderViewDao;
+	private final TransactionTemplate transaction;
+	private final boolean rebuildOnStartup;
+	private final int batchSize;
+
+	public OrderViewRebuilder(OrderJpaRepository orderJpaRepository, OrderViewDao orderViewDao,
+	                          PlatformTransactionManager transactionManager,
+	                          @Value("${order-view.rebuild:false}") boolean rebuildOnStartup,
+	                          @Value("${order-view.rebuild-batch-size:500}") int batchSize) {
+		this.orderJpaRepository = orderJpaRepository;
+		this.orderViewDao = orderViewDao;
+		this.transaction = new TransactionTemplate(transactionManager);
+		this.rebuildOnStartup = rebuildOnStartup;
+		this.batchSize = batchSize;
+	}
+
+	@Override
+	public void run(ApplicationArguments args) {
+		if (rebuildOnStartup) {
+			rebuild();
+		}
+	}
+
+	/**
+	 * Returns the number of orders written.
+	 */
+	public long rebuild() {
+		log.info("Rebuilding order_view in batches of {}", batchSize);
+		long written = 0;
+		long after = 0;
+		while (true) {
+			long from = after;
+			List<OrderEntity> batch = transaction.execute(status -> {
+				List<Long> ids = orderJpaRepository.findIdsAfter(from, PageRequest.ofSize(batchSize));
+				if (ids.isEmpty()) {
+					return List.of();
+				}
+				List<OrderEntity> orders = orderJpaRepository.findByIdIn(ids);
+				orders.forEach(orderViewDao::write);
+				return orders;
+			});
+			if (batch.isEmpty()) {
+				break;
+			}
+			written += batch.size();
+			after = batch.stream().mapToLong(OrderEntity::getId).max().getAsLong();
+		}
+		log.info("Rebuilt order_view for {} orders", written);
+		return written;
+	}
+
+}
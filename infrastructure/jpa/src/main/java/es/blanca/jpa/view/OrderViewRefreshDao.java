@@ -0,0 +1,48 @@
+package es.blanca.jpa.view;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * The order_view_refresh table: products whose order views have to be rewritten.
+ * Writers only ever insert, so concurrent updates of one product never conflict; the
+ * refresher reads the latest request of each product and deletes up to it once done,
+ * a request added in the meantime stays for the next run.
+ */
+@Component
+public class OrderViewRefreshDao {
+
+	private static final String INSERT = "INSERT INTO order_view_refresh (product_id, requested_at) VALUES (?, ?)";
+	private static final String PENDING = "SELECT product_id, MAX(id) AS last_id FROM order_view_refresh "
+			+ "GROUP BY product_id ORDER BY MIN(id) LIMIT ?";
+	private static final String DELETE = "DELETE FROM order_view_refresh WHERE product_id = ? AND id <= ?";
+
+	private final JdbcTemplate jdbcTemplate;
+
+	public OrderViewRefreshDao(JdbcTemplate jdbcTemplate) {
+		this.jdbcTemplate = jdbcTemplate;
+	}
+
+	// runs in the caller's transaction, the request commits or rolls back with the product
+	public void request(Long productId) {
+		jdbcTemplate.update(INSERT, productId, Timestamp.valueOf(LocalDateTime.now()));
+	}
+
+	// oldest requests first, one entry per product
+	public List<Pending> pending(int limit) {
+		return jdbcTemplate.query(PENDING, (resultSet, rowNum) -> new Pending(resultSet.getLong("product_id"),
+				resultSet.getLong("last_id")), limit);
+	}
+
+	public int delete(Pending pending) {
+		return jdbcTemplate.update(DELETE, pending.productId(), pending.lastId());
+	}
+
+	// lastId is the newest request of the product when it was read
+	public record Pending(Long productId, long lastId) {
+	}
+}
@@ -0,0 +1,103 @@
+package es.blanca.jpa.view;
+
+import es.blanca.jpa.repository.OrderJpaRepository;
+import es.blanca.jpa.repository.OrderProductJpaRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+
+/**
+ * The order views copy the name and price of their products. A product update records
+ * a refresh request in its own transaction (see {@link OrderViewRefreshDao}), and the
+ * orders holding the product are rewritten here on a schedule, off the request: a
+ * popular product can be on any number of orders.
+ * <p>
+ * Orders are walked by id a page at a time, each page in its own transaction. The
+ * request is deleted only once every page is written, so a failed page or a restart
+ * leaves it in the table and the whole product is refreshed again on the next run.
+ * Rewriting a page twice is harmless, a row is never replaced by an older version of
+ * its order.
+ */
+@Slf4j
+@Component
+public class OrderViewRefresher {
+
+	private final OrderJpaRepository orderJpaRepository;
+	private final OrderProductJpaRepository orderProductJpaRepository;
+	private final OrderViewDao orderViewDao;
+	private final OrderViewRefreshDao orderViewRefreshDao;
+	private final TransactionTemplate transaction;
+	private final int batchSize;
+	private final boolean enabled;
+
+	public OrderViewRefresher(OrderJpaRepository orderJpaRepository, OrderProductJpaRepository orderProductJpaRepository,
+	                          OrderViewDao orderViewDao, OrderViewRefreshDao orderViewRefreshDao,
+	                          PlatformTransactionManager transactionManager,
+	                          @Value("${order-view.refresh-batch-size:500}") int batchSize,
+	                          @Value("${order-view.refresh-enabled:true}") boolean enabled) {
+		this.orderJpaRepository = orderJpaRepository;
+		this.orderProductJpaRepository = orderProductJpaRepository;
+		this.orderViewDao = orderViewDao;
+		this.orderViewRefreshDao = orderViewRefreshDao;
+		this.transaction = new TransactionTemplate(transactionManager);
+		this.batchSize = batchSize;
+		this.enabled = enabled;
+	}
+
+	@Scheduled(fixedDelayString = "${order-view.refresh-interval-ms:1000}")
+	public void refreshScheduled() {
+		if (enabled) {
+			refreshPending();
+		}
+	}
+
+	/**
+	 * Refreshes the products with pending requests, oldest first, and returns how many
+	 * were done. A product that fails keeps its requests and is retried on the next run.
+	 */
+	public int refreshPending() {
+		int done = 0;
+		// a product updated several times since the last run is refreshed once
+		for (OrderViewRefreshDao.Pending pending : orderViewRefreshDao.pending(batchSize)) {
+			try {
+				refresh(pending.productId());
+				orderViewRefreshDao.delete(pending);
+				done++;
+			} catch (RuntimeException e) {
+				log.warn("Order views of product {} could not be refreshed, retrying on the next run",
+						pending.productId(), e);
+			}
+		}
+		return done;
+	}
+
+	/**
+	 * Returns the number of orders written.
+	 */
+	public long refresh(Long productId) {
+		long written = 0;
+		long after = 0;
+		while (true) {
+			long from = after;
+			List<Long> orderIds = transaction.execute(status -> {
+				List<Long> ids = orderProductJpaRepository.findOrderIdsByProductId(productId, from,
+						PageRequest.ofSize(batchSize));
+				if (!ids.isEmpty()) {
+					orderJpaRepository.findByIdIn(ids).forEach(orderViewDao::write);
+				}
+				return ids;
+			});
+			written += orderIds.size();
+			if (orderIds.size() < batchSize) {
+				return written;
+			}
+			after = orderIds.get(orderIds.size() - 1);
+		}
+	}
+}
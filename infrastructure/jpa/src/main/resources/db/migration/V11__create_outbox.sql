@@ -0,0 +1,12 @@
+-- Change events of orders and products, written in the same transaction as the change
+-- and removed by OutboxRelay once its sink has taken them. The table is meant to stay
+-- close to empty, so only the primary key is indexed.
+
+CREATE TABLE outbox (
+    id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    aggregate_type VARCHAR(50) NOT NULL,
+    aggregate_id BIGINT NOT NULL,
+    event_type VARCHAR(50) NOT NULL,
+    payload TEXT NOT NULL,
+    created_at TIMESTAMP NOT NULL
+);
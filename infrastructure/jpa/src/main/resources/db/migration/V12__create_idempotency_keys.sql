@@ -0,0 +1,15 @@
+-- Idempotency-Key claims of POST /orders. A row without status_code is a request still
+-- running, it expires after idempotency.in-flight-timeout so a node that died does not
+-- hold the key; completed rows keep the response until idempotency.ttl.
+
+CREATE TABLE idempotency_keys (
+    -- hash of the user and the client's key
+    idempotency_key VARCHAR(64) PRIMARY KEY,
+    request_hash VARCHAR(64) NOT NULL,
+    status_code INTEGER,
+    location VARCHAR(255),
+    response_body TEXT,
+    expires_at TIMESTAMP NOT NULL
+);
+
+CREATE INDEX idx_idempotency_keys_expires_at ON idempotency_keys (expires_at);
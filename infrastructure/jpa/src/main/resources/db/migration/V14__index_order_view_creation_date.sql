@@ -0,0 +1,3 @@
+-- Date-range reads of the order view (the reactive /orders?from=&to=). Without it the
+-- range is a full scan of order_view. A user's range stays on idx_order_view_user_id.
+CREATE INDEX idx_order_view_creation_date ON order_view (creation_date, order_id);
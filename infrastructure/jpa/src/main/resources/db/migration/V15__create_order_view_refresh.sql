@@ -0,0 +1,10 @@
+-- Products whose order views still show an older name or price. A product update adds
+-- a row in its own transaction, OrderViewRefresher rewrites the orders holding the
+-- product and only then deletes the rows it saw, so an interrupted or failed refresh
+-- is picked up again on its next run. Like the outbox, the table stays close to empty.
+
+CREATE TABLE order_view_refresh (
+    id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    product_id BIGINT NOT NULL,
+    requested_at TIMESTAMP NOT NULL
+);
@@ -0,0 +1,14 @@
+-- Indexes for the foreign keys and filters the adapters query by.
+
+-- A user's orders, newest first. Leading user_id also serves plain orders.user_id
+-- lookups and the FK check on user deletes, so there is no separate index for it.
+-- status and id are part of the key so order listings can be answered from the index.
+CREATE INDEX idx_orders_user_id_creation_date ON orders (user_id, creation_date, status, id);
+
+-- The primary key starts with order_id, product lookups (and product deletes) need their own
+CREATE INDEX idx_orders_products_product_id ON orders_products (product_id);
+
+CREATE INDEX idx_users_country_code ON users (country_code);
+
+-- findWithFilters: status equality plus price range
+CREATE INDEX idx_products_status_price ON products (product_status, price);
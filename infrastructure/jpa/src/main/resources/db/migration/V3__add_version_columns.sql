@@ -0,0 +1,5 @@
+-- Optimistic locking: Hibernate increments the version on every update and only
+-- writes the row if it still has the version that was read.
+ALTER TABLE products ADD COLUMN version BIGINT DEFAULT 0 NOT NULL;
+ALTER TABLE orders ADD COLUMN version BIGINT DEFAULT 0 NOT NULL;
+ALTER TABLE users ADD COLUMN version BIGINT DEFAULT 0 NOT NULL;
@@ -0,0 +1,4 @@
+-- Units left to sell. NULL means the product's stock is not tracked, which keeps the
+-- existing catalogue orderable until an admin sets a stock for it.
+ALTER TABLE products ADD COLUMN stock INTEGER;
+ALTER TABLE products ADD CONSTRAINT chk_products_stock CHECK (stock >= 0);
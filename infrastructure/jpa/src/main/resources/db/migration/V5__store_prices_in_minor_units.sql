@@ -0,0 +1,8 @@
+-- Prices as a whole number of cents (see MoneyConverter) instead of NUMERIC(10,2)
+ALTER TABLE products ADD COLUMN price_minor BIGINT;
+UPDATE products SET price_minor = CAST(ROUND(price * 100) AS BIGINT);
+ALTER TABLE products ALTER COLUMN price_minor SET NOT NULL;
+
+DROP INDEX idx_products_status_price;
+ALTER TABLE products DROP COLUMN price;
+CREATE INDEX idx_products_status_price ON products (product_status, price_minor);
@@ -0,0 +1,18 @@
+-- Read model for order listings: one row per order with its lines already joined to
+-- their products, kept up to date by OrderRepositoryAdapter in the writing transaction.
+-- Rows go away with their order through the foreign key. Orders that existed before
+-- this migration are filled in by the rebuild (order-view.rebuild=true).
+
+CREATE TABLE order_view (
+    order_id BIGINT PRIMARY KEY REFERENCES orders (id) ON DELETE CASCADE,
+    user_id BIGINT NOT NULL,
+    status VARCHAR(50) NOT NULL,
+    creation_date TIMESTAMP,
+    version BIGINT NOT NULL,
+    total_minor BIGINT NOT NULL,
+    -- JSON array of {productId, productName, unitPrice, amount}, prices in minor units
+    order_lines TEXT NOT NULL
+);
+
+-- a user's orders are one range of this index
+CREATE INDEX idx_order_view_user_id ON order_view (user_id, order_id);
@@ -0,0 +1,12 @@
+-- Orders are partitioned by creation month on PostgreSQL (db/vendor/postgresql/V8).
+-- The partition key must never be NULL, and each order line carries its order's
+-- creation date so orders_products can be partitioned the same way and its
+-- foreign key can point at the partitioned orders table.
+
+UPDATE orders SET creation_date = CURRENT_TIMESTAMP WHERE creation_date IS NULL;
+ALTER TABLE orders ALTER COLUMN creation_date SET NOT NULL;
+
+ALTER TABLE orders_products ADD COLUMN order_creation_date TIMESTAMP;
+UPDATE orders_products SET order_creation_date =
+    (SELECT o.creation_date FROM orders o WHERE o.id = orders_products.order_id);
+ALTER TABLE orders_products ALTER COLUMN order_creation_date SET NOT NULL;
@@ -0,0 +1,22 @@
+-- Soft-deleted users stay in users until UserCompaction moves them to users_archive,
+-- once they have been inactive for users.compaction.inactive-for and have no orders
+-- left in the live tables. Users already inactive start counting from now.
+
+ALTER TABLE users ADD COLUMN deactivated_at TIMESTAMP;
+UPDATE users SET deactivated_at = CURRENT_TIMESTAMP WHERE is_active = FALSE;
+
+CREATE TABLE users_archive (
+    id BIGINT PRIMARY KEY,
+    role VARCHAR(50) NOT NULL,
+    full_name VARCHAR(255) NOT NULL,
+    -- not unique: the email is free again once its user is archived
+    email VARCHAR(255) NOT NULL,
+    password VARCHAR(255) NOT NULL,
+    created_at TIMESTAMP,
+    country_code VARCHAR(3),
+    version BIGINT NOT NULL,
+    deactivated_at TIMESTAMP,
+    archived_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP NOT NULL
+);
+
+CREATE INDEX idx_users_archive_email ON users_archive (email);
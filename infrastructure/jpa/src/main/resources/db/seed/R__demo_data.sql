@@ -0,0 +1,45 @@
+-- Demo data for the docker-compose database (PostgreSQL only).
+-- Only on the Flyway locations of the default configuration, the tests do not load it.
+-- Repeatable migration: every statement must be safe to run again.
+
+INSERT INTO countries (code, name) VALUES
+    ('ES', 'España'),
+    ('FR', 'Francia'),
+    ('DE', 'Alemania'),
+    ('IT', 'Italia'),
+    ('PT', 'Portugal'),
+    ('GB', 'Reino Unido'),
+    ('US', 'Estados Unidos'),
+    ('MX', 'México')
+ON CONFLICT (code) DO NOTHING;
+
+-- Usuario administrador
+-- Email: admin@example.com
+-- Password: password
+INSERT INTO users (full_name, email, password, role, created_at, is_active, country_code) VALUES
+    ('Administrator', 'admin@example.com', '$2a$10$dXJ3SW6G7P50lGmMkkmwe.20cQQubK3.HZWzG3YB1tlRy.fqvM/BG', 'ROLE_ADMIN', NOW(), true, 'ES')
+ON CONFLICT (email) DO NOTHING;
+
+-- Usuario normal
+-- Email: user@example.com
+-- Password: password
+INSERT INTO users (full_name, email, password, role, created_at, is_active, country_code) VALUES
+    ('John Doe', 'user@example.com', '$2a$10$dXJ3SW6G7P50lGmMkkmwe.20cQQubK3.HZWzG3YB1tlRy.fqvM/BG', 'ROLE_USER', NOW(), true, 'US')
+ON CONFLICT (email) DO NOTHING;
+
+-- products have no natural key, only seed an empty catalogue (prices in cents)
+INSERT INTO products (name, price_minor, product_status, creation_date)
+SELECT v.name, v.price_minor, v.product_status, NOW()
+FROM (VALUES
+    ('Laptop Dell XPS 15', 129999, 'AVAILABLE'),
+    ('iPhone 15 Pro', 119999, 'AVAILABLE'),
+    ('Samsung Galaxy S24', 99999, 'AVAILABLE'),
+    ('Sony WH-1000XM5 Headphones', 39999, 'AVAILABLE'),
+    ('Apple Watch Series 9', 49999, 'AVAILABLE'),
+    ('iPad Air', 69999, 'AVAILABLE'),
+    ('Microsoft Surface Pro 9', 109999, 'AVAILABLE'),
+    ('Nintendo Switch OLED', 34999, 'AVAILABLE'),
+    ('PlayStation 5', 49999, 'DISCONTINUED'),
+    ('Xbox Series X', 49999, 'DISCONTINUED')
+) AS v (name, price_minor, product_status)
+WHERE NOT EXISTS (SELECT 1 FROM products);
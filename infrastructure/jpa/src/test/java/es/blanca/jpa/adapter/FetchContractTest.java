@@ -0,0 +1,180 @@
+package es.blanca.jpa.adapter;
+
+import es.blanca.domain.model.Money;
+import es.blanca.domain.model.Country;
+import es.blanca.domain.model.Order;
+import es.blanca.domain.model.OrderProduct;
+import es.blanca.domain.model.OrderStatus;
+import es.blanca.domain.model.Product;
+import es.blanca.domain.model.ProductStatus;
+import es.blanca.domain.model.Role;
+import es.blanca.domain.model.User;
+import es.blanca.jpa.entity.OrderEntity;
+import es.blanca.jpa.repository.OrderJpaRepository;
+import jakarta.persistence.EntityManager;
+import org.hibernate.LazyInitializationException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// strict fetch mode turns any lazy load the fetch contracts miss into an exception
+@SpringBootTest(properties = "jpa.strict-fetch.enabled=true")
+@Transactional
+class FetchContractTest {
+
+	@Autowired
+	private CountryRepositoryAdapter countryRepositoryAdapter;
+
+	@Autowired
+	private UserRepositoryAdapter userRepositoryAdapter;
+
+	@Autowired
+	private ProductRepositoryAdapter productRepositoryAdapter;
+
+	@Autowired
+	private OrderRepositoryAdapter orderRepositoryAdapter;
+
+	@Autowired
+	private OrderJpaRepository orderJpaRepository;
+
+	@Autowired
+	private EntityManager entityManager;
+
+	private User user;
+	private Order order;
+
+	@BeforeEach
+	void setUp() {
+		// Arrange
+		Country country = countryRepositoryAdapter.save(new Country("ES", "Spain"));
+
+		User newUser = new User();
+		newUser.setRole(Role.ROLE_USER);
+		newUser.setFullName("Test User");
+		newUser.setEmail("fetch@example.com");
+		newUser.setPassword("hashedPassword");
+		newUser.setCreatedAt(LocalDateTime.now());
+		newUser.setCountry(country);
+		user = userRepositoryAdapter.save(newUser);
+
+		Product product = new Product();
+		product.setName("Laptop");
+		product.setPrice(Money.valueOf("999.99"));
+		product.setStatus(ProductStatus.AVAILABLE);
+		product.setCreatedAt(LocalDateTime.now());
+		product = productRepositoryAdapter.save(product);
+
+		Order newOrder = new Order();
+		newOrder.setUser(user);
+		newOrder.setStatus(OrderStatus.PENDING);
+		newOrder.setCreatedAt(LocalDateTime.now());
+		newOrder.setOrderProducts(List.of(new OrderProduct(newOrder, product, 2)));
+		order = orderRepositoryAdapter.save(newOrder);
+
+		// start from an empty persistence context so nothing is served from memory
+		entityManager.flush();
+		entityManager.clear();
+	}
+
+	@Test
+	void findOrderById_shouldMapLinesAndProducts_withoutLazyLoads() {
+		// Act
+		Order found = orderRepositoryAdapter.findById(order.getId()).orElseThrow();
+
+		// Assert
+		assertEquals(user.getId(), found.getUser().getId());
+		assertEquals(1, found.getOrderProducts().size());
+		assertEquals("Laptop", found.getOrderProducts().get(0).getProduct().getName());
+		assertEquals(2, found.getOrderProducts().get(0).getAmount());
+	}
+
+	@Test
+	void findOrdersCreatedBetween_shouldMapLinesAndProducts_withoutLazyLoads() {
+		// Arrange
+		LocalDateTime from = order.getCreatedAt().minusDays(1);
+
+		// Act
+		List<Order> inRange = orderRepositoryAdapter.findByUserIdCreatedBetween(user.getId(), from, from.plusDays(2));
+		List<Order> before = orderRepositoryAdapter.findCreatedBetween(from.minusMonths(1), from);
+
+		// Assert
+		assertEquals(1, inRange.size());
+		assertEquals("Laptop", inRange.get(0).getOrderProducts().get(0).getProduct().getName());
+		assertEquals(2, inRange.get(0).getOrderProducts().get(0).getAmount());
+		assertTrue(before.isEmpty());
+	}
+
+	@Test
+	void findUserById_shouldMapCountryAndOrders_withoutLazyLoads() {
+		// Act
+		User found = userRepositoryAdapter.findById(user.getId()).orElseThrow();
+
+		// Assert
+		assertEquals("Spain", found.getCountry().getName());
+		assertEquals(1, found.getOrders().size());
+		assertEquals("Laptop", found.getOrders().get(0).getOrderProducts().get(0).getProduct().getName());
+	}
+
+	@Test
+	void findAllUsers_shouldAttachEachUsersOrders() {
+		// Act
+		List<User> users = userRepositoryAdapter.findAll();
+
+		// Assert
+		assertEquals(1, users.size());
+		assertEquals(order.getId(), users.get(0).getOrders().get(0).getId());
+	}
+
+	@Test
+	void findUserById_shouldOnlyEmbedTheLatestOrders() {
+		// Arrange
+		Product product = order.getOrderProducts().get(0).getProduct();
+		Long latest = null;
+		for (int i = 0; i < UserRepositoryAdapter.EMBEDDED_ORDERS; i++) {
+			Order newOrder = new Order();
+			newOrder.setUser(user);
+			newOrder.setStatus(OrderStatus.PENDING);
+			newOrder.setCreatedAt(LocalDateTime.now());
+			newOrder.setOrderProducts(List.of(new OrderProduct(newOrder, product, 1)));
+			latest = orderRepositoryAdapter.save(newOrder).getId();
+		}
+		entityManager.flush();
+		entityManager.clear();
+
+		// Act
+		User found = userRepositoryAdapter.findById(user.getId()).orElseThrow();
+		List<User> page = userRepositoryAdapter.findAllActive(0, 10);
+
+		// Assert
+		assertEquals(UserRepositoryAdapter.EMBEDDED_ORDERS, found.getOrders().size());
+		assertTrue(found.getOrders().stream().noneMatch(embedded -> embedded.getId().equals(order.getId())));
+		assertEquals(latest, found.getOrders().get(found.getOrders().size() - 1).getId());
+		assertEquals(UserRepositoryAdapter.EMBEDDED_ORDERS, page.get(0).getOrders().size());
+	}
+
+	@Test
+	void findByEmail_shouldNotLoadOrders() {
+		// Act
+		User found = userRepositoryAdapter.findByEmail("fetch@example.com").orElseThrow();
+
+		// Assert
+		assertEquals("ES", found.getCountry().getCode());
+		assertNull(found.getOrders());
+	}
+
+	@Test
+	void lazyLoad_shouldFail_outsideRepositoryCall() {
+		// Arrange
+		OrderEntity entity = orderJpaRepository.findById(order.getId()).orElseThrow();
+
+		// Act & Assert
+		assertThrows(LazyInitializationException.class, () -> entity.getUser().getFullName());
+	}
+}
@@ -0,0 +1,209 @@
+package es.blanca.jpa.adapter;
+
+import es.blanca.domain.model.Country;
+import es.blanca.domain.model.Fieldset;
+import es.blanca.domain.model.Money;
+import es.blanca.domain.model.Order;
+import es.blanca.domain.model.OrderProduct;
+import es.blanca.domain.model.OrderStatus;
+import es.blanca.domain.model.Product;
+import es.blanca.domain.model.ProductStatus;
+import es.blanca.domain.model.Role;
+import es.blanca.domain.model.User;
+import jakarta.persistence.EntityManager;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// strict fetch mode fails the projections if they ever walk a lazy association
+@SpringBootTest(properties = {
+		"jpa.strict-fetch.enabled=true",
+		"spring.jpa.properties.hibernate.session_factory.statement_inspector=es.blanca.jpa.adapter.FieldsetProjectionTest$CapturingInspector"
+})
+@Transactional
+class FieldsetProjectionTest {
+
+	@Autowired
+	private CountryRepositoryAdapter countryRepositoryAdapter;
+
+	@Autowired
+	private UserRepositoryAdapter userRepositoryAdapter;
+
+	@Autowired
+	private ProductRepositoryAdapter productRepositoryAdapter;
+
+	@Autowired
+	private OrderRepositoryAdapter orderRepositoryAdapter;
+
+	@Autowired
+	private EntityManager entityManager;
+
+	private User user;
+	private Order order;
+
+	@BeforeEach
+	void setUp() {
+		// Arrange
+		Country country = countryRepositoryAdapter.save(new Country("IT", "Italy"));
+
+		User newUser = new User();
+		newUser.setRole(Role.ROLE_USER);
+		newUser.setFullName("Projected User");
+		newUser.setEmail("projection@example.com");
+		newUser.setPassword("hashedPassword");
+		newUser.setCreatedAt(LocalDateTime.now());
+		newUser.setCountry(country);
+		user = userRepositoryAdapter.save(newUser);
+
+		Product product = new Product();
+		product.setName("Monitor");
+		product.setPrice(Money.valueOf("149.90"));
+		product.setStatus(ProductStatus.AVAILABLE);
+		product.setStock(7);
+		product.setCreatedAt(LocalDateTime.now());
+		product = productRepositoryAdapter.save(product);
+
+		Order newOrder = new Order();
+		newOrder.setUser(user);
+		newOrder.setStatus(OrderStatus.PENDING);
+		newOrder.setCreatedAt(LocalDateTime.now());
+		newOrder.setOrderProducts(List.of(new OrderProduct(newOrder, product, 2)));
+		order = orderRepositoryAdapter.save(newOrder);
+
+		entityManager.flush();
+		entityManager.clear();
+		CapturingInspector.STATEMENTS.clear();
+	}
+
+	@Test
+	void findProductsWithFields_shouldOnlyFillTheRequestedProperties() {
+		// Act
+		List<Product> products = productRepositoryAdapter.findWithFilters(
+				Map.of("name", "monitor"), Fieldset.of(List.of("id", "name", "price")));
+
+		// Assert
+		assertEquals(1, products.size());
+		assertNotNull(products.get(0).getId());
+		assertEquals("Monitor", products.get(0).getName());
+		assertEquals(Money.valueOf("149.90"), products.get(0).getPrice());
+		assertNull(products.get(0).getStock());
+		assertNull(products.get(0).getVersion());
+	}
+
+	@Test
+	void findAllOrdersWithFields_shouldNotReadTheLines() {
+		// Act
+		List<Order> orders = orderRepositoryAdapter.findAll(Fieldset.of(List.of("id", "status")));
+
+		// Assert
+		assertEquals(1, orders.size());
+		assertEquals(order.getId(), orders.get(0).getId());
+		assertEquals(OrderStatus.PENDING, orders.get(0).getStatus());
+		assertNull(orders.get(0).getOrderProducts());
+		assertNull(orders.get(0).getUser());
+	}
+
+	@Test
+	void findOrdersCreatedBetweenWithFields_shouldNotJoinTheLines() {
+		// Arrange
+		LocalDateTime from = order.getCreatedAt().minusDays(1);
+
+		// Act
+		List<Order> orders = orderRepositoryAdapter.findByUserIdCreatedBetween(user.getId(), from, from.plusDays(2),
+				Fieldset.of(List.of("id", "user", "status")));
+
+		// Assert
+		assertEquals(1, orders.size());
+		assertEquals(user.getId(), orders.get(0).getUser().getId());
+		assertNull(orders.get(0).getOrderProducts());
+		assertEquals(List.of(), reads("orders_products", "products", "users"));
+	}
+
+	@Test
+	void findAllOrdersWithTheTotal_shouldReadTheStoredTotal() {
+		// Act
+		List<Order> orders = orderRepositoryAdapter.findAll(Fieldset.of(List.of("id", "total")));
+
+		// Assert
+		assertEquals(1, orders.size());
+		assertEquals(Money.valueOf("299.80"), orders.get(0).getTotal());
+		assertNull(orders.get(0).getOrderProducts());
+	}
+
+	@Test
+	void findOrdersCreatedBetweenWithTheTotal_shouldNotJoinTheLines() {
+		// Arrange
+		LocalDateTime from = order.getCreatedAt().minusDays(1);
+
+		// Act
+		List<Order> orders = orderRepositoryAdapter.findCreatedBetween(from, from.plusDays(2),
+				Fieldset.of(List.of("id", "total")));
+
+		// Assert
+		assertEquals(1, orders.size());
+		assertEquals(order.getId(), orders.get(0).getId());
+		assertEquals(Money.valueOf("299.80"), orders.get(0).getTotal());
+		assertNull(orders.get(0).getOrderProducts());
+		assertEquals(List.of(), reads("orders_products", "products", "users"));
+	}
+
+	@Test
+	void findActiveUsersWithFields_shouldNotLoadOrdersOrCountry() {
+		// Act
+		List<User> users = userRepositoryAdapter.findAllActive(Fieldset.of(List.of("id", "email")), 0, 20);
+
+		// Assert
+		assertEquals(1, users.size());
+		assertEquals(user.getId(), users.get(0).getId());
+		assertEquals("projection@example.com", users.get(0).getEmail());
+		assertNull(users.get(0).getFullName());
+		assertNull(users.get(0).getCountry());
+		assertNull(users.get(0).getOrders());
+		assertEquals(List.of(), reads("orders", "orders_products", "countries"));
+	}
+
+	@Test
+	void findActiveUsersWithFields_shouldLoadTheRequestedAssociations() {
+		// Act
+		List<User> users = userRepositoryAdapter.findAllActive(Fieldset.of(List.of("fullName", "country", "orders")), 0, 20);
+
+		// Assert
+		assertEquals(1, users.size());
+		assertNull(users.get(0).getId());
+		assertEquals("Projected User", users.get(0).getFullName());
+		assertEquals("Italy", users.get(0).getCountry().getName());
+		assertEquals(order.getId(), users.get(0).getOrders().get(0).getId());
+		assertEquals("Monitor", users.get(0).getOrders().get(0).getOrderProducts().get(0).getProduct().getName());
+	}
+
+	// the statements that select from or join any of the tables
+	private static List<String> reads(String... tables) {
+		Pattern readsTables = Pattern.compile("(?i)\\b(from|join)\\s+(" + String.join("|", tables) + ")\\b");
+		return CapturingInspector.STATEMENTS.stream()
+				.filter(sql -> readsTables.matcher(sql).find())
+				.collect(Collectors.toList());
+	}
+
+	public static class CapturingInspector implements StatementInspector {
+
+		static final List<String> STATEMENTS = new CopyOnWriteArrayList<>();
+
+		@Override
+		public String inspect(String sql) {
+			STATEMENTS.add(sql);
+			return sql;
+		}
+	}
+}
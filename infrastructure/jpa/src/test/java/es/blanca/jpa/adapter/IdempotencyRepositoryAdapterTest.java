@@ -0,0 +1,92 @@
+package es.blanca.jpa.adapter;
+
+import es.blanca.domain.exceptions.IdempotencyConflictException;
+import es.blanca.domain.model.IdempotencyRecord;
+import es.blanca.domain.model.IdempotentResponse;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@Transactional
+class IdempotencyRepositoryAdapterTest {
+
+	@Autowired
+	private IdempotencyRepositoryAdapter idempotencyRepositoryAdapter;
+
+	@Test
+	void insert_shouldThrowConflict_whenTheKeyIsTaken() {
+		// Arrange
+		LocalDateTime now = LocalDateTime.now();
+		idempotencyRepositoryAdapter.insert(new IdempotencyRecord("key-1", "hash", null, now.plusMinutes(1)));
+
+		// Act & Assert
+		assertThrows(IdempotencyConflictException.class,
+				() -> idempotencyRepositoryAdapter.insert(new IdempotencyRecord("key-1", "hash", null, now.plusMinutes(1))));
+		Optional<IdempotencyRecord> running = idempotencyRepositoryAdapter.findByKey("key-1", now);
+		assertTrue(running.isPresent());
+		assertNull(running.get().getResponse());
+	}
+
+	@Test
+	void complete_shouldStoreTheResponseToReplay() {
+		// Arrange
+		LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.MILLIS);
+		IdempotencyRecord claim = new IdempotencyRecord("key-2", "hash", null, now.plusMinutes(1));
+		idempotencyRepositoryAdapter.insert(claim);
+
+		// Act
+		boolean stored = idempotencyRepositoryAdapter.complete(claim, new IdempotencyRecord("key-2", "hash",
+				new IdempotentResponse(202, "/orders/placements/1", "{\"id\":1}", false), now.plusHours(24)));
+
+		// Assert
+		assertTrue(stored);
+		IdempotencyRecord record = idempotencyRepositoryAdapter.findByKey("key-2", now.plusHours(1)).orElseThrow();
+		assertEquals(202, record.getResponse().getStatusCode());
+		assertEquals("/orders/placements/1", record.getResponse().getLocation());
+		assertEquals("{\"id\":1}", record.getResponse().getBody());
+		assertEquals("hash", record.getRequestHash());
+	}
+
+	@Test
+	void completeAndDelete_shouldLeaveAKeyClaimedAgain() {
+		// Arrange
+		LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.MILLIS);
+		IdempotencyRecord expiredClaim = new IdempotencyRecord("key-5", "hash", null, now.minusSeconds(1));
+		idempotencyRepositoryAdapter.insert(expiredClaim);
+		idempotencyRepositoryAdapter.deleteIfExpired("key-5", now);
+		idempotencyRepositoryAdapter.insert(new IdempotencyRecord("key-5", "hash", null, now.plusMinutes(1)));
+
+		// Act
+		boolean stored = idempotencyRepositoryAdapter.complete(expiredClaim, new IdempotencyRecord("key-5", "hash",
+				new IdempotentResponse(201, null, "{\"id\":1}", false), now.plusHours(24)));
+		idempotencyRepositoryAdapter.delete(expiredClaim);
+
+		// Assert
+		assertFalse(stored);
+		IdempotencyRecord running = idempotencyRepositoryAdapter.findByKey("key-5", now).orElseThrow();
+		assertNull(running.getResponse());
+	}
+
+	@Test
+	void expiredKeys_shouldBeInvisibleAndDeletable() {
+		// Arrange
+		LocalDateTime now = LocalDateTime.now();
+		idempotencyRepositoryAdapter.insert(new IdempotencyRecord("key-3", "hash", null, now.minusSeconds(1)));
+		idempotencyRepositoryAdapter.insert(new IdempotencyRecord("key-4", "hash", null, now.plusMinutes(1)));
+
+		// Act & Assert
+		assertTrue(idempotencyRepositoryAdapter.findByKey("key-3", now).isEmpty());
+		assertFalse(idempotencyRepositoryAdapter.deleteIfExpired("key-4", now));
+		assertTrue(idempotencyRepositoryAdapter.deleteIfExpired("key-3", now));
+		idempotencyRepositoryAdapter.insert(new IdempotencyRecord("key-3", "other", null, now.plusMinutes(1)));
+		assertEquals(2, idempotencyRepositoryAdapter.deleteExpired(now.plusMinutes(2)));
+	}
+}
@@ -0,0 +1,128 @@
+package es.blanca.jpa.adapter;
+
+import es.blanca.application.ProductServiceImpl;
+import es.blanca.domain.event.DomainEvent;
+import es.blanca.domain.event.ProductUpdated;
+import es.blanca.domain.exceptions.VersionConflictException;
+import es.blanca.domain.model.Money;
+import es.blanca.domain.model.Product;
+import es.blanca.domain.model.ProductStatus;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// no test transaction: every save commits like it would in the service
+@SpringBootTest
+class OptimisticLockingTest {
+
+	@Autowired
+	private ProductRepositoryAdapter productRepositoryAdapter;
+
+	@Autowired
+	private InventoryRepositoryAdapter inventoryRepositoryAdapter;
+
+	@Autowired
+	private OutboxRepositoryAdapter outboxRepositoryAdapter;
+
+	@Autowired
+	private PlatformTransactionManager transactionManager;
+
+	private Product product;
+
+	@BeforeEach
+	void setUp() {
+		// Arrange
+		Product newProduct = new Product();
+		newProduct.setName("Monitor");
+		newProduct.setPrice(Money.valueOf("199.99"));
+		newProduct.setStatus(ProductStatus.AVAILABLE);
+		newProduct.setCreatedAt(LocalDateTime.now());
+		product = productRepositoryAdapter.save(newProduct);
+	}
+
+	@AfterEach
+	void tearDown() {
+		productRepositoryAdapter.deleteById(product.getId());
+	}
+
+	@Test
+	void save_shouldIncrementVersion() {
+		// Act
+		product.setName("Monitor 27");
+		Product saved = productRepositoryAdapter.save(product);
+
+		// Assert
+		assertEquals(0L, product.getVersion());
+		assertEquals(1L, saved.getVersion());
+	}
+
+	@Test
+	void save_shouldReturnTheNewVersion_insideATransaction() {
+		// Act
+		product.setName("Monitor 27");
+		Product saved = new TransactionTemplate(transactionManager).execute(status -> productRepositoryAdapter.save(product));
+
+		// Assert
+		assertEquals(1L, saved.getVersion());
+	}
+
+	@Test
+	void update_shouldPublishTheNewVersion() {
+		// Arrange
+		List<DomainEvent> events = new ArrayList<>();
+		ProductServiceImpl productService = new ProductServiceImpl(productRepositoryAdapter, inventoryRepositoryAdapter, outboxRepositoryAdapter, events::add);
+		Product change = new Product();
+		change.setName("Monitor 27");
+
+		// Act
+		new TransactionTemplate(transactionManager).executeWithoutResult(status -> productService.update(product.getId(), change));
+
+		// Assert
+		assertEquals(List.of(new ProductUpdated(product.getId(), 1L)), events);
+	}
+
+	@Test
+	void save_shouldFail_whenAnotherWriterSavedFirst() {
+		// Arrange
+		Product first = productRepositoryAdapter.findById(product.getId()).orElseThrow();
+		Product second = productRepositoryAdapter.findById(product.getId()).orElseThrow();
+		first.setPrice(Money.valueOf("149.99"));
+		productRepositoryAdapter.save(first);
+
+		// Act & Assert
+		second.setName("Lost update");
+		assertThrows(OptimisticLockingFailureException.class, () -> productRepositoryAdapter.save(second));
+		Product current = productRepositoryAdapter.findById(product.getId()).orElseThrow();
+		assertEquals("Monitor", current.getName());
+		assertEquals(Money.valueOf("149.99"), current.getPrice());
+	}
+
+	@Test
+	void update_shouldRejectStaleVersion() {
+		// Arrange
+		ProductServiceImpl productService = new ProductServiceImpl(productRepositoryAdapter, inventoryRepositoryAdapter, outboxRepositoryAdapter, event -> {});
+		Product change = new Product();
+		change.setName("Monitor 27");
+		change.setVersion(product.getVersion());
+		productService.update(product.getId(), change);
+
+		Product staleChange = new Product();
+		staleChange.setName("Monitor 32");
+		staleChange.setVersion(product.getVersion());
+
+		// Act & Assert
+		assertThrows(VersionConflictException.class, () -> productService.update(product.getId(), staleChange));
+		assertEquals("Monitor 27", productRepositoryAdapter.findById(product.getId()).orElseThrow().getName());
+	}
+}
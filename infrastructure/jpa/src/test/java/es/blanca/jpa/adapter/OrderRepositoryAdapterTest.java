@@ -5,6 +5,9 @@ import es.blanca.domain.model.OrderStatus;
 import es.blanca.jpa.entity.OrderEntity;
 import es.blanca.jpa.mapper.OrderPersistenceMapper;
 import es.blanca.jpa.repository.OrderJpaRepository;
+import es.blanca.jpa.repository.ProductJpaRepository;
+import es.blanca.jpa.repository.UserJpaRepository;
+import es.blanca.jpa.view.OrderViewDao;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -31,6 +34,15 @@ class OrderRepositoryAdapterTest {
 	@Mock
 	private OrderPersistenceMapper orderPersistenceMapper;
 
+	@Mock
+	private UserJpaRepository userJpaRepository;
+
+	@Mock
+	private ProductJpaRepository productJpaRepository;
+
+	@Mock
+	private OrderViewDao orderViewDao;
+
 	@InjectMocks
 	private OrderRepositoryAdapter orderRepositoryAdapter;
 
@@ -54,7 +66,7 @@ class OrderRepositoryAdapterTest {
 	void save_shouldSaveOrder() {
 		// Arrange
 		when(orderPersistenceMapper.toEntity(any(Order.class))).thenReturn(orderEntity);
-		when(orderJpaRepository.save(any(OrderEntity.class))).thenReturn(orderEntity);
+		when(orderJpaRepository.saveAndFlush(any(OrderEntity.class))).thenReturn(orderEntity);
 		when(orderPersistenceMapper.toDomain(any(OrderEntity.class))).thenReturn(order);
 
 		// Act
@@ -64,7 +76,8 @@ class OrderRepositoryAdapterTest {
 		assertNotNull(savedOrder);
 		assertEquals(1L, savedOrder.getId());
 		assertEquals(OrderStatus.PENDING, savedOrder.getStatus());
-		verify(orderJpaRepository, times(1)).save(orderEntity);
+		verify(orderJpaRepository, times(1)).saveAndFlush(orderEntity);
+		verify(orderViewDao, times(1)).write(orderEntity);
 		verify(orderPersistenceMapper, times(1)).toEntity(order);
 		verify(orderPersistenceMapper, times(1)).toDomain(orderEntity);
 	}
@@ -101,17 +114,11 @@ class OrderRepositoryAdapterTest {
 	@Test
 	void findByUserId_shouldReturnUserOrders() {
 		// Arrange
-		OrderEntity order2Entity = new OrderEntity();
-		order2Entity.setId(2L);
-		order2Entity.setStatus(OrderStatus.COMPLETED);
-
 		Order order2 = new Order();
 		order2.setId(2L);
 		order2.setStatus(OrderStatus.COMPLETED);
 
-		when(orderJpaRepository.findByUserId(1L)).thenReturn(Arrays.asList(orderEntity, order2Entity));
-		when(orderPersistenceMapper.toDomain(orderEntity)).thenReturn(order);
-		when(orderPersistenceMapper.toDomain(order2Entity)).thenReturn(order2);
+		when(orderViewDao.findByUserId(1L)).thenReturn(Arrays.asList(order, order2));
 
 		// Act
 		List<Order> orders = orderRepositoryAdapter.findByUserId(1L);
@@ -119,13 +126,14 @@ class OrderRepositoryAdapterTest {
 		// Assert
 		assertNotNull(orders);
 		assertEquals(2, orders.size());
-		verify(orderJpaRepository, times(1)).findByUserId(1L);
+		verify(orderViewDao, times(1)).findByUserId(1L);
+		verifyNoInteractions(orderJpaRepository);
 	}
 
 	@Test
 	void findByUserId_shouldReturnEmptyList_whenNoOrders() {
 		// Arrange
-		when(orderJpaRepository.findByUserId(999L)).thenReturn(Collections.emptyList());
+		when(orderViewDao.findByUserId(999L)).thenReturn(Collections.emptyList());
 
 		// Act
 		List<Order> orders = orderRepositoryAdapter.findByUserId(999L);
@@ -133,21 +141,16 @@ class OrderRepositoryAdapterTest {
 		// Assert
 		assertNotNull(orders);
 		assertTrue(orders.isEmpty());
-		verify(orderJpaRepository, times(1)).findByUserId(999L);
+		verify(orderViewDao, times(1)).findByUserId(999L);
 	}
 
 	@Test
 	void findAll_shouldReturnAllOrders() {
 		// Arrange
-		OrderEntity order2Entity = new OrderEntity();
-		order2Entity.setId(2L);
-
 		Order order2 = new Order();
 		order2.setId(2L);
 
-		when(orderJpaRepository.findAll()).thenReturn(Arrays.asList(orderEntity, order2Entity));
-		when(orderPersistenceMapper.toDomain(orderEntity)).thenReturn(order);
-		when(orderPersistenceMapper.toDomain(order2Entity)).thenReturn(order2);
+		when(orderViewDao.findAll()).thenReturn(Arrays.asList(order, order2));
 
 		// Act
 		List<Order> orders = orderRepositoryAdapter.findAll();
@@ -155,13 +158,14 @@ class OrderRepositoryAdapterTest {
 		// Assert
 		assertNotNull(orders);
 		assertEquals(2, orders.size());
-		verify(orderJpaRepository, times(1)).findAll();
+		verify(orderViewDao, times(1)).findAll();
+		verifyNoInteractions(orderJpaRepository);
 	}
 
 	@Test
 	void findAll_shouldReturnEmptyList_whenNoOrders() {
 		// Arrange
-		when(orderJpaRepository.findAll()).thenReturn(Collections.emptyList());
+		when(orderViewDao.findAll()).thenReturn(Collections.emptyList());
 
 		// Act
 		List<Order> orders = orderRepositoryAdapter.findAll();
@@ -169,7 +173,7 @@ class OrderRepositoryAdapterTest {
 		// Assert
 		assertNotNull(orders);
 		assertTrue(orders.isEmpty());
-		verify(orderJpaRepository, times(1)).findAll();
+		verify(orderViewDao, times(1)).findAll();
 	}
 
 	@Test
@@ -1,10 +1,12 @@
 package es.blanca.jpa.adapter;
 
+import es.blanca.domain.model.Money;
 import es.blanca.domain.model.Product;
 import es.blanca.domain.model.ProductStatus;
 import es.blanca.jpa.entity.ProductEntity;
 import es.blanca.jpa.mapper.ProductPersistenceMapper;
 import es.blanca.jpa.repository.ProductJpaRepository;
+import es.blanca.jpa.view.OrderViewRefreshDao;
 import jakarta.persistence.EntityManager;
 import jakarta.persistence.TypedQuery;
 import jakarta.persistence.criteria.*;
@@ -41,6 +43,8 @@ class ProductRepositoryAdapterTest {
 	private Predicate mockPredicate;
 	@Mock
 	private TypedQuery<ProductEntity> typedQuery;
+	@Mock
+	private OrderViewRefreshDao orderViewRefreshDao;
 	@InjectMocks
 	private ProductRepositoryAdapter productRepositoryAdapter;
 
@@ -50,17 +54,18 @@ class ProductRepositoryAdapterTest {
 	@BeforeEach
 	void setUp() {
 		// Solo inicializamos los objetos, no los mocks
-		product = new Product(1L, "Laptop", 999.99, ProductStatus.AVAILABLE, LocalDateTime.now());
+		product = new Product(1L, "Laptop", Money.valueOf("999.99"), ProductStatus.AVAILABLE, 10, LocalDateTime.now(), 0L);
 		productEntity = new ProductEntity();
 		productEntity.setId(1L);
 		productEntity.setName("Laptop");
-		productEntity.setPrice(999.99);
+		productEntity.setPrice(Money.valueOf("999.99"));
 		productEntity.setStatus(ProductStatus.AVAILABLE);
 		productEntity.setCreatedAt(LocalDateTime.now());
 	}
 
 	@Test
 	void save_shouldSaveProduct() {
+		product.setId(null);
 		when(productPersistenceMapper.toEntity(any(Product.class))).thenReturn(productEntity);
 		when(productJpaRepository.save(any(ProductEntity.class))).thenReturn(productEntity);
 		when(productPersistenceMapper.toDomain(any(ProductEntity.class))).thenReturn(product);
@@ -69,13 +74,41 @@ class ProductRepositoryAdapterTest {
 		assertEquals("Laptop", savedProduct.getName());
 	}
 
+	@Test
+	void save_shouldFlushTheUpdate() {
+		// Arrange
+		when(productPersistenceMapper.toEntity(any(Product.class))).thenReturn(productEntity);
+		when(productJpaRepository.saveAndFlush(any(ProductEntity.class))).thenReturn(productEntity);
+		when(productPersistenceMapper.toDomain(any(ProductEntity.class))).thenReturn(product);
+
+		// Act
+		productRepositoryAdapter.save(product);
+
+		// Assert
+		verify(productJpaRepository).saveAndFlush(productEntity);
+		verify(productJpaRepository, never()).save(any());
+		verify(orderViewRefreshDao).request(1L);
+	}
+
 	@Test
 	void findById_shouldReturnProduct_whenExists() {
 		when(productJpaRepository.findById(1L)).thenReturn(Optional.of(productEntity));
 		when(productPersistenceMapper.toDomain(any(ProductEntity.class))).thenReturn(product);
+		when(productJpaRepository.findVersionAndStockById(1L)).thenReturn(Optional.of(versionAndStock(null, 4)));
 		Optional<Product> result = productRepositoryAdapter.findById(1L);
 		assertTrue(result.isPresent());
 		assertEquals("Laptop", result.get().getName());
+		assertEquals(4, result.get().getStock());
+	}
+
+	@Test
+	void findById_shouldReturnEmpty_whenTheRowIsGone() {
+		// Arrange
+		when(productJpaRepository.findVersionAndStockById(1L)).thenReturn(Optional.empty());
+
+		// Act & Assert
+		assertTrue(productRepositoryAdapter.findById(1L).isEmpty());
+		verify(productJpaRepository, never()).findById(any());
 	}
 
 	@Test
@@ -136,4 +169,18 @@ class ProductRepositoryAdapterTest {
 		// Verificamos que .where() NUNCA FUE llamado.
 		verify(criteriaQuery, never()).where(any(Predicate.class));
 	}
-}
\ No newline at end of file
+
+	private static ProductJpaRepository.VersionAndStock versionAndStock(Long version, Integer stock) {
+		return new ProductJpaRepository.VersionAndStock() {
+			@Override
+			public Long getVersion() {
+				return version;
+			}
+
+			@Override
+			public Integer getStock() {
+				return stock;
+			}
+		};
+	}
+}
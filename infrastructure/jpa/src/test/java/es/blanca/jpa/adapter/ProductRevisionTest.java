@@ -0,0 +1,101 @@
+package es.blanca.jpa.adapter;
+
+import es.blanca.domain.model.Money;
+import es.blanca.domain.model.Product;
+import es.blanca.domain.model.ProductStatus;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@Transactional
+class ProductRevisionTest {
+
+	private static final Map<String, Object> REVISION_PRODUCTS = Map.of("name", "revision");
+
+	@Autowired
+	private ProductRepositoryAdapter productRepositoryAdapter;
+
+	@Autowired
+	private InventoryRepositoryAdapter inventoryRepositoryAdapter;
+
+	@Test
+	void findRevision_shouldStayTheSame_whileNothingChanges() {
+		// Arrange
+		save("Revision mouse", ProductStatus.AVAILABLE, 10);
+		save("Revision pad", ProductStatus.AVAILABLE, null);
+
+		// Act
+		long first = productRepositoryAdapter.findRevision(REVISION_PRODUCTS);
+		long second = productRepositoryAdapter.findRevision(REVISION_PRODUCTS);
+
+		// Assert
+		assertEquals(first, second);
+	}
+
+	@Test
+	void findRevision_shouldChange_whenStockIsReserved() {
+		// Arrange
+		Product product = save("Revision mouse", ProductStatus.AVAILABLE, 10);
+		long before = productRepositoryAdapter.findRevision(REVISION_PRODUCTS);
+
+		// Act
+		inventoryRepositoryAdapter.reserve(product.getId(), 1);
+
+		// Assert
+		assertNotEquals(before, productRepositoryAdapter.findRevision(REVISION_PRODUCTS));
+	}
+
+	@Test
+	void findRevision_shouldChange_whenAProductIsUpdatedAddedOrDeleted() {
+		// Arrange
+		Product product = save("Revision mouse", ProductStatus.AVAILABLE, 10);
+		long initial = productRepositoryAdapter.findRevision(REVISION_PRODUCTS);
+
+		// Act
+		product.setPrice(Money.valueOf("24.90"));
+		productRepositoryAdapter.save(product);
+		long updated = productRepositoryAdapter.findRevision(REVISION_PRODUCTS);
+		Product added = save("Revision pad", ProductStatus.AVAILABLE, 5);
+		long afterAdd = productRepositoryAdapter.findRevision(REVISION_PRODUCTS);
+		productRepositoryAdapter.deleteById(added.getId());
+		long afterDelete = productRepositoryAdapter.findRevision(REVISION_PRODUCTS);
+
+		// Assert
+		assertNotEquals(initial, updated);
+		assertNotEquals(updated, afterAdd);
+		assertEquals(updated, afterDelete);
+	}
+
+	@Test
+	void findRevision_shouldIgnoreProductsOutsideTheFilters() {
+		// Arrange
+		save("Revision mouse", ProductStatus.AVAILABLE, 10);
+		Product discontinued = save("Revision pad", ProductStatus.DISCONTINUED, 5);
+		Map<String, Object> available = Map.of("name", "revision", "status", ProductStatus.AVAILABLE);
+		long before = productRepositoryAdapter.findRevision(available);
+
+		// Act
+		inventoryRepositoryAdapter.setStock(discontinued.getId(), 50);
+
+		// Assert
+		assertEquals(before, productRepositoryAdapter.findRevision(available));
+		assertNotEquals(before, productRepositoryAdapter.findRevision(REVISION_PRODUCTS));
+	}
+
+	private Product save(String name, ProductStatus status, Integer stock) {
+		Product product = new Product();
+		product.setName(name);
+		product.setPrice(Money.valueOf("19.90"));
+		product.setStatus(status);
+		product.setStock(stock);
+		product.setCreatedAt(LocalDateTime.now());
+		return productRepositoryAdapter.save(product);
+	}
+}
@@ -4,7 +4,9 @@ import es.blanca.domain.exceptions.EntityNotFoundException;
 import es.blanca.domain.model.Role;
 import es.blanca.domain.model.User;
 import es.blanca.jpa.entity.UserEntity;
+import es.blanca.jpa.mapper.OrderPersistenceMapper;
 import es.blanca.jpa.mapper.UserPersistenceMapper;
+import es.blanca.jpa.repository.OrderJpaRepository;
 import es.blanca.jpa.repository.UserJpaRepository;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -12,6 +14,7 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.PageRequest;
 
 import java.time.LocalDateTime;
 import java.util.Arrays;
@@ -32,6 +35,12 @@ class UserRepositoryAdapterTest {
 	@Mock
 	private UserPersistenceMapper userPersistenceMapper;
 
+	@Mock
+	private OrderJpaRepository orderJpaRepository;
+
+	@Mock
+	private OrderPersistenceMapper orderPersistenceMapper;
+
 	@InjectMocks
 	private UserRepositoryAdapter userRepositoryAdapter;
 
@@ -172,6 +181,34 @@ class UserRepositoryAdapterTest {
 		verify(userJpaRepository, times(1)).findByEmail("nonexistent@example.com");
 	}
 
+	@Test
+	void findActiveByEmail_shouldUseTheActiveOnlyQuery() {
+		// Arrange
+		when(userJpaRepository.findActiveByEmail("test@example.com")).thenReturn(Optional.of(userEntity));
+		when(userPersistenceMapper.toDomain(any(UserEntity.class))).thenReturn(user);
+
+		// Act
+		Optional<User> foundUser = userRepositoryAdapter.findActiveByEmail("test@example.com");
+
+		// Assert
+		assertTrue(foundUser.isPresent());
+		verify(userJpaRepository, never()).findByEmail(any());
+	}
+
+	@Test
+	void findByCountryCode_shouldReadOnePageWithoutOrders() {
+		// Arrange
+		when(userJpaRepository.findByCountryCode("ES", PageRequest.of(2, 10))).thenReturn(List.of(userEntity));
+		when(userPersistenceMapper.toDomain(userEntity)).thenReturn(user);
+
+		// Act
+		List<User> users = userRepositoryAdapter.findByCountryCode("ES", 2, 10);
+
+		// Assert
+		assertEquals(List.of(user), users);
+		verify(orderJpaRepository, never()).findLatestIdsByUserIdIn(any(), anyInt());
+	}
+
 	@Test
 	void findAll_shouldReturnAllUsers() {
 		// Arrange
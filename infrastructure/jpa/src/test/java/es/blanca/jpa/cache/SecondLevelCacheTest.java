@@ -0,0 +1,172 @@
+package es.blanca.jpa.cache;
+
+import es.blanca.application.OrderServiceImpl;
+import es.blanca.domain.event.ProductUpdated;
+import es.blanca.domain.model.Money;
+import es.blanca.domain.model.Country;
+import es.blanca.domain.model.Order;
+import es.blanca.domain.model.OrderProduct;
+import es.blanca.domain.model.Product;
+import es.blanca.domain.model.ProductStatus;
+import es.blanca.domain.model.Role;
+import es.blanca.domain.model.User;
+import es.blanca.jpa.adapter.CountryRepositoryAdapter;
+import es.blanca.jpa.adapter.InventoryRepositoryAdapter;
+import es.blanca.jpa.adapter.OrderRepositoryAdapter;
+import es.blanca.jpa.adapter.OutboxRepositoryAdapter;
+import es.blanca.jpa.adapter.ProductRepositoryAdapter;
+import es.blanca.jpa.adapter.UserRepositoryAdapter;
+import es.blanca.jpa.entity.ProductEntity;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = {
+		"jpa.cache.statistics=true",
+		"spring.jpa.properties.hibernate.session_factory.statement_inspector=es.blanca.jpa.cache.SecondLevelCacheTest$CapturingInspector"
+})
+class SecondLevelCacheTest {
+
+	private static final Pattern READS_CACHED_TABLES = Pattern.compile("(?i)\\b(from|join)\\s+(products|countries)\\b");
+
+	@Autowired
+	private CountryRepositoryAdapter countryRepositoryAdapter;
+
+	@Autowired
+	private UserRepositoryAdapter userRepositoryAdapter;
+
+	@Autowired
+	private ProductRepositoryAdapter productRepositoryAdapter;
+
+	@Autowired
+	private OrderRepositoryAdapter orderRepositoryAdapter;
+
+	@Autowired
+	private InventoryRepositoryAdapter inventoryRepositoryAdapter;
+
+	@Autowired
+	private OutboxRepositoryAdapter outboxRepositoryAdapter;
+
+	@Autowired
+	private PlatformTransactionManager transactionManager;
+
+	@Autowired
+	private EntityManagerFactory entityManagerFactory;
+
+	@Autowired
+	private ProductCacheEvictor productCacheEvictor;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@Test
+	void warmOrderCreation_shouldNotSelectProductsOrCountries() {
+		// Arrange
+		TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+		OrderServiceImpl orderService = new OrderServiceImpl(orderRepositoryAdapter, userRepositoryAdapter, inventoryRepositoryAdapter, outboxRepositoryAdapter, event -> {});
+		User user = transaction.execute(status -> createUser());
+		Product product = transaction.execute(status -> createProduct());
+		// the first order loads the product into the cache
+		transaction.execute(status -> orderService.create(newOrder(user, product)));
+		CapturingInspector.STATEMENTS.clear();
+
+		// Act
+		Order created = transaction.execute(status -> orderService.create(newOrder(user, product)));
+
+		// Assert
+		assertEquals("Keyboard", created.getOrderProducts().get(0).getProduct().getName());
+		List<String> cachedTableReads = CapturingInspector.STATEMENTS.stream()
+				.filter(sql -> READS_CACHED_TABLES.matcher(sql).find())
+				.collect(Collectors.toList());
+		assertEquals(List.of(), cachedTableReads);
+		assertTrue(entityManagerFactory.unwrap(SessionFactory.class).getStatistics()
+				.getDomainDataRegionStatistics(SecondLevelCacheProperties.PRODUCTS).getHitCount() > 0);
+	}
+
+	@Test
+	void productUpdated_shouldEvictTheCachedProduct() {
+		// Arrange
+		Product product = new TransactionTemplate(transactionManager).execute(status -> createProduct());
+		productRepositoryAdapter.findById(product.getId());
+		assertTrue(entityManagerFactory.getCache().contains(ProductEntity.class, product.getId()));
+
+		// Act
+		productCacheEvictor.onEvents(List.of(new ProductUpdated(product.getId(), 1L)));
+
+		// Assert
+		assertFalse(entityManagerFactory.getCache().contains(ProductEntity.class, product.getId()));
+	}
+
+	@Test
+	void findById_shouldNotServeAnOlderCachedVersion() {
+		// Arrange
+		Product product = new TransactionTemplate(transactionManager).execute(status -> createProduct());
+		productRepositoryAdapter.findById(product.getId());
+		// committed, but not evicted yet
+		jdbcTemplate.update("UPDATE products SET name = 'Renamed', version = version + 1 WHERE id = ?", product.getId());
+
+		// Act
+		Product found = productRepositoryAdapter.findById(product.getId()).orElseThrow();
+
+		// Assert
+		assertEquals(product.getVersion() + 1, found.getVersion());
+		assertEquals("Renamed", found.getName());
+	}
+
+	private User createUser() {
+		Country country = countryRepositoryAdapter.save(new Country("PT", "Portugal"));
+		User user = new User();
+		user.setRole(Role.ROLE_USER);
+		user.setFullName("Cache User");
+		user.setEmail("cache@example.com");
+		user.setPassword("hashedPassword");
+		user.setCreatedAt(LocalDateTime.now());
+		user.setCountry(country);
+		return userRepositoryAdapter.save(user);
+	}
+
+	private Product createProduct() {
+		Product product = new Product();
+		product.setName("Keyboard");
+		product.setPrice(Money.valueOf("49.90"));
+		product.setStatus(ProductStatus.AVAILABLE);
+		product.setCreatedAt(LocalDateTime.now());
+		return productRepositoryAdapter.save(product);
+	}
+
+	private static Order newOrder(User user, Product product) {
+		User reference = new User();
+		reference.setId(user.getId());
+		Product line = new Product();
+		line.setId(product.getId());
+		Order order = new Order();
+		order.setUser(reference);
+		order.setOrderProducts(List.of(new OrderProduct(order, line, 1)));
+		return order;
+	}
+
+	public static class CapturingInspector implements StatementInspector {
+
+		static final List<String> STATEMENTS = new CopyOnWriteArrayList<>();
+
+		@Override
+		public String inspect(String sql) {
+			STATEMENTS.add(sql);
+			return sql;
+		}
+	}
+}
@@ -0,0 +1,128 @@
+package es.blanca.jpa.compaction;
+
+import es.blanca.application.OrderServiceImpl;
+import es.blanca.domain.model.Money;
+import es.blanca.domain.model.Order;
+import es.blanca.domain.model.OrderProduct;
+import es.blanca.domain.model.Product;
+import es.blanca.domain.model.ProductStatus;
+import es.blanca.domain.model.Role;
+import es.blanca.domain.model.User;
+import es.blanca.jpa.adapter.InventoryRepositoryAdapter;
+import es.blanca.jpa.adapter.OrderRepositoryAdapter;
+import es.blanca.jpa.adapter.OutboxRepositoryAdapter;
+import es.blanca.jpa.adapter.ProductRepositoryAdapter;
+import es.blanca.jpa.adapter.UserRepositoryAdapter;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = "users.compaction.inactive-for=30d")
+@Transactional
+class UserCompactionTest {
+
+	@Autowired
+	private UserCompaction userCompaction;
+
+	@Autowired
+	private UserRepositoryAdapter userRepositoryAdapter;
+
+	@Autowired
+	private ProductRepositoryAdapter productRepositoryAdapter;
+
+	@Autowired
+	private OrderRepositoryAdapter orderRepositoryAdapter;
+
+	@Autowired
+	private InventoryRepositoryAdapter inventoryRepositoryAdapter;
+
+	@Autowired
+	private OutboxRepositoryAdapter outboxRepositoryAdapter;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@Autowired
+	private EntityManager entityManager;
+
+	@Test
+	void softDelete_shouldHideTheUserFromActiveQueries() {
+		// Arrange
+		User user = user("hidden@example.com");
+
+		// Act
+		deactivate(user);
+
+		// Assert
+		assertTrue(userRepositoryAdapter.findActiveByEmail("hidden@example.com").isEmpty());
+		assertTrue(userRepositoryAdapter.findAllActive().stream().noneMatch(active -> active.getId().equals(user.getId())));
+		assertTrue(userRepositoryAdapter.existsByEmail("hidden@example.com"));
+		assertNotNull(jdbcTemplate.queryForObject("SELECT deactivated_at FROM users WHERE id = ?", LocalDateTime.class, user.getId()));
+	}
+
+	@Test
+	void compact_shouldArchiveOnlyLongInactiveUsersWithoutOrders() {
+		// Arrange
+		User longInactive = user("long-inactive@example.com");
+		User recentlyInactive = user("recent@example.com");
+		User withOrders = user("orders@example.com");
+		User active = user("active@example.com");
+		placeOrder(withOrders);
+		deactivate(longInactive);
+		deactivate(recentlyInactive);
+		deactivate(withOrders);
+		jdbcTemplate.update("UPDATE users SET deactivated_at = ? WHERE id IN (?, ?)",
+				LocalDateTime.now().minusDays(90), longInactive.getId(), withOrders.getId());
+
+		// Act
+		int archived = userCompaction.compact();
+
+		// Assert
+		assertEquals(1, archived);
+		assertFalse(userRepositoryAdapter.existsById(longInactive.getId()));
+		assertEquals("long-inactive@example.com", jdbcTemplate.queryForObject(
+				"SELECT email FROM users_archive WHERE id = ?", String.class, longInactive.getId()));
+		assertTrue(userRepositoryAdapter.existsById(recentlyInactive.getId()));
+		assertTrue(userRepositoryAdapter.existsById(withOrders.getId()));
+		assertTrue(userRepositoryAdapter.existsById(active.getId()));
+	}
+
+	private User user(String email) {
+		User user = new User();
+		user.setRole(Role.ROLE_USER);
+		user.setFullName("Compaction User");
+		user.setEmail(email);
+		user.setPassword("hashedPassword");
+		user.setCreatedAt(LocalDateTime.now());
+		return userRepositoryAdapter.save(user);
+	}
+
+	private void deactivate(User user) {
+		User existing = userRepositoryAdapter.findById(user.getId()).orElseThrow();
+		existing.setActive(false);
+		userRepositoryAdapter.save(existing);
+		// the compaction works on the rows, not on the persistence context
+		entityManager.flush();
+	}
+
+	private void placeOrder(User user) {
+		Product product = new Product();
+		product.setName("Notebook");
+		product.setPrice(Money.valueOf("3.50"));
+		product.setStatus(ProductStatus.AVAILABLE);
+		product.setCreatedAt(LocalDateTime.now());
+		product = productRepositoryAdapter.save(product);
+		Order order = new Order();
+		order.setUser(user);
+		order.setOrderProducts(List.of(new OrderProduct(order, product, 1)));
+		new OrderServiceImpl(orderRepositoryAdapter, userRepositoryAdapter, inventoryRepositoryAdapter, outboxRepositoryAdapter, event -> {}).create(order);
+	}
+}
@@ -0,0 +1,90 @@
+package es.blanca.jpa.datasource;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// two in-memory H2 databases stand in for the primary and its replica
+@SpringBootTest(properties = {
+		"spring.datasource.url=jdbc:h2:mem:rw_primary;DB_CLOSE_DELAY=-1",
+		"datasource.replicas.instances[0].url=jdbc:h2:mem:ro_replica;DB_CLOSE_DELAY=-1",
+		"datasource.replicas.lag-query=SELECT 0"
+})
+class ReadReplicaRoutingTest {
+
+	@Autowired
+	private PlatformTransactionManager transactionManager;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@Test
+	void readOnlyTransaction_shouldUseReplica() {
+		// Arrange
+		TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+		transaction.setReadOnly(true);
+
+		// Act
+		String database = transaction.execute(status -> currentDatabase());
+
+		// Assert
+		assertEquals("RO_REPLICA", database);
+	}
+
+	@Test
+	void readWriteTransaction_shouldUsePrimary() {
+		// Arrange
+		TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+
+		// Act
+		String database = transaction.execute(status -> currentDatabase());
+
+		// Assert
+		assertEquals("RW_PRIMARY", database);
+	}
+
+	@Test
+	void select_shouldFallBackToPrimary_whenReplicaLagsTooFarBehind() {
+		// Arrange
+		DataSource primary = new DriverManagerDataSource("jdbc:h2:mem:rw_primary", "sa", "");
+		DataSource replica = new DriverManagerDataSource("jdbc:h2:mem:ro_replica", "sa", "");
+		ReplicaRoutingDataSource routing = new ReplicaRoutingDataSource(primary, Map.of("replica-0", replica),
+				Duration.ofSeconds(5), "SELECT 30");
+
+		// Act
+		routing.afterPropertiesSet();
+
+		// Assert
+		assertEquals(0, routing.healthyReplicas());
+		assertSame(primary, routing.select());
+	}
+
+	@Test
+	void select_shouldFallBackToPrimary_whenReplicaIsUnreachable() {
+		// Arrange
+		DataSource primary = new DriverManagerDataSource("jdbc:h2:mem:rw_primary", "sa", "");
+		DataSource replica = new DriverManagerDataSource("jdbc:h2:mem:ro_missing;IFEXISTS=TRUE", "sa", "");
+		ReplicaRoutingDataSource routing = new ReplicaRoutingDataSource(primary, Map.of("replica-0", replica),
+				Duration.ofSeconds(5), "SELECT 0");
+
+		// Act
+		routing.afterPropertiesSet();
+
+		// Assert
+		assertSame(primary, routing.select());
+	}
+
+	private String currentDatabase() {
+		return jdbcTemplate.queryForObject("SELECT DATABASE()", String.class).toUpperCase();
+	}
+}
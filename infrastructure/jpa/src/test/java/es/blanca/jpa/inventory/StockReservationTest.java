@@ -0,0 +1,251 @@
+package es.blanca.jpa.inventory;
+
+import es.blanca.domain.model.Money;
+import es.blanca.domain.model.Product;
+import es.blanca.domain.model.ProductStatus;
+import es.blanca.jpa.adapter.InventoryRepositoryAdapter;
+import es.blanca.jpa.adapter.ProductRepositoryAdapter;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+class StockReservationTest {
+
+	@Autowired
+	private InventoryRepositoryAdapter inventoryRepositoryAdapter;
+
+	@Autowired
+	private ProductRepositoryAdapter productRepositoryAdapter;
+
+	@Autowired
+	private HotStockInventory hotStockInventory;
+
+	@Autowired
+	private InventoryProperties inventoryProperties;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@Autowired
+	private PlatformTransactionManager transactionManager;
+
+	private final List<Long> productIds = new ArrayList<>();
+
+	@AfterEach
+	void tearDown() {
+		InventoryProperties.HotProducts hotProducts = inventoryProperties.getHotProducts();
+		hotProducts.setEnabled(false);
+		hotProducts.getIds().clear();
+		productIds.forEach(productRepositoryAdapter::deleteById);
+	}
+
+	@Test
+	void reserve_shouldNotOversell_whenOrdersRace() throws Exception {
+		// Arrange
+		Long productId = product(10);
+
+		// Act
+		int reserved = reserveConcurrently(productId, 32);
+
+		// Assert
+		assertEquals(10, reserved);
+		assertEquals(0, stock(productId));
+	}
+
+	@Test
+	void reserve_shouldAlwaysSucceed_whenStockIsNotTracked() {
+		// Arrange
+		Long productId = product(null);
+
+		// Act & Assert
+		assertTrue(inventoryRepositoryAdapter.reserve(productId, 1_000));
+		assertNull(stock(productId));
+	}
+
+	@Test
+	void release_shouldGiveUnitsBack() {
+		// Arrange
+		Long productId = product(3);
+		assertTrue(inventoryRepositoryAdapter.reserve(productId, 3));
+		assertFalse(inventoryRepositoryAdapter.reserve(productId, 1));
+
+		// Act
+		inventoryRepositoryAdapter.release(productId, 2);
+
+		// Assert
+		assertEquals(2, stock(productId));
+	}
+
+	@Test
+	void setStock_shouldBeVisibleThroughTheProduct() {
+		// Arrange
+		Long productId = product(3);
+		productRepositoryAdapter.findById(productId);
+
+		// Act
+		inventoryRepositoryAdapter.setStock(productId, 25);
+
+		// Assert
+		assertEquals(25, productRepositoryAdapter.findById(productId).orElseThrow().getStock());
+	}
+
+	@Test
+	void hotProduct_shouldLeaseInBatchesAndWriteBackIdleUnits() throws Exception {
+		// Arrange
+		Long productId = product(100);
+		hotProducts(productId);
+
+		// Act
+		int reserved = reserveConcurrently(productId, 45);
+		long stockWhileLeased = stock(productId);
+		hotStockInventory.writeBehind();
+
+		// Assert
+		assertEquals(45, reserved);
+		assertEquals(0, stockWhileLeased % 10, "the row only changes by whole leases");
+		assertTrue(stockWhileLeased <= 55);
+		assertEquals(55, stock(productId));
+	}
+
+	@Test
+	void hotProduct_shouldNotOversell() throws Exception {
+		// Arrange
+		Long productId = product(25);
+		hotProducts(productId);
+
+		// Act
+		int reserved = reserveConcurrently(productId, 40);
+		hotStockInventory.writeBehind();
+
+		// Assert
+		assertEquals(25, reserved);
+		assertEquals(0, stock(productId));
+	}
+
+	@Test
+	void hotProduct_shouldPutUnitsBack_whenTheOrderRollsBack() {
+		// Arrange
+		Long productId = product(20);
+		hotProducts(productId);
+
+		// Act
+		new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+			assertTrue(inventoryRepositoryAdapter.reserve(productId, 4));
+			status.setRollbackOnly();
+		});
+		hotStockInventory.writeBehind();
+
+		// Assert
+		assertEquals(20, stock(productId));
+	}
+
+	@Test
+	void reserve_shouldBeVisibleThroughTheCachedProduct() {
+		// Arrange
+		Long productId = product(8);
+		productRepositoryAdapter.findById(productId);
+
+		// Act
+		new TransactionTemplate(transactionManager).executeWithoutResult(status ->
+				assertTrue(inventoryRepositoryAdapter.reserve(productId, 3)));
+
+		// Assert
+		assertEquals(5, productRepositoryAdapter.findById(productId).orElseThrow().getStock());
+	}
+
+	@Test
+	void hotProduct_shouldKeepUnits_whenTheReleaseRollsBack() {
+		// Arrange
+		Long productId = product(20);
+		hotProducts(productId);
+		new TransactionTemplate(transactionManager).executeWithoutResult(status ->
+				assertTrue(inventoryRepositoryAdapter.reserve(productId, 4)));
+
+		// Act
+		new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+			inventoryRepositoryAdapter.release(productId, 4);
+			status.setRollbackOnly();
+		});
+		hotStockInventory.writeBehind();
+
+		// Assert
+		assertEquals(16, stock(productId));
+	}
+
+	@Test
+	void hotProduct_shouldKeepLeasedUnits_whenTheStockChangeRollsBack() {
+		// Arrange
+		Long productId = product(20);
+		hotProducts(productId);
+		new TransactionTemplate(transactionManager).executeWithoutResult(status ->
+				assertTrue(inventoryRepositoryAdapter.reserve(productId, 1)));
+
+		// Act
+		new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+			inventoryRepositoryAdapter.setStock(productId, 50);
+			status.setRollbackOnly();
+		});
+		hotStockInventory.writeBehind();
+
+		// Assert
+		assertEquals(19, stock(productId));
+	}
+
+	private int reserveConcurrently(Long productId, int orders) throws Exception {
+		TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+		ExecutorService executor = Executors.newFixedThreadPool(8);
+		List<Callable<Boolean>> tasks = new ArrayList<>();
+		for (int i = 0; i < orders; i++) {
+			tasks.add(() -> transaction.execute(status -> inventoryRepositoryAdapter.reserve(productId, 1)));
+		}
+		int reserved = 0;
+		for (Future<Boolean> result : executor.invokeAll(tasks)) {
+			if (result.get()) {
+				reserved++;
+			}
+		}
+		executor.shutdown();
+		return reserved;
+	}
+
+	private void hotProducts(Long productId) {
+		InventoryProperties.HotProducts hotProducts = inventoryProperties.getHotProducts();
+		hotProducts.setEnabled(true);
+		hotProducts.getIds().add(productId);
+		hotProducts.setLeaseSize(10);
+		// every counter counts as idle, so writeBehind returns everything it holds
+		hotProducts.setIdleTimeout(Duration.ZERO);
+	}
+
+	private Long product(Integer stock) {
+		Product product = new Product();
+		product.setName("Console");
+		product.setPrice(Money.valueOf("499.99"));
+		product.setStatus(ProductStatus.AVAILABLE);
+		product.setStock(stock);
+		product.setCreatedAt(LocalDateTime.now());
+		Long id = productRepositoryAdapter.save(product).getId();
+		productIds.add(id);
+		return id;
+	}
+
+	private Integer stock(Long productId) {
+		return jdbcTemplate.queryForObject("SELECT stock FROM products WHERE id = ?", Integer.class, productId);
+	}
+}
@@ -0,0 +1,62 @@
+package es.blanca.jpa.inventory;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class StripedStockCounterTest {
+
+	@Test
+	void tryTake_shouldNeverHandOutMoreThanWasAdded() throws Exception {
+		// Arrange
+		StripedStockCounter counter = new StripedStockCounter(4);
+		counter.add(1_000);
+		ExecutorService executor = Executors.newFixedThreadPool(8);
+		List<Callable<Integer>> tasks = new ArrayList<>();
+		for (int t = 0; t < 8; t++) {
+			tasks.add(() -> {
+				int taken = 0;
+				for (int i = 0; i < 500; i++) {
+					if (counter.tryTake(1)) {
+						taken++;
+					}
+				}
+				return taken;
+			});
+		}
+
+		// Act
+		int total = 0;
+		for (Future<Integer> result : executor.invokeAll(tasks)) {
+			total += result.get();
+		}
+		executor.shutdown();
+
+		// Assert
+		assertEquals(1_000, total);
+		assertEquals(0, counter.available());
+	}
+
+	@Test
+	void add_shouldSpreadUnitsOverAllStripes() {
+		// Arrange
+		StripedStockCounter counter = new StripedStockCounter(4);
+
+		// Act
+		counter.add(10);
+
+		// Assert
+		assertEquals(10, counter.available());
+		assertTrue(counter.tryTake(2));
+		assertFalse(counter.tryTake(9), "9 units are left but no single stripe holds them");
+		assertEquals(8, counter.drain());
+		assertEquals(0, counter.available());
+	}
+}
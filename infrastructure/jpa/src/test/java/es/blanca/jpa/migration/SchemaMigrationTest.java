@@ -0,0 +1,51 @@
+package es.blanca.jpa.migration;
+
+import org.flywaydb.core.Flyway;
+import org.flywaydb.core.api.MigrationInfo;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// the context only starts if Hibernate validates the entities against the migrated schema
+@SpringBootTest
+class SchemaMigrationTest {
+
+	@Autowired
+	private Flyway flyway;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@Test
+	void migrations_shouldAllBeApplied() {
+		// Act
+		MigrationInfo[] migrations = flyway.info().all();
+
+		// Assert
+		assertEquals(0, flyway.info().pending().length);
+		assertTrue(migrations.length > 0);
+		assertTrue(Arrays.stream(migrations).allMatch(info -> info.getState().isApplied()),
+				() -> Arrays.stream(migrations).map(info -> info.getVersion() + " " + info.getState()).toList().toString());
+	}
+
+	@Test
+	void lookupIndexes_shouldExist() {
+		// Act
+		List<String> indexes = jdbcTemplate.queryForList(
+				"SELECT LOWER(INDEX_NAME) FROM INFORMATION_SCHEMA.INDEXES", String.class);
+
+		// Assert
+		assertTrue(indexes.containsAll(List.of(
+				"idx_orders_user_id_creation_date",
+				"idx_orders_products_product_id",
+				"idx_users_country_code",
+				"idx_products_status_price",
+				"idx_order_view_creation_date")), () -> "indexes found: " + indexes);
+	}
+}
@@ -0,0 +1,207 @@
+package es.blanca.jpa.outbox;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import es.blanca.application.ProductServiceImpl;
+import es.blanca.domain.model.ChangeEvent;
+import es.blanca.domain.model.ChangeEventType;
+import es.blanca.domain.model.Money;
+import es.blanca.domain.model.Product;
+import es.blanca.domain.model.ProductStatus;
+import es.blanca.jpa.adapter.InventoryRepositoryAdapter;
+import es.blanca.jpa.adapter.OutboxRepositoryAdapter;
+import es.blanca.jpa.adapter.ProductRepositoryAdapter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = {"outbox.sink=memory", "outbox.relay.batch-size=2"})
+class OutboxRelayTest {
+
+	@Autowired
+	private OutboxRelay outboxRelay;
+
+	@Autowired
+	private OutboxDao outboxDao;
+
+	@Autowired
+	private InMemoryOutboxSink sink;
+
+	@Autowired
+	private OutboxProperties outboxProperties;
+
+	@Autowired
+	private ProductRepositoryAdapter productRepositoryAdapter;
+
+	@Autowired
+	private InventoryRepositoryAdapter inventoryRepositoryAdapter;
+
+	@Autowired
+	private OutboxRepositoryAdapter outboxRepositoryAdapter;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@Autowired
+	private PlatformTransactionManager transactionManager;
+
+	@BeforeEach
+	void setUp() {
+		jdbcTemplate.update("DELETE FROM outbox");
+		sink.clear();
+	}
+
+	@Test
+	void serviceWrite_shouldAppendItsEventInTheSameTransaction() {
+		// Arrange
+		TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+		ProductServiceImpl productService = new ProductServiceImpl(productRepositoryAdapter, inventoryRepositoryAdapter, outboxRepositoryAdapter, event -> {});
+
+		// Act
+		transaction.executeWithoutResult(status -> {
+			productService.create(product("Rolled back"));
+			status.setRollbackOnly();
+		});
+		Product created = transaction.execute(status -> productService.create(product("Committed")));
+
+		// Assert
+		List<Map<String, Object>> rows = jdbcTemplate.queryForList("SELECT aggregate_type, aggregate_id, event_type FROM outbox");
+		assertEquals(1, rows.size());
+		assertEquals("product", rows.get(0).get("AGGREGATE_TYPE"));
+		assertEquals(created.getId(), ((Number) rows.get(0).get("AGGREGATE_ID")).longValue());
+		assertEquals("PRODUCT_CREATED", rows.get(0).get("EVENT_TYPE"));
+		transaction.executeWithoutResult(status -> productService.delete(created.getId()));
+	}
+
+	@Test
+	void relay_shouldPublishEveryBatchInOrderAndEmptyTheOutbox() {
+		// Arrange
+		for (long id = 1; id <= 5; id++) {
+			outboxDao.insert(event(id));
+		}
+		SimpleMeterRegistry registry = new SimpleMeterRegistry();
+		outboxRelay.bindTo(registry);
+		double publishedBefore = registry.get("outbox.events.published").functionCounter().count();
+
+		// Act
+		int relayed = outboxRelay.relay();
+
+		// Assert
+		assertEquals(5, relayed);
+		assertEquals(List.of(1L, 2L, 3L, 4L, 5L), sink.events().stream().map(OutboxEvent::aggregateId).toList());
+		assertEquals("{\"id\":1,\"stock\":7}", sink.events().get(0).payload());
+		assertEquals(0, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM outbox", Integer.class));
+		assertEquals(5, registry.get("outbox.events.published").functionCounter().count() - publishedBefore);
+		assertEquals(0, registry.get("outbox.pending").gauge().value());
+		assertEquals(0, registry.get("outbox.lag").timeGauge().value(TimeUnit.SECONDS));
+	}
+
+	@Test
+	void relay_shouldKeepTheBatchAndReportTheLag_whenTheSinkFails() {
+		// Arrange
+		ChangeEvent old = event(1L);
+		old.setCreatedAt(LocalDateTime.now().minusMinutes(5));
+		outboxDao.insert(old);
+		OutboxRelay failingRelay = new OutboxRelay(outboxDao, events -> {
+			throw new IllegalStateException("sink down");
+		}, outboxProperties, transactionManager);
+		SimpleMeterRegistry registry = new SimpleMeterRegistry();
+		failingRelay.bindTo(registry);
+
+		// Act
+		int relayed = failingRelay.relay();
+
+		// Assert
+		assertEquals(0, relayed);
+		assertEquals(1, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM outbox", Integer.class));
+		assertEquals(1, registry.get("outbox.relay.failures").functionCounter().count());
+		assertEquals(1, registry.get("outbox.pending").gauge().value());
+		assertTrue(registry.get("outbox.lag").timeGauge().value(TimeUnit.SECONDS) >= 299);
+	}
+
+	@Test
+	void claim_shouldSkipTheRowsAnotherRelayHoldsLocked() throws Exception {
+		// Arrange
+		for (long id = 1; id <= 4; id++) {
+			outboxDao.insert(event(id));
+		}
+		TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+		CountDownLatch claimed = new CountDownLatch(1);
+		CountDownLatch release = new CountDownLatch(1);
+		CompletableFuture<List<OutboxEvent>> otherNode = CompletableFuture.supplyAsync(() -> transaction.execute(status -> {
+			List<OutboxEvent> events = outboxDao.claim(2);
+			claimed.countDown();
+			try {
+				release.await(10, TimeUnit.SECONDS);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+			return events;
+		}));
+		assertTrue(claimed.await(10, TimeUnit.SECONDS));
+
+		// Act
+		List<OutboxEvent> thisNode = transaction.execute(status -> outboxDao.claim(2));
+		release.countDown();
+
+		// Assert
+		assertEquals(List.of(1L, 2L), otherNode.get(10, TimeUnit.SECONDS).stream().map(OutboxEvent::aggregateId).toList());
+		assertEquals(List.of(3L, 4L), thisNode.stream().map(OutboxEvent::aggregateId).toList());
+	}
+
+	@Test
+	void fileSink_shouldAppendOneJsonLinePerEvent(@TempDir Path directory) throws Exception {
+		// Arrange
+		OutboxProperties properties = new OutboxProperties();
+		properties.getFile().setPath(directory.resolve("events/outbox.jsonl").toString());
+		FileOutboxSink fileSink = new FileOutboxSink(properties);
+		LocalDateTime createdAt = LocalDateTime.of(2024, 5, 1, 10, 0);
+
+		// Act
+		fileSink.publish(List.of(new OutboxEvent(1, "order", 10, "ORDER_CREATED", "{\"id\":10}", createdAt)));
+		fileSink.publish(List.of(new OutboxEvent(2, "order", 10, "ORDER_DELETED", "{\"id\":10}", createdAt)));
+		fileSink.destroy();
+
+		// Assert
+		List<String> lines = Files.readAllLines(directory.resolve("events/outbox.jsonl"));
+		assertEquals(2, lines.size());
+		JsonNode first = new ObjectMapper().readTree(lines.get(0));
+		assertEquals("ORDER_CREATED", first.get("type").asText());
+		assertEquals(10, first.get("payload").get("id").asLong());
+		assertEquals("2024-05-01T10:00", first.get("createdAt").asText());
+		assertEquals("ORDER_DELETED", new ObjectMapper().readTree(lines.get(1)).get("type").asText());
+	}
+
+	private static ChangeEvent event(Long productId) {
+		Map<String, Object> payload = new LinkedHashMap<>();
+		payload.put("id", productId);
+		payload.put("stock", 7);
+		return new ChangeEvent(ChangeEventType.PRODUCT_UPDATED, productId, payload, LocalDateTime.now());
+	}
+
+	private static Product product(String name) {
+		Product product = new Product();
+		product.setName(name);
+		product.setPrice(Money.valueOf("5.00"));
+		product.setStatus(ProductStatus.AVAILABLE);
+		return product;
+	}
+}
@@ -0,0 +1,34 @@
+package es.blanca.jpa.partition;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.YearMonth;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OrderPartitionMaintenanceTest {
+
+	@Test
+	void expiredMonths_shouldOnlyPickMonthsBeforeTheRetentionWindow() {
+		// Arrange
+		List<String> partitions = List.of("orders_y2026m03", "orders_y2024m11", "orders_default",
+				"orders_y2024m12", "orders_y2025m01", "orders_products_y2024m01");
+
+		// Act
+		List<YearMonth> expired = OrderPartitionMaintenance.expiredMonths(partitions, YearMonth.of(2025, 1));
+
+		// Assert
+		assertEquals(List.of(YearMonth.of(2024, 11), YearMonth.of(2024, 12)), expired);
+	}
+
+	@Test
+	void expiredMonths_shouldBeEmpty_whenEverythingIsRetained() {
+		// Act
+		List<YearMonth> expired = OrderPartitionMaintenance.expiredMonths(
+				List.of("orders_y2026m10", "orders_default"), YearMonth.of(2024, 10));
+
+		// Assert
+		assertTrue(expired.isEmpty());
+	}
+}
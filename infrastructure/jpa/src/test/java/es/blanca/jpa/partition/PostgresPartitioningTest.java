@@ -0,0 +1,108 @@
+package es.blanca.jpa.partition;
+
+import es.blanca.jpa.compaction.UserCompaction;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Partitioning only exists on PostgreSQL: run with POSTGRES_TEST_URL pointing at an empty
+// database, archived months stay behind (POSTGRES_TEST_USER and POSTGRES_TEST_PASSWORD
+// default to postgres/postgres).
+// The pool is in manual-commit mode, as in the api module.
+@SpringBootTest(properties = {
+		"spring.datasource.url=${POSTGRES_TEST_URL}",
+		"spring.datasource.username=${POSTGRES_TEST_USER:postgres}",
+		"spring.datasource.password=${POSTGRES_TEST_PASSWORD:postgres}",
+		"spring.flyway.locations=classpath:db/migration,classpath:db/vendor/postgresql",
+		"spring.datasource.hikari.auto-commit=false",
+		"spring.jpa.properties.hibernate.connection.provider_disables_autocommit=true",
+		"orders.partitioning.enabled=true"
+})
+@EnabledIfEnvironmentVariable(named = "POSTGRES_TEST_URL", matches = ".+")
+class PostgresPartitioningTest {
+
+	private static final DateTimeFormatter PARTITION_SUFFIX = DateTimeFormatter.ofPattern("'y'yyyy'm'MM");
+
+	@Autowired
+	private OrderPartitionMaintenance orderPartitionMaintenance;
+
+	@Autowired
+	private OrderPartitionProperties properties;
+
+	@Autowired
+	private UserCompaction userCompaction;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@Autowired
+	private PlatformTransactionManager transactionManager;
+
+	@Test
+	void createAhead_shouldCreateTheMissingPartitions() {
+		// Arrange
+		String suffix = YearMonth.now().plusMonths(properties.getMonthsAhead()).format(PARTITION_SUFFIX);
+		dropPartition("orders_products", "orders_products_" + suffix);
+		dropPartition("orders", "orders_" + suffix);
+
+		// Act
+		orderPartitionMaintenance.createAhead();
+
+		// Assert
+		assertEquals("orders_" + suffix, jdbcTemplate.queryForObject("SELECT to_regclass(?)::TEXT", String.class, "orders_" + suffix));
+		assertEquals("orders_products_" + suffix, jdbcTemplate.queryForObject(
+				"SELECT to_regclass(?)::TEXT", String.class, "orders_products_" + suffix));
+	}
+
+	@Test
+	void compact_shouldArchiveUsersWhoseOrdersAreArchived() {
+		// Arrange
+		String email = "archived-orders-" + UUID.randomUUID() + "@example.com";
+		YearMonth expired = YearMonth.now().minusMonths(properties.getRetentionMonths() + 2L);
+		inTransaction(() -> {
+			jdbcTemplate.queryForList("SELECT create_order_partitions(?)", Date.valueOf(expired.atDay(1)));
+			jdbcTemplate.update("INSERT INTO users (role, full_name, email, password, is_active, deactivated_at) "
+					+ "VALUES ('ROLE_USER', 'Archived Orders', ?, 'hashedPassword', FALSE, ?)",
+					email, Timestamp.valueOf(LocalDateTime.now().minusYears(2)));
+			jdbcTemplate.update("INSERT INTO orders (user_id, status, creation_date) "
+					+ "SELECT id, 'DELIVERED', ? FROM users WHERE email = ?", Timestamp.valueOf(expired.atDay(10).atStartOfDay()), email);
+		});
+		orderPartitionMaintenance.archiveExpired();
+
+		// Act
+		int archived = userCompaction.compact();
+
+		// Assert
+		assertTrue(archived >= 1);
+		assertEquals(0, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM users WHERE email = ?", Integer.class, email));
+		assertEquals(1, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM users_archive WHERE email = ?", Integer.class, email));
+		assertEquals(1, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM order_archive.orders_" + expired.format(PARTITION_SUFFIX)
+				+ " o JOIN users_archive u ON u.id = o.user_id WHERE u.email = ?", Integer.class, email));
+	}
+
+	private void inTransaction(Runnable work) {
+		new TransactionTemplate(transactionManager).executeWithoutResult(status -> work.run());
+	}
+
+	private void dropPartition(String table, String partition) {
+		inTransaction(() -> {
+			if (jdbcTemplate.queryForObject("SELECT to_regclass(?)::TEXT", String.class, partition) != null) {
+				jdbcTemplate.execute("ALTER TABLE " + table + " DETACH PARTITION " + partition);
+				jdbcTemplate.execute("DROP TABLE " + partition);
+			}
+		});
+	}
+}
@@ -0,0 +1,267 @@
+package es.blanca.jpa.view;
+
+import es.blanca.application.OrderServiceImpl;
+import es.blanca.domain.model.Country;
+import es.blanca.domain.model.Money;
+import es.blanca.domain.model.Order;
+import es.blanca.domain.model.OrderProduct;
+import es.blanca.domain.model.OrderStatus;
+import es.blanca.domain.model.Product;
+import es.blanca.domain.model.ProductStatus;
+import es.blanca.domain.model.Role;
+import es.blanca.domain.model.User;
+import es.blanca.jpa.adapter.CountryRepositoryAdapter;
+import es.blanca.jpa.adapter.InventoryRepositoryAdapter;
+import es.blanca.jpa.adapter.OrderRepositoryAdapter;
+import es.blanca.jpa.adapter.OutboxRepositoryAdapter;
+import es.blanca.jpa.adapter.ProductRepositoryAdapter;
+import es.blanca.jpa.adapter.UserRepositoryAdapter;
+import es.blanca.jpa.entity.OrderEntity;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@Transactional
+class OrderViewTest {
+
+	@Autowired
+	private CountryRepositoryAdapter countryRepositoryAdapter;
+
+	@Autowired
+	private UserRepositoryAdapter userRepositoryAdapter;
+
+	@Autowired
+	private ProductRepositoryAdapter productRepositoryAdapter;
+
+	@Autowired
+	private OrderRepositoryAdapter orderRepositoryAdapter;
+
+	@Autowired
+	private InventoryRepositoryAdapter inventoryRepositoryAdapter;
+
+	@Autowired
+	private OutboxRepositoryAdapter outboxRepositoryAdapter;
+
+	@Autowired
+	private OrderViewRebuilder orderViewRebuilder;
+
+	@Autowired
+	private OrderViewRefresher orderViewRefresher;
+
+	@Autowired
+	private OrderViewDao orderViewDao;
+
+	@Autowired
+	private OrderViewRefreshDao orderViewRefreshDao;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@Autowired
+	private EntityManager entityManager;
+
+	private OrderServiceImpl orderService;
+	private User user;
+	private Product keyboard;
+	private Product mouse;
+
+	@BeforeEach
+	void setUp() {
+		orderService = new OrderServiceImpl(orderRepositoryAdapter, userRepositoryAdapter, inventoryRepositoryAdapter, outboxRepositoryAdapter, event -> {});
+		Country country = countryRepositoryAdapter.save(new Country("FR", "France"));
+		User newUser = new User();
+		newUser.setRole(Role.ROLE_USER);
+		newUser.setFullName("View User");
+		newUser.setEmail("view@example.com");
+		newUser.setPassword("hashedPassword");
+		newUser.setCreatedAt(LocalDateTime.now());
+		newUser.setCountry(country);
+		user = userRepositoryAdapter.save(newUser);
+		keyboard = product("Keyboard", "49.90");
+		mouse = product("Mouse", "19.95");
+	}
+
+	@Test
+	void create_shouldWriteTheViewInTheSameTransaction() {
+		// Act
+		Order created = orderService.create(newOrder(line(keyboard, 1), line(mouse, 2)));
+
+		// Assert
+		List<Order> orders = orderRepositoryAdapter.findByUserId(user.getId());
+		assertEquals(1, orders.size());
+		Order listed = orders.get(0);
+		assertEquals(created.getId(), listed.getId());
+		assertEquals(user.getId(), listed.getUser().getId());
+		assertEquals(OrderStatus.PENDING, listed.getStatus());
+		assertEquals(created.getVersion(), listed.getVersion());
+		assertEquals(List.of("Keyboard", "Mouse"), listed.getOrderProducts().stream()
+				.map(orderProduct -> orderProduct.getProduct().getName()).toList());
+		assertEquals(Money.valueOf("89.80"), listed.getTotal());
+		assertEquals(8980L, jdbcTemplate.queryForObject(
+				"SELECT total_minor FROM order_view WHERE order_id = ?", Long.class, created.getId()));
+	}
+
+	@Test
+	void update_shouldRewriteTheRow() {
+		// Arrange
+		Order created = orderService.create(newOrder(line(keyboard, 1)));
+		Order update = new Order();
+		update.setStatus(OrderStatus.COMPLETED);
+
+		// Act
+		orderService.update(created.getId(), update);
+
+		// Assert
+		Order listed = orderRepositoryAdapter.findByUserId(user.getId()).get(0);
+		assertEquals(OrderStatus.COMPLETED, listed.getStatus());
+		assertEquals(orderRepositoryAdapter.findById(created.getId()).orElseThrow().getVersion(), listed.getVersion());
+	}
+
+	@Test
+	void productUpdate_shouldRefreshTheOrdersHoldingIt() {
+		// Arrange
+		orderService.create(newOrder(line(keyboard, 2)));
+		keyboard.setName("Mechanical keyboard");
+		keyboard.setPrice(Money.valueOf("60.00"));
+		productRepositoryAdapter.save(keyboard);
+
+		// Act
+		int done = orderViewRefresher.refreshPending();
+
+		// Assert
+		// with whatever other tests left queued
+		assertTrue(done >= 1);
+		Order listed = orderRepositoryAdapter.findByUserId(user.getId()).get(0);
+		assertEquals("Mechanical keyboard", listed.getOrderProducts().get(0).getProduct().getName());
+		assertEquals(Money.valueOf("120.00"), listed.getTotal());
+		assertEquals(0, pendingRefreshes(keyboard));
+	}
+
+	@Test
+	void productSave_shouldQueueARefreshInsteadOfRewritingTheViews() {
+		// Arrange
+		orderService.create(newOrder(line(keyboard, 1)));
+		keyboard.setName("Mechanical keyboard");
+
+		// Act
+		productRepositoryAdapter.save(keyboard);
+
+		// Assert
+		assertEquals("Keyboard", orderRepositoryAdapter.findByUserId(user.getId()).get(0)
+				.getOrderProducts().get(0).getProduct().getName());
+		assertEquals(1, pendingRefreshes(keyboard));
+	}
+
+	@Test
+	void refreshDelete_shouldKeepARequestAddedAfterTheRead() {
+		// Arrange
+		orderViewRefreshDao.request(keyboard.getId());
+		orderViewRefreshDao.request(keyboard.getId());
+		// other tests can leave requests of their own products
+		OrderViewRefreshDao.Pending pending = orderViewRefreshDao.pending(1000).stream()
+				.filter(request -> request.productId().equals(keyboard.getId()))
+				.findFirst().orElseThrow();
+		orderViewRefreshDao.request(keyboard.getId());
+
+		// Act
+		int deleted = orderViewRefreshDao.delete(pending);
+
+		// Assert
+		assertEquals(2, deleted);
+		assertEquals(1, pendingRefreshes(keyboard));
+	}
+
+	@Test
+	void write_shouldKeepTheRowOfANewerVersion() {
+		// Arrange
+		Order created = orderService.create(newOrder(line(keyboard, 1)));
+		jdbcTemplate.update("UPDATE order_view SET version = version + 1, status = 'COMPLETED' WHERE order_id = ?", created.getId());
+
+		// Act
+		orderViewDao.write(entityManager.find(OrderEntity.class, created.getId()));
+
+		// Assert
+		assertEquals(OrderStatus.COMPLETED, orderRepositoryAdapter.findByUserId(user.getId()).get(0).getStatus());
+	}
+
+	@Test
+	void delete_shouldRemoveTheRow() {
+		// Arrange
+		Order created = orderService.create(newOrder(line(mouse, 1)));
+
+		// Act
+		orderService.delete(created.getId());
+		entityManager.flush();
+
+		// Assert
+		assertTrue(orderRepositoryAdapter.findByUserId(user.getId()).isEmpty());
+	}
+
+	@Test
+	void findByUserIdPage_shouldReadOnlyThatPage() {
+		// Arrange
+		Order first = orderService.create(newOrder(line(keyboard, 1)));
+		Order second = orderService.create(newOrder(line(mouse, 1)));
+		Order third = orderService.create(newOrder(line(keyboard, 2)));
+
+		// Act
+		List<Order> firstPage = orderRepositoryAdapter.findByUserId(user.getId(), 0, 2);
+		List<Order> secondPage = orderRepositoryAdapter.findByUserId(user.getId(), 1, 2);
+
+		// Assert
+		assertEquals(List.of(first.getId(), second.getId()), firstPage.stream().map(Order::getId).toList());
+		assertEquals(List.of(third.getId()), secondPage.stream().map(Order::getId).toList());
+	}
+
+	@Test
+	void rebuild_shouldRestoreMissingRows() {
+		// Arrange
+		Order first = orderService.create(newOrder(line(keyboard, 1)));
+		Order second = orderService.create(newOrder(line(mouse, 3)));
+		jdbcTemplate.update("DELETE FROM order_view");
+
+		// Act
+		long written = orderViewRebuilder.rebuild();
+
+		// Assert
+		assertTrue(written >= 2);
+		assertEquals(List.of(first.getId(), second.getId()), orderRepositoryAdapter.findByUserId(user.getId()).stream()
+				.map(Order::getId).toList());
+		assertEquals(Money.valueOf("59.85"), orderRepositoryAdapter.findByUserId(user.getId()).get(1).getTotal());
+	}
+
+	private int pendingRefreshes(Product product) {
+		return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM order_view_refresh WHERE product_id = ?",
+				Integer.class, product.getId());
+	}
+
+	private Product product(String name, String price) {
+		Product product = new Product();
+		product.setName(name);
+		product.setPrice(Money.valueOf(price));
+		product.setStatus(ProductStatus.AVAILABLE);
+		product.setCreatedAt(LocalDateTime.now());
+		return productRepositoryAdapter.save(product);
+	}
+
+	private Order newOrder(OrderProduct... lines) {
+		Order order = new Order();
+		order.setUser(user);
+		order.setOrderProducts(List.of(lines));
+		return order;
+	}
+
+	private static OrderProduct line(Product product, int amount) {
+		return new OrderProduct(null, product, amount);
+	}
+}
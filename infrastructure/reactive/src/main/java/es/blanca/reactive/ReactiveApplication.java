@@ -0,0 +1,19 @@
+package es.blanca.reactive;
+
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.autoconfigure.SpringBootApplication;
+
+/**
+ * Read-only catalog and order-history API. It serves the same GETs as the api module
+ * from the same database, without a thread per connection: rows are pulled from R2DBC
+ * only as fast as the client reads the response.
+ */
+// es.blanca.web holds the money serializer shared with the api module
+@SpringBootApplication(scanBasePackages = {"es.blanca.reactive", "es.blanca.web"})
+public class ReactiveApplication {
+
+	public static void main(String[] args) {
+		SpringApplication.run(ReactiveApplication.class, args);
+	}
+
+}
@@ -0,0 +1,36 @@
+package es.blanca.reactive.exception;
+
+import es.blanca.domain.exceptions.EntityNotFoundException;
+import es.blanca.domain.exceptions.ForbiddenOperationException;
+import es.blanca.web.exception.CustomError;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+
+import java.time.LocalDate;
+
+// only the read errors of the api module's handler, with the same body
+@RestControllerAdvice
+public class GlobalExceptionHandler {
+
+	private CustomError buildError(String message, HttpStatus status) {
+		return CustomError.builder()
+				.timestamp(LocalDate.now())
+				.httpCode(status.value())
+				.message(message)
+				.build();
+	}
+
+	@ExceptionHandler(EntityNotFoundException.class)
+	public ResponseEntity<CustomError> handleEntityNotFoundException(EntityNotFoundException ex) {
+		CustomError error = buildError(ex.getMessage(), HttpStatus.NOT_FOUND);
+		return new ResponseEntity<>(error, HttpStatus.NOT_FOUND); // 404
+	}
+
+	@ExceptionHandler(ForbiddenOperationException.class)
+	public ResponseEntity<CustomError> handleForbiddenOperationException(ForbiddenOperationException ex) {
+		CustomError error = buildError(ex.getMessage(), HttpStatus.FORBIDDEN);
+		return new ResponseEntity<>(error, HttpStatus.FORBIDDEN); // 403
+	}
+}
@@ -0,0 +1,11 @@
+package es.blanca.reactive.port;
+
+import es.blanca.domain.model.Country;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+// the read side of CountryRepository, non-blocking
+public interface CountryReader {
+	Mono<Country> findById(String code);
+	Flux<Country> findAll();
+}
@@ -0,0 +1,17 @@
+package es.blanca.reactive.port;
+
+import es.blanca.domain.model.Order;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDateTime;
+
+// the read side of OrderRepository, non-blocking
+public interface OrderReader {
+	Mono<Order> findById(Long id);
+	Flux<Order> findAll();
+	Flux<Order> findByUserId(Long userId);
+	// orders created from (inclusive) to (exclusive)
+	Flux<Order> findCreatedBetween(LocalDateTime from, LocalDateTime to);
+	Flux<Order> findByUserIdCreatedBetween(Long userId, LocalDateTime from, LocalDateTime to);
+}
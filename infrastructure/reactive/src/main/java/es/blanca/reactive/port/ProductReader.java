@@ -0,0 +1,15 @@
+package es.blanca.reactive.port;
+
+import es.blanca.domain.model.Money;
+import es.blanca.domain.model.Product;
+import es.blanca.domain.model.ProductStatus;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+// the read side of ProductRepository, non-blocking
+public interface ProductReader {
+	Mono<Product> findById(Long id);
+	Flux<Product> findAll();
+	// null filters are not applied
+	Flux<Product> findWithFilters(String name, Money minPrice, Money maxPrice, ProductStatus status);
+}
@@ -0,0 +1,9 @@
+package es.blanca.reactive.port;
+
+import es.blanca.domain.model.User;
+import reactor.core.publisher.Mono;
+
+// only what authentication needs: id, email and role of an active user
+public interface UserReader {
+	Mono<User> findActiveByEmail(String email);
+}
@@ -0,0 +1,33 @@
+package es.blanca.reactive.r2dbc;
+
+import es.blanca.domain.model.Country;
+import es.blanca.reactive.port.CountryReader;
+import lombok.RequiredArgsConstructor;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+@Repository
+@RequiredArgsConstructor
+public class R2dbcCountryReader implements CountryReader {
+
+	private static final String SELECT = "SELECT code, name FROM countries";
+
+	private final DatabaseClient databaseClient;
+
+	@Override
+	public Mono<Country> findById(String code) {
+		return databaseClient.sql(SELECT + " WHERE code = :code")
+				.bind("code", code)
+				.map((row, metadata) -> new Country(row.get("code", String.class), row.get("name", String.class)))
+				.one();
+	}
+
+	@Override
+	public Flux<Country> findAll() {
+		return databaseClient.sql(SELECT + " ORDER BY code")
+				.map((row, metadata) -> new Country(row.get("code", String.class), row.get("name", String.class)))
+				.all();
+	}
+}
@@ -0,0 +1,120 @@
+package es.blanca.reactive.r2dbc;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import es.blanca.domain.model.Money;
+import es.blanca.domain.model.Order;
+import es.blanca.domain.model.OrderProduct;
+import es.blanca.domain.model.OrderStatus;
+import es.blanca.domain.model.Product;
+import es.blanca.domain.model.User;
+import es.blanca.reactive.port.OrderReader;
+import io.r2dbc.spi.Row;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Orders come from the order_view read model the api module writes with every order,
+ * one row per order with its lines as JSON, so a listing is one range scan.
+ */
+@Repository
+public class R2dbcOrderReader implements OrderReader {
+
+	private static final String SELECT = "SELECT order_id, user_id, status, creation_date, version, order_lines FROM order_view";
+	private static final String FIND_BY_ID = SELECT + " WHERE order_id = :id";
+	private static final String FIND_ALL = SELECT + " ORDER BY order_id";
+	private static final String FIND_BY_USER_ID = SELECT + " WHERE user_id = :userId ORDER BY order_id";
+	private static final String FIND_CREATED_BETWEEN = SELECT
+			+ " WHERE creation_date >= :from AND creation_date < :to ORDER BY order_id";
+	private static final String FIND_BY_USER_ID_CREATED_BETWEEN = SELECT
+			+ " WHERE user_id = :userId AND creation_date >= :from AND creation_date < :to ORDER BY order_id";
+
+	private final DatabaseClient databaseClient;
+	private final ReadProperties readProperties;
+	private final ObjectReader linesReader;
+
+	public R2dbcOrderReader(DatabaseClient databaseClient, ReadProperties readProperties) {
+		this.databaseClient = databaseClient;
+		this.readProperties = readProperties;
+		this.linesReader = new ObjectMapper().readerFor(new TypeReference<List<Line>>() {
+		});
+	}
+
+	@Override
+	public Mono<Order> findById(Long id) {
+		return databaseClient.sql(FIND_BY_ID)
+				.bind("id", id)
+				.map((row, metadata) -> toOrder(row))
+				.one();
+	}
+
+	@Override
+	public Flux<Order> findAll() {
+		return listing(databaseClient.sql(FIND_ALL));
+	}
+
+	@Override
+	public Flux<Order> findByUserId(Long userId) {
+		return listing(databaseClient.sql(FIND_BY_USER_ID).bind("userId", userId));
+	}
+
+	@Override
+	public Flux<Order> findCreatedBetween(LocalDateTime from, LocalDateTime to) {
+		return listing(databaseClient.sql(FIND_CREATED_BETWEEN).bind("from", from).bind("to", to));
+	}
+
+	@Override
+	public Flux<Order> findByUserIdCreatedBetween(Long userId, LocalDateTime from, LocalDateTime to) {
+		return listing(databaseClient.sql(FIND_BY_USER_ID_CREATED_BETWEEN)
+				.bind("userId", userId).bind("from", from).bind("to", to));
+	}
+
+	private Flux<Order> listing(DatabaseClient.GenericExecuteSpec spec) {
+		return spec.filter(statement -> statement.fetchSize(readProperties.getFetchSize()))
+				.map((row, metadata) -> toOrder(row))
+				.all();
+	}
+
+	// the same shape as the api's listings: the user by id, each product by id, name and price
+	private Order toOrder(Row row) {
+		Order order = new Order();
+		order.setId(row.get("order_id", Long.class));
+		User user = new User();
+		user.setId(row.get("user_id", Long.class));
+		order.setUser(user);
+		order.setStatus(OrderStatus.valueOf(row.get("status", String.class)));
+		order.setCreatedAt(row.get("creation_date", LocalDateTime.class));
+		order.setVersion(row.get("version", Long.class));
+		List<Line> lines = deserialize(row.get("order_lines", String.class));
+		List<OrderProduct> orderProducts = new ArrayList<>(lines.size());
+		for (Line line : lines) {
+			Product product = new Product();
+			product.setId(line.productId());
+			product.setName(line.productName());
+			product.setPrice(Money.ofMinor(line.unitPrice()));
+			orderProducts.add(new OrderProduct(order, product, line.amount()));
+		}
+		order.setOrderProducts(orderProducts);
+		return order;
+	}
+
+	private List<Line> deserialize(String linesJson) {
+		try {
+			return linesReader.readValue(linesJson);
+		} catch (JsonProcessingException e) {
+			throw new IllegalStateException("Could not read order lines " + linesJson, e);
+		}
+	}
+
+	// as written by the jpa module's OrderViewDao
+	record Line(Long productId, String productName, long unitPrice, int amount) {
+	}
+}
@@ -0,0 +1,82 @@
+package es.blanca.reactive.r2dbc;
+
+import es.blanca.domain.model.Money;
+import es.blanca.domain.model.Product;
+import es.blanca.domain.model.ProductStatus;
+import es.blanca.reactive.port.ProductReader;
+import io.r2dbc.spi.Row;
+import lombok.RequiredArgsConstructor;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+@Repository
+@RequiredArgsConstructor
+public class R2dbcProductReader implements ProductReader {
+
+	private static final String SELECT = "SELECT id, name, price_minor, product_status, stock, creation_date, version FROM products";
+
+	private final DatabaseClient databaseClient;
+	private final ReadProperties readProperties;
+
+	@Override
+	public Mono<Product> findById(Long id) {
+		return databaseClient.sql(SELECT + " WHERE id = :id")
+				.bind("id", id)
+				.map((row, metadata) -> toProduct(row))
+				.one();
+	}
+
+	@Override
+	public Flux<Product> findAll() {
+		return findWithFilters(null, null, null, null);
+	}
+
+	@Override
+	public Flux<Product> findWithFilters(String name, Money minPrice, Money maxPrice, ProductStatus status) {
+		List<String> predicates = new ArrayList<>();
+		Map<String, Object> parameters = new LinkedHashMap<>();
+		if (name != null && !name.isEmpty()) {
+			predicates.add("LOWER(name) LIKE :name");
+			parameters.put("name", "%" + name.toLowerCase() + "%");
+		}
+		if (minPrice != null) {
+			predicates.add("price_minor >= :minPrice");
+			parameters.put("minPrice", minPrice.minorUnits());
+		}
+		if (maxPrice != null) {
+			predicates.add("price_minor <= :maxPrice");
+			parameters.put("maxPrice", maxPrice.minorUnits());
+		}
+		if (status != null) {
+			predicates.add("product_status = :status");
+			parameters.put("status", status.name());
+		}
+		String sql = SELECT + (predicates.isEmpty() ? "" : " WHERE " + String.join(" AND ", predicates)) + " ORDER BY id";
+
+		DatabaseClient.GenericExecuteSpec spec = databaseClient.sql(sql)
+				.filter(statement -> statement.fetchSize(readProperties.getFetchSize()));
+		for (Map.Entry<String, Object> parameter : parameters.entrySet()) {
+			spec = spec.bind(parameter.getKey(), parameter.getValue());
+		}
+		return spec.map((row, metadata) -> toProduct(row)).all();
+	}
+
+	private static Product toProduct(Row row) {
+		return new Product(
+				row.get("id", Long.class),
+				row.get("name", String.class),
+				Money.ofMinor(row.get("price_minor", Long.class)),
+				ProductStatus.valueOf(row.get("product_status", String.class)),
+				row.get("stock", Integer.class),
+				row.get("creation_date", LocalDateTime.class),
+				row.get("version", Long.class));
+	}
+}
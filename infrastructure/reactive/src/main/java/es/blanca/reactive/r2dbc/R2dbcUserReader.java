@@ -0,0 +1,34 @@
+package es.blanca.reactive.r2dbc;
+
+import es.blanca.domain.model.Role;
+import es.blanca.domain.model.User;
+import es.blanca.reactive.port.UserReader;
+import lombok.RequiredArgsConstructor;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Mono;
+
+@Repository
+@RequiredArgsConstructor
+public class R2dbcUserReader implements UserReader {
+
+	// the same lookup as the api's login, served by idx_users_active_email on PostgreSQL
+	private static final String FIND_ACTIVE_BY_EMAIL = "SELECT id, email, role FROM users WHERE email = :email AND is_active = true";
+
+	private final DatabaseClient databaseClient;
+
+	@Override
+	public Mono<User> findActiveByEmail(String email) {
+		return databaseClient.sql(FIND_ACTIVE_BY_EMAIL)
+				.bind("email", email)
+				.map((row, metadata) -> {
+					User user = new User();
+					user.setId(row.get("id", Long.class));
+					user.setEmail(row.get("email", String.class));
+					user.setRole(Role.valueOf(row.get("role", String.class)));
+					user.setActive(true);
+					return user;
+				})
+				.one();
+	}
+}
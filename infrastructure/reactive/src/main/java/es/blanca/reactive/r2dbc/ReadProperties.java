@@ -0,0 +1,17 @@
+package es.blanca.reactive.r2dbc;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Getter
+@Setter
+@Component
+@ConfigurationProperties(prefix = "reactive.read")
+public class ReadProperties {
+
+	// rows PostgreSQL sends per round trip; the next batch is only requested once the
+	// client has consumed this one, so a slow reader never buffers a whole listing
+	private int fetchSize = 256;
+}
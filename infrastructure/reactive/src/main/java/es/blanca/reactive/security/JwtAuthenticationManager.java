@@ -0,0 +1,56 @@
+package es.blanca.reactive.security;
+
+import es.blanca.reactive.port.UserReader;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.authentication.ReactiveAuthenticationManager;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import javax.crypto.SecretKey;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+/**
+ * Accepts the tokens issued by the api module's /auth/login. As there, the token only
+ * names the user: role and active flag are read from the users table on every request.
+ */
+@Slf4j
+@Component
+public class JwtAuthenticationManager implements ReactiveAuthenticationManager {
+
+	private final SecretKey key;
+	private final UserReader userReader;
+
+	public JwtAuthenticationManager(@Value("${jwt.secret}") String jwtSecret, UserReader userReader) {
+		this.key = Keys.hmacShaKeyFor(jwtSecret.getBytes(StandardCharsets.UTF_8));
+		this.userReader = userReader;
+	}
+
+	@Override
+	public Mono<Authentication> authenticate(Authentication authentication) {
+		String email;
+		try {
+			email = Jwts.parserBuilder()
+					.setSigningKey(key)
+					.build()
+					.parseClaimsJws((String) authentication.getCredentials())
+					.getBody()
+					.getSubject();
+		} catch (JwtException | IllegalArgumentException ex) {
+			log.debug("Rejected JWT: {}", ex.getMessage());
+			return Mono.error(new BadCredentialsException("Invalid JWT token"));
+		}
+		return userReader.findActiveByEmail(email)
+				.switchIfEmpty(Mono.error(new BadCredentialsException("Unknown or inactive user")))
+				.map(user -> new UsernamePasswordAuthenticationToken(user, null,
+						List.of(new SimpleGrantedAuthority(user.getRole().name()))));
+	}
+}
@@ -0,0 +1,43 @@
+package es.blanca.reactive.web;
+
+import es.blanca.domain.exceptions.EntityNotFoundException;
+import es.blanca.reactive.port.CountryReader;
+import es.blanca.reactive.web.mapper.ReadApiMapper;
+import es.blanca.web.dto.CountryOutputDto;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.MediaType;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import static es.blanca.reactive.web.ReadConstants.COUNTRY_NOT_FOUND_BY_CODE;
+
+@Slf4j
+@RestController
+@RequestMapping(value = "/countries", produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+@RequiredArgsConstructor
+public class CountryReadController {
+
+	private final CountryReader countryReader;
+	private final ReadApiMapper readApiMapper;
+
+	@GetMapping
+	@PreAuthorize("hasAnyRole('ADMIN', 'USER')")
+	public Flux<CountryOutputDto> getAllCountries() {
+		log.info("Request to fetch all countries.");
+		return countryReader.findAll().map(readApiMapper::toOutputDto);
+	}
+
+	@GetMapping("/{id}")
+	@PreAuthorize("hasAnyRole('ADMIN', 'USER')")
+	public Mono<CountryOutputDto> getCountryById(@PathVariable String id) {
+		return countryReader.findById(id)
+				.switchIfEmpty(Mono.error(() -> new EntityNotFoundException(String.format(COUNTRY_NOT_FOUND_BY_CODE, id))))
+				.map(readApiMapper::toOutputDto);
+	}
+}
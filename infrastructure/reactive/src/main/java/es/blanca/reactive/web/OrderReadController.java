@@ -0,0 +1,84 @@
+package es.blanca.reactive.web;
+
+import es.blanca.domain.exceptions.EntityNotFoundException;
+import es.blanca.domain.exceptions.ForbiddenOperationException;
+import es.blanca.domain.model.Order;
+import es.blanca.domain.model.Role;
+import es.blanca.domain.model.User;
+import es.blanca.reactive.port.OrderReader;
+import es.blanca.reactive.web.mapper.ReadApiMapper;
+import es.blanca.web.dto.OrderOutputDto;
+import es.blanca.web.etag.EntityTags;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDateTime;
+
+import static es.blanca.reactive.web.ReadConstants.ORDER_NOT_FOUND_BY_ID;
+
+@Slf4j
+@RestController
+@RequestMapping(value = "/orders", produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+@RequiredArgsConstructor
+public class OrderReadController {
+
+	private final OrderReader orderReader;
+	private final ReadApiMapper readApiMapper;
+
+	// open ends of a creation date range given with only one of from and to
+	private static final LocalDateTime NO_LOWER_BOUND = LocalDateTime.of(1970, 1, 1, 0, 0);
+	private static final LocalDateTime NO_UPPER_BOUND = LocalDateTime.of(9999, 12, 31, 0, 0);
+
+	@GetMapping
+	@PreAuthorize("hasAnyRole('ADMIN', 'USER')")
+	public Flux<OrderOutputDto> getAllOrders(
+			@AuthenticationPrincipal User currentUser,
+			@RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+			@RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
+		boolean ranged = from != null || to != null;
+		LocalDateTime rangeFrom = from != null ? from : NO_LOWER_BOUND;
+		LocalDateTime rangeTo = to != null ? to : NO_UPPER_BOUND;
+		Flux<Order> orders;
+
+		// a USER only sees their own orders, an ADMIN sees all of them
+		if (currentUser.getRole() == Role.ROLE_USER) {
+			log.info("Fetching orders for user: {}", currentUser.getId());
+			orders = ranged
+					? orderReader.findByUserIdCreatedBetween(currentUser.getId(), rangeFrom, rangeTo)
+					: orderReader.findByUserId(currentUser.getId());
+		} else {
+			log.info("Fetching all orders (admin)");
+			orders = ranged ? orderReader.findCreatedBetween(rangeFrom, rangeTo) : orderReader.findAll();
+		}
+		return orders.map(readApiMapper::toOutputDto);
+	}
+
+	@GetMapping("/{id}")
+	@PreAuthorize("hasAnyRole('ADMIN', 'USER')")
+	public Mono<ResponseEntity<OrderOutputDto>> getOrderById(@AuthenticationPrincipal User currentUser, @PathVariable Long id) {
+		log.info("Fetching order with id: {}", id);
+		return orderReader.findById(id)
+				.switchIfEmpty(Mono.error(() -> new EntityNotFoundException(String.format(ORDER_NOT_FOUND_BY_ID, id))))
+				.flatMap(order -> {
+					if (currentUser.getRole() == Role.ROLE_USER && !order.getUser().getId().equals(currentUser.getId())) {
+						log.warn("User {} attempted to access order from another user", currentUser.getEmail());
+						return Mono.error(new ForbiddenOperationException("You can only view your own orders"));
+					}
+					return Mono.just(ResponseEntity.ok()
+							.eTag(EntityTags.of(order.getVersion()))
+							.body(readApiMapper.toOutputDto(order)));
+				});
+	}
+}
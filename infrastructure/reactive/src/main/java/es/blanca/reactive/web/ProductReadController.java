@@ -0,0 +1,54 @@
+package es.blanca.reactive.web;
+
+import es.blanca.domain.exceptions.EntityNotFoundException;
+import es.blanca.domain.model.Money;
+import es.blanca.domain.model.ProductStatus;
+import es.blanca.reactive.port.ProductReader;
+import es.blanca.reactive.web.mapper.ReadApiMapper;
+import es.blanca.web.dto.ProductOutputDto;
+import es.blanca.web.etag.EntityTags;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import static es.blanca.reactive.web.ReadConstants.PRODUCT_NOT_FOUND_BY_ID;
+
+@Slf4j
+@RestController
+@RequestMapping(value = "/products", produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+@RequiredArgsConstructor
+public class ProductReadController {
+
+	private final ProductReader productReader;
+	private final ReadApiMapper readApiMapper;
+
+	@GetMapping
+	@PreAuthorize("hasAnyRole('ADMIN', 'USER')")
+	public Flux<ProductOutputDto> findProducts(
+			@RequestParam(required = false) String name,
+			@RequestParam(required = false) Money minPrice,
+			@RequestParam(required = false) Money maxPrice,
+			@RequestParam(required = false) ProductStatus status) {
+		log.info("Searching for products with filters");
+		return productReader.findWithFilters(name, minPrice, maxPrice, status).map(readApiMapper::toOutputDto);
+	}
+
+	@GetMapping("/{id}")
+	@PreAuthorize("hasAnyRole('ADMIN', 'USER')")
+	public Mono<ResponseEntity<ProductOutputDto>> getProductById(@PathVariable Long id) {
+		return productReader.findById(id)
+				.switchIfEmpty(Mono.error(() -> new EntityNotFoundException(String.format(PRODUCT_NOT_FOUND_BY_ID, id))))
+				.map(product -> ResponseEntity.ok()
+						.eTag(EntityTags.of(product.getVersion()))
+						.body(readApiMapper.toOutputDto(product)));
+	}
+}
@@ -0,0 +1,11 @@
+package es.blanca.reactive.web;
+
+// same messages as the application module's ApplicationConstants
+public final class ReadConstants {
+
+	public static final String COUNTRY_NOT_FOUND_BY_CODE = "Country with code %s not found";
+	public static final String ORDER_NOT_FOUND_BY_ID = "Order with id %s not found";
+	public static final String PRODUCT_NOT_FOUND_BY_ID = "Product with id: %s not found";
+
+	private ReadConstants() {}
+}
@@ -0,0 +1,26 @@
+package es.blanca.reactive.web.mapper;
+
+import es.blanca.domain.model.Country;
+import es.blanca.domain.model.Order;
+import es.blanca.domain.model.OrderProduct;
+import es.blanca.domain.model.Product;
+import es.blanca.web.dto.CountryOutputDto;
+import es.blanca.web.dto.OrderOutputDto;
+import es.blanca.web.dto.ProductOutputDto;
+import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
+
+// the output side of the api module's mappers, so both APIs return the same JSON
+@Mapper(componentModel = "spring")
+public interface ReadApiMapper {
+	ProductOutputDto toOutputDto(Product product);
+
+	CountryOutputDto toOutputDto(Country country);
+
+	@Mapping(source = "user.id", target = "userId")
+	OrderOutputDto toOutputDto(Order order);
+
+	@Mapping(source = "product.id", target = "productId")
+	@Mapping(source = "product.name", target = "productName")
+	OrderOutputDto.OrderProductOutputDto toOrderProductOutputDto(OrderProduct orderProduct);
+}
@@ -0,0 +1,211 @@
+package es.blanca.reactive;
+
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.security.Keys;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.autoconfigure.web.reactive.AutoConfigureWebTestClient;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import reactor.core.publisher.Flux;
+import reactor.test.StepVerifier;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Date;
+
+@SpringBootTest
+@AutoConfigureWebTestClient
+@ActiveProfiles("test")
+class ReactiveReadApiTest {
+
+	private static final String ORDER_LINES = "[{\"productId\":1,\"productName\":\"Keyboard\",\"unitPrice\":4990,\"amount\":2}]";
+
+	@Autowired
+	private WebTestClient webTestClient;
+
+	@Autowired
+	private DatabaseClient databaseClient;
+
+	@Value("${jwt.secret}")
+	private String jwtSecret;
+
+	@BeforeEach
+	void setUp() {
+		Flux.concat(
+				execute("DELETE FROM order_view"),
+				execute("DELETE FROM orders_products"),
+				execute("DELETE FROM orders"),
+				execute("DELETE FROM products"),
+				execute("DELETE FROM users"),
+				execute("DELETE FROM countries"),
+				execute("INSERT INTO countries (code, name) VALUES ('ES', 'Spain'), ('PT', 'Portugal')"),
+				execute("INSERT INTO users (id, role, full_name, email, password, is_active) VALUES "
+						+ "(1, 'ROLE_USER', 'Ana', 'ana@example.com', 'x', true), "
+						+ "(2, 'ROLE_USER', 'Luis', 'luis@example.com', 'x', true), "
+						+ "(3, 'ROLE_ADMIN', 'Admin', 'admin@example.com', 'x', true), "
+						+ "(4, 'ROLE_USER', 'Gone', 'gone@example.com', 'x', false)"),
+				execute("INSERT INTO products (id, name, price_minor, product_status, stock, version) VALUES "
+						+ "(1, 'Keyboard', 4990, 'AVAILABLE', 10, 3), "
+						+ "(2, 'Mouse', 1990, 'AVAILABLE', null, 0), "
+						+ "(3, 'Monitor', 19990, 'DISCONTINUED', 0, 0)"),
+				execute("INSERT INTO orders (id, user_id, status, creation_date) VALUES "
+						+ "(10, 1, 'PENDING', TIMESTAMP '2024-01-15 10:00:00'), "
+						+ "(11, 2, 'PENDING', TIMESTAMP '2024-03-15 10:00:00')"),
+				execute("INSERT INTO order_view (order_id, user_id, status, creation_date, version, total_minor, order_lines) VALUES "
+						+ "(10, 1, 'PENDING', TIMESTAMP '2024-01-15 10:00:00', 0, 9980, '" + ORDER_LINES + "'), "
+						+ "(11, 2, 'PENDING', TIMESTAMP '2024-03-15 10:00:00', 1, 9980, '" + ORDER_LINES + "')"))
+				.then()
+				.block();
+	}
+
+	@Test
+	void getProducts_withoutToken_shouldReturn401() {
+		webTestClient.get().uri("/products")
+				.exchange()
+				.expectStatus().isUnauthorized();
+	}
+
+	@Test
+	void getProducts_withTokenOfInactiveUser_shouldReturn401() {
+		webTestClient.get().uri("/products")
+				.header(HttpHeaders.AUTHORIZATION, bearer("gone@example.com"))
+				.exchange()
+				.expectStatus().isUnauthorized();
+	}
+
+	@Test
+	void getProducts_withFilters_shouldReturnMatchingProducts() {
+		webTestClient.get().uri("/products?minPrice=20.00&status=AVAILABLE")
+				.header(HttpHeaders.AUTHORIZATION, bearer("ana@example.com"))
+				.exchange()
+				.expectStatus().isOk()
+				.expectBody()
+				.jsonPath("$.length()").isEqualTo(1)
+				.jsonPath("$[0].name").isEqualTo("Keyboard")
+				.jsonPath("$[0].price").isEqualTo(49.90)
+				.jsonPath("$[0].stock").isEqualTo(10);
+	}
+
+	@Test
+	void getProducts_asNdjson_shouldStreamOneProductPerLine() {
+		Flux<String> lines = webTestClient.get().uri("/products")
+				.header(HttpHeaders.AUTHORIZATION, bearer("ana@example.com"))
+				.accept(MediaType.APPLICATION_NDJSON)
+				.exchange()
+				.expectStatus().isOk()
+				.returnResult(String.class)
+				.getResponseBody();
+
+		StepVerifier.create(lines)
+				.expectNextMatches(line -> line.contains("\"name\":\"Keyboard\""))
+				.expectNextMatches(line -> line.contains("\"name\":\"Mouse\""))
+				.expectNextMatches(line -> line.contains("\"name\":\"Monitor\""))
+				.verifyComplete();
+	}
+
+	@Test
+	void getProductById_shouldReturnProductWithEntityTag() {
+		webTestClient.get().uri("/products/1")
+				.header(HttpHeaders.AUTHORIZATION, bearer("ana@example.com"))
+				.exchange()
+				.expectStatus().isOk()
+				.expectHeader().valueEquals(HttpHeaders.ETAG, "\"3\"")
+				.expectBody()
+				.jsonPath("$.name").isEqualTo("Keyboard");
+	}
+
+	@Test
+	void getProductById_whenMissing_shouldReturn404() {
+		webTestClient.get().uri("/products/99")
+				.header(HttpHeaders.AUTHORIZATION, bearer("ana@example.com"))
+				.exchange()
+				.expectStatus().isNotFound()
+				.expectBody()
+				.jsonPath("$.httpCode").isEqualTo(404)
+				.jsonPath("$.message").isEqualTo("Product with id: 99 not found");
+	}
+
+	@Test
+	void getOrders_asUser_shouldOnlyReturnOwnOrders() {
+		webTestClient.get().uri("/orders")
+				.header(HttpHeaders.AUTHORIZATION, bearer("ana@example.com"))
+				.exchange()
+				.expectStatus().isOk()
+				.expectBody()
+				.jsonPath("$.length()").isEqualTo(1)
+				.jsonPath("$[0].id").isEqualTo(10)
+				.jsonPath("$[0].userId").isEqualTo(1)
+				.jsonPath("$[0].orderProducts[0].productName").isEqualTo("Keyboard")
+				.jsonPath("$[0].orderProducts[0].amount").isEqualTo(2);
+	}
+
+	@Test
+	void getOrders_asAdminWithRange_shouldReturnOrdersCreatedInRange() {
+		webTestClient.get().uri("/orders?from=2024-03-01T00:00:00")
+				.header(HttpHeaders.AUTHORIZATION, bearer("admin@example.com"))
+				.exchange()
+				.expectStatus().isOk()
+				.expectBody()
+				.jsonPath("$.length()").isEqualTo(1)
+				.jsonPath("$[0].id").isEqualTo(11);
+	}
+
+	@Test
+	void getOrderById_ofAnotherUser_shouldReturn403() {
+		webTestClient.get().uri("/orders/11")
+				.header(HttpHeaders.AUTHORIZATION, bearer("ana@example.com"))
+				.exchange()
+				.expectStatus().isForbidden();
+	}
+
+	@Test
+	void getOrderById_asAdmin_shouldReturnOrderWithEntityTag() {
+		webTestClient.get().uri("/orders/11")
+				.header(HttpHeaders.AUTHORIZATION, bearer("admin@example.com"))
+				.exchange()
+				.expectStatus().isOk()
+				.expectHeader().valueEquals(HttpHeaders.ETAG, "\"1\"")
+				.expectBody()
+				.jsonPath("$.userId").isEqualTo(2);
+	}
+
+	@Test
+	void getCountries_shouldReturnAllCountries() {
+		webTestClient.get().uri("/countries")
+				.header(HttpHeaders.AUTHORIZATION, bearer("ana@example.com"))
+				.exchange()
+				.expectStatus().isOk()
+				.expectBody()
+				.jsonPath("$.length()").isEqualTo(2);
+	}
+
+	@Test
+	void getCountryById_whenMissing_shouldReturn404() {
+		webTestClient.get().uri("/countries/FR")
+				.header(HttpHeaders.AUTHORIZATION, bearer("ana@example.com"))
+				.exchange()
+				.expectStatus().isNotFound();
+	}
+
+	private Flux<Long> execute(String sql) {
+		return databaseClient.sql(sql).fetch().rowsUpdated().flux();
+	}
+
+	// what the api module's JwtTokenProvider issues on login
+	private String bearer(String email) {
+		String token = Jwts.builder()
+				.setSubject(email)
+				.setIssuedAt(new Date())
+				.setExpiration(new Date(System.currentTimeMillis() + 60_000))
+				.signWith(Keys.hmacShaKeyFor(jwtSecret.getBytes(StandardCharsets.UTF_8)), SignatureAlgorithm.HS512)
+				.compact();
+		return "Bearer " + token;
+	}
+}
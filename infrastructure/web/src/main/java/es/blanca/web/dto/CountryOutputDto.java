@@ -1,4 +1,4 @@
-package es.blanca.api.dto.output;
+package es.blanca.web.dto;
 
 import lombok.Data;
 
@@ -1,5 +1,6 @@
-package es.blanca.api.dto.output;
+package es.blanca.web.dto;
 
+import es.blanca.domain.model.Money;
 import es.blanca.domain.model.OrderStatus;
 import lombok.Data;
 
@@ -13,6 +14,8 @@ public class OrderOutputDto {
 	private OrderStatus status;
 	private LocalDateTime createdAt;
 	private List<OrderProductOutputDto> orderProducts;
+	private Money total;
+	private Long version;
 
 	@Data
 	public static class OrderProductOutputDto {
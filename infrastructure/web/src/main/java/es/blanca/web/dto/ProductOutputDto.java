@@ -1,5 +1,6 @@
-package es.blanca.api.dto.output;
+package es.blanca.web.dto;
 
+import es.blanca.domain.model.Money;
 import es.blanca.domain.model.ProductStatus;
 import lombok.Data;
 
@@ -10,7 +11,9 @@ import java.time.LocalDateTime;
 public class ProductOutputDto {
 	private Long id;
 	private String name;
-	private Double price;
+	private Money price;
 	private ProductStatus status;
+	private Integer stock;
 	private LocalDateTime createdAt;
+	private Long version;
 }
@@ -0,0 +1,126 @@
+package es.blanca.web.etag;
+
+import es.blanca.domain.exceptions.VersionConflictException;
+import es.blanca.domain.model.Fnv1a;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+/**
+ * Entity tags built from the entity's version column: {@code "3"} is version 3.
+ * A PUT with {@code If-Match} is applied only if the entity is still at that version.
+ * <p>
+ * Representations that show more than the versioned columns add it to the tag
+ * ({@code "3-40"} is version 3 with 40 units in stock), and ones without a version are
+ * tagged with a checksum of what they show. A GET whose {@code If-None-Match} holds
+ * the current tag gets a 304 without a body.
+ * <p>
+ * Other encodings of the same representation are told apart by a suffix, {@code "3-cbor"}
+ * or {@code "3-gzip"}, so every tag stays strong. Controllers only build the plain tag,
+ * the suffixes are added on the way out (FormatEntityTagAdvice, ResponseCompressionFilter).
+ */
+public final class EntityTags {
+
+	// added to the tag of a gzipped body, see ResponseCompressionFilter
+	public static final String GZIP_SUFFIX = "-gzip";
+	// added to the tag of a CBOR or Smile body, see FormatEntityTagAdvice
+	public static final String CBOR_SUFFIX = "-cbor";
+	public static final String SMILE_SUFFIX = "-smile";
+
+	private EntityTags() {}
+
+	public static String of(Long version) {
+		return version != null ? "\"" + version + "\"" : null;
+	}
+
+	// stock changes do not bump the version, but they do change the representation
+	public static String of(Long version, Integer stock) {
+		if (version == null || stock == null) {
+			return of(version);
+		}
+		return "\"" + version + "-" + stock + "\"";
+	}
+
+	public static String ofRevision(long revision) {
+		return "\"" + Long.toHexString(revision) + "\"";
+	}
+
+	// checksum of the fields in order, a null field does not hash like an empty one
+	public static String ofFields(Iterable<?> fields) {
+		long hash = Fnv1a.OFFSET_BASIS;
+		for (Object field : fields) {
+			String value = field != null ? field.toString() : null;
+			hash = Fnv1a.fold(hash, value != null ? value.length() : -1);
+			if (value != null) {
+				for (int i = 0; i < value.length(); i++) {
+					hash = Fnv1a.fold(hash, value.charAt(i));
+				}
+			}
+		}
+		return ofRevision(hash);
+	}
+
+	/**
+	 * The version an {@code If-Match} header asks for, or null when there is no header
+	 * or it is {@code *} (any current version). Anything that cannot match one of our
+	 * tags (weak or foreign tags, several tags) fails the precondition. The stock part
+	 * of a product tag and the suffix of a gzipped one are ignored: reservations never
+	 * conflict with an edit.
+	 */
+	public static Long expectedVersion(String ifMatch) {
+		if (ifMatch == null || ifMatch.isBlank()) {
+			return null;
+		}
+		String tag = ifMatch.trim();
+		if (tag.equals("*")) {
+			return null;
+		}
+		if (tag.length() > 2 && tag.startsWith("\"") && tag.endsWith("\"")) {
+			String value = tag.substring(1, tag.length() - 1);
+			int stock = value.indexOf('-');
+			try {
+				return Long.parseLong(stock > 0 ? value.substring(0, stock) : value);
+			} catch (NumberFormatException ignored) {
+				// not one of ours, fall through
+			}
+		}
+		throw new VersionConflictException("If-Match " + ifMatch + " does not match the current entity tag");
+	}
+
+	/**
+	 * Whether an {@code If-None-Match} header lists the tag. GETs compare weakly, so a
+	 * {@code W/} prefix a proxy may have added is ignored, and so are the suffixes of the
+	 * tag a gzipped or binary copy was sent with: the Accept headers of a revalidation
+	 * are the ones the copy was fetched with ({@code Vary}).
+	 */
+	public static boolean matches(String ifNoneMatch, String tag) {
+		if (ifNoneMatch == null || tag == null) {
+			return false;
+		}
+		for (String candidate : ifNoneMatch.split(",")) {
+			String value = candidate.trim();
+			if (value.startsWith("W/")) {
+				value = value.substring(2);
+			}
+			value = withoutSuffix(value, GZIP_SUFFIX);
+			value = withoutSuffix(withoutSuffix(value, CBOR_SUFFIX), SMILE_SUFFIX);
+			if (value.equals("*") || value.equals(tag)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	// the tag with the suffix before its closing quote
+	public static String withSuffix(String tag, String suffix) {
+		return tag.substring(0, tag.length() - 1) + suffix + "\"";
+	}
+
+	private static String withoutSuffix(String tag, String suffix) {
+		return tag.endsWith(suffix + "\"") ? tag.substring(0, tag.length() - suffix.length() - 1) + "\"" : tag;
+	}
+
+	public static <T> ResponseEntity<T> notModified(String tag, CacheControl cacheControl) {
+		return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(tag).cacheControl(cacheControl).build();
+	}
+}
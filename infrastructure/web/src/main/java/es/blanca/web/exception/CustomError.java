@@ -1,4 +1,4 @@
-package es.blanca.api.exception;
+package es.blanca.web.exception;
 
 import lombok.*;
 
@@ -0,0 +1,43 @@
+package es.blanca.web.json;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.JsonDeserializer;
+import com.fasterxml.jackson.databind.JsonSerializer;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import es.blanca.domain.model.Money;
+import org.springframework.boot.jackson.JsonComponent;
+
+import java.io.IOException;
+
+/**
+ * Money is a plain JSON number ({@code 12.30}). Both directions go through the number's
+ * text, so no double or BigDecimal is created along the way.
+ */
+@JsonComponent
+public class MoneyJsonComponent {
+
+	public static class Serializer extends JsonSerializer<Money> {
+		@Override
+		public void serialize(Money money, JsonGenerator generator, SerializerProvider provider) throws IOException {
+			generator.writeNumber(money.toString());
+		}
+	}
+
+	public static class Deserializer extends JsonDeserializer<Money> {
+		@Override
+		public Money deserialize(JsonParser parser, DeserializationContext context) throws IOException {
+			JsonToken token = parser.currentToken();
+			if (token != JsonToken.VALUE_NUMBER_INT && token != JsonToken.VALUE_NUMBER_FLOAT && token != JsonToken.VALUE_STRING) {
+				return (Money) context.handleUnexpectedToken(Money.class, parser);
+			}
+			try {
+				return Money.valueOf(parser.getText().trim());
+			} catch (IllegalArgumentException | ArithmeticException e) {
+				return (Money) context.handleWeirdStringValue(Money.class, parser.getText(), e.getMessage());
+			}
+		}
+	}
+}